@@ -268,7 +268,7 @@ public abstract class LinearTimeInvariantSystem {
      * @return The default response times.
      */
     protected static double[] generateDefaultResponseTimes(MatrixDense A, int numberOfPoints) {
-        EigenvalueDecompositionDense eig = A.eig();
+        EigenvalueDecompositionDense eig = new EigenvalueDecompositionDense(A, true, false);
         double[] realEig = eig.getRealEigenvalues();
         for (int i = 0; i < realEig.length; ++i) {
             realEig[i] = Math.abs(realEig[i]);
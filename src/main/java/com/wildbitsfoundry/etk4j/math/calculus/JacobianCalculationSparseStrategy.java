@@ -0,0 +1,217 @@
+package com.wildbitsfoundry.etk4j.math.calculus;
+
+import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixSparse;
+
+import java.util.Arrays;
+
+/**
+ * Finite difference Jacobian for systems with a known sparsity pattern. The columns of the pattern are grouped using
+ * the Curtis-Powell-Reid (CPR) scheme so that columns that do not share any row are perturbed at the same time. Each
+ * group is differentiated with a 5 point centered stencil, so the cost of the Jacobian is {@code 4 * groups} function
+ * evaluations instead of {@code 4 * n}. For a banded Jacobian the number of groups is equal to the bandwidth
+ * regardless of the number of variables.
+ */
+public class JacobianCalculationSparseStrategy implements JacobianCalculationStrategy {
+
+    private final MatrixSparse pattern;
+    private final int[] columnGroup;
+    private final int numberOfGroups;
+    // Columns belonging to each group. Group g spans groupColumns[groupIdx[g]] to groupColumns[groupIdx[g + 1] - 1].
+    private final int[] groupIdx;
+    private final int[] groupColumns;
+    // Rows touched by each group. Group g spans groupRows[groupRowIdx[g]] to groupRows[groupRowIdx[g + 1] - 1].
+    private final int[] groupRowIdx;
+    private final int[] groupRows;
+
+    private final double[] xSaved;
+    private final double[] a;
+    private final double[] b;
+    private final double[] c;
+    private final double[] d;
+
+    /**
+     * Creates a sparse Jacobian strategy.
+     * @param sparsityPattern Matrix of size {@code equations x variables} whose non-zero structure marks the entries
+     *                        of the Jacobian that can be different from zero. The values are ignored.
+     */
+    public JacobianCalculationSparseStrategy(MatrixSparse sparsityPattern) {
+        this.pattern = copyStructure(sparsityPattern);
+        final int m = pattern.getRowCount();
+        final int n = pattern.getColumnCount();
+
+        // Row structure of the pattern, needed to find the columns that share a row with a given column.
+        MatrixSparse patternT = pattern.transpose();
+
+        // Greedy CPR grouping. A column can join a group only if none of the columns already in the group has a
+        // non-zero in the same row.
+        columnGroup = new int[n];
+        int[] forbidden = new int[n];
+        Arrays.fill(forbidden, -1);
+        int groups = 0;
+        for (int j = 0; j < n; j++) {
+            for (int p = pattern.col_idx[j]; p < pattern.col_idx[j + 1]; p++) {
+                int row = pattern.nz_rows[p];
+                for (int q = patternT.col_idx[row]; q < patternT.col_idx[row + 1]; q++) {
+                    int k = patternT.nz_rows[q];
+                    if (k < j) {
+                        forbidden[columnGroup[k]] = j;
+                    }
+                }
+            }
+            int g = 0;
+            while (g < groups && forbidden[g] == j) {
+                g++;
+            }
+            columnGroup[j] = g;
+            if (g == groups) {
+                groups++;
+            }
+        }
+        numberOfGroups = groups;
+
+        groupIdx = new int[groups + 1];
+        for (int j = 0; j < n; j++) {
+            groupIdx[columnGroup[j] + 1]++;
+        }
+        for (int g = 0; g < groups; g++) {
+            groupIdx[g + 1] += groupIdx[g];
+        }
+        groupColumns = new int[n];
+        int[] next = Arrays.copyOf(groupIdx, groups);
+        for (int j = 0; j < n; j++) {
+            groupColumns[next[columnGroup[j]]++] = j;
+        }
+
+        // Columns within a group never share a row, so the rows of a group are just the union of its columns.
+        groupRowIdx = new int[groups + 1];
+        groupRows = new int[pattern.getNonZeroLength()];
+        int length = 0;
+        for (int g = 0; g < groups; g++) {
+            groupRowIdx[g] = length;
+            for (int i = groupIdx[g]; i < groupIdx[g + 1]; i++) {
+                int j = groupColumns[i];
+                for (int p = pattern.col_idx[j]; p < pattern.col_idx[j + 1]; p++) {
+                    groupRows[length++] = pattern.nz_rows[p];
+                }
+            }
+        }
+        groupRowIdx[groups] = length;
+
+        xSaved = new double[n];
+        a = new double[m];
+        b = new double[m];
+        c = new double[m];
+        d = new double[m];
+    }
+
+    /**
+     * Sparsity pattern for a banded Jacobian.
+     * @param n The number of equations and variables.
+     * @param lowerBandwidth Number of non-zero diagonals below the main diagonal.
+     * @param upperBandwidth Number of non-zero diagonals above the main diagonal.
+     * @return A {@link MatrixSparse} with ones in the band.
+     */
+    public static MatrixSparse bandedPattern(int n, int lowerBandwidth, int upperBandwidth) {
+        if (lowerBandwidth < 0 || upperBandwidth < 0) {
+            throw new IllegalArgumentException("The bandwidths must be greater than or equal to zero.");
+        }
+        MatrixSparse pattern = new MatrixSparse(n, n, n * (lowerBandwidth + upperBandwidth + 1));
+        for (int j = 0; j < n; j++) {
+            int i0 = Math.max(0, j - upperBandwidth);
+            int i1 = Math.min(n - 1, j + lowerBandwidth);
+            for (int i = i0; i <= i1; i++) {
+                pattern.nz_rows[pattern.nz_length] = i;
+                pattern.nz_values[pattern.nz_length++] = 1.0;
+            }
+            pattern.col_idx[j + 1] = pattern.nz_length;
+        }
+        return pattern;
+    }
+
+    /**
+     * Number of column groups found by the CPR grouping. Each group costs 4 function evaluations.
+     * @return The number of groups.
+     */
+    public int getNumberOfGroups() {
+        return numberOfGroups;
+    }
+
+    /**
+     * Group assigned to each column of the Jacobian.
+     * @return A copy of the group of each column.
+     */
+    public int[] getColumnGroups() {
+        return Arrays.copyOf(columnGroup, columnGroup.length);
+    }
+
+    @Override
+    public double[][] calculateJacobian(MultivariateFunction[] functions, double[] x, Object... params) {
+        return calculateSparseJacobian(functions, x, (double) params[0]).toDense().getAs2DArray();
+    }
+
+    /**
+     * Calculates the Jacobian using grouped centered differences.
+     * @param functions The system of equations. There must be as many functions as rows in the sparsity pattern.
+     * @param x The point at which to calculate the Jacobian. It is restored before returning.
+     * @param h Step size of the differentiation.
+     * @return The Jacobian with the same non-zero structure as the sparsity pattern.
+     */
+    public MatrixSparse calculateSparseJacobian(MultivariateFunction[] functions, double[] x, double h) {
+        if (h <= 0) {
+            throw new IllegalArgumentException("The step size h must be greater than zero");
+        }
+        if (functions.length != pattern.getRowCount() || x.length != pattern.getColumnCount()) {
+            throw new IllegalArgumentException("The system dimensions do not match the sparsity pattern.");
+        }
+        MatrixSparse jacobian = copyStructure(pattern);
+        double[] values = jacobian.nz_values;
+        System.arraycopy(x, 0, xSaved, 0, x.length);
+
+        for (int g = 0; g < numberOfGroups; g++) {
+            int c0 = groupIdx[g];
+            int c1 = groupIdx[g + 1];
+            int r0 = groupRowIdx[g];
+            int r1 = groupRowIdx[g + 1];
+
+            perturb(x, c0, c1, h);
+            evaluateRows(functions, x, r0, r1, a);
+            perturb(x, c0, c1, -h);
+            evaluateRows(functions, x, r0, r1, b);
+            perturb(x, c0, c1, 2 * h);
+            evaluateRows(functions, x, r0, r1, c);
+            perturb(x, c0, c1, -2 * h);
+            evaluateRows(functions, x, r0, r1, d);
+            perturb(x, c0, c1, 0);
+
+            for (int i = c0; i < c1; i++) {
+                int j = groupColumns[i];
+                for (int p = pattern.col_idx[j]; p < pattern.col_idx[j + 1]; p++) {
+                    int row = pattern.nz_rows[p];
+                    values[p] = (8 * (a[row] - b[row]) - c[row] + d[row]) / (12 * h);
+                }
+            }
+        }
+        return jacobian;
+    }
+
+    private static MatrixSparse copyStructure(MatrixSparse matrix) {
+        MatrixSparse copy = new MatrixSparse(matrix.getRowCount(), matrix.getColumnCount(), matrix.getNonZeroLength());
+        copy.copyStructure(matrix);
+        return copy;
+    }
+
+    private void perturb(double[] x, int c0, int c1, double delta) {
+        for (int i = c0; i < c1; i++) {
+            int j = groupColumns[i];
+            x[j] = xSaved[j] + delta;
+        }
+    }
+
+    private void evaluateRows(MultivariateFunction[] functions, double[] x, int r0, int r1, double[] out) {
+        for (int i = r0; i < r1; i++) {
+            int row = groupRows[i];
+            out[row] = functions[row].evaluateAt(x);
+        }
+    }
+}
@@ -21,4 +21,8 @@ public class ConstantDenseOutput extends DenseOutput {
         }
         return result;
     }
+
+    double[] getValue() {
+        return value;
+    }
 }
@@ -0,0 +1,120 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
+
+import java.util.Arrays;
+
+/**
+ * Base class for integrators that advance the solution with a constant step size. Unlike {@link OdeSolver} there is
+ * no error control, so every step costs the same number of function evaluations. All the work arrays are allocated
+ * up front, so stepping does not allocate as long as the system overrides
+ * {@link OdeSystemOfEquations#evaluateAt(double, double[], double[])}.
+ */
+public abstract class FixedStepIntegrator {
+
+    protected final OdeSystemOfEquations systemOfEquations;
+    protected final int n;
+    protected final double[] y;
+    protected double t;
+    protected double h;
+
+    protected FixedStepIntegrator(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        if (!Arrays.stream(y0).allMatch(Double::isFinite)) {
+            throw new IllegalArgumentException("All components of the initial state y0 must be finite.");
+        }
+        this.systemOfEquations = systemOfEquations;
+        this.n = y0.length;
+        this.y = Arrays.copyOf(y0, n);
+        this.t = t0;
+        this.h = validateStepSize(h);
+    }
+
+    /**
+     * Advances the solution by one step of size {@code h}.
+     */
+    public abstract void step();
+
+    /**
+     * Advances the solution by the given number of steps.
+     * @param steps The number of steps.
+     */
+    public void step(int steps) {
+        for (int i = 0; i < steps; i++) {
+            step();
+        }
+    }
+
+    /**
+     * Restarts the integration from a new state. Useful when the state is corrected externally, e.g. by an estimator.
+     * @param t0 The new time.
+     * @param y0 The new state.
+     */
+    public void reset(double t0, double[] y0) {
+        if (y0.length != n) {
+            throw new IllegalArgumentException("The new state must have " + n + " components.");
+        }
+        System.arraycopy(y0, 0, y, 0, n);
+        t = t0;
+        onReset();
+    }
+
+    /**
+     * Hook called after the state was replaced so subclasses can refresh any cached derivatives.
+     */
+    protected void onReset() {
+    }
+
+    public double getT() {
+        return t;
+    }
+
+    /**
+     * Copy of the current state.
+     * @return The state at {@link #getT()}.
+     */
+    public double[] getY() {
+        return Arrays.copyOf(y, n);
+    }
+
+    /**
+     * Copies the current state into a caller provided array.
+     * @param out Output array of length {@code n}.
+     */
+    public void getY(double[] out) {
+        System.arraycopy(y, 0, out, 0, n);
+    }
+
+    public double getStepSize() {
+        return h;
+    }
+
+    public void setStepSize(double h) {
+        this.h = validateStepSize(h);
+    }
+
+    /**
+     * Wraps a scalar differential equation so that it can be evaluated without allocating.
+     * @param func The function {@code dy/dt = f(t, y)}.
+     * @return The equivalent system of equations.
+     */
+    protected static OdeSystemOfEquations scalarSystem(BivariateFunction func) {
+        return new OdeSystemOfEquations() {
+            @Override
+            public double[] evaluateAt(double t, double[] y) {
+                return new double[]{func.evaluateAt(t, y[0])};
+            }
+
+            @Override
+            public void evaluateAt(double t, double[] y, double[] dydt) {
+                dydt[0] = func.evaluateAt(t, y[0]);
+            }
+        };
+    }
+
+    private static double validateStepSize(double h) {
+        if (h == 0 || !Double.isFinite(h)) {
+            throw new IllegalArgumentException("The step size must be finite and different from zero.");
+        }
+        return h;
+    }
+}
@@ -0,0 +1,58 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+/**
+ * Explicit Runge-Kutta method with a constant step size. The derivative at the end of a step is kept and reused as
+ * the first stage of the next step, so each step costs exactly {@code nStages} function evaluations.
+ */
+public class FixedStepRungeKutta extends FixedStepIntegrator {
+
+    private final double[][] A;
+    private final double[] B;
+    private final double[] C;
+    private final int nStages;
+    // Stage derivatives. K[0] holds f(t, y) of the current state.
+    private final double[][] K;
+    private final double[] yStage;
+
+    protected FixedStepRungeKutta(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h,
+                                  double[][] A, double[] B, double[] C) {
+        super(systemOfEquations, t0, y0, h);
+        this.A = A;
+        this.B = B;
+        this.C = C;
+        this.nStages = B.length;
+        this.K = new double[nStages][n];
+        this.yStage = new double[n];
+        systemOfEquations.evaluateAt(t, y, K[0]);
+    }
+
+    @Override
+    public void step() {
+        final double h = this.h;
+        for (int s = 1; s < nStages; s++) {
+            double[] a = A[s];
+            for (int i = 0; i < n; i++) {
+                double dy = 0;
+                for (int j = 0; j < s; j++) {
+                    dy += a[j] * K[j][i];
+                }
+                yStage[i] = y[i] + h * dy;
+            }
+            systemOfEquations.evaluateAt(t + C[s] * h, yStage, K[s]);
+        }
+        for (int i = 0; i < n; i++) {
+            double dy = 0;
+            for (int j = 0; j < nStages; j++) {
+                dy += B[j] * K[j][i];
+            }
+            y[i] += h * dy;
+        }
+        t += h;
+        systemOfEquations.evaluateAt(t, y, K[0]);
+    }
+
+    @Override
+    protected void onReset() {
+        systemOfEquations.evaluateAt(t, y, K[0]);
+    }
+}
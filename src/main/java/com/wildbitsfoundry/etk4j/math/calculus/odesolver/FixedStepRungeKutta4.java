@@ -0,0 +1,26 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
+
+/**
+ * Classic fourth order Runge-Kutta with a constant step size.
+ */
+public class FixedStepRungeKutta4 extends FixedStepRungeKutta {
+
+    private static final double[][] A = {
+            {0, 0, 0},
+            {1 / 2d, 0, 0},
+            {0, 1 / 2d, 0},
+            {0, 0, 1}
+    };
+    private static final double[] B = {1 / 6d, 1 / 3d, 1 / 3d, 1 / 6d};
+    private static final double[] C = {0, 1 / 2d, 1 / 2d, 1};
+
+    public FixedStepRungeKutta4(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        super(systemOfEquations, t0, y0, h, A, B, C);
+    }
+
+    public FixedStepRungeKutta4(BivariateFunction func, double t0, double y0, double h) {
+        this(scalarSystem(func), t0, new double[]{y0}, h);
+    }
+}
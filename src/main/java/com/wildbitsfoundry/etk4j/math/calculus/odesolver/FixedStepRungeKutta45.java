@@ -0,0 +1,29 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
+
+/**
+ * Fifth order Dormand-Prince step, the same formula used by {@link RungeKutta45}, taken with a constant step size and
+ * without the error estimation.
+ */
+public class FixedStepRungeKutta45 extends FixedStepRungeKutta {
+
+    private static final double[][] A = {
+            {0, 0, 0, 0, 0},
+            {1 / 5d, 0, 0, 0, 0},
+            {3 / 40d, 9 / 40d, 0, 0, 0},
+            {44 / 45d, -56 / 15d, 32 / 9d, 0, 0},
+            {19372 / 6561d, -25360 / 2187d, 64448 / 6561d, -212 / 729d, 0},
+            {9017 / 3168d, -355 / 33d, 46732 / 5247d, 49 / 176d, -5103 / 18656d}
+    };
+    private static final double[] B = {35 / 384d, 0, 500 / 1113d, 125 / 192d, -2187 / 6784d, 11 / 84d};
+    private static final double[] C = {0, 1 / 5d, 3 / 10d, 4 / 5d, 8 / 9d, 1};
+
+    public FixedStepRungeKutta45(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        super(systemOfEquations, t0, y0, h, A, B, C);
+    }
+
+    public FixedStepRungeKutta45(BivariateFunction func, double t0, double y0, double h) {
+        this(scalarSystem(func), t0, new double[]{y0}, h);
+    }
+}
@@ -0,0 +1,22 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+/**
+ * Drift-kick-drift leapfrog integrator. Second order accurate and symplectic with a single function evaluation per
+ * step, taken at the half step. See {@link SymplecticIntegrator} for the layout of the state.
+ */
+public class Leapfrog extends SymplecticIntegrator {
+
+    public Leapfrog(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        super(systemOfEquations, t0, y0, h);
+    }
+
+    @Override
+    public void step() {
+        final double h = this.h;
+        drift(0.5 * h);
+        systemOfEquations.evaluateAt(t + 0.5 * h, y, dydt);
+        kick(h);
+        drift(0.5 * h);
+        t += h;
+    }
+}
@@ -1,47 +1,231 @@
 package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.Arrays;
 
+/**
+ * Continuous solution made of the dense outputs of every step taken by an {@link OdeSolver}. The step polynomials are
+ * stored in flat primitive arrays and queries are answered by a forward moving segment cursor, so evaluating a sorted
+ * vector of times costs a single pass over the steps instead of a search per point.
+ * <p>
+ * Within step {@code k} the solution is {@code y(t) = y0 + h * x * (c0 + c1 * x + ... + cm * x^m)} where
+ * {@code x = (t - t_k) / h}. Times outside the integration interval are extrapolated with the first or last step.
+ */
 public class OdeSolution {
 
-    private final List<DenseOutput> solutionList;
-    private final List<Double> t;
-
-    public OdeSolution() {
-        solutionList = new ArrayList<>();
-        t = new ArrayList<>();
-    }
-
-//    public void addDenseOutput(DenseOutput denseOutput) {
-//        solutionList.add(denseOutput);
-//        t.add(denseOutput.)
-//    }
-//
-//    public int findSegmentIndex(double x) {
-//        int index = Arrays.binarySearch(this.x, x);
-//        return index < 0.0 ? -(index + 2) : Math.min(index, this.x.length - 2);
-//    }
-//
-//    public final double evaluateAt(double x) {
-//        x += 0.0;	// convert -0.0 to 0.0
-//        if (x >= x0 && x <= xn) {
-//            int index = this.findSegmentIndex(x);
-//            return this.evaluateAt(index, x);
-//        }
-//        return this.extrapolate(x);
-//    }
-
-    public final double[] evaluateAt(double[] x) {
-        final int n = x.length;
-        double[] yi = new double[n];
-        for(int i = 0; i < n; ++i) {
-            yi[i] = this.evaluateAt(x[i]);
-        }
-        return yi;
-    }
-
-    public double evaluateAt(double t) {
-        return 0;
+    private final int n;
+    private int segments;
+    private double direction;
+    // Start time of every step followed by the end of the last one. Multiplied by direction so it is always ascending.
+    private double[] keys;
+    private double[] tStart;
+    private double[] h;
+    private int[] order;
+    // Offset of the first coefficient of each step. Every step stores n * (order + 1) coefficients, component major.
+    private int[] offset;
+    private double[] y0;
+    private double[] coefficients;
+    private int coefficientsLength;
+
+    /**
+     * Creates an empty solution.
+     * @param n The number of components of the state.
+     */
+    public OdeSolution(int n) {
+        this.n = n;
+        this.segments = 0;
+        this.direction = 0;
+        this.keys = new double[16];
+        this.tStart = new double[16];
+        this.h = new double[16];
+        this.order = new int[16];
+        this.offset = new int[16];
+        this.y0 = new double[16 * n];
+        this.coefficients = new double[16 * n * 5];
+        this.coefficientsLength = 0;
+    }
+
+    /**
+     * Integrates until the solver finishes, collecting the dense output of every step.
+     * @param solver The solver. It must not have been stepped yet.
+     * @return The solution over the integration interval.
+     * @throws RuntimeException If the solver fails.
+     */
+    public static OdeSolution fromSolver(OdeSolver solver) {
+        OdeSolution solution = new OdeSolution(solver.n);
+        while (solver.status == OdeSolverStatus.RUNNING) {
+            String message = solver.step();
+            if (solver.status == OdeSolverStatus.FAILED) {
+                throw new RuntimeException("The solver failed: " + message);
+            }
+            solution.addDenseOutput(solver.getDenseOutput());
+        }
+        return solution;
+    }
+
+    /**
+     * Appends the dense output of the next step. Steps must be added in the order they were taken.
+     * @param denseOutput The dense output of a {@link RungeKutta} step or a {@link ConstantDenseOutput}.
+     */
+    public void addDenseOutput(DenseOutput denseOutput) {
+        double stepDirection = Math.signum(denseOutput.t - denseOutput.tOld);
+        if (segments == 0) {
+            direction = stepDirection == 0 ? 1 : stepDirection;
+        } else if (denseOutput.tOld != direction * keys[segments]) {
+            throw new IllegalArgumentException("The step does not start where the previous one ended.");
+        } else if (stepDirection != 0 && stepDirection != direction) {
+            throw new IllegalArgumentException("All the steps must go in the same direction.");
+        }
+        if (stepDirection == 0) {
+            // Zero length steps do not contribute to the solution
+            return;
+        }
+
+        final double[] yOld;
+        final double[][] Q;
+        if (denseOutput instanceof RungeKuttaDenseOutput) {
+            yOld = ((RungeKuttaDenseOutput) denseOutput).getYOld();
+            Q = ((RungeKuttaDenseOutput) denseOutput).getQ();
+        } else if (denseOutput instanceof ConstantDenseOutput) {
+            yOld = ((ConstantDenseOutput) denseOutput).getValue();
+            Q = new double[n][1];
+        } else {
+            throw new IllegalArgumentException("Unsupported dense output " + denseOutput.getClass().getSimpleName());
+        }
+        if (yOld.length != n) {
+            throw new IllegalArgumentException("The step has " + yOld.length + " components, expected " + n + ".");
+        }
+        final int m = Q[0].length;
+        ensureCapacity(segments + 1, coefficientsLength + n * m);
+
+        tStart[segments] = denseOutput.tOld;
+        h[segments] = denseOutput.t - denseOutput.tOld;
+        keys[segments] = direction * denseOutput.tOld;
+        keys[segments + 1] = direction * denseOutput.t;
+        order[segments] = m - 1;
+        offset[segments] = coefficientsLength;
+        System.arraycopy(yOld, 0, y0, segments * n, n);
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(Q[i], 0, coefficients, coefficientsLength, m);
+            coefficientsLength += m;
+        }
+        segments++;
+    }
+
+    private void ensureCapacity(int requiredSegments, int requiredCoefficients) {
+        if (requiredSegments + 1 > keys.length) {
+            int capacity = Math.max(2 * keys.length, requiredSegments + 1);
+            keys = Arrays.copyOf(keys, capacity);
+            tStart = Arrays.copyOf(tStart, capacity);
+            h = Arrays.copyOf(h, capacity);
+            order = Arrays.copyOf(order, capacity);
+            offset = Arrays.copyOf(offset, capacity);
+            y0 = Arrays.copyOf(y0, capacity * n);
+        }
+        if (requiredCoefficients > coefficients.length) {
+            coefficients = Arrays.copyOf(coefficients, Math.max(2 * coefficients.length, requiredCoefficients));
+        }
+    }
+
+    public int getNumberOfSteps() {
+        return segments;
+    }
+
+    /**
+     * Time points at which the steps start and end.
+     * @return An array with {@code getNumberOfSteps() + 1} times in the order they were reached.
+     */
+    public double[] getTimes() {
+        double[] t = new double[segments + 1];
+        for (int i = 0; i <= segments; i++) {
+            t[i] = direction * keys[i];
+        }
+        return t;
+    }
+
+    /**
+     * Evaluates the solution at a single time.
+     * @param t The time.
+     * @return The state at {@code t}.
+     */
+    public double[] evaluateAt(double t) {
+        checkNotEmpty();
+        double[] y = new double[n];
+        int segment = findSegmentIndex(direction * t, 0);
+        for (int i = 0; i < n; i++) {
+            y[i] = evaluateComponent(segment, i, t);
+        }
+        return y;
+    }
+
+    /**
+     * Evaluates the solution at several times.
+     * @param t The times. Sorted times (in the direction of integration) are evaluated in a single pass.
+     * @return An array of size {@code n x t.length}, the same layout used by {@link DenseOutput#evaluateAt(double[])}.
+     */
+    public double[][] evaluateAt(double[] t) {
+        double[][] y = new double[n][t.length];
+        evaluateAt(t, y);
+        return y;
+    }
+
+    /**
+     * Evaluates the solution at several times into a caller provided array.
+     * @param t The times. Sorted times (in the direction of integration) are evaluated in a single pass.
+     * @param out Output array of size {@code n x t.length}.
+     */
+    public void evaluateAt(double[] t, double[][] out) {
+        checkNotEmpty();
+        int segment = 0;
+        for (int j = 0; j < t.length; j++) {
+            double tj = t[j];
+            segment = findSegmentIndex(direction * tj, segment);
+            for (int i = 0; i < n; i++) {
+                out[i][j] = evaluateComponent(segment, i, tj);
+            }
+        }
+    }
+
+    private double evaluateComponent(int segment, int component, double t) {
+        final double hk = h[segment];
+        final double x = (t - tStart[segment]) / hk;
+        final int m = order[segment];
+        final int start = offset[segment] + component * (m + 1);
+        double acc = coefficients[start + m];
+        for (int k = start + m - 1; k >= start; k--) {
+            acc = acc * x + coefficients[k];
+        }
+        return y0[segment * n + component] + hk * x * acc;
+    }
+
+    /*
+     * Finds the segment containing key starting the search at hint. Keys past the hint are found by scanning forward
+     * a few segments before falling back to a binary search, so sorted queries visit each segment about once.
+     */
+    private int findSegmentIndex(double key, int hint) {
+        if (key < keys[hint]) {
+            return binarySearch(key, 0, hint);
+        }
+        final int last = segments - 1;
+        for (int i = 0; i < 8; i++) {
+            if (hint == last || key < keys[hint + 1]) {
+                return hint;
+            }
+            hint++;
+        }
+        return binarySearch(key, hint, last);
+    }
+
+    private int binarySearch(double key, int from, int to) {
+        int index = Arrays.binarySearch(keys, from, to + 1, key);
+        if (index < 0) {
+            index = -(index + 2);
+        }
+        return Math.max(0, Math.min(index, segments - 1));
+    }
+
+    private void checkNotEmpty() {
+        if (segments == 0) {
+            throw new IllegalStateException("The solution does not contain any step.");
+        }
     }
 }
@@ -2,4 +2,15 @@ package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
 
 public interface OdeSystemOfEquations {
     double[] evaluateAt(double t, double[] y);
+
+    /**
+     * Evaluates the system into a caller provided array. The default implementation copies the result of
+     * {@link #evaluateAt(double, double[])}, override it to make the evaluation allocation free.
+     * @param t The time at which to evaluate the system.
+     * @param y The state at which to evaluate the system.
+     * @param dydt Output array for the derivatives. Must be of the same length as {@code y}.
+     */
+    default void evaluateAt(double t, double[] y, double[] dydt) {
+        System.arraycopy(evaluateAt(t, y), 0, dydt, 0, dydt.length);
+    }
 }
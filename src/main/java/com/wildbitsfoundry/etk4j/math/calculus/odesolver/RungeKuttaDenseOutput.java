@@ -39,4 +39,11 @@ public class RungeKuttaDenseOutput extends DenseOutput {
         return y;
     }
 
+    double[] getYOld() {
+        return yOld;
+    }
+
+    double[][] getQ() {
+        return Q;
+    }
 }
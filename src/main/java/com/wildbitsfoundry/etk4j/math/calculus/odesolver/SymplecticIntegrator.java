@@ -0,0 +1,37 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+/**
+ * Base class for fixed step symplectic integrators of second order systems {@code q'' = a(t, q)}. The state is laid
+ * out as {@code y = [q, v]} where both halves have the same length, and the system of equations must return
+ * {@code [v, a(t, q)]}. The acceleration must not depend on the velocity, otherwise the method is no longer symplectic.
+ */
+public abstract class SymplecticIntegrator extends FixedStepIntegrator {
+
+    // Number of positions, the velocities start at index m.
+    protected final int m;
+    // Work array for the derivatives. Only the second half (the acceleration) is used.
+    protected final double[] dydt;
+
+    protected SymplecticIntegrator(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        super(systemOfEquations, t0, y0, h);
+        if (n % 2 != 0) {
+            throw new IllegalArgumentException("The state must be made of positions followed by velocities.");
+        }
+        this.m = n / 2;
+        this.dydt = new double[n];
+    }
+
+    // v += dt * a
+    protected void kick(double dt) {
+        for (int i = 0; i < m; i++) {
+            y[m + i] += dt * dydt[m + i];
+        }
+    }
+
+    // q += dt * v
+    protected void drift(double dt) {
+        for (int i = 0; i < m; i++) {
+            y[i] += dt * y[m + i];
+        }
+    }
+}
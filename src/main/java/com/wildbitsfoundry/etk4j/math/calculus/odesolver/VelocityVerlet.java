@@ -0,0 +1,29 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+/**
+ * Velocity Verlet (kick-drift-kick leapfrog) integrator. Second order accurate and symplectic. The acceleration at
+ * the end of a step is reused at the beginning of the next one so each step costs a single function evaluation.
+ * See {@link SymplecticIntegrator} for the layout of the state.
+ */
+public class VelocityVerlet extends SymplecticIntegrator {
+
+    public VelocityVerlet(OdeSystemOfEquations systemOfEquations, double t0, double[] y0, double h) {
+        super(systemOfEquations, t0, y0, h);
+        systemOfEquations.evaluateAt(t, y, dydt);
+    }
+
+    @Override
+    public void step() {
+        final double h = this.h;
+        kick(0.5 * h);
+        drift(h);
+        t += h;
+        systemOfEquations.evaluateAt(t, y, dydt);
+        kick(0.5 * h);
+    }
+
+    @Override
+    protected void onReset() {
+        systemOfEquations.evaluateAt(t, y, dydt);
+    }
+}
@@ -17,23 +17,136 @@ public abstract class PiecewiseFunction implements UnivariateFunction {
 	private final double x0;
     private final double xn;
 
+	// Reciprocal of the spacing when the breaks are uniformly spaced, zero otherwise.
+	private final double invSpacing;
+	// Bucket index for non-uniform breaks. buckets[b] is the segment that contains x0 + b * (xn - x0) / numberOfSegments.
+	private final int[] buckets;
+	private final double invBucketWidth;
+
 	protected PiecewiseFunction(double[] x) {
 		this.x = x;
 		x0 = x[0];
 		numberOfSegments = this.x.length - 1;
 		xn = x[numberOfSegments];
 		extrapolator = new Extrapolators.ThrowExtrapolator(x0, xn);
+
+		if (numberOfSegments > 0 && xn > x0) {
+			double spacing = (xn - x0) / numberOfSegments;
+			if (isUniform(x, spacing)) {
+				invSpacing = 1.0 / spacing;
+				buckets = null;
+				invBucketWidth = 0.0;
+			} else {
+				invSpacing = 0.0;
+				invBucketWidth = 1.0 / spacing;
+				buckets = buildBuckets(x, spacing);
+			}
+		} else {
+			invSpacing = 0.0;
+			buckets = null;
+			invBucketWidth = 0.0;
+		}
+	}
+
+	/*
+	 * The breaks are considered uniform if the index computed from the spacing is never off by more than one
+	 * segment, e.g. the output of DoubleArrays.linSpace.
+	 */
+	private static boolean isUniform(double[] x, double spacing) {
+		final double tolerance = 1e-6 * spacing;
+		for (int i = 1; i < x.length - 1; ++i) {
+			if (Math.abs(x[i] - (x[0] + i * spacing)) > tolerance) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[] buildBuckets(double[] x, double width) {
+		final int n = x.length - 1;
+		int[] buckets = new int[n + 1];
+		int segment = 0;
+		for (int b = 0; b <= n; ++b) {
+			double start = x[0] + b * width;
+			while (segment < n - 1 && x[segment + 1] <= start) {
+				++segment;
+			}
+			buckets[b] = segment;
+		}
+		return buckets;
 	}
 
 	protected void setExtrapolator(Extrapolator extrapolator) {
 		this.extrapolator = extrapolator;
 	}
 
+	/**
+	 * Finds the segment that contains {@code x}. Uniformly spaced breaks are resolved with index arithmetic and
+	 * non-uniform breaks with a bucket index built at construction, so the search only falls back to a full binary
+	 * search for values outside of the breaks.
+	 * @param x The value to look up.
+	 * @return The index {@code i} such that {@code x[i] <= x < x[i + 1]}.
+	 */
 	public int findSegmentIndex(double x) {
+		if (x >= x0 && x <= xn) {
+			if (invSpacing > 0.0) {
+				return correctSegmentIndex((int) ((x - x0) * invSpacing), x);
+			}
+			if (buckets != null) {
+				return findSegmentIndexInBucket(x);
+			}
+		}
 		int index = Arrays.binarySearch(this.x, x);
 		return index < 0.0 ? -(index + 2) : Math.min(index, this.x.length - 2);
 	}
 
+	/**
+	 * Finds the segment that contains {@code x} starting from a previously found segment. Values that are at most a
+	 * few segments ahead of the hint are found with a short forward scan, which makes a pass over sorted values
+	 * visit each segment about once.
+	 * @param x A value within the breaks.
+	 * @param hint A segment index, typically the result of the previous lookup.
+	 * @return The index {@code i} such that {@code x[i] <= x < x[i + 1]}.
+	 */
+	public int findSegmentIndex(double x, int hint) {
+		if (hint >= 0 && hint < numberOfSegments && x >= this.x[hint]) {
+			final int last = numberOfSegments - 1;
+			for (int k = 0; k < 4; ++k) {
+				if (hint == last || x < this.x[hint + 1]) {
+					return hint;
+				}
+				++hint;
+			}
+		}
+		return this.findSegmentIndex(x);
+	}
+
+	private int findSegmentIndexInBucket(double x) {
+		int b = Math.min((int) ((x - x0) * invBucketWidth), numberOfSegments - 1);
+		int lo = buckets[b];
+		int hi = buckets[b + 1];
+		if (hi - lo > 8) {
+			int index = Arrays.binarySearch(this.x, lo, hi + 1, x);
+			return correctSegmentIndex(index < 0 ? -(index + 2) : index, x);
+		}
+		return correctSegmentIndex(lo, x);
+	}
+
+	// Moves a guess for the segment index to the segment that actually contains x
+	private int correctSegmentIndex(int index, double x) {
+		final int last = numberOfSegments - 1;
+		if (index > last) {
+			index = last;
+		}
+		while (index > 0 && x < this.x[index]) {
+			--index;
+		}
+		while (index < last && x >= this.x[index + 1]) {
+			++index;
+		}
+		return index;
+	}
+
 	public int getNumberOfSegments() {
 		return numberOfSegments;
 	}
@@ -49,12 +162,29 @@ public abstract class PiecewiseFunction implements UnivariateFunction {
 	}
 
 	public final double[] evaluateAt(double[] x) {
+		double[] yi = new double[x.length];
+		this.evaluateAt(x, yi);
+		return yi;
+	}
+
+	/**
+	 * Evaluates the function at several values. The segment of each value is searched starting from the segment of
+	 * the previous one, so sorted (or nearly sorted) values are evaluated in a single pass over the segments.
+	 * @param x The values at which to evaluate the function.
+	 * @param out Output array of the same length as {@code x}.
+	 */
+	public final void evaluateAt(double[] x, double[] out) {
 		final int n = x.length;
-		double[] yi = new double[n];
-		for(int i = 0; i < n; ++i) {
-			yi[i] = this.evaluateAt(x[i]);
+		int index = 0;
+		for (int i = 0; i < n; ++i) {
+			double xi = x[i] + 0.0;	// convert -0.0 to 0.0
+			if (xi >= x0 && xi <= xn) {
+				index = this.findSegmentIndex(xi, index);
+				out[i] = this.evaluateAt(index, xi);
+			} else {
+				out[i] = this.extrapolate(xi);
+			}
 		}
-		return yi;
 	}
 
 	public abstract double evaluateAt(int index, double x);
@@ -0,0 +1,231 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.constant.ConstantsETK;
+import com.wildbitsfoundry.etk4j.math.function.DifferentiableFunction;
+import com.wildbitsfoundry.etk4j.math.function.UnivariateFunction;
+
+import java.util.Arrays;
+
+/**
+ * The {@code AppendableSpline} class implements an Akima spline for data that arrives one sample at a time. The slope
+ * of the Akima spline at a node only depends on the two neighbors on each side, so appending a point only changes the
+ * slopes of the last three nodes and the coefficients of the last three segments. Each append is O(1) amortized.
+ * <p>
+ * Once the spline holds {@code maxPoints} samples the oldest one is dropped for every new one, which keeps the memory
+ * bounded. The segments that remain keep the coefficients they had, so the spline over the retained samples is the
+ * same as the one computed by {@link CubicSpline#newAkimaSpline(double[], double[])} over all the samples ever
+ * appended.
+ */
+public class AppendableSpline implements UnivariateFunction, DifferentiableFunction {
+
+    private final int maxPoints;
+    private double[] x;
+    private double[] y;
+    private double[] slopes;
+    // 4 coefficients per segment, segment i goes from x[i] to x[i + 1]
+    private double[] coefficients;
+    // The samples live in x[start] to x[start + size - 1]
+    private int start = 0;
+    private int size = 0;
+
+    /**
+     * Creates an empty spline that keeps every sample.
+     */
+    public AppendableSpline() {
+        this(Integer.MAX_VALUE);
+    }
+
+    /**
+     * Creates an empty spline that keeps at most {@code maxPoints} samples.
+     *
+     * @param maxPoints The maximum number of samples retained. Must be 5 or more.
+     */
+    public AppendableSpline(int maxPoints) {
+        if (maxPoints < 5) {
+            throw new IllegalArgumentException("The spline must be able to hold at least 5 points.");
+        }
+        this.maxPoints = maxPoints;
+        int capacity = Math.min(maxPoints, 16);
+        x = new double[capacity];
+        y = new double[capacity];
+        slopes = new double[capacity];
+        coefficients = new double[4 * capacity];
+    }
+
+    /**
+     * Appends a sample.
+     *
+     * @param xi The x coordinate. It must be greater than the last x coordinate appended.
+     * @param yi The y coordinate.
+     */
+    public void append(double xi, double yi) {
+        if (size > 0 && !(xi > x[start + size - 1])) {
+            throw new IllegalArgumentException("The x coordinates must be strictly increasing.");
+        }
+        if (size == maxPoints) {
+            ++start;
+            --size;
+        }
+        ensureCapacity();
+        int n = start + size;
+        x[n] = xi;
+        y[n] = yi;
+        ++size;
+
+        // Slopes of the nodes whose stencil contains the new point, or all of them while the spline is small
+        int first = size <= 4 ? start : n - 2;
+        for (int i = first; i <= n; ++i) {
+            slopes[i] = computeSlope(i);
+        }
+        for (int i = Math.max(start, first - 1); i < n; ++i) {
+            computeCoefficients(i);
+        }
+    }
+
+    /**
+     * Appends several samples.
+     *
+     * @param x The x coordinates. They must be strictly increasing and greater than the last x coordinate appended.
+     * @param y The y coordinates.
+     */
+    public void append(double[] x, double[] y) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("x and y dimensions must match");
+        }
+        for (int i = 0; i < x.length; ++i) {
+            append(x[i], y[i]);
+        }
+    }
+
+    /**
+     * Number of samples currently held by the spline.
+     *
+     * @return The number of samples.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getMaxPoints() {
+        return maxPoints;
+    }
+
+    /**
+     * Retrieves the x coordinates of the samples currently held by the spline.
+     *
+     * @return A copy of the breaks.
+     */
+    public double[] getBreaks() {
+        return Arrays.copyOfRange(x, start, start + size);
+    }
+
+    @Override
+    public double evaluateAt(double xi) {
+        int i = findSegmentIndex(xi);
+        double t = xi - x[i];
+        i <<= 2;
+        return coefficients[i + 3] + t * (coefficients[i + 2] + t * (coefficients[i + 1] + t * coefficients[i]));
+    }
+
+    @Override
+    public double differentiate(double xi) {
+        int i = findSegmentIndex(xi);
+        double t = xi - x[i];
+        i <<= 2;
+        return coefficients[i + 2] + t * (2 * coefficients[i + 1] + t * 3 * coefficients[i]);
+    }
+
+    private int findSegmentIndex(double xi) {
+        if (size < 2) {
+            throw new IllegalStateException("The spline needs at least 2 points to be evaluated.");
+        }
+        int end = start + size - 1;
+        if (xi < x[start]) {
+            throw new ArrayIndexOutOfBoundsException(
+                    String.format("x = %.4f is smaller than every number in x[]", xi));
+        }
+        if (xi > x[end]) {
+            throw new ArrayIndexOutOfBoundsException(String.format("x = %.4f is bigger than every number in x[]", xi));
+        }
+        // Streaming queries are usually close to the newest samples
+        if (xi >= x[end - 1]) {
+            return end - 1;
+        }
+        int index = Arrays.binarySearch(x, start, end, xi);
+        return index < 0 ? -(index + 2) : index;
+    }
+
+    /*
+     * Makes room for one more sample at the end of the arrays. The samples are moved back to the beginning of the
+     * arrays when the dropped samples take at least half of the space, so each sample is moved O(1) times on average.
+     */
+    private void ensureCapacity() {
+        if (start + size < x.length) {
+            return;
+        }
+        if (start >= x.length / 2) {
+            System.arraycopy(x, start, x, 0, size);
+            System.arraycopy(y, start, y, 0, size);
+            System.arraycopy(slopes, start, slopes, 0, size);
+            System.arraycopy(coefficients, 4 * start, coefficients, 0, 4 * size);
+            start = 0;
+            return;
+        }
+        int capacity = (int) Math.min(Math.min(2L * x.length, 2L * maxPoints), Integer.MAX_VALUE - 8);
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        slopes = Arrays.copyOf(slopes, capacity);
+        coefficients = Arrays.copyOf(coefficients, 4 * capacity);
+    }
+
+    /*
+     * Same slopes as CubicSpline.newAkimaSpline: three point differences for the first two and last two nodes and the
+     * Akima weighted average everywhere else.
+     */
+    private double computeSlope(int i) {
+        int end = start + size - 1;
+        if (size == 2) {
+            return (y[end] - y[start]) / (x[end] - x[start]);
+        }
+        if (i - start < 2) {
+            return differentiateThreePoint(i, start);
+        }
+        if (end - i < 2) {
+            return differentiateThreePoint(i, end - 2);
+        }
+        double m0 = divide(i - 2);
+        double m1 = divide(i - 1);
+        double m2 = divide(i);
+        double m3 = divide(i + 1);
+        double w0 = Math.abs(m1 - m0);
+        double w1 = Math.abs(m3 - m2);
+        return w0 < ConstantsETK.DOUBLE_EPS && w1 < ConstantsETK.DOUBLE_EPS
+                ? ((x[i + 1] - x[i]) * m1 + (x[i] - x[i - 1]) * m2) / (x[i + 1] - x[i - 1])
+                : (w1 * m1 + w0 * m2) / (w1 + w0);
+    }
+
+    private double divide(int i) {
+        return (y[i + 1] - y[i]) / (x[i + 1] - x[i]);
+    }
+
+    private double differentiateThreePoint(int i, int i0) {
+        double y0 = y[i0];
+        double t = x[i] - x[i0];
+        double t1 = x[i0 + 1] - x[i0];
+        double t2 = x[i0 + 2] - x[i0];
+
+        double a = (y[i0 + 2] - y0 - (t2 / t1 * (y[i0 + 1] - y0))) / (t2 * (t2 - t1));
+        double b = (y[i0 + 1] - y0 - a * t1 * t1) / t1;
+        return 2 * a * t + b;
+    }
+
+    private void computeCoefficients(int i) {
+        double w = x[i + 1] - x[i];
+        double w2 = w * w;
+        int j = 4 * i;
+        coefficients[j] = (2 * (y[i] - y[i + 1]) / w + slopes[i] + slopes[i + 1]) / w2;
+        coefficients[j + 1] = (3 * (y[i + 1] - y[i]) / w - 2 * slopes[i] - slopes[i + 1]) / w;
+        coefficients[j + 2] = slopes[i];
+        coefficients[j + 3] = y[i];
+    }
+}
@@ -0,0 +1,491 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.math.function.DifferentiableFunction;
+import com.wildbitsfoundry.etk4j.math.function.UnivariateFunction;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.BandedSolver;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.SingularMatrixException;
+
+import java.util.Arrays;
+
+import static com.wildbitsfoundry.etk4j.util.validation.DimensionCheckers.checkXYDimensions;
+
+/**
+ * The {@code BSpline} class represents a spline as a linear combination of B-spline basis functions
+ * <pre>
+ *     s(x) = sum c[i] * B[i, k](x)
+ * </pre>
+ * over a knot vector {@code t} of length {@code n + k + 1}, where {@code n} is the number of coefficients and
+ * {@code k} the degree. The spline is defined over [t[k], t[n]]. Points outside of this interval are evaluated by
+ * extending the first and last polynomial pieces.
+ * <p>
+ * Besides the basis evaluation, this class provides least squares and penalized (smoothing) spline fitting. Each basis
+ * function only overlaps with its {@code k} neighbors on each side, so the normal equations are banded and are solved
+ * with a banded Cholesky decomposition. Fitting {@code m} points with {@code n} coefficients takes
+ * O(m * k<sup>2</sup> + n * k<sup>2</sup>) operations and O(n * k) memory.
+ */
+public class BSpline implements UnivariateFunction, DifferentiableFunction {
+
+    private final double[] knots;
+    private final double[] coefficients;
+    private final int degree;
+
+    private BSpline(double[] knots, double[] coefficients, int degree) {
+        this.knots = knots;
+        this.coefficients = coefficients;
+        this.degree = degree;
+    }
+
+    /**
+     * Creates a new {@code BSpline} from its knots and coefficients.
+     *
+     * @param knots        The knot vector. It must be non-decreasing and have {@code coefficients.length + degree + 1}
+     *                     values. A copy of this array is made internally.
+     * @param coefficients The coefficients of the basis functions. A copy of this array is made internally.
+     * @param degree       The degree of the spline.
+     * @return A new B-spline.
+     */
+    public static BSpline newBSpline(double[] knots, double[] coefficients, int degree) {
+        checkKnots(knots, degree);
+        if (knots.length != coefficients.length + degree + 1) {
+            throw new IllegalArgumentException("The number of knots must be the number of coefficients + degree + 1.");
+        }
+        return new BSpline(Arrays.copyOf(knots, knots.length), Arrays.copyOf(coefficients, coefficients.length),
+                degree);
+    }
+
+    /**
+     * Creates a spline that fits the data in the least squares sense.
+     *
+     * @param x             The x coordinates of the data. They do not need to be sorted.
+     * @param y             The y coordinates of the data.
+     * @param interiorKnots The interior knots, non-decreasing and strictly inside the range of {@code x}. The
+     *                      boundary knots are placed at the smallest and largest value of {@code x}.
+     * @param degree        The degree of the spline, e.g. 3 for a cubic spline.
+     * @return A new B-spline with {@code interiorKnots.length + degree + 1} coefficients.
+     * @throws IllegalArgumentException If some knot interval does not contain enough data to determine the spline.
+     */
+    public static BSpline newLeastSquaresSpline(double[] x, double[] y, double[] interiorKnots, int degree) {
+        return fit(x, y, null, interiorKnots, degree, 0.0);
+    }
+
+    /**
+     * Creates a spline that fits the data in the weighted least squares sense.
+     *
+     * @param x             The x coordinates of the data. They do not need to be sorted.
+     * @param y             The y coordinates of the data.
+     * @param weights       The weight of each point.
+     * @param interiorKnots The interior knots, non-decreasing and strictly inside the range of {@code x}.
+     * @param degree        The degree of the spline.
+     * @return A new B-spline with {@code interiorKnots.length + degree + 1} coefficients.
+     */
+    public static BSpline newLeastSquaresSpline(double[] x, double[] y, double[] weights, double[] interiorKnots,
+                                                int degree) {
+        checkXYDimensions(x, weights);
+        return fit(x, y, weights, interiorKnots, degree, 0.0);
+    }
+
+    /**
+     * Creates a cubic smoothing spline. The spline minimizes
+     * <pre>
+     *     sum (y[i] - s(x[i]))<sup>2</sup> + lambda * integral s''(x)<sup>2</sup> dx
+     * </pre>
+     * with a knot at every data point. As {@code lambda} goes to zero the spline approaches the natural interpolating
+     * spline and as it goes to infinity it approaches the least squares line.
+     *
+     * @param x      The x coordinates of the data. They must be strictly increasing.
+     * @param y      The y coordinates of the data.
+     * @param lambda The smoothing parameter. Must be greater than zero.
+     * @return A new cubic smoothing spline.
+     */
+    public static BSpline newSmoothingSpline(double[] x, double[] y, double lambda) {
+        checkXYDimensions(x, y);
+        if (!(lambda > 0)) {
+            throw new IllegalArgumentException("The smoothing parameter must be greater than zero.");
+        }
+        if (x.length < 3) {
+            throw new IllegalArgumentException("At least 3 points are needed for a smoothing spline.");
+        }
+        for (int i = 1; i < x.length; ++i) {
+            if (!(x[i] > x[i - 1])) {
+                throw new IllegalArgumentException("The values of x must be strictly increasing.");
+            }
+        }
+        return fit(x, y, null, Arrays.copyOfRange(x, 1, x.length - 1), 3, lambda);
+    }
+
+    /**
+     * Creates a penalized regression spline. The spline minimizes
+     * <pre>
+     *     sum (y[i] - s(x[i]))<sup>2</sup> + lambda * integral s''(x)<sup>2</sup> dx
+     * </pre>
+     * over the splines with the given knots.
+     *
+     * @param x             The x coordinates of the data. They do not need to be sorted.
+     * @param y             The y coordinates of the data.
+     * @param interiorKnots The interior knots, non-decreasing and strictly inside the range of {@code x}.
+     * @param degree        The degree of the spline. Must be 2 or more.
+     * @param lambda        The smoothing parameter.
+     * @return A new B-spline with {@code interiorKnots.length + degree + 1} coefficients.
+     */
+    public static BSpline newSmoothingSpline(double[] x, double[] y, double[] interiorKnots, int degree,
+                                             double lambda) {
+        return fit(x, y, null, interiorKnots, degree, lambda);
+    }
+
+    private static BSpline fit(double[] x, double[] y, double[] weights, double[] interiorKnots, int degree,
+                               double lambda) {
+        checkXYDimensions(x, y);
+        if (degree < 0) {
+            throw new IllegalArgumentException("The degree must be greater than or equal to zero.");
+        }
+        if (!(lambda >= 0)) {
+            throw new IllegalArgumentException("The smoothing parameter must be greater than or equal to zero.");
+        }
+        if (lambda > 0 && degree < 2) {
+            throw new IllegalArgumentException("Smoothing splines must be of degree 2 or more.");
+        }
+        double a = Double.POSITIVE_INFINITY;
+        double b = Double.NEGATIVE_INFINITY;
+        for (double xi : x) {
+            a = Math.min(a, xi);
+            b = Math.max(b, xi);
+        }
+        if (!(b > a)) {
+            throw new IllegalArgumentException("The data must span a non empty interval.");
+        }
+        final int n = interiorKnots.length + degree + 1;
+        double[] knots = new double[n + degree + 1];
+        Arrays.fill(knots, 0, degree + 1, a);
+        Arrays.fill(knots, n, knots.length, b);
+        for (int i = 0; i < interiorKnots.length; ++i) {
+            double knot = interiorKnots[i];
+            if (!(knot > a && knot < b) || (i > 0 && knot < interiorKnots[i - 1])) {
+                throw new IllegalArgumentException(
+                        "The interior knots must be non-decreasing and strictly inside the range of x.");
+            }
+            knots[degree + 1 + i] = knot;
+        }
+
+        // Normal equations in banded storage, A[i][i + j] at normal[i * (degree + 1) + j]
+        final int w1 = degree + 1;
+        double[] normal = new double[n * w1];
+        double[] rhs = new double[n];
+        double[] basis = new double[w1];
+        Workspace ws = new Workspace(degree);
+        for (int p = 0; p < x.length; ++p) {
+            int first = evaluateBasis(knots, degree, x[p], basis, ws);
+            double w = weights == null ? 1.0 : weights[p];
+            for (int r = 0; r < w1; ++r) {
+                double wb = w * basis[r];
+                rhs[first + r] += wb * y[p];
+                int row = (first + r) * w1;
+                for (int c = r; c < w1; ++c) {
+                    normal[row + c - r] += wb * basis[c];
+                }
+            }
+        }
+        if (lambda > 0) {
+            addRoughnessPenalty(knots, degree, lambda, normal, ws);
+        }
+
+        try {
+            BandedSolver.solveCholeskyBandedSystem(normal, degree, rhs);
+        } catch (SingularMatrixException e) {
+            throw new IllegalArgumentException("There is not enough data between the knots to determine the spline.");
+        }
+        return new BSpline(knots, rhs, degree);
+    }
+
+    /*
+     * Adds lambda * integral B''[i] * B''[j] to the normal equations. The integrand is a polynomial of degree
+     * 2 * (k - 2) within each knot interval, so Gauss-Legendre quadrature with k - 1 points is exact.
+     */
+    private static void addRoughnessPenalty(double[] knots, int degree, double lambda, double[] normal,
+                                            Workspace ws) {
+        final int w1 = degree + 1;
+        final int points = Math.max(1, degree - 1);
+        double[] nodes = new double[points];
+        double[] gaussWeights = new double[points];
+        gaussLegendre(nodes, gaussWeights);
+        double[] ders = new double[3 * w1];
+        final int n = knots.length - degree - 1;
+        for (int span = degree; span < n; ++span) {
+            double t0 = knots[span];
+            double t1 = knots[span + 1];
+            if (!(t1 > t0)) {
+                continue;
+            }
+            double half = 0.5 * (t1 - t0);
+            double mid = 0.5 * (t1 + t0);
+            int first = span - degree;
+            for (int g = 0; g < points; ++g) {
+                evaluateBasisDerivatives(knots, degree, span, mid + half * nodes[g], 2, ders, ws);
+                double factor = lambda * half * gaussWeights[g];
+                for (int r = 0; r < w1; ++r) {
+                    double fr = factor * ders[2 * w1 + r];
+                    int row = (first + r) * w1;
+                    for (int c = r; c < w1; ++c) {
+                        normal[row + c - r] += fr * ders[2 * w1 + c];
+                    }
+                }
+            }
+        }
+    }
+
+    /*
+     * Nodes and weights of the Gauss-Legendre rule on [-1, 1] by Newton iteration on the Legendre polynomial.
+     */
+    private static void gaussLegendre(double[] nodes, double[] weights) {
+        final int m = nodes.length;
+        for (int i = 0; i < m; ++i) {
+            double z = Math.cos(Math.PI * (i + 0.75) / (m + 0.5));
+            double dp = 0;
+            for (int iter = 0; iter < 100; ++iter) {
+                double p0 = 1.0;
+                double p1 = 0.0;
+                for (int j = 1; j <= m; ++j) {
+                    double p2 = p1;
+                    p1 = p0;
+                    p0 = ((2.0 * j - 1.0) * z * p1 - (j - 1.0) * p2) / j;
+                }
+                dp = m * (z * p0 - p1) / (z * z - 1.0);
+                double dz = p0 / dp;
+                z -= dz;
+                if (Math.abs(dz) < 1e-15) {
+                    break;
+                }
+            }
+            nodes[i] = z;
+            weights[i] = 2.0 / ((1.0 - z * z) * dp * dp);
+        }
+    }
+
+    /**
+     * Evaluates the B-spline basis functions that are not zero at {@code x}.
+     *
+     * @param knots  The knot vector.
+     * @param degree The degree of the basis.
+     * @param x      The point at which to evaluate the basis.
+     * @param out    Output array with room for {@code degree + 1} values. On return {@code out[r]} holds the value of
+     *               the basis function {@code first + r}.
+     * @return The index {@code first} of the first basis function that is not zero at {@code x}.
+     */
+    public static int evaluateBasis(double[] knots, int degree, double x, double[] out) {
+        checkKnots(knots, degree);
+        if (out.length < degree + 1) {
+            throw new IllegalArgumentException("The output array must have room for degree + 1 values.");
+        }
+        return evaluateBasis(knots, degree, x, out, new Workspace(degree));
+    }
+
+    private static int evaluateBasis(double[] knots, int degree, double x, double[] out, Workspace ws) {
+        final int span = findSpan(knots, degree, x);
+        final double[] left = ws.left;
+        final double[] right = ws.right;
+        out[0] = 1.0;
+        for (int j = 1; j <= degree; ++j) {
+            left[j] = x - knots[span + 1 - j];
+            right[j] = knots[span + j] - x;
+            double saved = 0.0;
+            for (int r = 0; r < j; ++r) {
+                double temp = out[r] / (right[r + 1] + left[j - r]);
+                out[r] = saved + right[r + 1] * temp;
+                saved = left[j - r] * temp;
+            }
+            out[j] = saved;
+        }
+        return span - degree;
+    }
+
+    /*
+     * Derivatives up to order of the basis functions that are not zero in the given span. The derivative of order d
+     * of the basis function span - degree + r is stored at ders[d * (degree + 1) + r].
+     */
+    private static void evaluateBasisDerivatives(double[] knots, int degree, int span, double x, int order,
+                                                 double[] ders, Workspace ws) {
+        final int p = degree;
+        final int w1 = p + 1;
+        final double[] ndu = ws.ndu;
+        final double[] left = ws.left;
+        final double[] right = ws.right;
+        final double[] a = ws.a;
+        ndu[0] = 1.0;
+        for (int j = 1; j <= p; ++j) {
+            left[j] = x - knots[span + 1 - j];
+            right[j] = knots[span + j] - x;
+            double saved = 0.0;
+            for (int r = 0; r < j; ++r) {
+                // Lower triangle holds the knot differences and the upper triangle the basis functions
+                ndu[j * w1 + r] = right[r + 1] + left[j - r];
+                double temp = ndu[r * w1 + j - 1] / ndu[j * w1 + r];
+                ndu[r * w1 + j] = saved + right[r + 1] * temp;
+                saved = left[j - r] * temp;
+            }
+            ndu[j * w1 + j] = saved;
+        }
+        for (int j = 0; j <= p; ++j) {
+            ders[j] = ndu[j * w1 + p];
+        }
+        for (int k = 1; k <= order; ++k) {
+            Arrays.fill(ders, k * w1, (k + 1) * w1, 0.0);
+        }
+        final int n = Math.min(order, p);
+        for (int r = 0; r <= p; ++r) {
+            int s1 = 0;
+            int s2 = 1;
+            a[0] = 1.0;
+            for (int k = 1; k <= n; ++k) {
+                double d = 0.0;
+                int rk = r - k;
+                int pk = p - k;
+                if (r >= k) {
+                    a[s2 * w1] = a[s1 * w1] / ndu[(pk + 1) * w1 + rk];
+                    d = a[s2 * w1] * ndu[rk * w1 + pk];
+                }
+                int j1 = rk >= -1 ? 1 : -rk;
+                int j2 = r - 1 <= pk ? k - 1 : p - r;
+                for (int j = j1; j <= j2; ++j) {
+                    a[s2 * w1 + j] = (a[s1 * w1 + j] - a[s1 * w1 + j - 1]) / ndu[(pk + 1) * w1 + rk + j];
+                    d += a[s2 * w1 + j] * ndu[(rk + j) * w1 + pk];
+                }
+                if (r <= pk) {
+                    a[s2 * w1 + k] = -a[s1 * w1 + k - 1] / ndu[(pk + 1) * w1 + r];
+                    d += a[s2 * w1 + k] * ndu[r * w1 + pk];
+                }
+                ders[k * w1 + r] = d;
+                int tmp = s1;
+                s1 = s2;
+                s2 = tmp;
+            }
+        }
+        double factor = p;
+        for (int k = 1; k <= n; ++k) {
+            for (int j = 0; j <= p; ++j) {
+                ders[k * w1 + j] *= factor;
+            }
+            factor *= p - k;
+        }
+    }
+
+    /*
+     * Index of the knot interval [t[span], t[span + 1]) that contains x, restricted to the interval where the spline
+     * is defined so that points outside of it use the first or last polynomial piece.
+     */
+    private static int findSpan(double[] knots, int degree, double x) {
+        final int n = knots.length - degree - 1;
+        if (x >= knots[n]) {
+            // Last non empty interval
+            int span = n - 1;
+            while (span > degree && knots[span] == knots[span + 1]) {
+                --span;
+            }
+            return span;
+        }
+        if (x < knots[degree + 1]) {
+            // First non empty interval
+            int span = degree;
+            while (span < n - 1 && knots[span] == knots[span + 1]) {
+                ++span;
+            }
+            return span;
+        }
+        int lo = degree + 1;
+        int hi = n - 1;
+        // Invariant: knots[lo] <= x < knots[hi + 1]
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (knots[mid] <= x) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return lo;
+    }
+
+    private static void checkKnots(double[] knots, int degree) {
+        if (degree < 0) {
+            throw new IllegalArgumentException("The degree must be greater than or equal to zero.");
+        }
+        if (knots.length < 2 * (degree + 1)) {
+            throw new IllegalArgumentException("There must be at least 2 * (degree + 1) knots.");
+        }
+        for (int i = 1; i < knots.length; ++i) {
+            if (knots[i] < knots[i - 1]) {
+                throw new IllegalArgumentException("The knots must be non-decreasing.");
+            }
+        }
+        if (!(knots[knots.length - degree - 1] > knots[degree])) {
+            throw new IllegalArgumentException("The spline must be defined over a non empty interval.");
+        }
+    }
+
+    @Override
+    public double evaluateAt(double x) {
+        double[] basis = new double[degree + 1];
+        int first = evaluateBasis(knots, degree, x, basis, new Workspace(degree));
+        double sum = 0.0;
+        for (int r = 0; r <= degree; ++r) {
+            sum += coefficients[first + r] * basis[r];
+        }
+        return sum;
+    }
+
+    /**
+     * Evaluates the spline at several points reusing the work arrays.
+     *
+     * @param x   The points at which to evaluate the spline.
+     * @param out Output array of the same length as {@code x}.
+     */
+    public void evaluateAt(double[] x, double[] out) {
+        double[] basis = new double[degree + 1];
+        Workspace ws = new Workspace(degree);
+        for (int i = 0; i < x.length; ++i) {
+            int first = evaluateBasis(knots, degree, x[i], basis, ws);
+            double sum = 0.0;
+            for (int r = 0; r <= degree; ++r) {
+                sum += coefficients[first + r] * basis[r];
+            }
+            out[i] = sum;
+        }
+    }
+
+    @Override
+    public double differentiate(double x) {
+        final int w1 = degree + 1;
+        double[] ders = new double[2 * w1];
+        int span = findSpan(knots, degree, x);
+        evaluateBasisDerivatives(knots, degree, span, x, 1, ders, new Workspace(degree));
+        double sum = 0.0;
+        for (int r = 0; r <= degree; ++r) {
+            sum += coefficients[span - degree + r] * ders[w1 + r];
+        }
+        return sum;
+    }
+
+    public int getDegree() {
+        return degree;
+    }
+
+    public double[] getKnots() {
+        return Arrays.copyOf(knots, knots.length);
+    }
+
+    public double[] getCoefficients() {
+        return Arrays.copyOf(coefficients, coefficients.length);
+    }
+
+    private static class Workspace {
+        final double[] left;
+        final double[] right;
+        final double[] ndu;
+        final double[] a;
+
+        Workspace(int degree) {
+            left = new double[degree + 1];
+            right = new double[degree + 1];
+            ndu = new double[(degree + 1) * (degree + 1)];
+            a = new double[2 * (degree + 1)];
+        }
+    }
+}
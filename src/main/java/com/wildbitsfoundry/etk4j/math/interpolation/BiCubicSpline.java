@@ -2,10 +2,148 @@ package com.wildbitsfoundry.etk4j.math.interpolation;
 
 import java.util.Arrays;
 
+/**
+ * The {@code BiCubicSpline} class represents bicubic interpolation over a grid of values. Each row of the grid is a
+ * not-a-knot spline in x and the rows are interpolated along y with the cubic through the 4 rows around {@code y},
+ * which gives a bicubic polynomial in every cell.
+ */
 public class BiCubicSpline extends Spline2D {
 
+    private final double[] x;
+    // 16 coefficients per cell stored row major by cell, (x - x[i])^(3 - p) * (y - y[j])^(3 - q) at p * 4 + q.
+    private final double[] patches;
+
     protected BiCubicSpline(double[] y, Spline[] splines, int order) {
+        this(splines[0].getBreaks(), y, splines, order);
+    }
+
+    private BiCubicSpline(double[] x, double[] y, Spline[] splines, int order) {
         super(y, splines, order);
+        this.x = x;
+        this.patches = computePatches(x, y, splines);
+    }
+
+    /*
+     * The row splines are cubic in x and, along y, every cell uses the cubic through the rows of the window chosen by
+     * findLeftIndex, so the surface is a bicubic polynomial in each cell. Its coefficients are those of the row
+     * splines combined with the Lagrange basis of the window, expanded in powers of (y - y[j]).
+     */
+    private double[] computePatches(double[] x, double[] y, Spline[] splines) {
+        final int cellsX = x.length - 1;
+        final int cellsY = y.length - 1;
+        final int window = Math.min(4, y.length);
+        double[] patches = new double[16 * cellsX * cellsY];
+        double[][] basis = new double[window][4];
+        for (int j = 0; j < cellsY; ++j) {
+            // The window of any y strictly inside the cell, the last rows if it would run past the end of the grid
+            final int first = Math.min(findLeftIndex(0.5 * (y[j] + y[j + 1])), y.length - window);
+            lagrangeBasis(y, first, window, y[j], basis);
+            for (int i = 0; i < cellsX; ++i) {
+                final int k = 16 * (j * cellsX + i);
+                for (int r = 0; r < window; ++r) {
+                    final double[] c = splines[first + r].coefficients;
+                    for (int p = 0; p < 4; ++p) {
+                        final double cp = c[4 * i + p];
+                        for (int q = 0; q < 4; ++q) {
+                            patches[k + 4 * p + q] += cp * basis[r][q];
+                        }
+                    }
+                }
+            }
+        }
+        return patches;
+    }
+
+    /*
+     * Coefficients of the Lagrange basis polynomials of the nodes y[first] to y[first + window - 1], in powers of
+     * (y - origin) from the cubic term down. Polynomials of lower degree have leading zeros.
+     */
+    private static void lagrangeBasis(double[] y, int first, int window, double origin, double[][] basis) {
+        for (int r = 0; r < window; ++r) {
+            double[] b = basis[r];
+            Arrays.fill(b, 0.0);
+            b[3] = 1.0;
+            double denominator = 1.0;
+            for (int s = 0; s < window; ++s) {
+                if (s == r) {
+                    continue;
+                }
+                // b *= (t - ts), with b[3 - d] the coefficient of t^d
+                final double ts = y[first + s] - origin;
+                for (int q = 0; q < 3; ++q) {
+                    b[q] = b[q + 1] - ts * b[q];
+                }
+                b[3] *= -ts;
+                denominator *= y[first + r] - y[first + s];
+            }
+            for (int q = 0; q < 4; ++q) {
+                b[q] /= denominator;
+            }
+        }
+    }
+
+    /**
+     * Evaluate the spline. The value is computed from the bicubic patch of the cell that contains {@code (x, y)}, so
+     * no intermediate splines are created.
+     *
+     * @param x The x coordinate at which to evaluate the spline.
+     * @param y The y coordinate at which to evaluate the spline.
+     * @return The value of the spline at {@code (x, y}.
+     * @throws ArrayIndexOutOfBoundsException If {@code (x, y)} is outside of the grid.
+     */
+    @Override
+    public double evaluateAt(double x, double y) {
+        x += 0.0;    // convert -0.0 to 0.0
+        y += 0.0;
+        checkRange(this.x, x);
+        checkRange(this.y, y);
+        final int i = findSegmentIndex(this.x, x);
+        final int j = findSegmentIndex(this.y, y);
+        return evaluatePatch(16 * (j * (this.x.length - 1) + i), x - this.x[i], y - this.y[j]);
+    }
+
+    @Override
+    protected double evaluateAt(double x, double y, int[] hint) {
+        x += 0.0;    // convert -0.0 to 0.0
+        y += 0.0;
+        checkRange(this.x, x);
+        checkRange(this.y, y);
+        final int i = hint[0] = findSegmentIndex(this.x, x, hint[0]);
+        final int j = hint[1] = findSegmentIndex(this.y, y, hint[1]);
+        return evaluatePatch(16 * (j * (this.x.length - 1) + i), x - this.x[i], y - this.y[j]);
+    }
+
+    private double evaluatePatch(int k, double dx, double dy) {
+        final double[] a = patches;
+        double result = 0.0;
+        for (int p = 0; p < 4; ++p, k += 4) {
+            result = result * dx + (((a[k] * dy + a[k + 1]) * dy + a[k + 2]) * dy + a[k + 3]);
+        }
+        return result;
+    }
+
+    @Override
+    protected GridRowEvaluator createGridRowEvaluator(double[] x) {
+        final int length = x.length;
+        final int[] cells = new int[length];
+        final double[] dx = new double[length];
+        for (int k = 0; k < length; ++k) {
+            double xk = x[k] + 0.0;
+            checkRange(this.x, xk);
+            cells[k] = findSegmentIndex(this.x, xk);
+            dx[k] = xk - this.x[cells[k]];
+        }
+        final int cellsX = this.x.length - 1;
+        return (y, out) -> {
+            y += 0.0;
+            checkRange(this.y, y);
+            final int j = findSegmentIndex(this.y, y);
+            final double dy = y - this.y[j];
+            final int rowOffset = 16 * j * cellsX;
+            for (int k = 0; k < length; ++k) {
+                out[k] = evaluatePatch(rowOffset + 16 * cells[k], dx[k], dy);
+            }
+        };
     }
 
     /**
@@ -25,6 +163,7 @@ public class BiCubicSpline extends Spline2D {
      *          and so on. <br>
      *          Even though internally we iterate over {@code x} and {@code y} multiple times, only a single copy of
      *          each {@code (x, y)} is required while. Please refer to the example in {@link examples.Spline2DExample}.
+     *          The bicubic patches of every cell are computed here, so evaluating the spline does not allocate.
      *
      * @return A bicubic spline.
      */
@@ -37,14 +176,15 @@ public class BiCubicSpline extends Spline2D {
             throw new IllegalArgumentException("The length of z has to be the same length as y.");
         }
 
+        double[] xt = Arrays.copyOf(x, cols);
         double[] yt = Arrays.copyOf(y, rows);
         Spline[] splines = new Spline[rows];
         for (int i = 0; i < rows; ++i) {
             if (cols != z[i].length) {
                 throw new IllegalArgumentException("The length of each array in z has to be the same.");
             }
-            splines[i] = CubicSpline.newCubicSplineInPlace(x, z[i]);
+            splines[i] = CubicSpline.newCubicSplineInPlace(xt, z[i]);
         }
-        return new BiCubicSpline(yt, splines, order);
+        return new BiCubicSpline(xt, yt, splines, order);
     }
 }
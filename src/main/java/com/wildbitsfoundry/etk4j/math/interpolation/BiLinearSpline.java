@@ -6,8 +6,11 @@ import java.util.Arrays;
 
 public class BiLinearSpline extends Spline2D {
 
+    private final double[] x;
+
     protected BiLinearSpline(double[] y, Spline[] splines, int order) {
         super(y, splines, order);
+        this.x = splines[0].getBreaks();
     }
 
     /**
@@ -50,4 +53,42 @@ public class BiLinearSpline extends Spline2D {
         return new BiLinearSpline(yt, splines, order);
     }
 
+    @Override
+    protected double evaluateAt(double x, double y, int[] hint) {
+        x += 0.0;    // convert -0.0 to 0.0
+        y += 0.0;
+        checkRange(this.x, x);
+        checkRange(this.y, y);
+        final int i = hint[0] = splines[0].findSegmentIndex(x, hint[0]);
+        final int j = hint[1] = findSegmentIndex(this.y, y, hint[1]);
+        final double t = (y - this.y[j]) / (this.y[j + 1] - this.y[j]);
+        double z0 = splines[j].evaluateAt(i, x);
+        double z1 = splines[j + 1].evaluateAt(i, x);
+        return (z1 - z0) * t + z0;
+    }
+
+    @Override
+    protected GridRowEvaluator createGridRowEvaluator(double[] x) {
+        final int length = x.length;
+        final int[] segments = new int[length];
+        final double[] xs = new double[length];
+        for (int k = 0; k < length; ++k) {
+            xs[k] = x[k] + 0.0;
+            checkRange(this.x, xs[k]);
+            segments[k] = findSegmentIndex(this.x, xs[k]);
+        }
+        return (y, out) -> {
+            y += 0.0;
+            checkRange(this.y, y);
+            final int j = findSegmentIndex(this.y, y);
+            final double t = (y - this.y[j]) / (this.y[j + 1] - this.y[j]);
+            final Spline lower = splines[j];
+            final Spline upper = splines[j + 1];
+            for (int k = 0; k < length; ++k) {
+                double z0 = lower.evaluateAt(segments[k], xs[k]);
+                double z1 = upper.evaluateAt(segments[k], xs[k]);
+                out[k] = (z1 - z0) * t + z0;
+            }
+        };
+    }
 }
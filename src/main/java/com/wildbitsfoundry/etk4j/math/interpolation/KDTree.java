@@ -0,0 +1,345 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import java.util.Arrays;
+
+/**
+ * The {@code KDTree} class implements a balanced k-d tree for nearest neighbor and radius queries over a set of
+ * points in any number of dimensions. The tree is stored implicitly in flat arrays: every sub range of the points is
+ * split at its median along the dimension with the largest spread, so the tree is built in O(n log n) and each query
+ * visits O(log n) nodes on average.
+ * <p>
+ * The tree does not hold any state between queries, so a single instance can be shared by several interpolators and
+ * queried from several threads.
+ */
+public class KDTree {
+
+    /**
+     * Receives the points found by {@link #forEachWithinRadius(double[], double, NeighborConsumer)}.
+     */
+    public interface NeighborConsumer {
+        /**
+         * @param index    The index of the point in the array used to build the tree.
+         * @param distance The distance from the query to the point.
+         */
+        void accept(int index, double distance);
+    }
+
+    private final int dimensions;
+    private final int size;
+    // Coordinates of the points in tree order, dimensions values per point
+    private final double[] coordinates;
+    // Index of the point in tree order within the original array
+    private final int[] indices;
+    // Position in tree order of each point of the original array
+    private final int[] positions;
+    // Split dimension of the node stored at each position
+    private final byte[] splitDimensions;
+
+    /**
+     * Creates a new tree.
+     *
+     * @param points The points, one per row. All the points must have the same number of coordinates. The array is
+     *               not modified nor referenced by the tree.
+     */
+    public KDTree(double[][] points) {
+        if (points.length == 0) {
+            throw new IllegalArgumentException("At least one point is required.");
+        }
+        dimensions = points[0].length;
+        if (dimensions == 0 || dimensions > Byte.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid number of dimensions.");
+        }
+        for (double[] point : points) {
+            if (point.length != dimensions) {
+                throw new IllegalArgumentException("All the points must have the same number of coordinates.");
+            }
+        }
+        size = points.length;
+        indices = new int[size];
+        for (int i = 0; i < size; ++i) {
+            indices[i] = i;
+        }
+        splitDimensions = new byte[size];
+        build(points, 0, size);
+
+        coordinates = new double[size * dimensions];
+        positions = new int[size];
+        for (int i = 0; i < size; ++i) {
+            positions[indices[i]] = i;
+            System.arraycopy(points[indices[i]], 0, coordinates, i * dimensions, dimensions);
+        }
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the coordinates of a point.
+     *
+     * @param index The index of the point in the array used to build the tree.
+     * @return A copy of the coordinates of the point.
+     */
+    public double[] getPoint(int index) {
+        int i = positions[index];
+        return Arrays.copyOfRange(coordinates, i * dimensions, (i + 1) * dimensions);
+    }
+
+    /**
+     * Finds the point closest to the query.
+     *
+     * @param query The coordinates of the query.
+     * @return The index of the nearest point in the array used to build the tree.
+     */
+    public int findNearest(double... query) {
+        checkQuery(query);
+        int[] index = new int[1];
+        double[] distance = { Double.POSITIVE_INFINITY };
+        searchNearest(query, 0, size, index, distance, 1, new int[1]);
+        return index[0];
+    }
+
+    /**
+     * Finds the {@code k} points closest to the query.
+     *
+     * @param query     The coordinates of the query.
+     * @param k         The number of points to find.
+     * @param indices   Output array with room for at least {@code k} values. On return it holds the indices of the
+     *                  points sorted by increasing distance.
+     * @param distances Output array with room for at least {@code k} values. On return it holds the distances to the
+     *                  points.
+     * @return The number of points found, which is the minimum of {@code k} and {@link #size()}.
+     */
+    public int findNearest(double[] query, int k, int[] indices, double[] distances) {
+        checkQuery(query);
+        if (k < 1) {
+            throw new IllegalArgumentException("k must be greater than zero.");
+        }
+        if (indices.length < k || distances.length < k) {
+            throw new IllegalArgumentException("The output arrays must have room for k values.");
+        }
+        // The candidates are kept as a max heap of squared distances while searching
+        int[] count = new int[1];
+        Arrays.fill(distances, 0, k, Double.POSITIVE_INFINITY);
+        searchNearest(query, 0, size, indices, distances, k, count);
+        int found = count[0];
+        // Heap sort in place to return the neighbors in increasing order
+        for (int end = found - 1; end > 0; --end) {
+            swap(indices, distances, 0, end);
+            siftDown(indices, distances, 0, end);
+        }
+        for (int i = 0; i < found; ++i) {
+            distances[i] = Math.sqrt(distances[i]);
+        }
+        return found;
+    }
+
+    /**
+     * Finds all the points within a given distance of the query.
+     *
+     * @param query  The coordinates of the query.
+     * @param radius The search radius.
+     * @return The indices of the points within {@code radius} of the query, in no particular order.
+     */
+    public int[] findWithinRadius(double[] query, double radius) {
+        int[][] buffer = { new int[16] };
+        int[] count = new int[1];
+        forEachWithinRadius(query, radius, (index, distance) -> {
+            if (count[0] == buffer[0].length) {
+                buffer[0] = Arrays.copyOf(buffer[0], 2 * count[0]);
+            }
+            buffer[0][count[0]++] = index;
+        });
+        return Arrays.copyOf(buffer[0], count[0]);
+    }
+
+    /**
+     * Visits all the points within a given distance of the query without allocating a result array.
+     *
+     * @param query    The coordinates of the query.
+     * @param radius   The search radius.
+     * @param consumer Receives the index of each point and its distance to the query.
+     */
+    public void forEachWithinRadius(double[] query, double radius, NeighborConsumer consumer) {
+        checkQuery(query);
+        if (!(radius >= 0)) {
+            throw new IllegalArgumentException("The radius must be greater than or equal to zero.");
+        }
+        searchRadius(query, 0, size, radius * radius, consumer);
+    }
+
+    private void checkQuery(double[] query) {
+        if (query.length != dimensions) {
+            throw new IllegalArgumentException(String.format("The query must have %d coordinates.", dimensions));
+        }
+    }
+
+    private double distanceSquared(double[] query, int node) {
+        double sum = 0.0;
+        for (int d = 0, offset = node * dimensions; d < dimensions; ++d) {
+            double diff = query[d] - coordinates[offset + d];
+            sum += diff * diff;
+        }
+        return sum;
+    }
+
+    /*
+     * The k best candidates are kept in a max heap, so the root is the distance that a branch has to beat.
+     */
+    private void searchNearest(double[] query, int lo, int hi, int[] best, double[] bestDistances, int k,
+                               int[] count) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dist = distanceSquared(query, mid);
+            if (count[0] < k) {
+                int i = count[0]++;
+                best[i] = indices[mid];
+                bestDistances[i] = dist;
+                siftUp(best, bestDistances, i);
+            } else if (dist < bestDistances[0]) {
+                best[0] = indices[mid];
+                bestDistances[0] = dist;
+                siftDown(best, bestDistances, 0, k);
+            }
+
+            int d = splitDimensions[mid];
+            double diff = query[d] - coordinates[mid * dimensions + d];
+            // Visit the side that contains the query first, then the other one only if it can hold a better point
+            if (diff < 0) {
+                searchNearest(query, lo, mid, best, bestDistances, k, count);
+                if (count[0] == k && diff * diff >= bestDistances[0]) {
+                    return;
+                }
+                lo = mid + 1;
+            } else {
+                searchNearest(query, mid + 1, hi, best, bestDistances, k, count);
+                if (count[0] == k && diff * diff >= bestDistances[0]) {
+                    return;
+                }
+                hi = mid;
+            }
+        }
+    }
+
+    private void searchRadius(double[] query, int lo, int hi, double radiusSquared, NeighborConsumer consumer) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            double dist = distanceSquared(query, mid);
+            if (dist <= radiusSquared) {
+                consumer.accept(indices[mid], Math.sqrt(dist));
+            }
+            int d = splitDimensions[mid];
+            double diff = query[d] - coordinates[mid * dimensions + d];
+            boolean visitLeft = diff <= 0 || diff * diff <= radiusSquared;
+            boolean visitRight = diff >= 0 || diff * diff <= radiusSquared;
+            if (visitLeft && visitRight) {
+                searchRadius(query, lo, mid, radiusSquared, consumer);
+                lo = mid + 1;
+            } else if (visitLeft) {
+                hi = mid;
+            } else {
+                lo = mid + 1;
+            }
+        }
+    }
+
+    private void build(double[][] points, int lo, int hi) {
+        while (hi - lo > 1) {
+            int split = 0;
+            double spread = -1;
+            for (int d = 0; d < dimensions; ++d) {
+                double min = Double.POSITIVE_INFINITY;
+                double max = Double.NEGATIVE_INFINITY;
+                for (int i = lo; i < hi; ++i) {
+                    double value = points[indices[i]][d];
+                    min = Math.min(min, value);
+                    max = Math.max(max, value);
+                }
+                if (max - min > spread) {
+                    spread = max - min;
+                    split = d;
+                }
+            }
+            int mid = (lo + hi) >>> 1;
+            select(points, lo, hi - 1, mid, split);
+            splitDimensions[mid] = (byte) split;
+            build(points, lo, mid);
+            lo = mid + 1;
+        }
+    }
+
+    /*
+     * Quickselect on the permutation so that the point at position k is the one that would be there if the range was
+     * sorted along dimension d.
+     */
+    private void select(double[][] points, int left, int right, int k, int d) {
+        while (right > left) {
+            double pivot = points[indices[(left + right) >>> 1]][d];
+            int i = left;
+            int j = right;
+            while (i <= j) {
+                while (points[indices[i]][d] < pivot) {
+                    ++i;
+                }
+                while (points[indices[j]][d] > pivot) {
+                    --j;
+                }
+                if (i <= j) {
+                    int tmp = indices[i];
+                    indices[i++] = indices[j];
+                    indices[j--] = tmp;
+                }
+            }
+            if (k <= j) {
+                right = j;
+            } else if (k >= i) {
+                left = i;
+            } else {
+                return;
+            }
+        }
+    }
+
+    private static void siftUp(int[] idx, double[] dist, int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (dist[parent] >= dist[i]) {
+                return;
+            }
+            swap(idx, dist, parent, i);
+            i = parent;
+        }
+    }
+
+    private static void siftDown(int[] idx, double[] dist, int i, int length) {
+        while (true) {
+            int largest = i;
+            int left = 2 * i + 1;
+            int right = left + 1;
+            if (left < length && dist[left] > dist[largest]) {
+                largest = left;
+            }
+            if (right < length && dist[right] > dist[largest]) {
+                largest = right;
+            }
+            if (largest == i) {
+                return;
+            }
+            swap(idx, dist, i, largest);
+            i = largest;
+        }
+    }
+
+    private static void swap(int[] idx, double[] dist, int i, int j) {
+        int ti = idx[i];
+        idx[i] = idx[j];
+        idx[j] = ti;
+        double td = dist[i];
+        dist[i] = dist[j];
+        dist[j] = td;
+    }
+}
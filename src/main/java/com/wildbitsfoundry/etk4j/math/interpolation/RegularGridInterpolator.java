@@ -0,0 +1,303 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.math.extrapolation.ExtrapolationMethod;
+import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
+
+import java.util.Arrays;
+
+import static com.wildbitsfoundry.etk4j.util.validation.DimensionCheckers.checkMinXLength;
+
+/**
+ * The {@code RegularGridInterpolator} class implements interpolation on a rectilinear grid of any number of dimensions.
+ * The grid does not have to be uniformly spaced. The values are stored in a single flat array in row major order, in
+ * other words the last dimension varies fastest. For a 3d grid the value at {@code (x[i], y[j], z[k])} is stored at
+ * {@code values[(i * ny + j) * nz + k]}.
+ * <p>
+ * Two methods are available:
+ * <pre>
+ *     Multilinear: each point is interpolated from the 2<sup>d</sup> corners of its cell.
+ *     Cubic: tensor product of cubic Hermite polynomials. The slope at each node is estimated from the parabola
+ *     through the node and its neighbors, so each point is interpolated from 4<sup>d</sup> nodes and the result is
+ *     continuously differentiable.
+ * </pre>
+ */
+public class RegularGridInterpolator implements MultivariateFunction {
+
+    private final double[][] grid;
+    private final double[] values;
+    private final int[] strides;
+    private final int dimensions;
+    // Number of nodes that contribute to a point along each dimension
+    private final int stencil;
+    private final int[] stencilSizes;
+    private final boolean cubic;
+    private ExtrapolationMethod extrapolationMethod = ExtrapolationMethod.THROW;
+
+    private RegularGridInterpolator(double[][] grid, double[] values, boolean cubic) {
+        this.dimensions = grid.length;
+        if (dimensions == 0) {
+            throw new IllegalArgumentException("The grid must have at least one dimension.");
+        }
+        this.grid = new double[dimensions][];
+        this.strides = new int[dimensions];
+        int size = 1;
+        for (int d = dimensions - 1; d >= 0; --d) {
+            checkMinXLength(grid[d], 2);
+            for (int i = 1; i < grid[d].length; ++i) {
+                if (!(grid[d][i] > grid[d][i - 1])) {
+                    throw new IllegalArgumentException("The values of the grid must be strictly increasing.");
+                }
+            }
+            this.grid[d] = Arrays.copyOf(grid[d], grid[d].length);
+            this.strides[d] = size;
+            size *= grid[d].length;
+        }
+        if (values.length != size) {
+            throw new IllegalArgumentException(String.format("The grid has %d nodes but %d values were given.",
+                    size, values.length));
+        }
+        this.values = Arrays.copyOf(values, values.length);
+        this.cubic = cubic;
+        this.stencil = cubic ? 4 : 2;
+        this.stencilSizes = new int[dimensions];
+        for (int d = 0; d < dimensions; ++d) {
+            stencilSizes[d] = Math.min(stencil, grid[d].length);
+        }
+    }
+
+    /**
+     * Creates a multilinear interpolator.
+     *
+     * @param grid   The coordinates of the grid along each dimension. Each array must contain at least 2 strictly
+     *               increasing values. A copy of the arrays is made internally.
+     * @param values The values at the nodes of the grid in row major order.
+     * @return A new multilinear interpolator.
+     */
+    public static RegularGridInterpolator newLinearInterpolator(double[][] grid, double[] values) {
+        return new RegularGridInterpolator(grid, values, false);
+    }
+
+    /**
+     * Creates a tensor product cubic interpolator.
+     *
+     * @param grid   The coordinates of the grid along each dimension. Each array must contain at least 2 strictly
+     *               increasing values. A copy of the arrays is made internally.
+     * @param values The values at the nodes of the grid in row major order.
+     * @return A new cubic interpolator.
+     */
+    public static RegularGridInterpolator newCubicInterpolator(double[][] grid, double[] values) {
+        return new RegularGridInterpolator(grid, values, true);
+    }
+
+    /**
+     * Sets how points outside of the grid are handled. {@link ExtrapolationMethod#NATURAL} extends the polynomials of
+     * the boundary cells, {@link ExtrapolationMethod#LINEAR} continues along the slope at the boundary and
+     * {@link ExtrapolationMethod#CLAMP_TO_END_POINT} clamps each coordinate to the grid. All of them are applied
+     * independently along each dimension. The default is {@link ExtrapolationMethod#THROW}.
+     *
+     * @param method The extrapolation method.
+     */
+    public void setExtrapolationMethod(ExtrapolationMethod method) {
+        if (method == null) {
+            throw new IllegalArgumentException("Invalid extrapolation option.");
+        }
+        this.extrapolationMethod = method;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    /**
+     * Evaluates the interpolant.
+     *
+     * @param point The coordinates of the point. There must be one coordinate per dimension.
+     * @return The interpolated value.
+     */
+    @Override
+    public double evaluateAt(double... point) {
+        return evaluateAt(point, 0, new int[dimensions], new double[dimensions * stencil], new int[dimensions]);
+    }
+
+    /**
+     * Evaluates the interpolant at several points.
+     *
+     * @param points The points, one per row.
+     * @return The interpolated value at each point.
+     */
+    public double[] evaluateAt(double[][] points) {
+        double[] result = new double[points.length];
+        evaluateAt(points, result);
+        return result;
+    }
+
+    /**
+     * Evaluates the interpolant at several points into a caller provided array. The work arrays are allocated once
+     * for the whole batch.
+     *
+     * @param points The points, one per row.
+     * @param out    Output array of the same length as {@code points}.
+     */
+    public void evaluateAt(double[][] points, double[] out) {
+        final int[] base = new int[dimensions];
+        final double[] weights = new double[dimensions * stencil];
+        final int[] counter = new int[dimensions];
+        for (int p = 0; p < points.length; ++p) {
+            out[p] = evaluateAt(points[p], 0, base, weights, counter);
+        }
+    }
+
+    /**
+     * Evaluates the interpolant at several points stored in a flat array.
+     *
+     * @param points The coordinates of the points stored consecutively, {@code getDimensions()} values per point.
+     * @param out    Output array with room for {@code points.length / getDimensions()} values.
+     */
+    public void evaluateAt(double[] points, double[] out) {
+        if (points.length % dimensions != 0) {
+            throw new IllegalArgumentException("The number of coordinates must be a multiple of the dimensions.");
+        }
+        final int[] base = new int[dimensions];
+        final double[] weights = new double[dimensions * stencil];
+        final int[] counter = new int[dimensions];
+        for (int p = 0, offset = 0; offset < points.length; ++p, offset += dimensions) {
+            out[p] = evaluateAt(points, offset, base, weights, counter);
+        }
+    }
+
+    private double evaluateAt(double[] point, int offset, int[] base, double[] weights, int[] counter) {
+        if (point.length - offset < dimensions) {
+            throw new IllegalArgumentException(String.format("The point must have %d coordinates.", dimensions));
+        }
+        for (int d = 0; d < dimensions; ++d) {
+            double x = point[offset + d] + 0.0;  // convert -0.0 to 0.0
+            double[] nodes = grid[d];
+            double x0 = nodes[0];
+            double xn = nodes[nodes.length - 1];
+            if (!(x >= x0 && x <= xn)) {
+                switch (extrapolationMethod) {
+                    case CLAMP_TO_NAN:
+                        return Double.NaN;
+                    case CLAMP_TO_ZERO:
+                        return 0.0;
+                    case CLAMP_TO_END_POINT:
+                        x = x < x0 ? x0 : xn;
+                        break;
+                    case NATURAL:
+                    case LINEAR:
+                        if (Double.isNaN(x)) {
+                            return Double.NaN;
+                        }
+                        break;
+                    case THROW:
+                    default:
+                        throw new ArrayIndexOutOfBoundsException(String.format(
+                                "x = %.4f is outside of the grid [%.4f, %.4f] along dimension %d", x, x0, xn, d));
+                }
+            }
+            base[d] = computeWeights(nodes, x, weights, d * stencil);
+        }
+
+        // Accumulate the contributions of the stencil using an odometer over the dimensions
+        Arrays.fill(counter, 0);
+        double result = 0.0;
+        while (true) {
+            double weight = 1.0;
+            int index = 0;
+            for (int d = 0; d < dimensions && weight != 0.0; ++d) {
+                weight *= weights[d * stencil + counter[d]];
+                index += (base[d] + counter[d]) * strides[d];
+            }
+            if (weight != 0.0) {
+                result += weight * values[index];
+            }
+            int d = dimensions - 1;
+            while (d >= 0 && ++counter[d] == stencilSizes[d]) {
+                counter[d--] = 0;
+            }
+            if (d < 0) {
+                return result;
+            }
+        }
+    }
+
+    /*
+     * Computes the weights of the nodes that contribute to x along one dimension and returns the index of the first
+     * of them.
+     */
+    private int computeWeights(double[] nodes, double x, double[] w, int offset) {
+        final int n = nodes.length;
+        final boolean below = x < nodes[0];
+        final boolean above = x > nodes[n - 1];
+        int i = below ? 0 : above ? n - 2 : findSegmentIndex(nodes, x);
+        final double h = nodes[i + 1] - nodes[i];
+
+        if (!cubic) {
+            double t = (x - nodes[i]) / h;
+            w[offset] = 1 - t;
+            w[offset + 1] = t;
+            return i;
+        }
+
+        // The slopes at nodes i and i + 1 depend on nodes i - 1 to i + 2, or on the first or last three nodes at the
+        // ends of the grid. Place the stencil so that all of them fall inside the grid.
+        final int first = Math.max(0, Math.min(i - 1, n - 4));
+        final int shift = offset - first;
+        Arrays.fill(w, offset, offset + 4, 0.0);
+        if (extrapolationMethod == ExtrapolationMethod.LINEAR && (below || above)) {
+            int k = below ? 0 : n - 1;
+            w[shift + k] += 1.0;
+            addSlopeWeights(nodes, k, x - nodes[k], w, shift);
+        } else {
+            double t = (x - nodes[i]) / h;
+            double t2 = t * t;
+            double t3 = t2 * t;
+            w[shift + i] += 2 * t3 - 3 * t2 + 1;
+            w[shift + i + 1] += -2 * t3 + 3 * t2;
+            addSlopeWeights(nodes, i, h * (t3 - 2 * t2 + t), w, shift);
+            addSlopeWeights(nodes, i + 1, h * (t3 - t2), w, shift);
+        }
+        return first;
+    }
+
+    /*
+     * Adds factor times the weights of the estimated slope at node k. The slope is the derivative of the parabola
+     * through node k and its neighbors, using one sided parabolas at the ends of the grid.
+     */
+    private static void addSlopeWeights(double[] nodes, int k, double factor, double[] w, int offset) {
+        final int n = nodes.length;
+        if (n == 2) {
+            double h = nodes[1] - nodes[0];
+            w[offset] -= factor / h;
+            w[offset + 1] += factor / h;
+            return;
+        }
+        if (k == 0) {
+            double h0 = nodes[1] - nodes[0];
+            double h1 = nodes[2] - nodes[1];
+            double s = h0 + h1;
+            w[offset] -= factor * (2 * h0 + h1) / (h0 * s);
+            w[offset + 1] += factor * ((2 * h0 + h1) / (h0 * s) + h0 / (h1 * s));
+            w[offset + 2] -= factor * h0 / (h1 * s);
+        } else if (k == n - 1) {
+            double a = nodes[n - 1] - nodes[n - 2];
+            double b = nodes[n - 2] - nodes[n - 3];
+            double s = a + b;
+            w[offset + n - 1] += factor * (2 * a + b) / (a * s);
+            w[offset + n - 2] -= factor * ((2 * a + b) / (a * s) + a / (b * s));
+            w[offset + n - 3] += factor * a / (b * s);
+        } else {
+            double a = nodes[k] - nodes[k - 1];
+            double b = nodes[k + 1] - nodes[k];
+            double s = a + b;
+            w[offset + k + 1] += factor * a / (s * b);
+            w[offset + k] += factor * (b / (s * a) - a / (s * b));
+            w[offset + k - 1] -= factor * b / (s * a);
+        }
+    }
+
+    private static int findSegmentIndex(double[] nodes, double x) {
+        int index = Arrays.binarySearch(nodes, x);
+        return index < 0 ? -(index + 2) : Math.min(index, nodes.length - 2);
+    }
+}
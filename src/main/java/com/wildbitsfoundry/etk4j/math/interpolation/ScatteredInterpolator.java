@@ -0,0 +1,345 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.CholeskyDecompositionSparse;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixSparse;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ScatteredInterpolator} class interpolates values given at arbitrary positions in any number of
+ * dimensions. All the methods are built on top of a {@link KDTree}, so each query only looks at the data points close
+ * to it. The tree can be built once and shared by several interpolators over the same positions.
+ * <pre>
+ *     Nearest: the value of the closest data point.
+ *     Linear: a linear function fitted by weighted least squares to the k nearest data points. The weights go to
+ *     infinity at the data points and to zero at the (k + 1)-th neighbor, so the result interpolates the data,
+ *     reproduces linear functions exactly and is continuous.
+ *     Radial basis: a sum of compactly supported Wendland functions. Only the data points within the support radius
+ *     of a query contribute to it and the coefficients are found by solving a sparse symmetric positive definite
+ *     system.
+ * </pre>
+ */
+public abstract class ScatteredInterpolator implements MultivariateFunction {
+
+    protected final KDTree tree;
+    protected final double[] values;
+
+    protected ScatteredInterpolator(KDTree tree, double[] values) {
+        if (values.length != tree.size()) {
+            throw new IllegalArgumentException("There must be one value per point.");
+        }
+        this.tree = tree;
+        this.values = Arrays.copyOf(values, values.length);
+    }
+
+    /**
+     * Creates a nearest neighbor interpolator.
+     *
+     * @param points The positions of the data, one per row.
+     * @param values The value at each position.
+     * @return A new nearest neighbor interpolator.
+     */
+    public static ScatteredInterpolator newNearestInterpolator(double[][] points, double[] values) {
+        return newNearestInterpolator(new KDTree(points), values);
+    }
+
+    /**
+     * Creates a nearest neighbor interpolator over an existing tree.
+     *
+     * @param tree   The spatial index of the positions of the data.
+     * @param values The value at each point of the tree.
+     * @return A new nearest neighbor interpolator.
+     */
+    public static ScatteredInterpolator newNearestInterpolator(KDTree tree, double[] values) {
+        return new Nearest(tree, values);
+    }
+
+    /**
+     * Creates a local linear interpolator that uses {@code 3 * dimensions} neighbors.
+     *
+     * @param points The positions of the data, one per row.
+     * @param values The value at each position.
+     * @return A new linear interpolator.
+     */
+    public static ScatteredInterpolator newLinearInterpolator(double[][] points, double[] values) {
+        KDTree tree = new KDTree(points);
+        return newLinearInterpolator(tree, values, 3 * tree.getDimensions());
+    }
+
+    /**
+     * Creates a local linear interpolator over an existing tree.
+     *
+     * @param tree      The spatial index of the positions of the data.
+     * @param values    The value at each point of the tree.
+     * @param neighbors The number of data points used by each query. It must be greater than the number of
+     *                  dimensions and smaller than the number of points.
+     * @return A new linear interpolator.
+     */
+    public static ScatteredInterpolator newLinearInterpolator(KDTree tree, double[] values, int neighbors) {
+        return new Linear(tree, values, neighbors);
+    }
+
+    /**
+     * Creates a radial basis function interpolator with compact support.
+     *
+     * @param points        The positions of the data, one per row.
+     * @param values        The value at each position.
+     * @param supportRadius The radius of influence of each data point. Queries farther than this from every data
+     *                      point return the mean of the values.
+     * @return A new radial basis function interpolator.
+     */
+    public static ScatteredInterpolator newRadialBasisInterpolator(double[][] points, double[] values,
+                                                                  double supportRadius) {
+        return newRadialBasisInterpolator(new KDTree(points), values, supportRadius);
+    }
+
+    /**
+     * Creates a radial basis function interpolator with compact support over an existing tree.
+     *
+     * @param tree          The spatial index of the positions of the data.
+     * @param values        The value at each point of the tree.
+     * @param supportRadius The radius of influence of each data point.
+     * @return A new radial basis function interpolator.
+     */
+    public static ScatteredInterpolator newRadialBasisInterpolator(KDTree tree, double[] values,
+                                                                  double supportRadius) {
+        return new RadialBasis(tree, values, supportRadius);
+    }
+
+    public KDTree getTree() {
+        return tree;
+    }
+
+    /**
+     * Evaluates the interpolant at several points.
+     *
+     * @param points The points, one per row.
+     * @return The interpolated value at each point.
+     */
+    public double[] evaluateAt(double[][] points) {
+        double[] result = new double[points.length];
+        for (int i = 0; i < points.length; ++i) {
+            result[i] = evaluateAt(points[i]);
+        }
+        return result;
+    }
+
+    private static class Nearest extends ScatteredInterpolator {
+
+        Nearest(KDTree tree, double[] values) {
+            super(tree, values);
+        }
+
+        @Override
+        public double evaluateAt(double... point) {
+            return values[tree.findNearest(point)];
+        }
+    }
+
+    private static class Linear extends ScatteredInterpolator {
+        private final int neighbors;
+
+        Linear(KDTree tree, double[] values, int neighbors) {
+            super(tree, values);
+            int dimensions = tree.getDimensions();
+            if (neighbors <= dimensions || neighbors >= tree.size()) {
+                throw new IllegalArgumentException(String.format(
+                        "The number of neighbors must be between %d and %d.", dimensions + 1, tree.size() - 1));
+            }
+            this.neighbors = neighbors;
+        }
+
+        @Override
+        public double evaluateAt(double... point) {
+            final int n = tree.getDimensions() + 1;
+            final int k = neighbors;
+            int[] index = new int[k + 1];
+            double[] distance = new double[k + 1];
+            tree.findNearest(point, k + 1, index, distance);
+            if (distance[0] == 0.0) {
+                return values[index[0]];
+            }
+
+            // Weighted normal equations for f(x) = c0 + c1 * (x1 - p1) + ... + cd * (xd - pd)
+            final double radius = distance[k];
+            double[] a = new double[n * n];
+            double[] b = new double[n];
+            double[] basis = new double[n];
+            double weightSum = 0.0;
+            double weightedSum = 0.0;
+            for (int i = 0; i < k; ++i) {
+                double w = (radius - distance[i]) / (radius * distance[i]);
+                w *= w;
+                if (w == 0.0) {
+                    continue;
+                }
+                double value = values[index[i]];
+                weightSum += w;
+                weightedSum += w * value;
+                double[] coordinates = tree.getPoint(index[i]);
+                basis[0] = 1.0;
+                for (int d = 1; d < n; ++d) {
+                    basis[d] = coordinates[d - 1] - point[d - 1];
+                }
+                for (int r = 0; r < n; ++r) {
+                    double wr = w * basis[r];
+                    b[r] += wr * value;
+                    for (int c = 0; c <= r; ++c) {
+                        a[r * n + c] += wr * basis[c];
+                    }
+                }
+            }
+            if (weightSum == 0.0) {
+                // All the neighbors are at the same distance
+                double sum = 0.0;
+                for (int i = 0; i < k; ++i) {
+                    sum += values[index[i]];
+                }
+                return sum / k;
+            }
+            for (int r = 0; r < n; ++r) {
+                for (int c = r + 1; c < n; ++c) {
+                    a[r * n + c] = a[c * n + r];
+                }
+            }
+            double c0 = solveForIntercept(a, b, n);
+            // Degenerate neighborhoods (e.g. collinear points in 2d) fall back to a weighted mean
+            return Double.isNaN(c0) ? weightedSum / weightSum : c0;
+        }
+
+        /*
+         * Gaussian elimination with partial pivoting. Only the first unknown is needed. Returns NaN if the system is
+         * numerically singular.
+         */
+        private static double solveForIntercept(double[] a, double[] b, int n) {
+            double scale = 0.0;
+            for (double v : a) {
+                scale = Math.max(scale, Math.abs(v));
+            }
+            final double tol = scale * 1e-12;
+            for (int col = 0; col < n; ++col) {
+                int pivot = col;
+                for (int r = col + 1; r < n; ++r) {
+                    if (Math.abs(a[r * n + col]) > Math.abs(a[pivot * n + col])) {
+                        pivot = r;
+                    }
+                }
+                if (!(Math.abs(a[pivot * n + col]) > tol)) {
+                    return Double.NaN;
+                }
+                if (pivot != col) {
+                    for (int c = 0; c < n; ++c) {
+                        double tmp = a[col * n + c];
+                        a[col * n + c] = a[pivot * n + c];
+                        a[pivot * n + c] = tmp;
+                    }
+                    double tmp = b[col];
+                    b[col] = b[pivot];
+                    b[pivot] = tmp;
+                }
+                for (int r = col + 1; r < n; ++r) {
+                    double f = a[r * n + col] / a[col * n + col];
+                    for (int c = col; c < n; ++c) {
+                        a[r * n + c] -= f * a[col * n + c];
+                    }
+                    b[r] -= f * b[col];
+                }
+            }
+            for (int r = n - 1; r >= 0; --r) {
+                double sum = b[r];
+                for (int c = r + 1; c < n; ++c) {
+                    sum -= a[r * n + c] * b[c];
+                }
+                b[r] = sum / a[r * n + r];
+            }
+            return b[0];
+        }
+    }
+
+    private static class RadialBasis extends ScatteredInterpolator {
+        private final double supportRadius;
+        private final double mean;
+        private final double[] weights;
+
+        RadialBasis(KDTree tree, double[] values, double supportRadius) {
+            super(tree, values);
+            if (!(supportRadius > 0)) {
+                throw new IllegalArgumentException("The support radius must be greater than zero.");
+            }
+            this.supportRadius = supportRadius;
+            final int n = tree.size();
+            double sum = 0.0;
+            for (double v : values) {
+                sum += v;
+            }
+            mean = sum / n;
+
+            // Assemble the interpolation matrix column by column. Each column only has entries for the points within
+            // the support radius.
+            MatrixSparse matrix = new MatrixSparse(n, n, n);
+            int[] rows = new int[16];
+            double[] column = new double[16];
+            for (int j = 0; j < n; ++j) {
+                double[] pj = tree.getPoint(j);
+                int[] neighbors = tree.findWithinRadius(pj, supportRadius);
+                Arrays.sort(neighbors);
+                if (rows.length < neighbors.length) {
+                    rows = new int[neighbors.length];
+                    column = new double[neighbors.length];
+                }
+                for (int i = 0; i < neighbors.length; ++i) {
+                    rows[i] = neighbors[i];
+                    column[i] = wendland(distance(tree.getPoint(neighbors[i]), pj) / supportRadius);
+                }
+                int length = matrix.nz_length;
+                if (length + neighbors.length > matrix.nz_values.length) {
+                    matrix.growMaxLength(Math.max(2 * matrix.nz_values.length, length + neighbors.length), true);
+                }
+                System.arraycopy(rows, 0, matrix.nz_rows, length, neighbors.length);
+                System.arraycopy(column, 0, matrix.nz_values, length, neighbors.length);
+                matrix.nz_length += neighbors.length;
+                matrix.col_idx[j + 1] = matrix.nz_length;
+            }
+
+            double[] rhs = new double[n];
+            for (int i = 0; i < n; ++i) {
+                rhs[i] = this.values[i] - mean;
+            }
+            CholeskyDecompositionSparse chol = matrix.Chol();
+            if (!chol.isSPD()) {
+                throw new IllegalArgumentException("The interpolation matrix is singular. Check for repeated points.");
+            }
+            weights = chol.solve(rhs).getArrayDense();
+        }
+
+        @Override
+        public double evaluateAt(double... point) {
+            double[] sum = { mean };
+            tree.forEachWithinRadius(point, supportRadius,
+                    (index, distance) -> sum[0] += weights[index] * wendland(distance / supportRadius));
+            return sum[0];
+        }
+
+        /*
+         * Wendland's C2 function, positive definite in up to 3 dimensions.
+         */
+        private static double wendland(double r) {
+            if (r >= 1.0) {
+                return 0.0;
+            }
+            double s = 1.0 - r;
+            s *= s;
+            return s * s * (4.0 * r + 1.0);
+        }
+
+        private static double distance(double[] a, double[] b) {
+            double sum = 0.0;
+            for (int i = 0; i < a.length; ++i) {
+                double diff = a[i] - b[i];
+                sum += diff * diff;
+            }
+            return Math.sqrt(sum);
+        }
+    }
+}
@@ -73,6 +73,27 @@ public abstract class Spline extends PiecewiseFunction implements Differentiable
 		return this.evaluateDerivativeAt(i, x);
 	}
 
+	/**
+	 * Evaluates the derivative of the spline at several values. Sorted (or nearly sorted) values are evaluated in a
+	 * single pass over the segments.
+	 * @param x The values at which to evaluate the derivative.
+	 * @param out Output array of the same length as {@code x}.
+	 */
+	public void differentiate(double[] x, double[] out) {
+		final double x0 = this.x[0];
+		final double xn = this.x[this.x.length - 1];
+		int index = 0;
+		for (int i = 0; i < x.length; ++i) {
+			double xi = x[i];
+			if (xi >= x0 && xi <= xn) {
+				index = this.findSegmentIndex(xi, index);
+				out[i] = this.evaluateDerivativeAt(index, xi);
+			} else {
+				out[i] = this.differentiate(xi);
+			}
+		}
+	}
+
 	@Override
 	public double integrate(double a, double b) {
 		if(b < a) {
@@ -96,6 +117,30 @@ public abstract class Spline extends PiecewiseFunction implements Differentiable
 		return _indefiniteIntegral[i] + this.evaluateAntiDerivativeAt(i, x);
 	}
 
+	/**
+	 * Evaluates the antiderivative of the spline, measured from the first break, at several values. Sorted (or
+	 * nearly sorted) values are evaluated in a single pass over the segments.
+	 * @param x The values at which to evaluate the antiderivative.
+	 * @param out Output array of the same length as {@code x}.
+	 */
+	public void integrate(double[] x, double[] out) {
+		if (_indefiniteIntegral == null) {
+			this.calculateIntegral();
+		}
+		final double x0 = this.x[0];
+		final double xn = this.x[this.x.length - 1];
+		int index = 0;
+		for (int i = 0; i < x.length; ++i) {
+			double xi = x[i];
+			if (xi >= x0 && xi <= xn) {
+				index = this.findSegmentIndex(xi, index);
+				out[i] = _indefiniteIntegral[index] + this.evaluateAntiDerivativeAt(index, xi);
+			} else {
+				out[i] = this.integrate(xi);
+			}
+		}
+	}
+
 	private void calculateIntegral() {
 		// Lazy creating the values
 		if (_indefiniteIntegral != null) {
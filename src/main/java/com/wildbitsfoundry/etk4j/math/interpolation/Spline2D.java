@@ -1,7 +1,9 @@
 package com.wildbitsfoundry.etk4j.math.interpolation;
 
 import java.util.Arrays;
+import java.util.stream.IntStream;
 
+import com.wildbitsfoundry.etk4j.math.extrapolation.Extrapolators;
 import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
 
 /**
@@ -9,10 +11,10 @@ import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
  */
 public abstract class Spline2D implements BivariateFunction {
 
-    private double[] y;
-    private Spline[] splines;
+    protected final double[] y;
+    protected final Spline[] splines;
 
-    private int order;
+    private final int order;
 
     protected Spline2D(double[] y, Spline[] splines, int order) {
         this.y = y;
@@ -44,6 +46,164 @@ public abstract class Spline2D implements BivariateFunction {
         }
     }
 
+    /**
+     * Evaluate the spline at scattered points.
+     *
+     * @param x The x coordinates at which to evaluate the spline.
+     * @param y The y coordinates at which to evaluate the spline.
+     * @return An array with the value of the spline at each {@code (x[i], y[i])}.
+     * @see #evaluateAt(double[], double[], double[])
+     */
+    public double[] evaluateAt(double[] x, double[] y) {
+        double[] result = new double[x.length];
+        this.evaluateAt(x, y, result);
+        return result;
+    }
+
+    /**
+     * Evaluate the spline at scattered points into a caller provided array. The segments of every point along x and
+     * y are searched starting from those of the previous point, so points that follow a path through the grid are
+     * located in about constant time.
+     *
+     * @param x   The x coordinates at which to evaluate the spline.
+     * @param y   The y coordinates at which to evaluate the spline.
+     * @param out Output array of the same length as {@code x}. {@code out[i]} holds the value of the spline at
+     *            {@code (x[i], y[i])}.
+     */
+    public void evaluateAt(double[] x, double[] y, double[] out) {
+        if (x.length != y.length) {
+            throw new IllegalArgumentException("The length of x and y arrays must the same");
+        }
+        if (out.length != x.length) {
+            throw new IllegalArgumentException("The output must have the same length as x.");
+        }
+        int[] hint = {-1, -1};
+        for (int i = 0; i < x.length; ++i) {
+            out[i] = this.evaluateAt(x[i], y[i], hint);
+        }
+    }
+
+    /**
+     * Evaluates one point of a sequence of scattered points. Subclasses override this method to start the segment
+     * searches from the segments of the previous point.
+     *
+     * @param x    The x coordinate at which to evaluate the spline.
+     * @param y    The y coordinate at which to evaluate the spline.
+     * @param hint The segments along x and y of the previous point, or -1 if unknown. Updated with the segments of
+     *             {@code (x, y)}.
+     * @return The value of the spline at {@code (x, y)}.
+     */
+    protected double evaluateAt(double x, double y, int[] hint) {
+        return this.evaluateAt(x, y);
+    }
+
+    /**
+     * Evaluate the spline over the grid defined by {@code x} and {@code y}.
+     *
+     * @param x   The x coordinates of the grid.
+     * @param y   The y coordinates of the grid.
+     * @param out Output array. {@code out[i][j]} holds the value of the spline at {@code (x[j], y[i])}, which is the
+     *            same layout used for {@code z} when constructing the spline.
+     */
+    public void evaluateOnGrid(double[] x, double[] y, double[][] out) {
+        evaluateOnGrid(x, y, out, false);
+    }
+
+    /**
+     * Evaluate the spline over the grid defined by {@code x} and {@code y}. The work that only depends on {@code x},
+     * such as finding the segment of each point, is done once and shared by every row of the grid.
+     *
+     * @param x        The x coordinates of the grid.
+     * @param y        The y coordinates of the grid.
+     * @param out      Output array. {@code out[i][j]} holds the value of the spline at {@code (x[j], y[i])}.
+     * @param parallel If {@code true} the rows of the grid are evaluated in parallel.
+     */
+    public void evaluateOnGrid(double[] x, double[] y, double[][] out, boolean parallel) {
+        if (out.length != y.length) {
+            throw new IllegalArgumentException("The output must have as many rows as y values.");
+        }
+        for (double[] row : out) {
+            if (row.length != x.length) {
+                throw new IllegalArgumentException("The output must have as many columns as x values.");
+            }
+        }
+        final GridRowEvaluator evaluator = this.createGridRowEvaluator(x);
+        IntStream rows = IntStream.range(0, y.length);
+        if (parallel) {
+            rows = rows.parallel();
+        }
+        rows.forEach(i -> evaluator.evaluateRow(y[i], out[i]));
+    }
+
+    /**
+     * Prepares the evaluation of the rows of a grid. Subclasses override this method to precompute the segment
+     * indices along x.
+     *
+     * @param x The x coordinates of the grid.
+     * @return An evaluator that fills one row of the grid. It must be safe to call it from multiple threads.
+     */
+    protected GridRowEvaluator createGridRowEvaluator(double[] x) {
+        return (y, out) -> {
+            for (int j = 0; j < x.length; ++j) {
+                out[j] = this.evaluateAt(x[j], y);
+            }
+        };
+    }
+
+    /**
+     * Evaluates a single row of a grid.
+     */
+    protected interface GridRowEvaluator {
+        void evaluateRow(double y, double[] out);
+    }
+
+    /**
+     * Throws the same exception as {@link Extrapolators.ThrowExtrapolator} if {@code value} is outside of the breaks.
+     *
+     * @param breaks The breaks of one of the axes.
+     * @param value  The value to check.
+     */
+    protected static void checkRange(double[] breaks, double value) {
+        if (value < breaks[0] || value > breaks[breaks.length - 1]) {
+            new Extrapolators.ThrowExtrapolator(breaks[0], breaks[breaks.length - 1]).extrapolate(value);
+        }
+    }
+
+    /**
+     * Index of the segment of {@code breaks} that contains {@code value}.
+     *
+     * @param breaks The breaks of one of the axes.
+     * @param value  A value within the breaks.
+     * @return The index of the segment.
+     */
+    protected static int findSegmentIndex(double[] breaks, double value) {
+        int index = Arrays.binarySearch(breaks, value);
+        return index < 0 ? -(index + 2) : Math.min(index, breaks.length - 2);
+    }
+
+    /**
+     * Index of the segment of {@code breaks} that contains {@code value}, starting from a previously found segment. A
+     * value in the hinted segment or in one of the next few is found with a short forward scan, like
+     * {@link com.wildbitsfoundry.etk4j.math.function.PiecewiseFunction#findSegmentIndex(double, int)}.
+     *
+     * @param breaks The breaks of one of the axes.
+     * @param value  A value within the breaks.
+     * @param hint   A segment index, typically the result of the previous lookup.
+     * @return The index of the segment.
+     */
+    protected static int findSegmentIndex(double[] breaks, double value, int hint) {
+        final int last = breaks.length - 2;
+        if (hint >= 0 && hint <= last && value >= breaks[hint]) {
+            for (int k = 0; k < 4; ++k) {
+                if (hint == last || value < breaks[hint + 1]) {
+                    return hint;
+                }
+                ++hint;
+            }
+        }
+        return findSegmentIndex(breaks, value);
+    }
+
     protected int findLeftIndex(double y) {
         int index = Arrays.binarySearch(this.y, y);
         if (index >= 0) {
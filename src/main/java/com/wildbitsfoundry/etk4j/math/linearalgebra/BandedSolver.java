@@ -0,0 +1,87 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+public final class BandedSolver {
+
+    private BandedSolver() {}
+
+    /**
+     * Solve a symmetric positive definite banded system using the Cholesky decomposition. Only the upper band of the
+     * matrix is stored, row by row. For a matrix with half bandwidth {@code w} the entry {@code A[i][i + j]} is stored
+     * at {@code band[i * (w + 1) + j]} for {@code 0 <= j <= w}, e.g. for {@code w = 1}:
+     * <pre>
+     *     a00 a01  0       band = { a00, a01, a11, a12, a22, 0 }
+     *     a01 a11 a12
+     *      0  a12 a22
+     * </pre>
+     * The decomposition takes O(n * w<sup>2</sup>) operations and no extra memory.
+     * @param band The upper band of the matrix. It is overwritten by the Cholesky factor R with A = R<sup>T</sup>R.
+     * @param bandwidth The number of super-diagonals {@code w}.
+     * @param b The right hand side. It is overwritten by the solution.
+     * @throws SingularMatrixException If the matrix is not positive definite.
+     */
+    public static void solveCholeskyBandedSystem(double[] band, int bandwidth, double[] b) {
+        decomposeCholeskyBanded(band, bandwidth, b.length);
+        solveCholeskyBanded(band, bandwidth, b);
+    }
+
+    /**
+     * Computes the Cholesky decomposition of a symmetric positive definite banded matrix in place. The storage is the
+     * same as in {@link #solveCholeskyBandedSystem(double[], int, double[])}.
+     * @param band The upper band of the matrix. It is overwritten by the Cholesky factor.
+     * @param bandwidth The number of super-diagonals.
+     * @param n The size of the matrix.
+     * @throws SingularMatrixException If the matrix is not positive definite.
+     */
+    public static void decomposeCholeskyBanded(double[] band, int bandwidth, int n) {
+        final int w1 = bandwidth + 1;
+        if (band.length < n * w1) {
+            throw new IllegalArgumentException("The band array is too small for the given size and bandwidth.");
+        }
+        for (int i = 0; i < n; ++i) {
+            final int jEnd = Math.min(n - 1, i + bandwidth);
+            for (int j = i; j <= jEnd; ++j) {
+                double sum = band[i * w1 + j - i];
+                for (int k = Math.max(0, j - bandwidth); k < i; ++k) {
+                    sum -= band[k * w1 + i - k] * band[k * w1 + j - k];
+                }
+                if (j == i) {
+                    if (!(sum > 0)) {
+                        throw new SingularMatrixException("Matrix is not symmetric positive definite.");
+                    }
+                    band[i * w1] = Math.sqrt(sum);
+                } else {
+                    band[i * w1 + j - i] = sum / band[i * w1];
+                }
+            }
+        }
+    }
+
+    /**
+     * Solves R<sup>T</sup>R x = b given the factor computed by
+     * {@link #decomposeCholeskyBanded(double[], int, int)}.
+     * @param factor The Cholesky factor in banded storage.
+     * @param bandwidth The number of super-diagonals.
+     * @param b The right hand side. It is overwritten by the solution.
+     */
+    public static void solveCholeskyBanded(double[] factor, int bandwidth, double[] b) {
+        final int n = b.length;
+        final int w1 = bandwidth + 1;
+        // Forward Substitution
+        for (int i = 0; i < n; ++i) {
+            double sum = b[i];
+            for (int k = Math.max(0, i - bandwidth); k < i; ++k) {
+                sum -= factor[k * w1 + i - k] * b[k];
+            }
+            b[i] = sum / factor[i * w1];
+        }
+        // Backwards Substitution
+        for (int i = n - 1; i >= 0; --i) {
+            double sum = b[i];
+            final int jEnd = Math.min(n - 1, i + bandwidth);
+            for (int j = i + 1; j <= jEnd; ++j) {
+                sum -= factor[i * w1 + j - i] * b[j];
+            }
+            b[i] = sum / factor[i * w1];
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * This class implements the Biconjugate Gradient Stabilized method (BiCGSTAB) to solve a general, possibly
+ * nonsymmetric, system of equations. Each iteration costs two products {@code A * x} and uses a fixed amount of memory.
+ * The matrix can be a {@link MatrixSparse} or any {@link LinearOperator}.
+ */
+public class BiCGSTABSolver {
+
+    private final LinearOperator A;
+    private final double[] b;
+    private int iterationLimit = 1000;
+    private double tol = 1e-9;
+    private double[] x0 = null;
+    private Preconditioner M = null;
+
+    public BiCGSTABSolver(MatrixSparse A, double[] b) {
+        this(LinearOperator.fromMatrix(A), b);
+    }
+
+    public BiCGSTABSolver(LinearOperator A, double[] b) {
+        if (A.getRowCount() != A.getColumnCount()) {
+            throw new IllegalArgumentException("Matrix must be square.");
+        }
+        if (A.getRowCount() != b.length) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        this.A = A;
+        this.b = b;
+    }
+
+    /**
+     * Sets the maximum number of iterations allowed
+     * @param iterationLimit the maximum number of iterations allowed
+     * @return {@code this}
+     */
+    public BiCGSTABSolver iterationLimit(int iterationLimit) {
+        this.iterationLimit = iterationLimit;
+        return this;
+    }
+
+    /**
+     * Sets the relative tolerance that determines when to stop the algorithm. The algorithm stops when
+     * {@code ||b - A * x|| <= tolerance * ||b||}.
+     * @param tolerance the relative tolerance
+     * @return {@code this}
+     */
+    public BiCGSTABSolver tolerance(double tolerance) {
+        this.tol = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the initial guess to the solution of the system of equations
+     * @param x0 the initial guess of the solutions. All zeros if not set.
+     * @return {@code this}
+     */
+    public BiCGSTABSolver initialGuess(double[] x0) {
+        this.x0 = x0;
+        return this;
+    }
+
+    /**
+     * Sets the preconditioner applied to the system
+     * @param M the preconditioner. No preconditioning if not set.
+     * @return {@code this}
+     */
+    public BiCGSTABSolver preconditioner(Preconditioner M) {
+        this.M = M;
+        return this;
+    }
+
+    /**
+     * Solves A * x = b
+     * @return An {@link IterativeSolverResults} with the solutions of the system A * x  = b. The error is the relative
+     * residual {@code ||b - A * x|| / ||b||}.
+     */
+    public IterativeSolverResults<double[]> solve() {
+        final int n = b.length;
+        double[] x = x0 == null ? new double[n] : x0.clone();
+        double[] r = new double[n];
+        double[] rHat = new double[n];
+        double[] p = new double[n];
+        double[] v = new double[n];
+        double[] s = new double[n];
+        double[] t = new double[n];
+        // Preconditioned search directions, aliases of p and s without preconditioning
+        double[] pHat = M == null ? p : new double[n];
+        double[] sHat = M == null ? s : new double[n];
+
+        double bNorm = KrylovUtils.norm(b);
+        if (bNorm == 0.0) {
+            return KrylovUtils.results(new double[n], 0, 0.0, true, "Converged");
+        }
+        KrylovUtils.residual(A, x, b, r);
+        double error = KrylovUtils.norm(r) / bNorm;
+        if (error <= tol) {
+            return KrylovUtils.results(x, 0, error, true, "Converged");
+        }
+        System.arraycopy(r, 0, rHat, 0, n);
+        double rho = 1.0;
+        double alpha = 1.0;
+        double omega = 1.0;
+        for (int k = 0; k < iterationLimit; ++k) {
+            double rhoNew = KrylovUtils.dot(rHat, r);
+            if (rhoNew == 0.0) {
+                return KrylovUtils.results(x, k, error, false, "Breakdown: rho = 0");
+            }
+            if (k == 0) {
+                System.arraycopy(r, 0, p, 0, n);
+            } else {
+                double beta = (rhoNew / rho) * (alpha / omega);
+                for (int i = 0; i < n; ++i) {
+                    p[i] = r[i] + beta * (p[i] - omega * v[i]);
+                }
+            }
+            rho = rhoNew;
+
+            if (M != null) {
+                M.apply(p, pHat);
+            }
+            A.multiply(pHat, v);
+            double rHatV = KrylovUtils.dot(rHat, v);
+            if (rHatV == 0.0) {
+                return KrylovUtils.results(x, k, error, false, "Breakdown: (rHat, v) = 0");
+            }
+            alpha = rho / rHatV;
+            for (int i = 0; i < n; ++i) {
+                s[i] = r[i] - alpha * v[i];
+            }
+            double sNorm = KrylovUtils.norm(s);
+            if (sNorm / bNorm <= tol) {
+                KrylovUtils.axpy(alpha, pHat, x);
+                return KrylovUtils.results(x, k + 1, sNorm / bNorm, true, "Converged");
+            }
+
+            if (M != null) {
+                M.apply(s, sHat);
+            }
+            A.multiply(sHat, t);
+            double tt = KrylovUtils.dot(t, t);
+            if (tt == 0.0) {
+                return KrylovUtils.results(x, k, error, false, "Breakdown: (t, t) = 0");
+            }
+            omega = KrylovUtils.dot(t, s) / tt;
+            for (int i = 0; i < n; ++i) {
+                x[i] += alpha * pHat[i] + omega * sHat[i];
+                r[i] = s[i] - omega * t[i];
+            }
+            error = KrylovUtils.norm(r) / bNorm;
+            if (error <= tol) {
+                return KrylovUtils.results(x, k + 1, error, true, "Converged");
+            }
+            if (omega == 0.0) {
+                return KrylovUtils.results(x, k + 1, error, false, "Breakdown: omega = 0");
+            }
+        }
+        return KrylovUtils.results(x, iterationLimit, error, false, "Maximum number of iterations exceeded");
+    }
+}
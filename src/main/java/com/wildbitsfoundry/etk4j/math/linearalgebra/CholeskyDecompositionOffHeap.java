@@ -0,0 +1,201 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * Blocked Cholesky decomposition of a {@link MatrixDenseOffHeap}, {@code A = L * L^T}. Only the lower triangle of
+ * {@code A} is read.
+ * <p>
+ * The columns are factored in panels of {@value #BLOCK}. The diagonal block is factored on the heap, the rows below it
+ * are solved against it and the trailing lower triangle is updated with a single pass over its rows, in parallel.
+ * </p>
+ */
+public class CholeskyDecompositionOffHeap extends CholeskyDecomposition<MatrixDenseOffHeap> {
+
+    static final int BLOCK = 64;
+
+    private final int n;
+    private final MatrixDenseOffHeap L;
+    private boolean isSPD = true;
+
+    public CholeskyDecompositionOffHeap(MatrixDenseOffHeap matrix) {
+        super(matrix);
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        n = matrix.getRowCount();
+        L = matrix.copy();
+
+        for (int k0 = 0; k0 < n && isSPD; k0 += BLOCK) {
+            final int b = Math.min(BLOCK, n - k0);
+            // L11 * L11^T = A11
+            final double[] d = new double[b * b];
+            for (int i = 0; i < b; ++i) {
+                L.read(L.index(k0 + i, k0), d, i * b, i + 1);
+            }
+            for (int j = 0; j < b; ++j) {
+                double s = d[j * b + j];
+                for (int k = 0; k < j; ++k) {
+                    s -= d[j * b + k] * d[j * b + k];
+                }
+                if (!(s > 0.0)) {
+                    isSPD = false;
+                    break;
+                }
+                final double ljj = Math.sqrt(s);
+                d[j * b + j] = ljj;
+                for (int i = j + 1; i < b; ++i) {
+                    double t = d[i * b + j];
+                    for (int k = 0; k < j; ++k) {
+                        t -= d[i * b + k] * d[j * b + k];
+                    }
+                    d[i * b + j] = t / ljj;
+                }
+            }
+            if (!isSPD) {
+                break;
+            }
+            for (int i = 0; i < b; ++i) {
+                L.write(L.index(k0 + i, k0), d, i * b, i + 1);
+            }
+
+            final int first = k0 + b;
+            final int m = n - first;
+            if (m == 0) {
+                break;
+            }
+            // L21 * L11^T = A21
+            final int origin = k0;
+            final double[] panel = new double[m * b];
+            MatrixDenseOffHeap.forEachRowBlock(first, n, (long) m * b * b, (from, to) -> {
+                for (int i = from; i < to; ++i) {
+                    final int pi = (i - first) * b;
+                    L.read(L.index(i, origin), panel, pi, b);
+                    for (int j = 0; j < b; ++j) {
+                        double t = panel[pi + j];
+                        for (int k = 0; k < j; ++k) {
+                            t -= panel[pi + k] * d[j * b + k];
+                        }
+                        panel[pi + j] = t / d[j * b + j];
+                    }
+                    L.write(L.index(i, origin), panel, pi, b);
+                }
+            });
+            // A22 -= L21 * L21^T, lower triangle
+            MatrixDenseOffHeap.forEachRowBlock(first, n, (long) m * m * b / 2, (from, to) -> {
+                double[] row = new double[m];
+                for (int i = from; i < to; ++i) {
+                    final int len = i - first + 1;
+                    final int pi = (i - first) * b;
+                    L.read(L.index(i, first), row, 0, len);
+                    for (int j = 0; j < len; ++j) {
+                        double s = 0.0;
+                        for (int k = 0, pj = j * b; k < b; ++k) {
+                            s += panel[pi + k] * panel[pj + k];
+                        }
+                        row[j] -= s;
+                    }
+                    L.write(L.index(i, first), row, 0, len);
+                }
+            });
+        }
+    }
+
+    /**
+     * @return true if A is positive definite.
+     */
+    public boolean isSPD() {
+        return isSPD;
+    }
+
+    /**
+     * @return The lower triangular factor.
+     */
+    public MatrixDenseOffHeap getL() {
+        MatrixDenseOffHeap result = new MatrixDenseOffHeap(n, n);
+        double[] row = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Arrays.fill(row, 0.0);
+            L.read(L.index(i, 0), row, 0, i + 1);
+            result.write(result.index(i, 0), row, 0, n);
+        }
+        return result;
+    }
+
+    /**
+     * Solve A * x = b
+     *
+     * @param b The right hand side.
+     * @return x as a column matrix.
+     */
+    public MatrixDenseOffHeap solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        MatrixDenseOffHeap B = new MatrixDenseOffHeap(n, 1);
+        B.write(0, b, 0, n);
+        return solve(B);
+    }
+
+    /**
+     * Solve A * X = B
+     *
+     * @param B A matrix with as many rows as A and any number of columns.
+     * @return X so that L * L^T * X = B
+     * @throws RuntimeException Matrix is not symmetric positive definite.
+     */
+    public MatrixDenseOffHeap solve(MatrixDenseOffHeap B) {
+        if (B.getRowCount() != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        if (!isSPD) {
+            throw new RuntimeException("Matrix is not symmetric positive definite.");
+        }
+        final int nx = B.getColumnCount();
+        MatrixDenseOffHeap X = new MatrixDenseOffHeap(n, nx);
+        // Groups of right hand sides small enough to be kept on the heap
+        final int width = Math.max(1, Math.min(nx, (1 << 22) / Math.max(1, n)));
+        double[] row = new double[n];
+        for (int c0 = 0; c0 < nx; c0 += width) {
+            final int w = Math.min(width, nx - c0);
+            double[] x = new double[n * w];
+            for (int i = 0; i < n; ++i) {
+                B.read(B.index(i, c0), x, i * w, w);
+            }
+            // L * Y = B
+            for (int i = 0; i < n; ++i) {
+                L.read(L.index(i, 0), row, 0, i + 1);
+                for (int k = 0; k < i; ++k) {
+                    final double l = row[k];
+                    if (l != 0.0) {
+                        for (int c = 0; c < w; ++c) {
+                            x[i * w + c] -= l * x[k * w + c];
+                        }
+                    }
+                }
+                for (int c = 0; c < w; ++c) {
+                    x[i * w + c] /= row[i];
+                }
+            }
+            // L^T * X = Y, column i of L^T is row i of L
+            for (int i = n - 1; i >= 0; --i) {
+                L.read(L.index(i, 0), row, 0, i + 1);
+                for (int c = 0; c < w; ++c) {
+                    x[i * w + c] /= row[i];
+                }
+                for (int k = 0; k < i; ++k) {
+                    final double l = row[k];
+                    if (l != 0.0) {
+                        for (int c = 0; c < w; ++c) {
+                            x[k * w + c] -= l * x[i * w + c];
+                        }
+                    }
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                X.write(X.index(i, c0), x, i * w, w);
+            }
+        }
+        return X;
+    }
+}
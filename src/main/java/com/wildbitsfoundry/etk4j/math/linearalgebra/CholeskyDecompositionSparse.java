@@ -2,10 +2,16 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 
 import com.wildbitsfoundry.etk4j.math.complex.Complex;
 
+import java.util.Arrays;
+
 import static com.wildbitsfoundry.etk4j.math.linearalgebra.ColumnCounts.adjust;
 import static com.wildbitsfoundry.etk4j.math.linearalgebra.QrStructuralCounts.eliminationTree;
 import static com.wildbitsfoundry.etk4j.math.linearalgebra.QrStructuralCounts.postorder;
 
+/**
+ * Up looking sparse Cholesky decomposition, {@code Q^T * A * Q = L * L^T}. The symmetric permutation {@code Q} comes
+ * from the {@link FillReducingOrdering}.
+ */
 public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSparse> {
 
     private int N;
@@ -27,19 +33,72 @@ public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSpa
     private boolean decomposed = false;
     // if true then the structure is locked and won't be computed again
     private boolean locked = false;
+    // sparsity pattern of the matrix the structure was computed for
+    private int[] analyzedColIdx;
+    private int[] analyzedRows;
+
+    // symmetric permutation and its inverse, null if the matrix is in natural order
+    private final int[] q;
+    private final int[] qinv;
+    // storage for Q^T * A * Q
+    private final MatrixSparse Ap = new MatrixSparse(1, 1, 0);
 
     public CholeskyDecompositionSparse(MatrixSparse matrix) {
+        this(matrix, FillReducingOrdering.NATURAL);
+    }
+
+    /**
+     * Decomposes the matrix with its rows and columns symmetrically reordered to reduce the fill-in of the factor.
+     *
+     * @param matrix   The symmetric matrix to decompose.
+     * @param ordering {@link FillReducingOrdering#AMD}, {@link FillReducingOrdering#RCM} or
+     *                 {@link FillReducingOrdering#NATURAL}.
+     */
+    public CholeskyDecompositionSparse(MatrixSparse matrix, FillReducingOrdering ordering) {
         super(matrix);
+        if (ordering == FillReducingOrdering.COLAMD) {
+            throw new IllegalArgumentException("COLAMD is not a symmetric ordering. Use AMD instead.");
+        }
+        this.q = SparseOrderings.permutation(matrix, ordering, true);
+        this.qinv = q == null ? null : SparseOrderings.inverse(q);
         decompose(matrix);
     }
 
-    private boolean decompose(MatrixSparse orig) {
+    /**
+     * Decomposes a new matrix. If the structure is locked, see {@link #setStructureLocked(boolean)}, and a matrix has
+     * already been decomposed, only the numerical factorization is performed: the elimination tree, postorder, column
+     * counts and the storage of {@code L} are reused and no memory is allocated. The fill-reducing ordering chosen at
+     * construction is always reused.
+     *
+     * @param orig The symmetric matrix to decompose.
+     * @return {@code true} if the matrix is positive definite.
+     * @throws IllegalArgumentException if the structure is locked and the matrix does not have the sparsity pattern of
+     *                                  the analyzed one.
+     */
+    public boolean decompose(MatrixSparse orig) {
         if (orig.cols != orig.rows) {
             throw new NonSquareMatrixException("Must be a square matrix");
         }
+        boolean reuse = locked && decomposed;
+        if (reuse && (orig.cols != N
+                || !MatrixSparseUtils.hasPattern(orig, analyzedColIdx, analyzedRows, adjust(gw, N)))) {
+            throw new IllegalArgumentException(
+                    "The structure is locked and the matrix has a different sparsity pattern.");
+        }
 
-        if (!locked || !decomposed)
+        if (!reuse) {
+            analyzedColIdx = Arrays.copyOf(orig.col_idx, orig.cols + 1);
+            analyzedRows = Arrays.copyOf(orig.nz_rows, orig.nz_length);
+        }
+
+        if (q != null) {
+            MatrixSparseUtils.permute(qinv, orig, q, Ap);
+            orig = Ap;
+        }
+
+        if (!reuse) {
             performSymbolic(orig);
+        }
 
         performDecomposition(orig);
         if (isSPD) {
@@ -76,6 +135,7 @@ public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSpa
         double[] x = adjust(gx, N);
 
         System.arraycopy(L.col_idx, 0, c, 0, N);
+        this.isSPD = true;
 
         for (int k = 0; k < N; k++) {
             //----  Nonzero pattern of L(k,:)
@@ -118,14 +178,55 @@ public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSpa
             L.nz_rows[p] = k;
             L.nz_values[p] = Math.sqrt(d);
         }
-
-        this.isSPD = true;
     }
 
     public boolean isSPD() {
         return isSPD;
     }
 
+    /**
+     * Locks the symbolic structure computed by the last decomposition, so that {@link #decompose(MatrixSparse)} only
+     * refactors the numerical values. Use it to factor a sequence of matrices with the same sparsity pattern, e.g. the
+     * Jacobians of a Newton iteration.
+     *
+     * @param locked {@code true} to reuse the structure.
+     */
+    public void setStructureLocked(boolean locked) {
+        this.locked = locked;
+    }
+
+    public boolean isStructureLocked() {
+        return locked;
+    }
+
+    /**
+     * The elimination tree of the (permuted) matrix. {@code parent[k]} is the parent of node {@code k} or -1 for a
+     * root.
+     *
+     * @return A copy of the elimination tree.
+     */
+    public int[] getEliminationTree() {
+        return Arrays.copyOf(parent, N);
+    }
+
+    /**
+     * The postorder of the elimination tree.
+     *
+     * @return A copy of the postorder.
+     */
+    public int[] getPostorder() {
+        return Arrays.copyOf(post, N);
+    }
+
+    /**
+     * The number of non-zero entries in every column of {@code L}, including the diagonal.
+     *
+     * @return A copy of the column counts.
+     */
+    public int[] getColumnCounts() {
+        return Arrays.copyOf(counts, N);
+    }
+
     /**
      * <p>Given an elimination tree compute the non-zero elements in the specified row of L given the
      * symmetric A matrix. This is in general much faster than general purpose algorithms</p>
@@ -189,7 +290,22 @@ public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSpa
 
     public MatrixSparse getR() { return L.transpose(); }
 
+    /**
+     * The symmetric permutation applied to the matrix before the decomposition. Row and column {@code k} of
+     * {@code Q^T * A * Q} are row and column {@code q[k]} of {@code A}.
+     *
+     * @return The permutation or {@code null} if the matrix is in its natural order.
+     */
+    public int[] getColumnPermutation() {
+        return q == null ? null : q.clone();
+    }
+
     public MatrixSparse solve(MatrixSparse B) {
+        if (q != null) {
+            MatrixSparse Bq = new MatrixSparse(1, 1, 0);
+            MatrixSparseUtils.permute(qinv, B, null, Bq);
+            B = Bq;
+        }
         MatrixSparse X = new MatrixSparse(1, 1, 1);
         X.reshape(cols, B.cols, X.rows);
 
@@ -202,6 +318,11 @@ public class CholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSpa
 
         TriangularSystemSolver.solve(L, true, B, tmp, null, new DGrowArray(), new IGrowArray(), gw1);
         TriangularSystemSolver.solveTran(L, tmp, X, null, new DGrowArray(), new IGrowArray(), gw1);
+        if (q != null) {
+            MatrixSparse Xq = new MatrixSparse(1, 1, 0);
+            MatrixSparseUtils.permute(q, X, null, Xq);
+            return Xq;
+        }
         return X;
     }
 
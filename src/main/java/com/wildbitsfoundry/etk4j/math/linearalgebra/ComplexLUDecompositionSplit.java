@@ -0,0 +1,220 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import com.wildbitsfoundry.etk4j.math.complex.Complex;
+
+import java.util.Arrays;
+
+/**
+ * LU decomposition with partial pivoting of a {@link ComplexMatrixDenseSplit}, {@code P * A = L * U}.
+ * <p>
+ * Right looking elimination on the real and imaginary arrays: each step scales the pivot column by the reciprocal of
+ * the pivot and updates the trailing rows in place, so no {@link Complex} objects are created.
+ * </p>
+ */
+public class ComplexLUDecompositionSplit extends ComplexLUDecomposition<ComplexMatrixDenseSplit> {
+
+    private final int n;
+    private final double[] re;
+    private final double[] im;
+    private final int[] pivot;
+    private int pivotSign = 1;
+
+    public ComplexLUDecompositionSplit(ComplexMatrixDenseSplit matrix) {
+        super(matrix);
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        n = matrix.getRowCount();
+        re = matrix.getRealArray().clone();
+        im = matrix.getImaginaryArray().clone();
+        pivot = new int[n];
+        for (int i = 0; i < n; ++i) {
+            pivot[i] = i;
+        }
+
+        double[] inv = new double[2];
+        for (int k = 0; k < n; ++k) {
+            // Pivot on the largest |z|^2
+            int p = k;
+            double max = re[k * n + k] * re[k * n + k] + im[k * n + k] * im[k * n + k];
+            for (int i = k + 1; i < n; ++i) {
+                double v = re[i * n + k] * re[i * n + k] + im[i * n + k] * im[i * n + k];
+                if (v > max) {
+                    max = v;
+                    p = i;
+                }
+            }
+            if (p != k) {
+                swapRows(p, k);
+                int t = pivot[p];
+                pivot[p] = pivot[k];
+                pivot[k] = t;
+                pivotSign = -pivotSign;
+            }
+            final int kk = k * n + k;
+            if (re[kk] == 0.0 && im[kk] == 0.0) {
+                continue;
+            }
+            ComplexMatrixDenseSplit.reciprocal(re[kk], im[kk], inv);
+            for (int i = k + 1; i < n; ++i) {
+                final int ik = i * n + k;
+                final double lr = re[ik] * inv[0] - im[ik] * inv[1];
+                final double li = re[ik] * inv[1] + im[ik] * inv[0];
+                re[ik] = lr;
+                im[ik] = li;
+                if (lr == 0.0 && li == 0.0) {
+                    continue;
+                }
+                for (int j = k + 1, in = i * n, kn = k * n; j < n; ++j) {
+                    re[in + j] -= lr * re[kn + j] - li * im[kn + j];
+                    im[in + j] -= lr * im[kn + j] + li * re[kn + j];
+                }
+            }
+        }
+    }
+
+    private void swapRows(int i, int k) {
+        for (int j = 0; j < n; ++j) {
+            double t = re[i * n + j];
+            re[i * n + j] = re[k * n + j];
+            re[k * n + j] = t;
+            t = im[i * n + j];
+            im[i * n + j] = im[k * n + j];
+            im[k * n + j] = t;
+        }
+    }
+
+    @Override
+    public boolean isSingular() {
+        for (int j = 0; j < n; ++j) {
+            if (re[j * n + j] == 0.0 && im[j * n + j] == 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The unit lower triangular factor.
+     */
+    @Override
+    public ComplexMatrixDenseSplit getL() {
+        ComplexMatrixDenseSplit L = new ComplexMatrixDenseSplit(n, n);
+        double[] lr = L.getRealArray();
+        double[] li = L.getImaginaryArray();
+        for (int i = 0; i < n; ++i) {
+            System.arraycopy(re, i * n, lr, i * n, i);
+            System.arraycopy(im, i * n, li, i * n, i);
+            lr[i * n + i] = 1.0;
+        }
+        return L;
+    }
+
+    /**
+     * @return The upper triangular factor.
+     */
+    @Override
+    public ComplexMatrixDenseSplit getU() {
+        ComplexMatrixDenseSplit U = new ComplexMatrixDenseSplit(n, n);
+        double[] ur = U.getRealArray();
+        double[] ui = U.getImaginaryArray();
+        for (int i = 0; i < n; ++i) {
+            System.arraycopy(re, i * n + i, ur, i * n + i, n - i);
+            System.arraycopy(im, i * n + i, ui, i * n + i, n - i);
+        }
+        return U;
+    }
+
+    /**
+     * @return A copy of the row permutation, row {@code i} of {@code L * U} is row {@code pivot[i]} of {@code A}.
+     */
+    public int[] getPivot() {
+        return Arrays.copyOf(pivot, pivot.length);
+    }
+
+    public Complex det() {
+        double dr = pivotSign;
+        double di = 0.0;
+        for (int i = 0; i < n; ++i) {
+            final double r = re[i * n + i];
+            final double m = im[i * n + i];
+            final double t = dr * r - di * m;
+            di = dr * m + di * r;
+            dr = t;
+        }
+        return new Complex(dr, di);
+    }
+
+    @Override
+    public ComplexMatrixDenseSplit solve(double[] b) {
+        return solve(new ComplexMatrixDenseSplit(b.clone(), new double[b.length], b.length, 1));
+    }
+
+    /**
+     * Solve A * X = B
+     *
+     * @param B A matrix with as many rows as A and any number of columns.
+     * @return X so that L * U * X = B(pivot, :)
+     * @throws IllegalArgumentException Matrix row dimensions must agree.
+     * @throws SingularMatrixException  Matrix is singular.
+     */
+    public ComplexMatrixDenseSplit solve(ComplexMatrixDenseSplit B) {
+        if (B.getRowCount() != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        if (isSingular()) {
+            throw new SingularMatrixException("Matrix is singular.");
+        }
+        final int nx = B.getColumnCount();
+        final double[] br = B.getRealArray();
+        final double[] bi = B.getImaginaryArray();
+        ComplexMatrixDenseSplit X = new ComplexMatrixDenseSplit(n, nx);
+        final double[] xr = X.getRealArray();
+        final double[] xi = X.getImaginaryArray();
+        for (int i = 0; i < n; ++i) {
+            System.arraycopy(br, pivot[i] * nx, xr, i * nx, nx);
+            System.arraycopy(bi, pivot[i] * nx, xi, i * nx, nx);
+        }
+
+        // Solve L * Y = B(pivot, :)
+        for (int k = 0; k < n; ++k) {
+            for (int i = k + 1; i < n; ++i) {
+                final double lr = re[i * n + k];
+                final double li = im[i * n + k];
+                if (lr == 0.0 && li == 0.0) {
+                    continue;
+                }
+                for (int j = 0, in = i * nx, kn = k * nx; j < nx; ++j) {
+                    xr[in + j] -= lr * xr[kn + j] - li * xi[kn + j];
+                    xi[in + j] -= lr * xi[kn + j] + li * xr[kn + j];
+                }
+            }
+        }
+        // Solve U * X = Y
+        double[] inv = new double[2];
+        for (int k = n - 1; k >= 0; --k) {
+            ComplexMatrixDenseSplit.reciprocal(re[k * n + k], im[k * n + k], inv);
+            for (int j = 0, kn = k * nx; j < nx; ++j) {
+                final double r = xr[kn + j];
+                xr[kn + j] = r * inv[0] - xi[kn + j] * inv[1];
+                xi[kn + j] = r * inv[1] + xi[kn + j] * inv[0];
+            }
+            for (int i = 0; i < k; ++i) {
+                final double ur = re[i * n + k];
+                final double ui = im[i * n + k];
+                if (ur == 0.0 && ui == 0.0) {
+                    continue;
+                }
+                for (int j = 0, in = i * nx, kn = k * nx; j < nx; ++j) {
+                    xr[in + j] -= ur * xr[kn + j] - ui * xi[kn + j];
+                    xi[in + j] -= ur * xi[kn + j] + ui * xr[kn + j];
+                }
+            }
+        }
+        return X;
+    }
+
+    public ComplexMatrixDenseSplit solve(MatrixDense B) {
+        return solve(ComplexMatrixDenseSplit.fromRealMatrix(B));
+    }
+}
@@ -0,0 +1,347 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import com.wildbitsfoundry.etk4j.math.complex.Complex;
+
+/**
+ * Dense complex matrix with the real and imaginary parts stored in two {@code double[]}, in row major order.
+ * <p>
+ * {@link ComplexMatrixDense} stores a {@link Complex} object per element and allocates one per multiply-add. This
+ * class works on primitives instead: a {@code 1000 x 1000} matrix is two arrays rather than a million objects, and
+ * the products and decompositions do not allocate in their inner loops. {@link #get(int, int)} and
+ * {@link #set(int, int, Complex)} still take and return {@link Complex} values for compatibility.
+ * </p>
+ */
+public class ComplexMatrixDenseSplit extends ComplexMatrix {
+
+    private final double[] real;
+    private final double[] imag;
+
+    /**
+     * Constructs a matrix of zeros.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public ComplexMatrixDenseSplit(int rows, int cols) {
+        this(new double[rows * cols], new double[rows * cols], rows, cols);
+    }
+
+    /**
+     * Constructs a matrix from its real and imaginary parts, in row major order. The arrays are referenced, not
+     * copied.
+     *
+     * @param real The real parts.
+     * @param imag The imaginary parts.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public ComplexMatrixDenseSplit(double[] real, double[] imag, int rows, int cols) {
+        super(rows, cols);
+        if (real.length != rows * cols || imag.length != rows * cols) {
+            throw new IllegalArgumentException("Array length must be rows * cols.");
+        }
+        this.real = real;
+        this.imag = imag;
+    }
+
+    /**
+     * Copies a {@link ComplexMatrixDense}.
+     *
+     * @param matrix The matrix to copy.
+     */
+    public ComplexMatrixDenseSplit(ComplexMatrixDense matrix) {
+        this(matrix.getRowCount(), matrix.getColumnCount());
+        Complex[] data = matrix.getArray();
+        for (int i = 0; i < real.length; ++i) {
+            real[i] = data[i].real();
+            imag[i] = data[i].imag();
+        }
+    }
+
+    public static ComplexMatrixDenseSplit fromRealMatrix(MatrixDense m) {
+        return new ComplexMatrixDenseSplit(m.getArrayCopy(), new double[m.getRowCount() * m.getColumnCount()],
+                m.getRowCount(), m.getColumnCount());
+    }
+
+    /**
+     * @return A copy as a {@link ComplexMatrixDense}.
+     */
+    public ComplexMatrixDense toComplexMatrixDense() {
+        Complex[] data = new Complex[real.length];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = new Complex(real[i], imag[i]);
+        }
+        return new ComplexMatrixDense(data, rows, cols);
+    }
+
+    /**
+     * @return The real parts in row major order. This is the internal storage, not a copy.
+     */
+    public double[] getRealArray() {
+        return real;
+    }
+
+    /**
+     * @return The imaginary parts in row major order. This is the internal storage, not a copy.
+     */
+    public double[] getImaginaryArray() {
+        return imag;
+    }
+
+    @Override
+    public ComplexMatrixDenseSplit copy() {
+        return new ComplexMatrixDenseSplit(real.clone(), imag.clone(), rows, cols);
+    }
+
+    @Override
+    public Complex get(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+            throw new ArrayIndexOutOfBoundsException("Outside of matrix bounds");
+        return unsafeGet(row, col);
+    }
+
+    @Override
+    public Complex unsafeGet(int row, int col) {
+        int k = row * cols + col;
+        return new Complex(real[k], imag[k]);
+    }
+
+    @Override
+    public void set(int row, int col, Complex val) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+            throw new ArrayIndexOutOfBoundsException("Outside of matrix bounds");
+        unsafeSet(row, col, val);
+    }
+
+    @Override
+    public void unsafeSet(int row, int col, Complex val) {
+        int k = row * cols + col;
+        real[k] = val.real();
+        imag[k] = val.imag();
+    }
+
+    /**
+     * The determinant of a complex matrix is complex, use {@code LU().det()} instead.
+     *
+     * @throws UnsupportedOperationException Always.
+     */
+    @Override
+    public double det() {
+        throw new UnsupportedOperationException("The determinant of a complex matrix is complex. Use LU().det().");
+    }
+
+    @Override
+    public ComplexLUDecompositionSplit LU() {
+        return new ComplexLUDecompositionSplit(this);
+    }
+
+    @Override
+    public ComplexQRDecompositionSplit QR() {
+        return new ComplexQRDecompositionSplit(this);
+    }
+
+    /**
+     * Cholesky decomposition of a {@link ComplexMatrixDense} copy of the matrix.
+     *
+     * @return The {@link ComplexCholeskyDecompositionDense} of the matrix.
+     */
+    @Override
+    public ComplexCholeskyDecompositionDense Chol() {
+        return toComplexMatrixDense().Chol();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rows == 0 || cols == 0;
+    }
+
+    public ComplexMatrixDenseSplit add(ComplexMatrixDenseSplit m) {
+        checkSameShape(m);
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(rows, cols);
+        for (int i = 0; i < real.length; ++i) {
+            result.real[i] = real[i] + m.real[i];
+            result.imag[i] = imag[i] + m.imag[i];
+        }
+        return result;
+    }
+
+    public ComplexMatrixDenseSplit subtract(ComplexMatrixDenseSplit m) {
+        checkSameShape(m);
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(rows, cols);
+        for (int i = 0; i < real.length; ++i) {
+            result.real[i] = real[i] - m.real[i];
+            result.imag[i] = imag[i] - m.imag[i];
+        }
+        return result;
+    }
+
+    private void checkSameShape(ComplexMatrixDenseSplit m) {
+        if (rows != m.rows || cols != m.cols) {
+            throw new IllegalArgumentException("Matrix dimensions must agree.");
+        }
+    }
+
+    public ComplexMatrixDenseSplit multiply(double s) {
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(rows, cols);
+        for (int i = 0; i < real.length; ++i) {
+            result.real[i] = real[i] * s;
+            result.imag[i] = imag[i] * s;
+        }
+        return result;
+    }
+
+    public ComplexMatrixDenseSplit multiply(Complex s) {
+        final double sr = s.real();
+        final double si = s.imag();
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(rows, cols);
+        for (int i = 0; i < real.length; ++i) {
+            result.real[i] = real[i] * sr - imag[i] * si;
+            result.imag[i] = real[i] * si + imag[i] * sr;
+        }
+        return result;
+    }
+
+    /**
+     * Matrix multiplication, in i-k-j order so that the inner loop runs over contiguous rows of {@code B} and the
+     * result.
+     *
+     * @param B The right hand side.
+     * @return this * B
+     */
+    public ComplexMatrixDenseSplit multiply(ComplexMatrixDenseSplit B) {
+        if (B.rows != cols) {
+            throw new IllegalArgumentException("Matrix inner dimensions must agree. Check that the number of " +
+                    "columns of the first matrix equal the number of rows of the second matrix.");
+        }
+        final int p = B.cols;
+        final double[] br = B.real;
+        final double[] bi = B.imag;
+        ComplexMatrixDenseSplit C = new ComplexMatrixDenseSplit(rows, p);
+        final double[] cr = C.real;
+        final double[] ci = C.imag;
+        for (int i = 0; i < rows; ++i) {
+            final int ip = i * p;
+            for (int k = 0; k < cols; ++k) {
+                final double ar = real[i * cols + k];
+                final double ai = imag[i * cols + k];
+                if (ar == 0.0 && ai == 0.0) {
+                    continue;
+                }
+                final int kp = k * p;
+                for (int j = 0; j < p; ++j) {
+                    cr[ip + j] += ar * br[kp + j] - ai * bi[kp + j];
+                    ci[ip + j] += ar * bi[kp + j] + ai * br[kp + j];
+                }
+            }
+        }
+        return C;
+    }
+
+    public ComplexMatrixDenseSplit multiply(MatrixDense B) {
+        if (B.getRowCount() != cols) {
+            throw new IllegalArgumentException("Matrix inner dimensions must agree. Check that the number of " +
+                    "columns of the first matrix equal the number of rows of the second matrix.");
+        }
+        final int p = B.getColumnCount();
+        final double[] b = B.getArray();
+        ComplexMatrixDenseSplit C = new ComplexMatrixDenseSplit(rows, p);
+        for (int i = 0; i < rows; ++i) {
+            final int ip = i * p;
+            for (int k = 0; k < cols; ++k) {
+                final double ar = real[i * cols + k];
+                final double ai = imag[i * cols + k];
+                final int kp = k * p;
+                for (int j = 0; j < p; ++j) {
+                    C.real[ip + j] += ar * b[kp + j];
+                    C.imag[ip + j] += ai * b[kp + j];
+                }
+            }
+        }
+        return C;
+    }
+
+    public ComplexMatrixDenseSplit transpose() {
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(cols, rows);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < cols; ++j) {
+                result.real[j * rows + i] = real[i * cols + j];
+                result.imag[j * rows + i] = imag[i * cols + j];
+            }
+        }
+        return result;
+    }
+
+    public ComplexMatrixDenseSplit conjugateTranspose() {
+        ComplexMatrixDenseSplit result = new ComplexMatrixDenseSplit(cols, rows);
+        for (int i = 0; i < rows; ++i) {
+            for (int j = 0; j < cols; ++j) {
+                result.real[j * rows + i] = real[i * cols + j];
+                result.imag[j * rows + i] = -imag[i * cols + j];
+            }
+        }
+        return result;
+    }
+
+    public static ComplexMatrixDenseSplit identity(int n) {
+        ComplexMatrixDenseSplit I = new ComplexMatrixDenseSplit(n, n);
+        for (int i = 0; i < n; ++i) {
+            I.real[i * n + i] = 1.0;
+        }
+        return I;
+    }
+
+    public ComplexMatrixDenseSplit inv() {
+        return solve(identity(rows));
+    }
+
+    /**
+     * Solves {@code A * X = B}: with LU if the matrix is square, with QR in the least squares sense if it is tall and
+     * with the pseudo inverse of a {@link ComplexMatrixDense} copy if it is wide.
+     *
+     * @param B The right hand side.
+     * @return X
+     */
+    public ComplexMatrixDenseSplit solve(ComplexMatrixDenseSplit B) {
+        if (rows == cols) {
+            return LU().solve(B);
+        } else if (rows > cols) {
+            return QR().solve(B);
+        } else {
+            return new ComplexMatrixDenseSplit(toComplexMatrixDense().pinv().multiply(B.toComplexMatrixDense()));
+        }
+    }
+
+    public ComplexMatrixDenseSplit solve(MatrixDense B) {
+        return solve(fromRealMatrix(B));
+    }
+
+    /*
+     * Computes the reciprocal of (re + i * im) into out[0] and out[1] without overflowing for large components
+     * (Smith's algorithm).
+     */
+    static void reciprocal(double re, double im, double[] out) {
+        if (Math.abs(re) >= Math.abs(im)) {
+            double r = im / re;
+            double d = re + im * r;
+            out[0] = 1.0 / d;
+            out[1] = -r / d;
+        } else {
+            double r = re / im;
+            double d = re * r + im;
+            out[0] = r / d;
+            out[1] = -1.0 / d;
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < rows * cols; ++i) {
+            if (i > 0 && i % cols == 0) {
+                sb.append(System.lineSeparator());
+            }
+            sb.append(new Complex(real[i], imag[i])).append(" ");
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,213 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import com.wildbitsfoundry.etk4j.math.MathETK;
+
+/**
+ * Householder QR decomposition of a {@link ComplexMatrixDenseSplit} with at least as many rows as columns,
+ * {@code A = Q * R}.
+ * <p>
+ * Uses the same reflectors as {@link ComplexQRDecompositionDense}, {@code H = I - u * u^H} with {@code ||u|| = sqrt(2)}
+ * (see the <a href="https://blogs.mathworks.com/cleve/2016/10/03/householder-reflections-and-the-qr-decomposition/">
+ * Mathworks blog</a>), applied to the real and imaginary arrays in place.
+ * </p>
+ */
+public class ComplexQRDecompositionSplit extends ComplexQRDecomposition<ComplexMatrixDenseSplit> {
+
+    private final int m;
+    private final int n;
+    // R in the upper triangle
+    private final double[] qrRe;
+    private final double[] qrIm;
+    // Householder vectors, column k holds u_k in rows k to m - 1
+    private final double[] hRe;
+    private final double[] hIm;
+
+    public ComplexQRDecompositionSplit(ComplexMatrixDenseSplit matrix) {
+        super(matrix);
+        m = matrix.getRowCount();
+        n = matrix.getColumnCount();
+        if (m < n) {
+            throw new IllegalArgumentException("Matrix must have at least as many rows as columns.");
+        }
+        qrRe = matrix.getRealArray().clone();
+        qrIm = matrix.getImaginaryArray().clone();
+        hRe = new double[m * n];
+        hIm = new double[m * n];
+
+        double[] wr = new double[n];
+        double[] wi = new double[n];
+        for (int k = 0; k < n; ++k) {
+            double nrm = 0.0;
+            for (int i = k; i < m; ++i) {
+                nrm = MathETK.hypot(nrm, MathETK.hypot(qrRe[i * n + k], qrIm[i * n + k]));
+            }
+            if (nrm == 0.0) {
+                // H = I
+                continue;
+            }
+            for (int i = k; i < m; ++i) {
+                hRe[i * n + k] = qrRe[i * n + k] / nrm;
+                hIm[i * n + k] = qrIm[i * n + k] / nrm;
+            }
+            // u_k += sign(u_k), then scale so that ||u|| = sqrt(2)
+            final int kk = k * n + k;
+            final double abs = MathETK.hypot(hRe[kk], hIm[kk]);
+            final double sr = abs == 0.0 ? 1.0 : hRe[kk] / abs;
+            final double si = abs == 0.0 ? 0.0 : hIm[kk] / abs;
+            hRe[kk] += sr;
+            hIm[kk] += si;
+            final double scale = 1.0 / Math.sqrt(1.0 + abs);
+            for (int i = k; i < m; ++i) {
+                hRe[i * n + k] *= scale;
+                hIm[i * n + k] *= scale;
+            }
+
+            // H * A(k:m, k+1:n)
+            applyReflector(k, qrRe, qrIm, k + 1, n, n, wr, wi);
+            qrRe[kk] = -sr * nrm;
+            qrIm[kk] = -si * nrm;
+            for (int i = k + 1; i < m; ++i) {
+                qrRe[i * n + k] = 0.0;
+                qrIm[i * n + k] = 0.0;
+            }
+        }
+    }
+
+    /*
+     * Applies H_k = I - u_k * u_k^H to columns [from, to) of the m x cols matrix (xr, xi). w is a work array of at
+     * least cols values.
+     */
+    private void applyReflector(int k, double[] xr, double[] xi, int from, int to, int cols,
+                                double[] wr, double[] wi) {
+        for (int j = from; j < to; ++j) {
+            wr[j] = 0.0;
+            wi[j] = 0.0;
+        }
+        // w = u^H * X
+        for (int i = k; i < m; ++i) {
+            final double ur = hRe[i * n + k];
+            final double ui = hIm[i * n + k];
+            if (ur == 0.0 && ui == 0.0) {
+                continue;
+            }
+            for (int j = from, ic = i * cols; j < to; ++j) {
+                wr[j] += ur * xr[ic + j] + ui * xi[ic + j];
+                wi[j] += ur * xi[ic + j] - ui * xr[ic + j];
+            }
+        }
+        // X -= u * w
+        for (int i = k; i < m; ++i) {
+            final double ur = hRe[i * n + k];
+            final double ui = hIm[i * n + k];
+            if (ur == 0.0 && ui == 0.0) {
+                continue;
+            }
+            for (int j = from, ic = i * cols; j < to; ++j) {
+                xr[ic + j] -= ur * wr[j] - ui * wi[j];
+                xi[ic + j] -= ur * wi[j] + ui * wr[j];
+            }
+        }
+    }
+
+    /**
+     * Is the matrix full rank?
+     *
+     * @return true if R, and hence A, has full rank.
+     */
+    public boolean isFullRank() {
+        for (int j = 0; j < n; ++j) {
+            if (qrRe[j * n + j] == 0.0 && qrIm[j * n + j] == 0.0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Return the upper triangular factor
+     *
+     * @return R, with as many rows and columns as A.
+     */
+    public ComplexMatrixDenseSplit getR() {
+        return new ComplexMatrixDenseSplit(qrRe.clone(), qrIm.clone(), m, n);
+    }
+
+    /**
+     * Generate and return the economy size unitary factor
+     *
+     * @return Q, with as many rows and columns as A.
+     */
+    public ComplexMatrixDenseSplit getQ() {
+        ComplexMatrixDenseSplit Q = new ComplexMatrixDenseSplit(m, n);
+        double[] xr = Q.getRealArray();
+        double[] xi = Q.getImaginaryArray();
+        for (int i = 0; i < n; ++i) {
+            xr[i * n + i] = 1.0;
+        }
+        // Q = H_0 * H_1 * ... * H_(n-1)
+        double[] wr = new double[n];
+        double[] wi = new double[n];
+        for (int k = n - 1; k >= 0; --k) {
+            applyReflector(k, xr, xi, 0, n, n, wr, wi);
+        }
+        return Q;
+    }
+
+    /**
+     * Least squares solution of A * X = B
+     *
+     * @param B A matrix with as many rows as A and any number of columns.
+     * @return X that minimizes the two norm of Q * R * X - B.
+     * @throws IllegalArgumentException Matrix row dimensions must agree.
+     * @throws RuntimeException         Matrix is rank deficient.
+     */
+    public ComplexMatrixDenseSplit solve(ComplexMatrixDenseSplit B) {
+        if (B.getRowCount() != m) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        if (!isFullRank()) {
+            throw new RuntimeException("Matrix is rank deficient.");
+        }
+        final int nx = B.getColumnCount();
+        // Y = Q^H * B = H_(n-1) * ... * H_0 * B
+        double[] yr = B.getRealArray().clone();
+        double[] yi = B.getImaginaryArray().clone();
+        double[] wr = new double[nx];
+        double[] wi = new double[nx];
+        for (int k = 0; k < n; ++k) {
+            applyReflector(k, yr, yi, 0, nx, nx, wr, wi);
+        }
+
+        // Solve R * X = Y
+        ComplexMatrixDenseSplit X = new ComplexMatrixDenseSplit(n, nx);
+        double[] xr = X.getRealArray();
+        double[] xi = X.getImaginaryArray();
+        System.arraycopy(yr, 0, xr, 0, n * nx);
+        System.arraycopy(yi, 0, xi, 0, n * nx);
+        double[] inv = new double[2];
+        for (int k = n - 1; k >= 0; --k) {
+            ComplexMatrixDenseSplit.reciprocal(qrRe[k * n + k], qrIm[k * n + k], inv);
+            for (int j = 0, kn = k * nx; j < nx; ++j) {
+                final double r = xr[kn + j];
+                xr[kn + j] = r * inv[0] - xi[kn + j] * inv[1];
+                xi[kn + j] = r * inv[1] + xi[kn + j] * inv[0];
+            }
+            for (int i = 0; i < k; ++i) {
+                final double rr = qrRe[i * n + k];
+                final double ri = qrIm[i * n + k];
+                if (rr == 0.0 && ri == 0.0) {
+                    continue;
+                }
+                for (int j = 0, in = i * nx, kn = k * nx; j < nx; ++j) {
+                    xr[in + j] -= rr * xr[kn + j] - ri * xi[kn + j];
+                    xi[in + j] -= rr * xi[kn + j] + ri * xr[kn + j];
+                }
+            }
+        }
+        return X;
+    }
+
+    public ComplexMatrixDenseSplit solve(MatrixDense B) {
+        return solve(ComplexMatrixDenseSplit.fromRealMatrix(B));
+    }
+}
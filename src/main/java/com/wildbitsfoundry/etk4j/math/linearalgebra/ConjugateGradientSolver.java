@@ -0,0 +1,128 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * This class implements the Conjugate Gradient method to solve a symmetric positive definite system of equations.
+ * The matrix is only accessed through products {@code A * x}, one per iteration, so it can be a {@link MatrixSparse}
+ * or any {@link LinearOperator}.
+ */
+public class ConjugateGradientSolver {
+
+    private final LinearOperator A;
+    private final double[] b;
+    private int iterationLimit = 1000;
+    private double tol = 1e-9;
+    private double[] x0 = null;
+    private Preconditioner M = null;
+
+    public ConjugateGradientSolver(MatrixSparse A, double[] b) {
+        this(LinearOperator.fromMatrix(A), b);
+    }
+
+    public ConjugateGradientSolver(LinearOperator A, double[] b) {
+        if (A.getRowCount() != A.getColumnCount()) {
+            throw new IllegalArgumentException("Matrix must be square.");
+        }
+        if (A.getRowCount() != b.length) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        this.A = A;
+        this.b = b;
+    }
+
+    /**
+     * Sets the maximum number of iterations allowed
+     * @param iterationLimit the maximum number of iterations allowed
+     * @return {@code this}
+     */
+    public ConjugateGradientSolver iterationLimit(int iterationLimit) {
+        this.iterationLimit = iterationLimit;
+        return this;
+    }
+
+    /**
+     * Sets the relative tolerance that determines when to stop the algorithm. The algorithm stops when
+     * {@code ||b - A * x|| <= tolerance * ||b||}.
+     * @param tolerance the relative tolerance
+     * @return {@code this}
+     */
+    public ConjugateGradientSolver tolerance(double tolerance) {
+        this.tol = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the initial guess to the solution of the system of equations
+     * @param x0 the initial guess of the solutions. All zeros if not set.
+     * @return {@code this}
+     */
+    public ConjugateGradientSolver initialGuess(double[] x0) {
+        this.x0 = x0;
+        return this;
+    }
+
+    /**
+     * Sets the preconditioner applied to the system
+     * @param M the preconditioner. No preconditioning if not set.
+     * @return {@code this}
+     */
+    public ConjugateGradientSolver preconditioner(Preconditioner M) {
+        this.M = M;
+        return this;
+    }
+
+    /**
+     * Solves A * x = b
+     * @return An {@link IterativeSolverResults} with the solutions of the system A * x  = b. The error is the relative
+     * residual {@code ||b - A * x|| / ||b||}.
+     */
+    public IterativeSolverResults<double[]> solve() {
+        final int n = b.length;
+        double[] x = x0 == null ? new double[n] : x0.clone();
+        double[] r = new double[n];
+        double[] z = M == null ? r : new double[n];
+        double[] p = new double[n];
+        double[] Ap = new double[n];
+
+        double bNorm = KrylovUtils.norm(b);
+        if (bNorm == 0.0) {
+            return KrylovUtils.results(new double[n], 0, 0.0, true, "Converged");
+        }
+        KrylovUtils.residual(A, x, b, r);
+        double error = KrylovUtils.norm(r) / bNorm;
+        if (error <= tol) {
+            return KrylovUtils.results(x, 0, error, true, "Converged");
+        }
+        if (M != null) {
+            M.apply(r, z);
+        }
+        System.arraycopy(z, 0, p, 0, n);
+        double rz = KrylovUtils.dot(r, z);
+        for (int k = 0; k < iterationLimit; ++k) {
+            A.multiply(p, Ap);
+            double pAp = KrylovUtils.dot(p, Ap);
+            if (!(pAp > 0.0)) {
+                return KrylovUtils.results(x, k, error, false, "Matrix is not positive definite");
+            }
+            double alpha = rz / pAp;
+            KrylovUtils.axpy(alpha, p, x);
+            KrylovUtils.axpy(-alpha, Ap, r);
+            error = KrylovUtils.norm(r) / bNorm;
+            if (error <= tol) {
+                return KrylovUtils.results(x, k + 1, error, true, "Converged");
+            }
+            if (M != null) {
+                M.apply(r, z);
+            }
+            double rzNew = KrylovUtils.dot(r, z);
+            if (!(rzNew > 0.0)) {
+                return KrylovUtils.results(x, k + 1, error, false, "Preconditioner is not positive definite");
+            }
+            double beta = rzNew / rz;
+            for (int i = 0; i < n; ++i) {
+                p[i] = z[i] + beta * p[i];
+            }
+            rz = rzNew;
+        }
+        return KrylovUtils.results(x, iterationLimit, error, false, "Maximum number of iterations exceeded");
+    }
+}
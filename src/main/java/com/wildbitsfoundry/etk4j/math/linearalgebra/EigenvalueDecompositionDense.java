@@ -3,6 +3,9 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 import com.wildbitsfoundry.etk4j.constant.ConstantsETK;
 import com.wildbitsfoundry.etk4j.math.MathETK;
 
+import java.util.Arrays;
+import java.util.Random;
+
 /**
  * Eigenvalues and eigenvectors of a real matrix.
  * <P>
@@ -32,6 +35,12 @@ public class EigenvalueDecompositionDense {
 	 */
 	private int _dim;
 
+	/**
+	 * Symmetric matrices larger than this are diagonalized by divide and conquer
+	 * when the eigenvectors are requested.
+	 */
+	static final int DIVIDE_AND_CONQUER_THRESHOLD = 64;
+
 	/**
 	 * Symmetry flag.
 	 * 
@@ -67,13 +76,36 @@ public class EigenvalueDecompositionDense {
 	 */
 	private double[] ort;
 
+	/**
+	 * Eigenvectors flag.
+	 * 
+	 * @serial internal eigenvectors flag.
+	 */
+	private boolean computeVectors = true;
+
+	/**
+	 * Number of eigenpairs, the dimension unless only some of them were computed.
+	 * 
+	 * @serial number of eigenpairs.
+	 */
+	private int _count;
+
+	/**
+	 * Scale factors of the Householder reflections of tred2, kept when the
+	 * transformations are not accumulated.
+	 * 
+	 * @serial internal storage of the Householder scale factors.
+	 */
+	private double[] hh;
+
 	/*
 	 * ------------------------ Private Methods ------------------------
 	 */
 
-	// Symmetric Householder reduction to tridiagonal form.
+	// Symmetric Householder reduction to tridiagonal form. Unless accumulate is
+	// set the reflections are left in V and hh for backTransform.
 
-	private void tred2() {
+	private void tred2(boolean accumulate) {
 
 		// This is derived from the Algol procedures tred2 by
 		// Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
@@ -156,6 +188,15 @@ public class EigenvalueDecompositionDense {
 			d[i] = h;
 		}
 
+		if (!accumulate) {
+			hh = d.clone();
+			for (int j = 0; j < _dim; j++) {
+				d[j] = V[j * _dim + j];
+			}
+			e[0] = 0.0;
+			return;
+		}
+
 		// Accumulate transformations.
 
 		for (int i = 0; i < _dim - 1; i++) {
@@ -188,30 +229,31 @@ public class EigenvalueDecompositionDense {
 		e[0] = 0.0;
 	}
 
-	// Symmetric tridiagonal QL algorithm.
+	// Symmetric tridiagonal QL algorithm. e[i] couples rows i - 1 and i on entry and is
+	// overwritten. The rotations are accumulated in V unless it is null.
 
-	private void tql2() {
+	static void tql2(int n, double[] d, double[] e, double[] V) {
 
 		// This is derived from the Algol procedures tql2, by
 		// Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
 		// Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
 		// Fortran subroutine in EISPACK.
 
-		for (int i = 1; i < _dim; i++) {
+		for (int i = 1; i < n; i++) {
 			e[i - 1] = e[i];
 		}
-		e[_dim - 1] = 0.0;
+		e[n - 1] = 0.0;
 
 		double f = 0.0;
 		double tst1 = 0.0;
 		double eps = ConstantsETK.DOUBLE_EPS;
-		for (int l = 0; l < _dim; l++) {
+		for (int l = 0; l < n; l++) {
 
 			// Find small subdiagonal element
 
 			tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
 			int m = l;
-			while (m < _dim) {
+			while (m < n) {
 				if (Math.abs(e[m]) <= eps * tst1) {
 					break;
 				}
@@ -238,7 +280,7 @@ public class EigenvalueDecompositionDense {
 					d[l + 1] = e[l] * (p + r);
 					double dl1 = d[l + 1];
 					double h = g - d[l];
-					for (int i = l + 2; i < _dim; i++) {
+					for (int i = l + 2; i < n; i++) {
 						d[i] -= h;
 					}
 					f = f + h;
@@ -267,10 +309,12 @@ public class EigenvalueDecompositionDense {
 
 						// Accumulate transformation.
 
-						for (int k = 0; k < _dim; k++) {
-							h = V[k * _dim + (i + 1)];
-							V[k * _dim + (i + 1)] = s * V[k * _dim + i] + c * h;
-							V[k * _dim + i] = c * V[k * _dim + i] - s * h;
+						if (V != null) {
+							for (int k = 0; k < n; k++) {
+								h = V[k * n + (i + 1)];
+								V[k * n + (i + 1)] = s * V[k * n + i] + c * h;
+								V[k * n + i] = c * V[k * n + i] - s * h;
+							}
 						}
 					}
 					p = -s * s2 * c3 * el1 * e[l] / dl1;
@@ -287,10 +331,10 @@ public class EigenvalueDecompositionDense {
 
 		// Sort eigenvalues and corresponding vectors.
 
-		for (int i = 0; i < _dim - 1; i++) {
+		for (int i = 0; i < n - 1; i++) {
 			int k = i;
 			double p = d[i];
-			for (int j = i + 1; j < _dim; j++) {
+			for (int j = i + 1; j < n; j++) {
 				if (d[j] < p) {
 					k = j;
 					p = d[j];
@@ -299,10 +343,10 @@ public class EigenvalueDecompositionDense {
 			if (k != i) {
 				d[k] = d[i];
 				d[i] = p;
-				for (int j = 0; j < _dim; j++) {
-					p = V[j * _dim + i];
-					V[j * _dim + i] = V[j * _dim + k];
-					V[j * _dim + k] = p;
+				for (int j = 0; V != null && j < n; j++) {
+					p = V[j * n + i];
+					V[j * n + i] = V[j * n + k];
+					V[j * n + k] = p;
 				}
 			}
 		}
@@ -373,6 +417,10 @@ public class EigenvalueDecompositionDense {
 			}
 		}
 
+		if (!computeVectors) {
+			return;
+		}
+
 		// Accumulate transformations (Algol's ortran).
 
 		for (int i = 0; i < _dim; i++) {
@@ -439,6 +487,9 @@ public class EigenvalueDecompositionDense {
 		double exshift = 0.0;
 		double p = 0, q = 0, r = 0, s = 0, z = 0, t, w, x, y;
 
+		// Without eigenvectors only the active block l:n is updated, as in hqr.
+		int rowEnd, colStart;
+
 		// Store roots isolated by balance and compute matrix norm
 
 		double norm = 0.0;
@@ -471,6 +522,9 @@ public class EigenvalueDecompositionDense {
 				l--;
 			}
 
+			rowEnd = computeVectors ? nn : n + 1;
+			colStart = computeVectors ? 0 : l;
+
 			// Check for convergence
 			// One root found
 
@@ -517,7 +571,7 @@ public class EigenvalueDecompositionDense {
 
 					// Row modification
 
-					for (int j = n - 1; j < nn; j++) {
+					for (int j = n - 1; j < rowEnd; j++) {
 						z = H[n - 1][j];
 						H[n - 1][j] = q * z + p * H[n][j];
 						H[n][j] = q * H[n][j] - p * z;
@@ -525,7 +579,7 @@ public class EigenvalueDecompositionDense {
 
 					// Column modification
 
-					for (int i = 0; i <= n; i++) {
+					for (int i = colStart; i <= n; i++) {
 						z = H[i][n - 1];
 						H[i][n - 1] = q * z + p * H[i][n];
 						H[i][n] = q * H[i][n] - p * z;
@@ -533,7 +587,7 @@ public class EigenvalueDecompositionDense {
 
 					// Accumulate transformations
 
-					for (int i = low; i <= high; i++) {
+					for (int i = low; computeVectors && i <= high; i++) {
 						z = V[i * _dim + (n - 1)];
 						V[i * _dim + (n - 1)] = q * z + p * V[i * _dim + n];
 						V[i * _dim + n] = q * V[i * _dim + n] - p * z;
@@ -664,7 +718,7 @@ public class EigenvalueDecompositionDense {
 
 						// Row modification
 
-						for (int j = k; j < nn; j++) {
+						for (int j = k; j < rowEnd; j++) {
 							p = H[k][j] + q * H[k + 1][j];
 							if (notlast) {
 								p = p + r * H[k + 2][j];
@@ -676,7 +730,7 @@ public class EigenvalueDecompositionDense {
 
 						// Column modification
 
-						for (int i = 0; i <= Math.min(n, k + 3); i++) {
+						for (int i = colStart; i <= Math.min(n, k + 3); i++) {
 							p = x * H[i][k] + y * H[i][k + 1];
 							if (notlast) {
 								p = p + z * H[i][k + 2];
@@ -688,7 +742,7 @@ public class EigenvalueDecompositionDense {
 
 						// Accumulate transformations
 
-						for (int i = low; i <= high; i++) {
+						for (int i = low; computeVectors && i <= high; i++) {
 							p = x * V[i * _dim + k] + y * V[i * _dim + (k + 1)];
 							if (notlast) {
 								p = p + z * V[i * _dim + (k + 2)];
@@ -704,7 +758,7 @@ public class EigenvalueDecompositionDense {
 
 		// Backsubstitute to find vectors of upper triangular form
 
-		if (norm == 0.0) {
+		if (!computeVectors || norm == 0.0) {
 			return;
 		}
 
@@ -859,6 +913,199 @@ public class EigenvalueDecompositionDense {
 		}
 	}
 
+	// Divide and conquer on the tridiagonal matrix left by tred2, the
+	// eigenvectors are then transformed back with the Householder reflections.
+
+	private void divideAndConquer() {
+		double[] Q = TridiagonalDivideAndConquer.eigen(d, e);
+		backTransform(Q, _dim);
+		V = Q;
+		hh = null;
+		Arrays.fill(e, 0.0);
+	}
+
+	// Number of eigenvalues of the tridiagonal matrix (d, e) smaller than or
+	// equal to x, from the signs of the Sturm sequence.
+
+	private int sturmCount(double x, double pivmin) {
+		int count = 0;
+		double q = d[0] - x;
+		for (int i = 0; i < _dim; i++) {
+			if (i > 0) {
+				q = d[i] - x - e[i] * e[i] / q;
+			}
+			if (Math.abs(q) < pivmin) {
+				q = -pivmin;
+			}
+			if (q <= 0.0) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	// The index-th smallest eigenvalue of the tridiagonal matrix by bisection.
+
+	private double bisect(int index, double lower, double upper, double pivmin) {
+		double eps = ConstantsETK.DOUBLE_EPS;
+		while (upper - lower > 2.0 * eps * Math.max(Math.abs(lower), Math.abs(upper)) + pivmin) {
+			double mid = 0.5 * (lower + upper);
+			if (mid <= lower || mid >= upper) {
+				break;
+			}
+			if (sturmCount(mid, pivmin) > index) {
+				upper = mid;
+			} else {
+				lower = mid;
+			}
+		}
+		return 0.5 * (lower + upper);
+	}
+
+	// Eigenvectors of the tridiagonal matrix for the ascending eigenvalues
+	// lambda by inverse iteration, as the columns of an n x k array. Vectors of
+	// close eigenvalues are reorthogonalized against each other.
+
+	private double[] inverseIteration(double[] lambda, double norm) {
+		final int n = _dim;
+		final int k = lambda.length;
+		final double eps = ConstantsETK.DOUBLE_EPS;
+		final double ortol = 1e-3 * norm;
+		final double sep = 10.0 * eps * norm;
+		final double tiny = eps * norm;
+		double[] Y = new double[n * k];
+		if (norm == 0.0) {
+			// T = 0, any orthonormal vectors will do.
+			for (int j = 0; j < k; j++) {
+				Y[j * k + j] = 1.0;
+			}
+			return Y;
+		}
+		double[] u0 = new double[n];
+		double[] u1 = new double[n];
+		double[] u2 = new double[n];
+		double[] mult = new double[n];
+		boolean[] swap = new boolean[n];
+		double[] x = new double[n];
+		Random random = new Random(1);
+
+		int cluster = 0;
+		double previous = 0.0;
+		for (int j = 0; j < k; j++) {
+			double lam = lambda[j];
+			if (j > 0 && lam - lambda[j - 1] > ortol) {
+				cluster = j;
+			}
+			// Move apart equal eigenvalues so that their systems differ.
+			if (j > 0 && lam - previous < sep) {
+				lam = previous + sep;
+			}
+			previous = lam;
+
+			// LU factorization of T - lam * I with partial pivoting.
+			double p0 = d[0] - lam;
+			double p1 = n > 1 ? e[1] : 0.0;
+			for (int i = 0; i < n - 1; i++) {
+				double sub = e[i + 1];
+				double diag = d[i + 1] - lam;
+				double sup = i + 2 < n ? e[i + 2] : 0.0;
+				if (Math.abs(p0) >= Math.abs(sub)) {
+					if (p0 == 0.0) {
+						p0 = tiny;
+					}
+					swap[i] = false;
+					mult[i] = sub / p0;
+					u0[i] = p0;
+					u1[i] = p1;
+					u2[i] = 0.0;
+					p0 = diag - mult[i] * p1;
+					p1 = sup;
+				} else {
+					swap[i] = true;
+					mult[i] = p0 / sub;
+					u0[i] = sub;
+					u1[i] = diag;
+					u2[i] = sup;
+					p0 = p1 - mult[i] * diag;
+					p1 = -mult[i] * sup;
+				}
+			}
+			u0[n - 1] = p0 == 0.0 ? tiny : p0;
+
+			for (int i = 0; i < n; i++) {
+				x[i] = random.nextDouble() - 0.5;
+			}
+			for (int iter = 0; iter < 3; iter++) {
+				// Solve (T - lam * I) * y = x in place.
+				for (int i = 0; i < n - 1; i++) {
+					if (swap[i]) {
+						double t = x[i];
+						x[i] = x[i + 1];
+						x[i + 1] = t;
+					}
+					x[i + 1] -= mult[i] * x[i];
+				}
+				for (int i = n - 1; i >= 0; i--) {
+					double s = x[i];
+					if (i + 1 < n) {
+						s -= u1[i] * x[i + 1];
+					}
+					if (i + 2 < n) {
+						s -= u2[i] * x[i + 2];
+					}
+					x[i] = s / u0[i];
+				}
+				for (int c = cluster; c < j; c++) {
+					double dot = 0.0;
+					for (int i = 0; i < n; i++) {
+						dot += Y[i * k + c] * x[i];
+					}
+					for (int i = 0; i < n; i++) {
+						x[i] -= dot * Y[i * k + c];
+					}
+				}
+				double nrm = 0.0;
+				for (int i = 0; i < n; i++) {
+					nrm = MathETK.hypot(nrm, x[i]);
+				}
+				for (int i = 0; i < n; i++) {
+					x[i] /= nrm;
+				}
+			}
+			for (int i = 0; i < n; i++) {
+				Y[i * k + j] = x[i];
+			}
+		}
+		return Y;
+	}
+
+	// Applies the Householder reflections of tred2 to the n x k array Y, which
+	// turns eigenvectors of the tridiagonal matrix into eigenvectors of A.
+
+	private void backTransform(double[] Y, int k) {
+		final int n = _dim;
+		double[] g = new double[k];
+		for (int i = 0; i < n - 1; i++) {
+			double h = hh[i + 1];
+			if (h == 0.0) {
+				continue;
+			}
+			Arrays.fill(g, 0.0);
+			for (int r = 0; r <= i; r++) {
+				double u = V[r * n + (i + 1)];
+				for (int c = 0; c < k; c++) {
+					g[c] += u * Y[r * k + c];
+				}
+			}
+			for (int r = 0; r <= i; r++) {
+				double u = V[r * n + (i + 1)] / h;
+				for (int c = 0; c < k; c++) {
+					Y[r * k + c] -= g[c] * u;
+				}
+			}
+		}
+	}
+
 	/*
 	 * ------------------------ Constructor ------------------------
 	 */
@@ -877,6 +1124,27 @@ public class EigenvalueDecompositionDense {
 	 */
 
 	public EigenvalueDecompositionDense(MatrixDense Arg, boolean balance) {
+		this(Arg, balance, true);
+	}
+
+	/**
+	 * Check for symmetry, then construct the eigenvalue decomposition Structure
+	 * to access D and, optionally, V.
+	 * <P>
+	 * Accumulating the transformations into V is most of the work, callers that
+	 * only need the eigenvalues should skip it. Symmetric matrices larger than
+	 * {@value #DIVIDE_AND_CONQUER_THRESHOLD} are diagonalized by divide and
+	 * conquer when the eigenvectors are requested.
+	 * 
+	 * @param Arg
+	 *            Square matrix
+	 * @param balance balance the matrix before computing the decomposition
+	 * @param computeVectors compute the eigenvectors, {@link #getV()} is not
+	 *            available otherwise
+	 */
+
+	public EigenvalueDecompositionDense(MatrixDense Arg, boolean balance, boolean computeVectors) {
+		this.computeVectors = computeVectors;
 		double[] A = Arg.getArray();
 		_dim = Arg.getColumnCount();
 		issymmetric = true;
@@ -889,7 +1157,8 @@ public class EigenvalueDecompositionDense {
 			A = Arg.balance().getArray();
 		}
 
-		V = new double[_dim * _dim];
+		_count = _dim;
+		V = issymmetric || computeVectors ? new double[_dim * _dim] : null;
 		d = new double[_dim];
 		e = new double[_dim];
 
@@ -900,11 +1169,21 @@ public class EigenvalueDecompositionDense {
 				}
 			}
 
-			// Tridiagonalize.
-			tred2();
+			if (!computeVectors) {
+				tred2(false);
+				tql2(_dim, d, e, null);
+				V = null;
+				hh = null;
+			} else if (_dim > DIVIDE_AND_CONQUER_THRESHOLD) {
+				tred2(false);
+				divideAndConquer();
+			} else {
+				// Tridiagonalize.
+				tred2(true);
 
-			// Diagonalize.
-			tql2();
+				// Diagonalize.
+				tql2(_dim, d, e, V);
+			}
 
 		} else {
 			H = new double[_dim][_dim];
@@ -924,6 +1203,93 @@ public class EigenvalueDecompositionDense {
 		}
 	}
 
+	// k extreme eigenpairs of a symmetric matrix, see symmetricEigenpairs.
+
+	private EigenvalueDecompositionDense(MatrixDense Arg, int k, boolean largest) {
+		double[] A = Arg.getArray();
+		_dim = Arg.getRowCount();
+		issymmetric = true;
+		computeVectors = false;
+		V = Arrays.copyOf(A, A.length);
+		d = new double[_dim];
+		e = new double[_dim];
+
+		// Tridiagonalize, keeping the Householder reflections.
+		tred2(false);
+
+		// Gershgorin interval and norm of the tridiagonal matrix.
+		double lower = Double.POSITIVE_INFINITY;
+		double upper = Double.NEGATIVE_INFINITY;
+		double norm = 0.0;
+		double pivmin = 1.0;
+		for (int i = 0; i < _dim; i++) {
+			double radius = Math.abs(e[i]) + (i + 1 < _dim ? Math.abs(e[i + 1]) : 0.0);
+			lower = Math.min(lower, d[i] - radius);
+			upper = Math.max(upper, d[i] + radius);
+			norm = Math.max(norm, Math.abs(d[i]) + radius);
+			pivmin = Math.max(pivmin, e[i] * e[i]);
+		}
+		pivmin *= Double.MIN_NORMAL;
+		double widen = 2.0 * ConstantsETK.DOUBLE_EPS * norm * _dim + 2.0 * pivmin;
+		lower -= widen;
+		upper += widen;
+
+		int first = largest ? _dim - k : 0;
+		double[] lambda = new double[k];
+		for (int j = 0; j < k; j++) {
+			lambda[j] = bisect(first + j, lower, upper, pivmin);
+		}
+
+		double[] Y = inverseIteration(lambda, norm);
+		backTransform(Y, k);
+
+		V = Y;
+		d = lambda;
+		e = new double[k];
+		hh = null;
+		_count = k;
+		computeVectors = true;
+	}
+
+	/**
+	 * Computes only the k smallest or k largest eigenvalues of a symmetric
+	 * matrix and their eigenvectors.
+	 * <P>
+	 * The matrix is reduced to tridiagonal form without accumulating the
+	 * transformations, the eigenvalues are found by bisection on Sturm sequences
+	 * and the eigenvectors by inverse iteration. Beyond the reduction this costs
+	 * O(n^2 k) instead of the O(n^3) of the full decomposition.
+	 * 
+	 * @param A
+	 *            Symmetric matrix
+	 * @param k the number of eigenpairs
+	 * @param largest compute the k largest eigenvalues if true, the k smallest
+	 *            otherwise
+	 * @return The decomposition, with the k eigenvalues in ascending order, V is
+	 *         n x k and D is k x k.
+	 * @throws IllegalArgumentException if A is not symmetric or k is not between
+	 *             1 and the dimension of A.
+	 */
+
+	public static EigenvalueDecompositionDense symmetricEigenpairs(MatrixDense A, int k, boolean largest) {
+		if (!A.isSquare()) {
+			throw new NonSquareMatrixException("Must be a square matrix");
+		}
+		int n = A.getRowCount();
+		if (k < 1 || k > n) {
+			throw new IllegalArgumentException("The number of eigenpairs must be between 1 and " + n + ".");
+		}
+		double[] data = A.getArray();
+		for (int i = 0; i < n; i++) {
+			for (int j = 0; j < i; j++) {
+				if (data[i * n + j] != data[j * n + i]) {
+					throw new IllegalArgumentException("Matrix must be symmetric.");
+				}
+			}
+		}
+		return new EigenvalueDecompositionDense(A, k, largest);
+	}
+
 	/*
 	 * ------------------------ Public Methods ------------------------
 	 */
@@ -935,7 +1301,10 @@ public class EigenvalueDecompositionDense {
 	 */
 
 	public MatrixDense getV() {
-		return new MatrixDense(V, _dim, _dim);
+		if (!computeVectors) {
+			throw new IllegalStateException("The eigenvectors were not computed.");
+		}
+		return new MatrixDense(V, _dim, _count);
 	}
 
 	/**
@@ -965,17 +1334,17 @@ public class EigenvalueDecompositionDense {
 	 */
 
 	public MatrixDense getD() {
-		MatrixDense X = new MatrixDense(_dim, _dim);
+		MatrixDense X = new MatrixDense(_count, _count);
 		double[] D = X.getArray();
-		for (int i = 0; i < _dim; i++) {
-			for (int j = 0; j < _dim; j++) {
-				D[i * _dim + j] = 0.0;
+		for (int i = 0; i < _count; i++) {
+			for (int j = 0; j < _count; j++) {
+				D[i * _count + j] = 0.0;
 			}
-			D[i * _dim + i] = d[i];
+			D[i * _count + i] = d[i];
 			if (e[i] > 0) {
-				D[i * _dim + (i + 1)] = e[i];
+				D[i * _count + (i + 1)] = e[i];
 			} else if (e[i] < 0) {
-				D[i * _dim + (i - 1)] = e[i];
+				D[i * _count + (i - 1)] = e[i];
 			}
 		}
 		return X;
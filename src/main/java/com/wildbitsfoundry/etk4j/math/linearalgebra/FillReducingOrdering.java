@@ -0,0 +1,33 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * Column orderings that reduce the fill-in of the sparse factorizations. The ordering is computed from the structure
+ * of the matrix only, before the numerical factorization.
+ *
+ * @see LUDecompositionSparse#LUDecompositionSparse(MatrixSparse, FillReducingOrdering)
+ * @see CholeskyDecompositionSparse#CholeskyDecompositionSparse(MatrixSparse, FillReducingOrdering)
+ * @see QRDecompositionSparse#QRDecompositionSparse(MatrixSparse, FillReducingOrdering)
+ */
+public enum FillReducingOrdering {
+    /**
+     * The columns are factored in their natural order.
+     */
+    NATURAL,
+    /**
+     * Approximate minimum degree ordering. Computed on the pattern of {@code A + A^T} for LU and Cholesky, and on the
+     * pattern of {@code A^T * A} for QR.
+     */
+    AMD,
+    /**
+     * Column approximate minimum degree ordering, the approximate minimum degree ordering of {@code A^T * A}. Rows of
+     * {@code A} with more than {@code max(16, 10 * sqrt(n))} entries are ignored so that they do not make
+     * {@code A^T * A} dense. Suited to LU with partial pivoting of unsymmetric matrices and to QR. Not available for
+     * Cholesky.
+     */
+    COLAMD,
+    /**
+     * Reverse Cuthill-McKee ordering. Reduces the bandwidth and profile of the matrix rather than the fill-in, which
+     * suits matrices from meshes and other banded problems.
+     */
+    RCM
+}
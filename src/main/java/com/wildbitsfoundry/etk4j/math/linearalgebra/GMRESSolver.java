@@ -0,0 +1,218 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the restarted Generalized Minimal Residual method, GMRES(m), to solve a general, possibly
+ * nonsymmetric, system of equations. The Krylov basis is built with modified Gram-Schmidt and the least squares problem
+ * is updated with Givens rotations, so the residual norm is known at every iteration without forming x. The basis is
+ * discarded every {@code m} iterations to bound memory to {@code (m + 1) * n} values.
+ * The matrix can be a {@link MatrixSparse} or any {@link LinearOperator}.
+ */
+public class GMRESSolver {
+
+    private final LinearOperator A;
+    private final double[] b;
+    private int iterationLimit = 1000;
+    private int restart = 30;
+    private double tol = 1e-9;
+    private double[] x0 = null;
+    private Preconditioner M = null;
+
+    public GMRESSolver(MatrixSparse A, double[] b) {
+        this(LinearOperator.fromMatrix(A), b);
+    }
+
+    public GMRESSolver(LinearOperator A, double[] b) {
+        if (A.getRowCount() != A.getColumnCount()) {
+            throw new IllegalArgumentException("Matrix must be square.");
+        }
+        if (A.getRowCount() != b.length) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        this.A = A;
+        this.b = b;
+    }
+
+    /**
+     * Sets the maximum number of iterations allowed. Every product {@code A * x} counts as one iteration.
+     * @param iterationLimit the maximum number of iterations allowed
+     * @return {@code this}
+     */
+    public GMRESSolver iterationLimit(int iterationLimit) {
+        this.iterationLimit = iterationLimit;
+        return this;
+    }
+
+    /**
+     * Sets the number of iterations after which the method restarts. Defaults to 30.
+     * @param restart the dimension of the Krylov subspace
+     * @return {@code this}
+     */
+    public GMRESSolver restart(int restart) {
+        if (restart < 1) {
+            throw new IllegalArgumentException("restart must be greater than zero.");
+        }
+        this.restart = restart;
+        return this;
+    }
+
+    /**
+     * Sets the relative tolerance that determines when to stop the algorithm. The algorithm stops when
+     * {@code ||b - A * x|| <= tolerance * ||b||}.
+     * @param tolerance the relative tolerance
+     * @return {@code this}
+     */
+    public GMRESSolver tolerance(double tolerance) {
+        this.tol = tolerance;
+        return this;
+    }
+
+    /**
+     * Sets the initial guess to the solution of the system of equations
+     * @param x0 the initial guess of the solutions. All zeros if not set.
+     * @return {@code this}
+     */
+    public GMRESSolver initialGuess(double[] x0) {
+        this.x0 = x0;
+        return this;
+    }
+
+    /**
+     * Sets the preconditioner applied to the system
+     * @param M the preconditioner. No preconditioning if not set.
+     * @return {@code this}
+     */
+    public GMRESSolver preconditioner(Preconditioner M) {
+        this.M = M;
+        return this;
+    }
+
+    /**
+     * Solves A * x = b
+     * @return An {@link IterativeSolverResults} with the solutions of the system A * x  = b. The error is the relative
+     * residual {@code ||b - A * x|| / ||b||}.
+     */
+    public IterativeSolverResults<double[]> solve() {
+        final int n = b.length;
+        final int m = Math.min(restart, n);
+        double[] x = x0 == null ? new double[n] : x0.clone();
+        double[] r = new double[n];
+        double[][] V = new double[m + 1][n];
+        double[][] H = new double[m + 1][m];
+        double[] cs = new double[m];
+        double[] sn = new double[m];
+        double[] g = new double[m + 1];
+        double[] y = new double[m];
+        // Right preconditioning, x = M^-1 * u, keeps the residual of the original system
+        double[] z = M == null ? null : new double[n];
+
+        double bNorm = KrylovUtils.norm(b);
+        if (bNorm == 0.0) {
+            return KrylovUtils.results(new double[n], 0, 0.0, true, "Converged");
+        }
+        KrylovUtils.residual(A, x, b, r);
+        double beta = KrylovUtils.norm(r);
+        double error = beta / bNorm;
+        int iterations = 0;
+        while (error > tol && iterations < iterationLimit) {
+            for (int i = 0; i < n; ++i) {
+                V[0][i] = r[i] / beta;
+            }
+            Arrays.fill(g, 0.0);
+            g[0] = beta;
+
+            int j = 0;
+            boolean breakdown = false;
+            while (j < m && iterations < iterationLimit) {
+                double[] w = V[j + 1];
+                if (M == null) {
+                    A.multiply(V[j], w);
+                } else {
+                    M.apply(V[j], z);
+                    A.multiply(z, w);
+                }
+                ++iterations;
+                // Modified Gram-Schmidt
+                for (int i = 0; i <= j; ++i) {
+                    double h = KrylovUtils.dot(w, V[i]);
+                    H[i][j] = h;
+                    KrylovUtils.axpy(-h, V[i], w);
+                }
+                double hNext = KrylovUtils.norm(w);
+                H[j + 1][j] = hNext;
+
+                // Apply the previous rotations to the new column
+                for (int i = 0; i < j; ++i) {
+                    double tmp = cs[i] * H[i][j] + sn[i] * H[i + 1][j];
+                    H[i + 1][j] = -sn[i] * H[i][j] + cs[i] * H[i + 1][j];
+                    H[i][j] = tmp;
+                }
+                // Compute the rotation that zeroes H[j + 1][j]
+                double denom = Math.hypot(H[j][j], H[j + 1][j]);
+                if (denom == 0.0) {
+                    cs[j] = 1.0;
+                    sn[j] = 0.0;
+                } else {
+                    cs[j] = H[j][j] / denom;
+                    sn[j] = H[j + 1][j] / denom;
+                }
+                H[j][j] = denom;
+                H[j + 1][j] = 0.0;
+                g[j + 1] = -sn[j] * g[j];
+                g[j] = cs[j] * g[j];
+                ++j;
+
+                error = Math.abs(g[j]) / bNorm;
+                if (error <= tol) {
+                    break;
+                }
+                if (hNext == 0.0) {
+                    // Lucky breakdown, the solution lies in the current subspace
+                    breakdown = true;
+                    break;
+                }
+                for (int i = 0; i < n; ++i) {
+                    w[i] /= hNext;
+                }
+            }
+
+            // Solve the upper triangular system H * y = g and update x
+            for (int i = j - 1; i >= 0; --i) {
+                double sum = g[i];
+                for (int k = i + 1; k < j; ++k) {
+                    sum -= H[i][k] * y[k];
+                }
+                if (H[i][i] == 0.0) {
+                    return KrylovUtils.results(x, iterations, error, false, "Matrix is singular");
+                }
+                y[i] = sum / H[i][i];
+            }
+            if (M == null) {
+                for (int i = 0; i < j; ++i) {
+                    KrylovUtils.axpy(y[i], V[i], x);
+                }
+            } else {
+                // x += M^-1 * (V * y), r is free until the residual is recomputed
+                Arrays.fill(r, 0.0);
+                for (int i = 0; i < j; ++i) {
+                    KrylovUtils.axpy(y[i], V[i], r);
+                }
+                M.apply(r, z);
+                KrylovUtils.axpy(1.0, z, x);
+            }
+
+            // The true residual guards against the drift of the recurrence
+            KrylovUtils.residual(A, x, b, r);
+            beta = KrylovUtils.norm(r);
+            error = beta / bNorm;
+            if (breakdown && error > tol) {
+                return KrylovUtils.results(x, iterations, error, false, "Matrix is singular");
+            }
+        }
+        if (error <= tol) {
+            return KrylovUtils.results(x, iterations, error, true, "Converged");
+        }
+        return KrylovUtils.results(x, iterations, error, false, "Maximum number of iterations exceeded");
+    }
+}
@@ -8,4 +8,8 @@ public class GaussSeidelSolver extends SuccessiveOverRelaxationSolver {
     public GaussSeidelSolver(MatrixDense A, double[] b) {
         super(A, b, 1.0);
     }
+
+    public GaussSeidelSolver(MatrixSparse A, double[] b) {
+        super(A, b, 1.0);
+    }
 }
@@ -0,0 +1,109 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * The incomplete Cholesky factorization with zero fill-in, IC(0), of a symmetric positive definite matrix. The factor
+ * {@code L} has the sparsity pattern of the lower triangle of {@code A} and {@code L * L^T} matches {@code A} on that
+ * pattern. Only the lower triangle of {@code A} is read.
+ * <p>
+ * The factorization exists for M-matrices and diagonally dominant matrices, but it can break down for a general
+ * symmetric positive definite matrix, in which case an {@link IllegalArgumentException} is thrown.
+ */
+public class IncompleteCholeskyPreconditioner implements Preconditioner {
+
+    private final int n;
+    // Lower triangle of the factor in compressed column format, the diagonal first in every column
+    private final int[] colIdx;
+    private final int[] rows;
+    private final double[] values;
+
+    // workspace storage
+    private final IGrowArray gw = new IGrowArray(1);
+
+    public IncompleteCholeskyPreconditioner(MatrixSparse A) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        this.n = A.cols;
+        int[] sortedRows = new int[A.nz_length];
+        double[] sortedValues = new double[A.nz_length];
+        MatrixSparseUtils.copySortedColumns(A, sortedRows, sortedValues);
+
+        // Keep the lower triangle only
+        this.colIdx = new int[n + 1];
+        int nz = 0;
+        for (int col = 0; col < n; ++col) {
+            for (int i = A.col_idx[col]; i < A.col_idx[col + 1]; ++i) {
+                if (sortedRows[i] >= col) {
+                    sortedRows[nz] = sortedRows[i];
+                    sortedValues[nz++] = sortedValues[i];
+                }
+            }
+            colIdx[col + 1] = nz;
+        }
+        this.rows = sortedRows;
+        this.values = sortedValues;
+        decompose();
+    }
+
+    /*
+     * Right looking, column by column. Once column k is scaled it updates the columns j > k for which L(j, k) is non-zero,
+     * dropping the updates that fall outside the pattern.
+     */
+    private void decompose() {
+        // position + 1 of every row of the column being updated, 0 if the row is not in the pattern
+        int[] position = MatrixSparseUtils.adjust(gw, n, n);
+        for (int k = 0; k < n; ++k) {
+            final int idx0 = colIdx[k];
+            final int idx1 = colIdx[k + 1];
+            if (idx0 == idx1 || rows[idx0] != k || !(values[idx0] > 0.0)) {
+                throw new IllegalArgumentException(
+                        String.format("Incomplete Cholesky factorization broke down at row %d.", k));
+            }
+            final double pivot = Math.sqrt(values[idx0]);
+            values[idx0] = pivot;
+            for (int i = idx0 + 1; i < idx1; ++i) {
+                values[i] /= pivot;
+            }
+
+            for (int i = idx0 + 1; i < idx1; ++i) {
+                final int j = rows[i];
+                final double ljk = values[i];
+                for (int p = colIdx[j]; p < colIdx[j + 1]; ++p) {
+                    position[rows[p]] = p + 1;
+                }
+                // L(m, k) for m >= j updates A(m, j)
+                for (int m = i; m < idx1; ++m) {
+                    int target = position[rows[m]];
+                    if (target != 0) {
+                        values[target - 1] -= values[m] * ljk;
+                    }
+                }
+                for (int p = colIdx[j]; p < colIdx[j + 1]; ++p) {
+                    position[rows[p]] = 0;
+                }
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        System.arraycopy(r, 0, z, 0, n);
+        // L * y = r
+        for (int col = 0; col < n; ++col) {
+            final int idx0 = colIdx[col];
+            final double zj = z[col] /= values[idx0];
+            for (int i = idx0 + 1; i < colIdx[col + 1]; ++i) {
+                z[rows[i]] -= values[i] * zj;
+            }
+        }
+        // L^T * z = y
+        for (int col = n - 1; col >= 0; --col) {
+            final int idx0 = colIdx[col];
+            double sum = z[col];
+            for (int i = idx0 + 1; i < colIdx[col + 1]; ++i) {
+                sum -= values[i] * z[rows[i]];
+            }
+            z[col] = sum / values[idx0];
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * The incomplete LU factorization with zero fill-in, ILU(0). The factors {@code L} and {@code U} have the same sparsity
+ * pattern as {@code A} and {@code L * U} matches {@code A} on that pattern. Both factors are stored in a single copy of
+ * the compressed column structure of {@code A}, {@code L} with an implicit unit diagonal.
+ * <p>
+ * No pivoting is performed, so every diagonal element of {@code A} must be stored and the pivots must not vanish. This
+ * is guaranteed for M-matrices and diagonally dominant matrices.
+ */
+public class IncompleteLUPreconditioner implements Preconditioner {
+
+    private final int n;
+    private final int[] colIdx;
+    private final int[] rows;
+    private final double[] values;
+    // Index of the diagonal element of every column
+    private final int[] diagonalIdx;
+
+    // workspace storage
+    private final IGrowArray gw = new IGrowArray(1);
+
+    public IncompleteLUPreconditioner(MatrixSparse A) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        this.n = A.cols;
+        this.colIdx = A.col_idx.clone();
+        this.rows = new int[A.nz_length];
+        this.values = new double[A.nz_length];
+        this.diagonalIdx = new int[n];
+        MatrixSparseUtils.copySortedColumns(A, rows, values);
+        decompose();
+    }
+
+    /*
+     * Left looking, column by column. The entries of column j above the diagonal become U(:, j) once they have been
+     * updated by the columns of L to their left, in increasing row order. Updates that fall outside the pattern are
+     * dropped.
+     */
+    private void decompose() {
+        // position + 1 of every row of the current column, 0 if the row is not in the pattern
+        int[] position = MatrixSparseUtils.adjust(gw, n, n);
+        for (int col = 0; col < n; ++col) {
+            final int idx0 = colIdx[col];
+            final int idx1 = colIdx[col + 1];
+            diagonalIdx[col] = -1;
+            for (int i = idx0; i < idx1; ++i) {
+                position[rows[i]] = i + 1;
+                if (rows[i] == col) {
+                    diagonalIdx[col] = i;
+                }
+            }
+            if (diagonalIdx[col] < 0) {
+                throw new SingularMatrixException(String.format("Zero diagonal element at row %d.", col));
+            }
+
+            for (int i = idx0; i < diagonalIdx[col]; ++i) {
+                final int k = rows[i];
+                final double ukj = values[i];
+                if (ukj == 0.0) {
+                    continue;
+                }
+                for (int p = diagonalIdx[k] + 1; p < colIdx[k + 1]; ++p) {
+                    int target = position[rows[p]];
+                    if (target != 0) {
+                        values[target - 1] -= values[p] * ukj;
+                    }
+                }
+            }
+
+            final double pivot = values[diagonalIdx[col]];
+            if (pivot == 0.0) {
+                throw new SingularMatrixException(String.format("Zero pivot at row %d.", col));
+            }
+            for (int i = diagonalIdx[col] + 1; i < idx1; ++i) {
+                values[i] /= pivot;
+            }
+            for (int i = idx0; i < idx1; ++i) {
+                position[rows[i]] = 0;
+            }
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        System.arraycopy(r, 0, z, 0, n);
+        // L * y = r, unit diagonal
+        for (int col = 0; col < n; ++col) {
+            final double zj = z[col];
+            for (int i = diagonalIdx[col] + 1; i < colIdx[col + 1]; ++i) {
+                z[rows[i]] -= values[i] * zj;
+            }
+        }
+        // U * z = y
+        for (int col = n - 1; col >= 0; --col) {
+            final double zj = z[col] /= values[diagonalIdx[col]];
+            for (int i = colIdx[col]; i < diagonalIdx[col]; ++i) {
+                z[rows[i]] -= values[i] * zj;
+            }
+        }
+    }
+}
@@ -2,13 +2,20 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 
 import com.wildbitsfoundry.etk4j.util.DoubleArrays;
 
+import java.util.stream.IntStream;
+
 /**
- * This class implements the Jacobi iterative method to solve a system of equations
+ * This class implements the Jacobi iterative method to solve a system of equations.
+ * <p>
+ * A {@link MatrixSparse} is swept row by row over its non-zero entries only, so every iteration costs O(nnz). The
+ * rows are independent of each other and can be updated in parallel with {@link #parallel(boolean)}.
  */
 public class JacobiMethodSolver {
 
     private double[] b;
     private MatrixDense A;
+    private RowCompressedMatrix sparse;
+    private boolean parallel = false;
     private int iterationLimit = 100;
     private double tol = 1e-9;
     private double[] x0 = null;
@@ -18,6 +25,14 @@ public class JacobiMethodSolver {
         this.b = b;
     }
 
+    public JacobiMethodSolver(MatrixSparse A, double[] b) {
+        if (A.getRowCount() != b.length) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        this.sparse = new RowCompressedMatrix(A);
+        this.b = b;
+    }
+
     /**
      * Sets the maximum number of iterations allowed
      * @param iterationLimit the maximum number of iterations allowed
@@ -48,12 +63,25 @@ public class JacobiMethodSolver {
         return this;
     }
 
+    /**
+     * Updates the rows in parallel. Only applies to a {@link MatrixSparse}.
+     * @param parallel {@code true} to run the sweeps in parallel. Defaults to {@code false}.
+     * @return {@code this}
+     */
+    public JacobiMethodSolver parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
     /**
      * Solves A * x = b
      * @return An {@link IterativeSolverResults} with the solutions of the system A * x  = b
      */
     public IterativeSolverResults<double[]> solve() {
         double[] x = x0 == null ? new double[b.length] : x0;
+        if (sparse != null) {
+            return solveSparse(x);
+        }
         int n = A.getRowCount();
         double[] xNew = new double[n];
         int k;
@@ -90,4 +118,43 @@ public class JacobiMethodSolver {
         return solverResults;
 
     }
+
+    private IterativeSolverResults<double[]> solveSparse(double[] x) {
+        final int n = sparse.n;
+        double[] xNew = new double[n];
+        int k;
+        double error = Double.NaN;
+        for (k = 0; k < iterationLimit; k++) {
+            final double[] xOld = x;
+            IntStream rows = IntStream.range(0, n);
+            if (parallel) {
+                rows = rows.parallel();
+            }
+            rows.forEach(i -> xNew[i] = sparse.offDiagonalResidual(i, b, xOld) / sparse.diagonal[i]);
+            // Check for convergence
+            error = 0;
+            for (int i = 0; i < n; i++) {
+                double d = xNew[i] - x[i];
+                error += d * d;
+            }
+            error = Math.sqrt(error);
+            if(error < tol) {
+                IterativeSolverResults<double[]> solverResults = new IterativeSolverResults<>();
+                solverResults.setSolverStatus("Converged");
+                solverResults.setHasConverged(true);
+                solverResults.setError(error);
+                solverResults.setValue(xNew);
+                solverResults.setNumberOfIterations(k + 1);
+                return solverResults;
+            }
+            System.arraycopy(xNew, 0, x, 0, xNew.length);
+        }
+        IterativeSolverResults<double[]> solverResults = new IterativeSolverResults<>();
+        solverResults.setSolverStatus("Maximum number of iterations exceeded");
+        solverResults.setHasConverged(false);
+        solverResults.setError(error);
+        solverResults.setValue(x);
+        solverResults.setNumberOfIterations(k + 1);
+        return solverResults;
+    }
 }
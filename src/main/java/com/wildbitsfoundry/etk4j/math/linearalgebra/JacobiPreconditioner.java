@@ -0,0 +1,36 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * The Jacobi, or diagonal, preconditioner {@code M = diag(A)}. It is the cheapest preconditioner and is effective when
+ * the rows of the matrix are badly scaled.
+ */
+public class JacobiPreconditioner implements Preconditioner {
+
+    private final double[] inverseDiagonal;
+
+    public JacobiPreconditioner(MatrixSparse A) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        final int n = A.cols;
+        inverseDiagonal = new double[n];
+        for (int col = 0; col < n; ++col) {
+            for (int i = A.col_idx[col]; i < A.col_idx[col + 1]; ++i) {
+                if (A.nz_rows[i] == col) {
+                    inverseDiagonal[col] += A.nz_values[i];
+                }
+            }
+            if (inverseDiagonal[col] == 0.0) {
+                throw new SingularMatrixException(String.format("Zero diagonal element at row %d.", col));
+            }
+            inverseDiagonal[col] = 1.0 / inverseDiagonal[col];
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        for (int i = 0; i < inverseDiagonal.length; ++i) {
+            z[i] = r[i] * inverseDiagonal[i];
+        }
+    }
+}
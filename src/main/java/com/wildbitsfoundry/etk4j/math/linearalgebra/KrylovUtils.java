@@ -0,0 +1,62 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * Vector kernels shared by the Krylov solvers. They work in place so that the solvers can allocate their work vectors
+ * once per solve.
+ */
+final class KrylovUtils {
+
+    private KrylovUtils() {
+    }
+
+    static double dot(double[] a, double[] b) {
+        double sum = 0.0;
+        for (int i = 0; i < a.length; ++i) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    static double norm(double[] a) {
+        // Scaled to avoid overflow on badly scaled systems
+        double scale = 0.0;
+        for (double v : a) {
+            scale = Math.max(scale, Math.abs(v));
+        }
+        if (scale == 0.0 || Double.isInfinite(scale)) {
+            return scale;
+        }
+        double sum = 0.0;
+        for (double v : a) {
+            double t = v / scale;
+            sum += t * t;
+        }
+        return scale * Math.sqrt(sum);
+    }
+
+    // y += alpha * x
+    static void axpy(double alpha, double[] x, double[] y) {
+        for (int i = 0; i < y.length; ++i) {
+            y[i] += alpha * x[i];
+        }
+    }
+
+    // r = b - A * x
+    static void residual(LinearOperator A, double[] x, double[] b, double[] r) {
+        A.multiply(x, r);
+        for (int i = 0; i < r.length; ++i) {
+            r[i] = b[i] - r[i];
+        }
+    }
+
+    static IterativeSolverResults<double[]> results(double[] x, int iterations, double error, boolean converged,
+                                                    String status) {
+        IterativeSolverResults<double[]> solverResults = new IterativeSolverResults<>();
+        solverResults.setSolverStatus(status);
+        solverResults.setHasConverged(converged);
+        solverResults.setError(error);
+        solverResults.setValue(x);
+        solverResults.setNumberOfIterations(iterations);
+        return solverResults;
+    }
+}
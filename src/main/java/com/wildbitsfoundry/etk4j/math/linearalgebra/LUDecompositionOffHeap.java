@@ -0,0 +1,273 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * Blocked LU decomposition with partial pivoting of a {@link MatrixDenseOffHeap}, {@code P * A = L * U}.
+ * <p>
+ * The columns are factored in panels of {@value #BLOCK}. Each panel is copied to the heap and factored there, then the
+ * matching block row of {@code U} is computed and the trailing matrix is updated with a single pass over its rows, in
+ * parallel. Every element of the trailing matrix is read and written once per panel instead of once per column.
+ * </p>
+ */
+public class LUDecompositionOffHeap extends LUDecomposition<MatrixDenseOffHeap> {
+
+    static final int BLOCK = 64;
+
+    private final int n;
+    private final MatrixDenseOffHeap lu;
+    private final int[] pivot;
+    private int pivotSign = 1;
+
+    public LUDecompositionOffHeap(MatrixDenseOffHeap matrix) {
+        super(matrix);
+        if (!matrix.isSquare()) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        n = matrix.getRowCount();
+        lu = matrix.copy();
+        pivot = new int[n];
+        for (int i = 0; i < n; ++i) {
+            pivot[i] = i;
+        }
+
+        for (int k0 = 0; k0 < n; k0 += BLOCK) {
+            final int b = Math.min(BLOCK, n - k0);
+            final int m = n - k0;
+            final double[] panel = new double[m * b];
+            for (int r = 0; r < m; ++r) {
+                lu.read(lu.index(k0 + r, k0), panel, r * b, b);
+            }
+            factorPanel(k0, b, m, panel);
+            for (int r = 0; r < m; ++r) {
+                lu.write(lu.index(k0 + r, k0), panel, r * b, b);
+            }
+            if (k0 + b == n) {
+                break;
+            }
+
+            // U12 = L11^-1 * A12
+            final int first = k0 + b;
+            final int w = n - first;
+            final double[] u12 = new double[b * w];
+            for (int i = 0; i < b; ++i) {
+                lu.read(lu.index(k0 + i, first), u12, i * w, w);
+                for (int r = 0; r < i; ++r) {
+                    final double l = panel[i * b + r];
+                    if (l != 0.0) {
+                        for (int c = 0, iw = i * w, rw = r * w; c < w; ++c) {
+                            u12[iw + c] -= l * u12[rw + c];
+                        }
+                    }
+                }
+                lu.write(lu.index(k0 + i, first), u12, i * w, w);
+            }
+
+            // A22 -= L21 * U12
+            final int origin = k0;
+            MatrixDenseOffHeap.forEachRowBlock(first, n, (long) w * w * b, (from, to) -> {
+                double[] row = new double[w];
+                for (int i = from; i < to; ++i) {
+                    lu.read(lu.index(i, first), row, 0, w);
+                    for (int r = 0, li = (i - origin) * b; r < b; ++r) {
+                        final double l = panel[li + r];
+                        if (l != 0.0) {
+                            for (int c = 0, rw = r * w; c < w; ++c) {
+                                row[c] -= l * u12[rw + c];
+                            }
+                        }
+                    }
+                    lu.write(lu.index(i, first), row, 0, w);
+                }
+            });
+        }
+    }
+
+    // Unblocked LU of the m x b panel starting at (k0, k0). Row swaps are applied to the whole matrix.
+    private void factorPanel(int k0, int b, int m, double[] panel) {
+        for (int j = 0; j < b; ++j) {
+            int p = j;
+            double max = Math.abs(panel[j * b + j]);
+            for (int r = j + 1; r < m; ++r) {
+                double v = Math.abs(panel[r * b + j]);
+                if (v > max) {
+                    max = v;
+                    p = r;
+                }
+            }
+            if (p != j) {
+                for (int c = 0; c < b; ++c) {
+                    double t = panel[p * b + c];
+                    panel[p * b + c] = panel[j * b + c];
+                    panel[j * b + c] = t;
+                }
+                swapRowsOutsidePanel(k0 + j, k0 + p, k0, b);
+                int t = pivot[k0 + p];
+                pivot[k0 + p] = pivot[k0 + j];
+                pivot[k0 + j] = t;
+                pivotSign = -pivotSign;
+            }
+            final double d = panel[j * b + j];
+            if (d == 0.0) {
+                continue;
+            }
+            for (int r = j + 1; r < m; ++r) {
+                final double l = panel[r * b + j] /= d;
+                if (l != 0.0) {
+                    for (int c = j + 1, rb = r * b, jb = j * b; c < b; ++c) {
+                        panel[rb + c] -= l * panel[jb + c];
+                    }
+                }
+            }
+        }
+    }
+
+    private void swapRowsOutsidePanel(int i, int k, int k0, int b) {
+        final int right = k0 + b;
+        double[] ri = new double[Math.max(k0, n - right)];
+        double[] rk = new double[ri.length];
+        if (k0 > 0) {
+            lu.read(lu.index(i, 0), ri, 0, k0);
+            lu.read(lu.index(k, 0), rk, 0, k0);
+            lu.write(lu.index(i, 0), rk, 0, k0);
+            lu.write(lu.index(k, 0), ri, 0, k0);
+        }
+        if (right < n) {
+            lu.read(lu.index(i, right), ri, 0, n - right);
+            lu.read(lu.index(k, right), rk, 0, n - right);
+            lu.write(lu.index(i, right), rk, 0, n - right);
+            lu.write(lu.index(k, right), ri, 0, n - right);
+        }
+    }
+
+    @Override
+    public boolean isSingular() {
+        for (int j = 0; j < n; ++j) {
+            if (lu.unsafeGet(j, j) == 0.0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return The unit lower triangular factor.
+     */
+    @Override
+    public MatrixDenseOffHeap getL() {
+        MatrixDenseOffHeap L = new MatrixDenseOffHeap(n, n);
+        double[] row = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Arrays.fill(row, 0.0);
+            lu.read(lu.index(i, 0), row, 0, i);
+            row[i] = 1.0;
+            L.write(L.index(i, 0), row, 0, n);
+        }
+        return L;
+    }
+
+    /**
+     * @return The upper triangular factor.
+     */
+    @Override
+    public MatrixDenseOffHeap getU() {
+        MatrixDenseOffHeap U = new MatrixDenseOffHeap(n, n);
+        double[] row = new double[n];
+        for (int i = 0; i < n; ++i) {
+            Arrays.fill(row, 0.0);
+            lu.read(lu.index(i, i), row, i, n - i);
+            U.write(U.index(i, 0), row, 0, n);
+        }
+        return U;
+    }
+
+    /**
+     * @return A copy of the row permutation, row {@code i} of {@code L * U} is row {@code pivot[i]} of {@code A}.
+     */
+    public int[] getPivot() {
+        return pivot.clone();
+    }
+
+    public double det() {
+        double det = pivotSign;
+        for (int i = 0; i < n; ++i) {
+            det *= lu.unsafeGet(i, i);
+        }
+        return det;
+    }
+
+    /**
+     * Solve A * x = b
+     *
+     * @param b The right hand side.
+     * @return x as a column matrix.
+     */
+    @Override
+    public MatrixDenseOffHeap solve(double[] b) {
+        if (b.length != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        MatrixDenseOffHeap B = new MatrixDenseOffHeap(n, 1);
+        B.write(0, b, 0, n);
+        return solve(B);
+    }
+
+    /**
+     * Solve A * X = B
+     *
+     * @param B A matrix with as many rows as A and any number of columns.
+     * @return X so that L * U * X = B(pivot, :)
+     */
+    @Override
+    public MatrixDenseOffHeap solve(MatrixDenseOffHeap B) {
+        if (B.getRowCount() != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        if (isSingular()) {
+            throw new SingularMatrixException("Matrix is singular.");
+        }
+        final int nx = B.getColumnCount();
+        MatrixDenseOffHeap X = new MatrixDenseOffHeap(n, nx);
+        // Groups of right hand sides small enough to be kept on the heap
+        final int width = Math.max(1, Math.min(nx, (1 << 22) / Math.max(1, n)));
+        double[] row = new double[n];
+        for (int c0 = 0; c0 < nx; c0 += width) {
+            final int w = Math.min(width, nx - c0);
+            double[] x = new double[n * w];
+            for (int i = 0; i < n; ++i) {
+                B.read(B.index(pivot[i], c0), x, i * w, w);
+            }
+            // L * Y = B(pivot, :)
+            for (int i = 1; i < n; ++i) {
+                lu.read(lu.index(i, 0), row, 0, i);
+                for (int k = 0; k < i; ++k) {
+                    final double l = row[k];
+                    if (l != 0.0) {
+                        for (int c = 0; c < w; ++c) {
+                            x[i * w + c] -= l * x[k * w + c];
+                        }
+                    }
+                }
+            }
+            // U * X = Y
+            for (int i = n - 1; i >= 0; --i) {
+                lu.read(lu.index(i, i), row, i, n - i);
+                for (int k = i + 1; k < n; ++k) {
+                    final double u = row[k];
+                    if (u != 0.0) {
+                        for (int c = 0; c < w; ++c) {
+                            x[i * w + c] -= u * x[k * w + c];
+                        }
+                    }
+                }
+                for (int c = 0; c < w; ++c) {
+                    x[i * w + c] /= row[i];
+                }
+            }
+            for (int i = 0; i < n; ++i) {
+                X.write(X.index(i, c0), x, i * w, w);
+            }
+        }
+        return X;
+    }
+}
@@ -2,14 +2,37 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 
 import java.util.Arrays;
 
+/**
+ * Left looking sparse LU decomposition with partial pivoting, {@code P * A * Q = L * U}. The row permutation
+ * {@code P} comes from the pivoting and the column permutation {@code Q} from the {@link FillReducingOrdering}.
+ */
 public class LUDecompositionSparse extends LUDecomposition<MatrixSparse> {
 
     public LUDecompositionSparse(MatrixSparse matrix) {
+        this(matrix, FillReducingOrdering.NATURAL);
+    }
+
+    /**
+     * Decomposes the matrix with its columns reordered to reduce the fill-in of the factors.
+     *
+     * @param matrix   The matrix to decompose.
+     * @param ordering The column ordering. {@link FillReducingOrdering#AMD} and {@link FillReducingOrdering#RCM} order
+     *                 the pattern of {@code A + A^T}, {@link FillReducingOrdering#COLAMD} the pattern of
+     *                 {@code A^T * A}.
+     */
+    public LUDecompositionSparse(MatrixSparse matrix, FillReducingOrdering ordering) {
         super(matrix);
+        if (ordering != FillReducingOrdering.NATURAL && matrix.rows != matrix.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        this.q = SparseOrderings.permutation(matrix, ordering, true);
         this.initialize(matrix);
         this.performLU(matrix);
     }
 
+    // column permutation, null if the columns are in natural order
+    private final int[] q;
+
     private final IGrowArray gw = new IGrowArray();
     private final MatrixSparse L = new MatrixSparse(0, 0, 0);
     private final MatrixSparse U = new MatrixSparse(0, 0, 0);
@@ -58,7 +81,7 @@ public class LUDecompositionSparse extends LUDecomposition<MatrixSparse> {
                 this.U.growMaxLength(2 * this.U.nz_values.length + n, true);
             }
 
-            int col = k;
+            int col = q == null ? k : q[k];
             int top = MatrixSparseUtils.solveColB(this.L, true, A, col, this.x, this.pinv, this.gxi, w);
             int[] xi = this.gxi.data;
             int ipiv = -1;
@@ -118,6 +141,16 @@ public class LUDecompositionSparse extends LUDecomposition<MatrixSparse> {
         return this.pinv;
     }
 
+    /**
+     * The column permutation applied to the matrix before the decomposition. Column {@code k} of {@code A * Q} is
+     * column {@code q[k]} of {@code A}.
+     *
+     * @return The column permutation or {@code null} if the columns are in their natural order.
+     */
+    public int[] getColumnPermutation() {
+        return q == null ? null : q.clone();
+    }
+
     public MatrixSparse getL() {
         return this.L;
     }
@@ -152,6 +185,10 @@ public class LUDecompositionSparse extends LUDecomposition<MatrixSparse> {
 
         TriangularSystemSolver.solveL(L, x);
         TriangularSystemSolver.solveU(U, x);
+        if (q != null) {
+            System.arraycopy(x, 0, rhs, 0, b.length);
+            MatrixSparseUtils.permuteInv(q, rhs, x, b.length);
+        }
 
         double[][] xmat = new double[b.length][1];
         for (int i = 0; i < b.length; i++) {
@@ -191,6 +228,11 @@ public class LUDecompositionSparse extends LUDecomposition<MatrixSparse> {
 
         TriangularSystemSolver.solve(L, true, Bp, tmp, null, gx, gw, gw1);
         TriangularSystemSolver.solve(U, false, tmp, X, null, gx, gw, gw1);
+        if (q != null) {
+            MatrixSparse Xq = new MatrixSparse(1, 1, 1);
+            MatrixSparseUtils.permute(q, X, null, Xq);
+            return Xq;
+        }
         return X;
     }
 }
@@ -0,0 +1,66 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * A linear map {@code y = A * x} that only needs to be applied, not stored. The Krylov solvers work on this interface
+ * so that systems can be solved without assembling the matrix, e.g. with a stencil or a product of operators.
+ */
+public interface LinearOperator {
+
+    int getRowCount();
+
+    int getColumnCount();
+
+    /**
+     * Computes {@code y = A * x}.
+     *
+     * @param x The input vector of length {@link #getColumnCount()}. It must not be modified.
+     * @param y The output vector of length {@link #getRowCount()}. Its previous contents are overwritten.
+     */
+    void multiply(double[] x, double[] y);
+
+    /**
+     * Wraps a sparse matrix. The entries are copied once in row compressed form, so every product is computed row by
+     * row, in parallel when it is large enough, without allocating. Later changes to {@code A} are not seen by the
+     * operator.
+     *
+     * @param A The matrix.
+     * @return A linear operator that multiplies by {@code A}.
+     */
+    static LinearOperator fromMatrix(MatrixSparse A) {
+        return new SparseRowOperator(A);
+    }
+
+    /**
+     * Wraps a dense matrix. The matrix is referenced, not copied.
+     *
+     * @param A The matrix.
+     * @return A linear operator that multiplies by {@code A}.
+     */
+    static LinearOperator fromMatrix(MatrixDense A) {
+        return new LinearOperator() {
+            @Override
+            public int getRowCount() {
+                return A.getRowCount();
+            }
+
+            @Override
+            public int getColumnCount() {
+                return A.getColumnCount();
+            }
+
+            @Override
+            public void multiply(double[] x, double[] y) {
+                final double[] data = A.getArray();
+                final int rows = A.getRowCount();
+                final int cols = A.getColumnCount();
+                for (int i = 0; i < rows; ++i) {
+                    double sum = 0.0;
+                    for (int j = 0, k = i * cols; j < cols; ++j, ++k) {
+                        sum += data[k] * x[j];
+                    }
+                    y[i] = sum;
+                }
+            }
+        };
+    }
+}
@@ -1476,7 +1476,7 @@ public class MatrixDense extends Matrix {
      * @return The Characteristic polynomial of the Matrix.
      */
     public double[] poly() {
-        EigenvalueDecompositionDense eig = this.eig();
+        EigenvalueDecompositionDense eig = new EigenvalueDecompositionDense(this, true, false);
         Complex[] roots = ComplexArrays.zip(eig.getRealEigenvalues(), eig.getImagEigenvalues());
         return new Polynomial(roots).getCoefficients();
     }
@@ -0,0 +1,357 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Dense matrix stored outside of the Java heap, in row major order like {@link MatrixDense}.
+ * <p>
+ * The values are held in direct {@link ByteBuffer} segments of up to 2<sup>27</sup> values (1 GiB) each, so the
+ * number of elements is not limited to 2<sup>31</sup> and large matrices do not add to garbage collection pauses.
+ * Direct memory is limited by {@code -XX:MaxDirectMemorySize}, which defaults to the maximum heap size. A matrix can
+ * also be backed by a memory mapped file, see {@link MatrixIO#mapBinaryDense} and {@link MatrixIO#createMappedDense}.
+ * </p>
+ * <p>
+ * Products and decompositions copy rows and blocks into small heap buffers and work on those, in parallel over the
+ * rows of the result.
+ * </p>
+ */
+public class MatrixDenseOffHeap extends Matrix {
+
+    // 2^27 values per segment
+    static final int DEFAULT_SEGMENT_SHIFT = 27;
+    // Rows given to each parallel task
+    static final int ROW_BLOCK = 32;
+    // Operations with less work than this run on the calling thread
+    private static final long PARALLEL_THRESHOLD = 1 << 16;
+    // Number of values of the right hand side kept on the heap by multiply
+    private static final int PANEL_LENGTH = 1 << 20;
+
+    private final int shift;
+    private final int segmentLength;
+    private final ByteBuffer[] bytes;
+    private final DoubleBuffer[] segments;
+
+    /**
+     * Constructs a matrix of zeros.
+     *
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     */
+    public MatrixDenseOffHeap(int rows, int cols) {
+        this(rows, cols, DEFAULT_SEGMENT_SHIFT);
+    }
+
+    MatrixDenseOffHeap(int rows, int cols, int shift) {
+        super(rows, cols);
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Rows and columns must be non-negative.");
+        }
+        this.shift = shift;
+        this.segmentLength = 1 << shift;
+        long length = (long) rows * cols;
+        int count = (int) ((length + segmentLength - 1) >>> shift);
+        bytes = new ByteBuffer[count];
+        for (int s = 0; s < count; ++s) {
+            int values = (int) Math.min(segmentLength, length - ((long) s << shift));
+            bytes[s] = ByteBuffer.allocateDirect(8 * values).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        segments = views(bytes);
+    }
+
+    /**
+     * Wraps existing segments, e.g. memory mapped ones. Every segment but the last must hold
+     * {@code 2^shift} values.
+     */
+    MatrixDenseOffHeap(int rows, int cols, int shift, ByteBuffer[] bytes) {
+        super(rows, cols);
+        this.shift = shift;
+        this.segmentLength = 1 << shift;
+        this.bytes = bytes;
+        for (ByteBuffer b : bytes) {
+            b.order(ByteOrder.LITTLE_ENDIAN);
+        }
+        segments = views(bytes);
+    }
+
+    /**
+     * Copies a heap matrix.
+     *
+     * @param matrix The matrix to copy.
+     */
+    public MatrixDenseOffHeap(MatrixDense matrix) {
+        this(matrix.getRowCount(), matrix.getColumnCount());
+        write(0, matrix.getArray(), 0, rows * cols);
+    }
+
+    private static DoubleBuffer[] views(ByteBuffer[] bytes) {
+        DoubleBuffer[] views = new DoubleBuffer[bytes.length];
+        for (int s = 0; s < bytes.length; ++s) {
+            views[s] = bytes[s].duplicate().order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        }
+        return views;
+    }
+
+    /**
+     * @return The number of elements, {@code rows * columns}.
+     */
+    public long getElementCount() {
+        return (long) rows * cols;
+    }
+
+    /**
+     * Copies the matrix to the heap.
+     *
+     * @return The matrix as a {@link MatrixDense}.
+     * @throws IllegalStateException If the matrix has more elements than a {@link MatrixDense} can hold.
+     */
+    public MatrixDense toDense() {
+        long length = getElementCount();
+        if (length > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("The matrix is too large to be stored in a MatrixDense.");
+        }
+        double[] data = new double[(int) length];
+        read(0, data, 0, data.length);
+        return new MatrixDense(data, rows, cols);
+    }
+
+    // Segments in file order, for MatrixIO
+    ByteBuffer[] segments() {
+        return bytes;
+    }
+
+    long index(int row, int col) {
+        return (long) row * cols + col;
+    }
+
+    // Copies 'length' values starting at element 'index' into dst
+    void read(long index, double[] dst, int offset, int length) {
+        while (length > 0) {
+            int s = (int) (index >>> shift);
+            int p = (int) (index & (segmentLength - 1));
+            int count = Math.min(length, segmentLength - p);
+            DoubleBuffer view = segments[s].duplicate();
+            view.position(p);
+            view.get(dst, offset, count);
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    // Copies 'length' values from src into the matrix starting at element 'index'
+    void write(long index, double[] src, int offset, int length) {
+        while (length > 0) {
+            int s = (int) (index >>> shift);
+            int p = (int) (index & (segmentLength - 1));
+            int count = Math.min(length, segmentLength - p);
+            DoubleBuffer view = segments[s].duplicate();
+            view.position(p);
+            view.put(src, offset, count);
+            index += count;
+            offset += count;
+            length -= count;
+        }
+    }
+
+    /**
+     * Copies part of a row.
+     *
+     * @param row    The row.
+     * @param col    The first column to copy.
+     * @param dst    (Output) The values.
+     * @param offset The position in {@code dst} of the first value.
+     * @param length The number of values to copy.
+     */
+    public void getRow(int row, int col, double[] dst, int offset, int length) {
+        checkRowRange(row, col, length);
+        read(index(row, col), dst, offset, length);
+    }
+
+    /**
+     * Sets part of a row.
+     *
+     * @param row    The row.
+     * @param col    The first column to set.
+     * @param src    The values.
+     * @param offset The position in {@code src} of the first value.
+     * @param length The number of values to set.
+     */
+    public void setRow(int row, int col, double[] src, int offset, int length) {
+        checkRowRange(row, col, length);
+        write(index(row, col), src, offset, length);
+    }
+
+    private void checkRowRange(int row, int col, int length) {
+        if (row < 0 || row >= rows || col < 0 || length < 0 || col + length > cols) {
+            throw new ArrayIndexOutOfBoundsException("Outside of matrix bounds");
+        }
+    }
+
+    @Override
+    public MatrixDenseOffHeap copy() {
+        MatrixDenseOffHeap copy = new MatrixDenseOffHeap(rows, cols, shift);
+        for (int s = 0; s < bytes.length; ++s) {
+            ByteBuffer src = bytes[s].duplicate();
+            src.clear();
+            ByteBuffer dst = copy.bytes[s].duplicate();
+            dst.clear();
+            dst.put(src);
+        }
+        return copy;
+    }
+
+    @Override
+    public double get(int row, int col) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+            throw new ArrayIndexOutOfBoundsException("Outside of matrix bounds");
+        return unsafeGet(row, col);
+    }
+
+    @Override
+    public double unsafeGet(int row, int col) {
+        long k = index(row, col);
+        return segments[(int) (k >>> shift)].get((int) (k & (segmentLength - 1)));
+    }
+
+    @Override
+    public void set(int row, int col, double val) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols)
+            throw new ArrayIndexOutOfBoundsException("Outside of matrix bounds");
+        unsafeSet(row, col, val);
+    }
+
+    @Override
+    public void unsafeSet(int row, int col, double val) {
+        long k = index(row, col);
+        segments[(int) (k >>> shift)].put((int) (k & (segmentLength - 1)), val);
+    }
+
+    @Override
+    public double det() {
+        return LU().det();
+    }
+
+    @Override
+    public LUDecompositionOffHeap LU() {
+        return new LUDecompositionOffHeap(this);
+    }
+
+    /**
+     * QR decomposition of a copy of the matrix on the heap.
+     *
+     * @return The {@link QRDecompositionDense} of the matrix.
+     * @throws IllegalStateException If the matrix has more elements than a {@link MatrixDense} can hold.
+     */
+    @Override
+    public QRDecompositionDense QR() {
+        return toDense().QR();
+    }
+
+    @Override
+    public CholeskyDecompositionOffHeap Chol() {
+        return new CholeskyDecompositionOffHeap(this);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return rows == 0 || cols == 0;
+    }
+
+    /**
+     * Matrix-vector multiplication.
+     *
+     * @param x The vector, of length {@link #getColumnCount()}.
+     * @return this * x
+     */
+    public double[] multiply(double[] x) {
+        if (x.length != cols) {
+            throw new IllegalArgumentException("Matrix inner dimensions must agree.");
+        }
+        double[] y = new double[rows];
+        forEachRowBlock(0, rows, getElementCount(), (from, to) -> {
+            double[] row = new double[cols];
+            for (int i = from; i < to; ++i) {
+                read(index(i, 0), row, 0, cols);
+                double sum = 0.0;
+                for (int j = 0; j < cols; ++j) {
+                    sum += row[j] * x[j];
+                }
+                y[i] = sum;
+            }
+        });
+        return y;
+    }
+
+    /**
+     * Matrix multiplication. Blocks of rows of {@code B} are copied to the heap and applied to all the rows of this
+     * matrix in parallel.
+     *
+     * @param B The right hand side.
+     * @return this * B
+     */
+    public MatrixDenseOffHeap multiply(MatrixDenseOffHeap B) {
+        if (B.rows != cols) {
+            throw new IllegalArgumentException("Matrix inner dimensions must agree.");
+        }
+        final int p = B.cols;
+        MatrixDenseOffHeap C = new MatrixDenseOffHeap(rows, p, shift);
+        final int panelRows = Math.max(1, Math.min(cols, PANEL_LENGTH / Math.max(1, p)));
+        for (int k0 = 0; k0 < cols; k0 += panelRows) {
+            final int first = k0;
+            final int kw = Math.min(panelRows, cols - k0);
+            final double[] panel = new double[kw * p];
+            B.read(B.index(k0, 0), panel, 0, kw * p);
+            forEachRowBlock(0, rows, (long) rows * kw * p, (from, to) -> {
+                double[] a = new double[kw];
+                double[] c = new double[p];
+                for (int i = from; i < to; ++i) {
+                    read(index(i, first), a, 0, kw);
+                    if (first == 0) {
+                        Arrays.fill(c, 0.0);
+                    } else {
+                        C.read(C.index(i, 0), c, 0, p);
+                    }
+                    for (int k = 0; k < kw; ++k) {
+                        final double aik = a[k];
+                        if (aik == 0.0) {
+                            continue;
+                        }
+                        for (int j = 0, kp = k * p; j < p; ++j) {
+                            c[j] += aik * panel[kp + j];
+                        }
+                    }
+                    C.write(C.index(i, 0), c, 0, p);
+                }
+            });
+        }
+        return C;
+    }
+
+    interface RowRange {
+        void apply(int from, int to);
+    }
+
+    // Splits the rows [from, to) in blocks of ROW_BLOCK rows, run in parallel if there is enough work
+    static void forEachRowBlock(int from, int to, long work, RowRange range) {
+        if (to <= from) {
+            return;
+        }
+        if (work < PARALLEL_THRESHOLD) {
+            range.apply(from, to);
+            return;
+        }
+        IntStream.range(0, (to - from + ROW_BLOCK - 1) / ROW_BLOCK).parallel().forEach(b -> {
+            int first = from + b * ROW_BLOCK;
+            range.apply(first, Math.min(to, first + ROW_BLOCK));
+        });
+    }
+
+    @Override
+    public String toString() {
+        return String.format("MatrixDenseOffHeap (%d x %d)", rows, cols);
+    }
+}
@@ -0,0 +1,475 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.StringTokenizer;
+
+/**
+ * Reading and writing of matrices.
+ * <p>
+ * The binary format stores the arrays of the matrix as they are in memory, little endian, after a 32 byte header:
+ * <pre>
+ *     int    magic number 0x4A4B5445 ("ETKJ")
+ *     int    version, currently 1
+ *     int    type, 0 for {@link MatrixDense} and 1 for {@link MatrixSparse}
+ *     int    rows
+ *     int    columns
+ *     int    number of non-zero entries, 0 for dense matrices
+ *     long   reserved
+ * </pre>
+ * A dense matrix is followed by its {@code rows * columns} values in row major order. A sparse matrix is followed by
+ * {@code col_idx}, {@code nz_rows}, padding up to a multiple of 8 bytes and {@code nz_values}. The files are read by
+ * mapping them into memory with {@link FileChannel#map}, so loading is a bulk copy rather than parsing.
+ * </p>
+ * <p>
+ * The <a href="https://math.nist.gov/MatrixMarket/formats.html">Matrix Market</a> exchange format is supported for
+ * interoperability with other tools.
+ * </p>
+ */
+public final class MatrixIO {
+
+    private static final int MAGIC = 0x4A4B5445;
+    private static final int VERSION = 1;
+    private static final int TYPE_DENSE = 0;
+    private static final int TYPE_SPARSE = 1;
+    private static final int HEADER_BYTES = 32;
+    // Largest region mapped at once, a multiple of 8 bytes
+    private static final int MAP_WINDOW = 1 << 30;
+    private static final int WRITE_BUFFER = 1 << 20;
+
+    private MatrixIO() {
+    }
+
+    /**
+     * Writes a dense matrix in binary format.
+     *
+     * @param A    The matrix.
+     * @param path The file to write. It is created or truncated.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinary(MatrixDense A, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = newWriteBuffer();
+            writeHeader(buffer, TYPE_DENSE, A.getRowCount(), A.getColumnCount(), 0);
+            writeDoubles(channel, buffer, A.getArray(), A.getRowCount() * A.getColumnCount());
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Writes an off-heap dense matrix in binary format, the same format as {@link #writeBinary(MatrixDense, Path)}.
+     *
+     * @param A    The matrix.
+     * @param path The file to write. It is created or truncated.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinary(MatrixDenseOffHeap A, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = newWriteBuffer();
+            writeHeader(buffer, TYPE_DENSE, A.getRowCount(), A.getColumnCount(), 0);
+            flush(channel, buffer);
+            for (ByteBuffer segment : A.segments()) {
+                ByteBuffer view = segment.duplicate();
+                view.clear();
+                while (view.hasRemaining()) {
+                    channel.write(view);
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a sparse matrix in binary format.
+     *
+     * @param A    The matrix.
+     * @param path The file to write. It is created or truncated.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeBinary(MatrixSparse A, Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = newWriteBuffer();
+            writeHeader(buffer, TYPE_SPARSE, A.rows, A.cols, A.nz_length);
+            writeInts(channel, buffer, A.col_idx, A.cols + 1);
+            writeInts(channel, buffer, A.nz_rows, A.nz_length);
+            if (((A.cols + 1 + A.nz_length) & 1) != 0) {
+                writeInts(channel, buffer, new int[1], 1);
+            }
+            writeDoubles(channel, buffer, A.nz_values, A.nz_length);
+            flush(channel, buffer);
+        }
+    }
+
+    /**
+     * Reads a dense matrix written by {@link #writeBinary(MatrixDense, Path)}.
+     *
+     * @param path The file to read.
+     * @return The matrix.
+     * @throws IOException If the file cannot be read or is not a binary dense matrix.
+     */
+    public static MatrixDense readBinaryDense(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int[] header = readHeader(channel, TYPE_DENSE);
+            int rows = header[0];
+            int cols = header[1];
+            long length = (long) rows * cols;
+            if (length > Integer.MAX_VALUE - 8) {
+                throw new IOException("The matrix is too large to be stored in a MatrixDense. Use mapBinaryDense.");
+            }
+            checkSize(channel, HEADER_BYTES + 8 * length);
+            double[] data = new double[(int) length];
+            readDoubles(channel, HEADER_BYTES, data);
+            return new MatrixDense(data, rows, cols);
+        }
+    }
+
+    /**
+     * Maps a dense matrix written in binary format into memory without copying it to the heap. The size of the matrix
+     * is not limited to 2<sup>31</sup> elements. The mapping stays valid until the matrix is garbage collected.
+     *
+     * @param path The file to map.
+     * @param mode {@link FileChannel.MapMode#READ_ONLY} for a matrix that cannot be modified,
+     *             {@link FileChannel.MapMode#READ_WRITE} to write the changes to the matrix through to the file or
+     *             {@link FileChannel.MapMode#PRIVATE} for changes that are only visible to the returned matrix.
+     *             The last two need write access to the file.
+     * @return The matrix backed by the file.
+     * @throws IOException If the file cannot be mapped or is not a binary dense matrix.
+     */
+    public static MatrixDenseOffHeap mapBinaryDense(Path path, FileChannel.MapMode mode) throws IOException {
+        boolean write = mode != FileChannel.MapMode.READ_ONLY;
+        try (FileChannel channel = write
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            int[] header = readHeader(channel, TYPE_DENSE);
+            return map(channel, mode, header[0], header[1]);
+        }
+    }
+
+    /**
+     * Creates a file backed dense matrix of zeros, for matrices that do not fit in memory. The file is in binary
+     * format and can be mapped again with {@link #mapBinaryDense(Path, FileChannel.MapMode)}.
+     *
+     * @param path The file to create. It is truncated if it exists.
+     * @param rows The number of rows.
+     * @param cols The number of columns.
+     * @return The matrix backed by the file, changes are written through to it.
+     * @throws IOException If the file cannot be created or mapped.
+     */
+    public static MatrixDenseOffHeap createMappedDense(Path path, int rows, int cols) throws IOException {
+        if (rows < 0 || cols < 0) {
+            throw new IllegalArgumentException("Rows and columns must be non-negative.");
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = newWriteBuffer();
+            writeHeader(buffer, TYPE_DENSE, rows, cols, 0);
+            flush(channel, buffer);
+            long size = HEADER_BYTES + 8L * rows * cols;
+            if (size > HEADER_BYTES) {
+                // Extends the file, the new bytes read as zeros
+                channel.write(ByteBuffer.allocate(1), size - 1);
+            }
+            return map(channel, FileChannel.MapMode.READ_WRITE, rows, cols);
+        }
+    }
+
+    private static MatrixDenseOffHeap map(FileChannel channel, FileChannel.MapMode mode, int rows, int cols)
+            throws IOException {
+        final int shift = MatrixDenseOffHeap.DEFAULT_SEGMENT_SHIFT;
+        long length = (long) rows * cols;
+        checkSize(channel, HEADER_BYTES + 8 * length);
+        int count = (int) ((length + (1L << shift) - 1) >>> shift);
+        ByteBuffer[] segments = new ByteBuffer[count];
+        for (int s = 0; s < count; ++s) {
+            long first = (long) s << shift;
+            long values = Math.min(1L << shift, length - first);
+            segments[s] = channel.map(mode, HEADER_BYTES + 8 * first, 8 * values);
+        }
+        return new MatrixDenseOffHeap(rows, cols, shift, segments);
+    }
+
+    /**
+     * Reads a sparse matrix written by {@link #writeBinary(MatrixSparse, Path)}.
+     *
+     * @param path The file to read.
+     * @return The matrix.
+     * @throws IOException If the file cannot be read or is not a binary sparse matrix.
+     */
+    public static MatrixSparse readBinarySparse(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int[] header = readHeader(channel, TYPE_SPARSE);
+            int rows = header[0];
+            int cols = header[1];
+            int nz = header[2];
+            long ints = cols + 1L + nz;
+            long valuesPosition = HEADER_BYTES + 4 * (ints + (ints & 1));
+            checkSize(channel, valuesPosition + 8L * nz);
+
+            MatrixSparse A = new MatrixSparse(rows, cols, nz);
+            readInts(channel, HEADER_BYTES, A.col_idx);
+            readInts(channel, HEADER_BYTES + 4L * (cols + 1), A.nz_rows);
+            readDoubles(channel, valuesPosition, A.nz_values);
+            A.nz_length = nz;
+            if (A.col_idx[0] != 0 || A.col_idx[cols] != nz) {
+                throw new IOException("Corrupt sparse matrix file.");
+            }
+            A.indicesSorted = true;
+            for (int j = 0; j < cols && A.indicesSorted; ++j) {
+                for (int p = A.col_idx[j] + 1; p < A.col_idx[j + 1]; ++p) {
+                    if (A.nz_rows[p - 1] >= A.nz_rows[p]) {
+                        A.indicesSorted = false;
+                        break;
+                    }
+                }
+            }
+            return A;
+        }
+    }
+
+    /**
+     * Reads a matrix in Matrix Market format. Coordinate and array formats are supported, with real, integer or
+     * pattern entries and general, symmetric or skew-symmetric structure. Both triangles of symmetric matrices are
+     * stored. Pattern entries are read as 1.
+     *
+     * @param path The file to read.
+     * @return The matrix.
+     * @throws IOException If the file cannot be read or is not a supported Matrix Market file.
+     */
+    public static MatrixSparse readMatrixMarket(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.US_ASCII)) {
+            String line = reader.readLine();
+            if (line == null) {
+                throw new IOException("Empty Matrix Market file.");
+            }
+            String[] banner = line.trim().toLowerCase(Locale.ROOT).split("\\s+");
+            if (banner.length != 5 || !banner[0].equals("%%matrixmarket") || !banner[1].equals("matrix")) {
+                throw new IOException("Not a Matrix Market file: " + line);
+            }
+            boolean coordinate = banner[2].equals("coordinate");
+            if (!coordinate && !banner[2].equals("array")) {
+                throw new IOException("Unsupported Matrix Market format: " + banner[2]);
+            }
+            boolean pattern = banner[3].equals("pattern");
+            if (!pattern && !banner[3].equals("real") && !banner[3].equals("integer")) {
+                throw new IOException("Unsupported Matrix Market field: " + banner[3]);
+            }
+            if (pattern && !coordinate) {
+                throw new IOException("Pattern matrices must be in coordinate format.");
+            }
+            boolean symmetric = banner[4].equals("symmetric");
+            boolean skew = banner[4].equals("skew-symmetric");
+            if (!symmetric && !skew && !banner[4].equals("general")) {
+                throw new IOException("Unsupported Matrix Market symmetry: " + banner[4]);
+            }
+
+            do {
+                line = reader.readLine();
+            } while (line != null && (line.startsWith("%") || line.trim().isEmpty()));
+            if (line == null) {
+                throw new IOException("Missing Matrix Market size line.");
+            }
+            StringTokenizer tokens = new StringTokenizer(line);
+            int rows = Integer.parseInt(tokens.nextToken());
+            int cols = Integer.parseInt(tokens.nextToken());
+            long entries = coordinate ? Long.parseLong(tokens.nextToken())
+                    : symmetric || skew ? (long) cols * (cols + 1) / 2 - (skew ? cols : 0) : (long) rows * cols;
+            if ((symmetric || skew) && rows != cols) {
+                throw new IOException("Symmetric matrices must be square.");
+            }
+            long capacity = (symmetric || skew) ? 2 * entries : entries;
+            MatrixSparseTriplet triplet = new MatrixSparseTriplet(rows, cols,
+                    (int) Math.min(capacity, Integer.MAX_VALUE - 8));
+
+            // Array format is column major, only the lower triangle for symmetric matrices
+            int row = skew ? 1 : 0;
+            int col = 0;
+            for (long k = 0; k < entries; ++k) {
+                line = reader.readLine();
+                while (line != null && line.trim().isEmpty()) {
+                    line = reader.readLine();
+                }
+                if (line == null) {
+                    throw new IOException(String.format("Expected %d entries but found %d.", entries, k));
+                }
+                tokens = new StringTokenizer(line);
+                double value;
+                if (coordinate) {
+                    row = Integer.parseInt(tokens.nextToken()) - 1;
+                    col = Integer.parseInt(tokens.nextToken()) - 1;
+                    value = pattern ? 1.0 : Double.parseDouble(tokens.nextToken());
+                } else {
+                    value = Double.parseDouble(tokens.nextToken());
+                }
+                if (value != 0.0 || coordinate) {
+                    triplet.add(row, col, value);
+                    if ((symmetric || skew) && row != col) {
+                        triplet.add(col, row, skew ? -value : value);
+                    }
+                }
+                if (!coordinate && ++row == rows) {
+                    ++col;
+                    row = symmetric ? col : skew ? col + 1 : 0;
+                }
+            }
+            return triplet.toMatrixSparse();
+        } catch (NumberFormatException | java.util.NoSuchElementException e) {
+            throw new IOException("Malformed Matrix Market file.", e);
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Matrix Market entry out of bounds.", e);
+        }
+    }
+
+    /**
+     * Writes a sparse matrix in Matrix Market coordinate format, as a real general matrix.
+     *
+     * @param A    The matrix.
+     * @param path The file to write. It is created or truncated.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeMatrixMarket(MatrixSparse A, Path path) throws IOException {
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            writer.write("%%MatrixMarket matrix coordinate real general\n");
+            writer.write(A.rows + " " + A.cols + " " + A.nz_length + "\n");
+            StringBuilder sb = new StringBuilder(64);
+            for (int j = 0; j < A.cols; ++j) {
+                for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                    sb.setLength(0);
+                    sb.append(A.nz_rows[p] + 1).append(' ').append(j + 1).append(' ').append(A.nz_values[p])
+                            .append('\n');
+                    writer.write(sb.toString());
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a dense matrix in Matrix Market array format, as a real general matrix.
+     *
+     * @param A    The matrix.
+     * @param path The file to write. It is created or truncated.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void writeMatrixMarket(MatrixDense A, Path path) throws IOException {
+        final int rows = A.getRowCount();
+        final int cols = A.getColumnCount();
+        final double[] data = A.getArray();
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.US_ASCII)) {
+            writer.write("%%MatrixMarket matrix array real general\n");
+            writer.write(rows + " " + cols + "\n");
+            for (int j = 0; j < cols; ++j) {
+                for (int i = 0; i < rows; ++i) {
+                    writer.write(Double.toString(data[i * cols + j]));
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    private static ByteBuffer newWriteBuffer() {
+        return ByteBuffer.allocateDirect(WRITE_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void writeHeader(ByteBuffer buffer, int type, int rows, int cols, int nz) {
+        buffer.putInt(MAGIC).putInt(VERSION).putInt(type).putInt(rows).putInt(cols).putInt(nz).putLong(0L);
+    }
+
+    private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] data, int length) throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (buffer.remaining() < 4) {
+                flush(channel, buffer);
+            }
+            int count = Math.min(length - offset, buffer.remaining() / 4);
+            buffer.asIntBuffer().put(data, offset, count);
+            buffer.position(buffer.position() + 4 * count);
+            offset += count;
+        }
+    }
+
+    private static void writeDoubles(FileChannel channel, ByteBuffer buffer, double[] data, int length)
+            throws IOException {
+        int offset = 0;
+        while (offset < length) {
+            if (buffer.remaining() < 8) {
+                flush(channel, buffer);
+            }
+            int count = Math.min(length - offset, buffer.remaining() / 8);
+            buffer.asDoubleBuffer().put(data, offset, count);
+            buffer.position(buffer.position() + 8 * count);
+            offset += count;
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Returns rows, columns and number of non-zero entries
+    private static int[] readHeader(FileChannel channel, int type) throws IOException {
+        checkSize(channel, HEADER_BYTES);
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.getInt() != MAGIC) {
+            throw new IOException("Not a binary matrix file.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary matrix version " + version + ".");
+        }
+        if (buffer.getInt() != type) {
+            throw new IOException(type == TYPE_DENSE ? "The file holds a sparse matrix."
+                    : "The file holds a dense matrix.");
+        }
+        int rows = buffer.getInt();
+        int cols = buffer.getInt();
+        int nz = buffer.getInt();
+        if (rows < 0 || cols < 0 || nz < 0) {
+            throw new IOException("Corrupt binary matrix file.");
+        }
+        return new int[] {rows, cols, nz};
+    }
+
+    private static void checkSize(FileChannel channel, long expected) throws IOException {
+        if (channel.size() < expected) {
+            throw new IOException("Truncated binary matrix file.");
+        }
+    }
+
+    private static void readInts(FileChannel channel, long position, int[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int count = Math.min(data.length - offset, MAP_WINDOW / 4);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * count);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asIntBuffer().get(data, offset, count);
+            offset += count;
+            position += 4L * count;
+        }
+    }
+
+    private static void readDoubles(FileChannel channel, long position, double[] data) throws IOException {
+        int offset = 0;
+        while (offset < data.length) {
+            int count = Math.min(data.length - offset, MAP_WINDOW / 8);
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, 8L * count);
+            buffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(data, offset, count);
+            offset += count;
+            position += 8L * count;
+        }
+    }
+}
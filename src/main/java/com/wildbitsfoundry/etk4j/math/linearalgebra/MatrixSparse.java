@@ -4,6 +4,8 @@ import com.wildbitsfoundry.etk4j.constant.ConstantsETK;
 
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 import static com.wildbitsfoundry.etk4j.math.linearalgebra.ColumnCounts.adjust;
 
@@ -33,6 +35,10 @@ public class MatrixSparse extends Matrix {
      */
     boolean indicesSorted = false;
 
+    // Products with at least this many multiply-adds are computed in parallel
+    private static final int PARALLEL_THRESHOLD = 1 << 15;
+    private static final int MAX_PARALLEL_BLOCKS = 64;
+
 //    public static double EPS = Math.pow(2.0, -52.0);
 
     /**
@@ -255,6 +261,39 @@ public class MatrixSparse extends Matrix {
     @Override
     public CholeskyDecompositionSparse Chol() { return new CholeskyDecompositionSparse(this); }
 
+    /**
+     * LU decomposition with a fill-reducing column ordering.
+     *
+     * @param ordering The column ordering.
+     * @return The decomposition.
+     * @see LUDecompositionSparse#LUDecompositionSparse(MatrixSparse, FillReducingOrdering)
+     */
+    public LUDecompositionSparse LU(FillReducingOrdering ordering) {
+        return new LUDecompositionSparse(this, ordering);
+    }
+
+    /**
+     * QR decomposition with a fill-reducing column ordering.
+     *
+     * @param ordering The column ordering.
+     * @return The decomposition.
+     * @see QRDecompositionSparse#QRDecompositionSparse(MatrixSparse, FillReducingOrdering)
+     */
+    public QRDecompositionSparse QR(FillReducingOrdering ordering) {
+        return new QRDecompositionSparse(this, ordering);
+    }
+
+    /**
+     * Cholesky decomposition with a fill-reducing symmetric ordering.
+     *
+     * @param ordering The symmetric ordering.
+     * @return The decomposition.
+     * @see CholeskyDecompositionSparse#CholeskyDecompositionSparse(MatrixSparse, FillReducingOrdering)
+     */
+    public CholeskyDecompositionSparse Chol(FillReducingOrdering ordering) {
+        return new CholeskyDecompositionSparse(this, ordering);
+    }
+
     @Override
     public boolean isEmpty() {
         return rows == 0 && cols == 0;
@@ -663,13 +702,57 @@ public class MatrixSparse extends Matrix {
 
     /**
      * Performs matrix multiplication. C = this * B
+     * <p>
+     * Large products are computed in parallel, with the columns of {@code B} split in blocks of about the same amount
+     * of work across the common fork-join pool.
+     * </p>
      *
      * @param B Matrix
      * @return this * B
      */
     public MatrixSparse multiply(MatrixSparse B) {
+        checkMultiplyShapes(cols, B.rows);
         MatrixSparse C = new MatrixSparse(this.rows, B.cols);
-        multiplyOp(this, B, C);
+        // Multiply-adds needed for each column of C, which is also the work of the column
+        long[] work = new long[B.cols + 1];
+        for (int j = 0; j < B.cols; ++j) {
+            long sum = 0;
+            for (int p = B.col_idx[j]; p < B.col_idx[j + 1]; ++p) {
+                int k = B.nz_rows[p];
+                sum += col_idx[k + 1] - col_idx[k];
+            }
+            work[j + 1] = work[j] + sum;
+        }
+        int blocks = parallelBlocks(work[B.cols]);
+        if (blocks == 1 || B.cols < 2) {
+            multiplyOp(this, B, 0, B.cols, C);
+            return C;
+        }
+
+        int[] bounds = balance(work, B.cols, blocks);
+        blocks = bounds.length - 1;
+        MatrixSparse[] parts = new MatrixSparse[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            parts[b] = new MatrixSparse(rows, bounds[b + 1] - bounds[b]);
+            multiplyOp(this, B, bounds[b], bounds[b + 1], parts[b]);
+        });
+        int nz = 0;
+        for (MatrixSparse part : parts) {
+            nz += part.nz_length;
+        }
+        C.growMaxLength(nz, false);
+        for (int b = 0, offset = 0; b < blocks; ++b) {
+            MatrixSparse part = parts[b];
+            System.arraycopy(part.nz_rows, 0, C.nz_rows, offset, part.nz_length);
+            System.arraycopy(part.nz_values, 0, C.nz_values, offset, part.nz_length);
+            for (int j = 0; j < part.cols; ++j) {
+                C.col_idx[bounds[b] + j] = part.col_idx[j] + offset;
+            }
+            offset += part.nz_length;
+        }
+        C.col_idx[B.cols] = nz;
+        C.nz_length = nz;
+        C.indicesSorted = false;
         return C;
     }
 
@@ -680,27 +763,246 @@ public class MatrixSparse extends Matrix {
      * @return this * scalar
      */
     public MatrixSparse multiply(double scalar) {
-        MatrixSparse C = new MatrixSparse(rows, cols);
-        for (int col = 0; col < cols; col++) {
-            int start = col_idx[col];
-            int end = col_idx[col + 1];
-            for (int idx = start; idx < end; idx++) {
-                int row = nz_rows[idx];
-                double value = nz_values[idx];
-                C.unsafeSet(row, col, value * scalar);
-            }
+        MatrixSparse C = copy();
+        for (int idx = 0; idx < C.nz_length; idx++) {
+            C.nz_values[idx] *= scalar;
         }
         return C;
     }
 
     /**
-     * Performs matrix multiplication. C = A * B
+     * Sparse matrix-vector product. y = this * x
+     * <p>
+     * Large products are computed in parallel. The columns are split in at most one block per thread of the common
+     * fork-join pool, with about the same number of non-zero entries each. Every block is accumulated in its own
+     * vector and the vectors are added in block order.
+     * </p>
+     * <p>
+     * The number of blocks, and with it the order in which the terms of each entry of {@code y} are added, depends on
+     * the parallelism of the common pool. The result can therefore differ in the last bits between machines with a
+     * different number of cores. {@link LinearOperator#fromMatrix(MatrixSparse)} adds the terms of every row in the
+     * same order on any number of threads, needs no extra vectors, and is the better choice for products applied many
+     * times, as in the Krylov solvers.
+     * </p>
+     *
+     * @param x The vector to multiply, of length {@link #getColumnCount()}.
+     * @param y (Output) The product, of length {@link #getRowCount()}. Its previous contents are overwritten. Must not
+     *          be the same array as {@code x}.
+     */
+    public void multiply(double[] x, double[] y) {
+        if (x.length != cols || y.length != rows) {
+            throw new IllegalArgumentException("Inconsistent matrix shapes.");
+        }
+        // More blocks than threads only adds partial vectors to reduce. The rounding depends on the pool size.
+        int blocks = Math.min(parallelBlocks(nz_length), ForkJoinPool.getCommonPoolParallelism());
+        if (blocks <= 1 || cols < 2) {
+            Arrays.fill(y, 0.0);
+            multiplyAddColumns(x, 0, cols, y);
+            return;
+        }
+        long[] work = new long[cols + 1];
+        for (int j = 0; j <= cols; ++j) {
+            work[j] = col_idx[j];
+        }
+        int[] bounds = balance(work, cols, blocks);
+        final int numBlocks = bounds.length - 1;
+        // The first block accumulates in y, the others in their own vectors
+        double[][] partial = new double[numBlocks][];
+        partial[0] = y;
+        IntStream.range(0, numBlocks).parallel().forEach(b -> {
+            if (b == 0) {
+                Arrays.fill(y, 0.0);
+            } else {
+                partial[b] = new double[rows];
+            }
+            multiplyAddColumns(x, bounds[b], bounds[b + 1], partial[b]);
+        });
+        final int chunk = Math.max(1, (rows + numBlocks - 1) / numBlocks);
+        IntStream.range(0, (rows + chunk - 1) / chunk).parallel().forEach(c -> {
+            int to = Math.min(rows, (c + 1) * chunk);
+            for (int i = c * chunk; i < to; ++i) {
+                double sum = y[i];
+                for (int b = 1; b < numBlocks; ++b) {
+                    sum += partial[b][i];
+                }
+                y[i] = sum;
+            }
+        });
+    }
+
+    /**
+     * Sparse matrix-vector product. y = this * x
+     *
+     * @param x The vector to multiply, of length {@link #getColumnCount()}.
+     * @return this * x
+     * @see #multiply(double[], double[])
+     */
+    public double[] multiply(double[] x) {
+        double[] y = new double[rows];
+        multiply(x, y);
+        return y;
+    }
+
+    /**
+     * Transposed sparse matrix-vector product. y = this<sup>T</sup> * x, without forming the transpose. Every entry of
+     * {@code y} is the dot product of a column of this matrix with {@code x}, so large products are computed in
+     * parallel without extra storage.
+     *
+     * @param x The vector to multiply, of length {@link #getRowCount()}.
+     * @param y (Output) The product, of length {@link #getColumnCount()}. Its previous contents are overwritten. Must
+     *          not be the same array as {@code x}.
+     */
+    public void transposeMultiply(double[] x, double[] y) {
+        if (x.length != rows || y.length != cols) {
+            throw new IllegalArgumentException("Inconsistent matrix shapes.");
+        }
+        IntStream columns = IntStream.range(0, cols);
+        if (parallelBlocks(nz_length) > 1) {
+            columns = columns.parallel();
+        }
+        columns.forEach(j -> {
+            double sum = 0.0;
+            for (int p = col_idx[j]; p < col_idx[j + 1]; ++p) {
+                sum += nz_values[p] * x[nz_rows[p]];
+            }
+            y[j] = sum;
+        });
+    }
+
+    /**
+     * Sparse times dense matrix multiplication. C = this * B
+     * <p>
+     * Large products are computed in parallel, with the columns of {@code B} split across the common fork-join pool.
+     * A single column is computed with {@link #multiply(double[], double[])}.
+     * </p>
      *
-     * @param A Matrix
      * @param B Matrix
-     * @param C Storage for results. Array size is increased if needed.
+     * @return this * B
+     */
+    public MatrixDense multiply(MatrixDense B) {
+        checkMultiplyShapes(cols, B.getRowCount());
+        final int p = B.getColumnCount();
+        final double[] b = B.getArray();
+        final double[] c = new double[rows * p];
+        if (p == 0) {
+            return new MatrixDense(c, rows, 0);
+        }
+        if (p == 1) {
+            multiply(b, c);
+            return new MatrixDense(c, rows, 1);
+        }
+        // Every entry A(i, k) adds A(i, k) * B(k, :) to C(i, :), both rows are contiguous
+        int blocks = Math.min(parallelBlocks((long) nz_length * p), p);
+        final int width = (p + blocks - 1) / blocks;
+        IntStream ranges = IntStream.range(0, (p + width - 1) / width);
+        if (blocks > 1) {
+            ranges = ranges.parallel();
+        }
+        ranges.forEach(r -> {
+            final int from = r * width;
+            final int to = Math.min(p, from + width);
+            for (int k = 0; k < cols; ++k) {
+                for (int idx = col_idx[k]; idx < col_idx[k + 1]; ++idx) {
+                    final double v = nz_values[idx];
+                    final int ci = nz_rows[idx] * p;
+                    final int bk = k * p;
+                    for (int j = from; j < to; ++j) {
+                        c[ci + j] += v * b[bk + j];
+                    }
+                }
+            }
+        });
+        return new MatrixDense(c, rows, p);
+    }
+
+    /**
+     * Transposed sparse times dense matrix multiplication. C = this<sup>T</sup> * B, without forming the transpose.
+     * Every row of {@code C} comes from a single column of this matrix, so large products are computed in parallel
+     * over the rows of {@code C}.
+     *
+     * @param B Matrix
+     * @return this<sup>T</sup> * B
+     */
+    public MatrixDense transposeMultiply(MatrixDense B) {
+        checkMultiplyShapes(rows, B.getRowCount());
+        final int p = B.getColumnCount();
+        final double[] b = B.getArray();
+        final double[] c = new double[cols * p];
+        IntStream columns = IntStream.range(0, cols);
+        if (parallelBlocks((long) nz_length * p) > 1) {
+            columns = columns.parallel();
+        }
+        columns.forEach(j -> {
+            final int cj = j * p;
+            for (int idx = col_idx[j]; idx < col_idx[j + 1]; ++idx) {
+                final double v = nz_values[idx];
+                final int bi = nz_rows[idx] * p;
+                for (int k = 0; k < p; ++k) {
+                    c[cj + k] += v * b[bi + k];
+                }
+            }
+        });
+        return new MatrixDense(c, cols, p);
+    }
+
+    private static void checkMultiplyShapes(int cols, int rows) {
+        if (cols != rows) {
+            throw new IllegalArgumentException("Inconsistent matrix shapes.");
+        }
+    }
+
+    // y += A(:, from:to - 1) * x(from:to - 1)
+    private void multiplyAddColumns(double[] x, int from, int to, double[] y) {
+        for (int j = from; j < to; ++j) {
+            final double xj = x[j];
+            if (xj == 0.0) {
+                continue;
+            }
+            for (int p = col_idx[j]; p < col_idx[j + 1]; ++p) {
+                y[nz_rows[p]] += nz_values[p] * xj;
+            }
+        }
+    }
+
+    // Number of parallel blocks for the given amount of work, 1 if it is not worth running in parallel
+    static int parallelBlocks(long work) {
+        if (work < PARALLEL_THRESHOLD || ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return 1;
+        }
+        return (int) Math.min(MAX_PARALLEL_BLOCKS, work / (PARALLEL_THRESHOLD / 2));
+    }
+
+    /*
+     * Splits the range [0, n) in at most 'blocks' contiguous blocks with about the same work, where the work of the
+     * first j items is cumulative[j]. Returns the block boundaries, starting with 0 and ending with n.
+     */
+    static int[] balance(long[] cumulative, int n, int blocks) {
+        int[] bounds = new int[blocks + 1];
+        int count = 1;
+        int j = 0;
+        for (int b = 1; b < blocks; ++b) {
+            long target = cumulative[n] * b / blocks;
+            while (j < n && cumulative[j] < target) {
+                ++j;
+            }
+            if (j > bounds[count - 1] && j < n) {
+                bounds[count++] = j;
+            }
+        }
+        bounds[count++] = n;
+        return Arrays.copyOf(bounds, count);
+    }
+
+    /**
+     * Performs matrix multiplication. C(:, 0:to - from - 1) = A * B(:, from:to - 1)
+     *
+     * @param A    Matrix
+     * @param B    Matrix
+     * @param from First column of B.
+     * @param to   One past the last column of B.
+     * @param C    Storage for results, with to - from columns. Array size is increased if needed.
      */
-    private static void multiplyOp(MatrixSparse A, MatrixSparse B, MatrixSparse C) {
+    private static void multiplyOp(MatrixSparse A, MatrixSparse B, int from, int to, MatrixSparse C) {
 
         double[] x = adjust(new DGrowArray(), A.rows);
         int[] w = adjust(new IGrowArray(), A.rows, A.rows);
@@ -710,11 +1012,12 @@ public class MatrixSparse extends Matrix {
         C.nz_length = 0;
 
         // C(i,j) = sum_k A(i,k) * B(k,j)
-        int idx0 = B.col_idx[0];
-        for (int bj = 1; bj <= B.cols; bj++) {
+        int idx0 = B.col_idx[from];
+        for (int bj = from + 1; bj <= to; bj++) {
             int colB = bj - 1;
+            int colC = colB - from;
             int idx1 = B.col_idx[bj];
-            C.col_idx[bj] = C.nz_length;
+            C.col_idx[colC + 1] = C.nz_length;
 
             if (idx0 == idx1) {
                 continue;
@@ -725,12 +1028,12 @@ public class MatrixSparse extends Matrix {
                 int rowB = B.nz_rows[bi];
                 double valB = B.nz_values[bi];  // B(k,j)  k=rowB j=colB
 
-                multiplyAddColA(A, rowB, valB, C, colB + 1, x, w);
+                multiplyAddColA(A, rowB, valB, C, colC + 1, x, w);
             }
 
             // take the values in the dense vector 'x' and put them into 'C'
-            int idxC0 = C.col_idx[colB];
-            int idxC1 = C.col_idx[colB + 1];
+            int idxC0 = C.col_idx[colC];
+            int idxC1 = C.col_idx[colC + 1];
 
             for (int i = idxC0; i < idxC1; i++) {
                 C.nz_values[i] = x[C.nz_rows[i]];
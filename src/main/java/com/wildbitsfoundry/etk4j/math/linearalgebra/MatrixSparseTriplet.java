@@ -0,0 +1,244 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.ObjIntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Triplet, or coordinate (COO), storage for assembling a {@link MatrixSparse}. Entries are appended to primitive arrays
+ * in any order, duplicates included, which makes it suited to finite element assembly. {@link #toMatrixSparse()}
+ * converts to compressed columns in time proportional to the number of entries, adding up the duplicates.
+ * <p>
+ * Inserting with {@link MatrixSparse#set(int, int, double)} instead shifts the arrays of the matrix on every new
+ * entry, which is quadratic in the number of entries.
+ * </p>
+ */
+public class MatrixSparseTriplet {
+
+    private final int rows;
+    private final int cols;
+    private int length;
+    private int[] rowIndices;
+    private int[] colIndices;
+    private double[] values;
+
+    public MatrixSparseTriplet(int rows, int cols) {
+        this(rows, cols, 16);
+    }
+
+    /**
+     * @param rows            The number of rows of the matrix.
+     * @param cols            The number of columns of the matrix.
+     * @param initialCapacity The expected number of entries, duplicates included. The storage grows as needed.
+     */
+    public MatrixSparseTriplet(int rows, int cols, int initialCapacity) {
+        if (rows < 0 || cols < 0 || initialCapacity < 0) {
+            throw new IllegalArgumentException("Dimensions and capacity must be non-negative.");
+        }
+        this.rows = rows;
+        this.cols = cols;
+        rowIndices = new int[initialCapacity];
+        colIndices = new int[initialCapacity];
+        values = new double[initialCapacity];
+    }
+
+    public int getRowCount() {
+        return rows;
+    }
+
+    public int getColumnCount() {
+        return cols;
+    }
+
+    /**
+     * @return The number of entries added, duplicates included.
+     */
+    public int size() {
+        return length;
+    }
+
+    /**
+     * Removes all the entries. The storage is kept.
+     */
+    public void clear() {
+        length = 0;
+    }
+
+    /**
+     * Adds {@code value} to the entry at {@code (row, col)}.
+     *
+     * @param row   The row index.
+     * @param col   The column index.
+     * @param value The value to add.
+     */
+    public void add(int row, int col, double value) {
+        if (row < 0 || row >= rows || col < 0 || col >= cols) {
+            throw new IllegalArgumentException("Outside of matrix bounds");
+        }
+        if (length == values.length) {
+            grow(length + 1);
+        }
+        rowIndices[length] = row;
+        colIndices[length] = col;
+        values[length++] = value;
+    }
+
+    /**
+     * Adds a dense block, e.g. an element stiffness matrix. Entry {@code block[i][j]} is added at
+     * {@code (blockRows[i], blockCols[j])}.
+     *
+     * @param blockRows The rows of the matrix the rows of the block go to.
+     * @param blockCols The columns of the matrix the columns of the block go to.
+     * @param block     The values to add.
+     */
+    public void add(int[] blockRows, int[] blockCols, double[][] block) {
+        if (block.length != blockRows.length) {
+            throw new IllegalArgumentException("Block dimensions and indices must agree.");
+        }
+        grow(length + blockRows.length * blockCols.length);
+        for (int i = 0; i < blockRows.length; ++i) {
+            if (block[i].length != blockCols.length) {
+                throw new IllegalArgumentException("Block dimensions and indices must agree.");
+            }
+            for (int j = 0; j < blockCols.length; ++j) {
+                add(blockRows[i], blockCols[j], block[i][j]);
+            }
+        }
+    }
+
+    /**
+     * Appends all the entries of another triplet matrix of the same dimensions.
+     *
+     * @param other The entries to add.
+     */
+    public void addAll(MatrixSparseTriplet other) {
+        if (other.rows != rows || other.cols != cols) {
+            throw new IllegalArgumentException("Inconsistent matrix shapes.");
+        }
+        grow(length + other.length);
+        System.arraycopy(other.rowIndices, 0, rowIndices, length, other.length);
+        System.arraycopy(other.colIndices, 0, colIndices, length, other.length);
+        System.arraycopy(other.values, 0, values, length, other.length);
+        length += other.length;
+    }
+
+    private void grow(int desired) {
+        if (desired <= values.length) {
+            return;
+        }
+        int capacity = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(desired, 2L * values.length + 1));
+        rowIndices = Arrays.copyOf(rowIndices, capacity);
+        colIndices = Arrays.copyOf(colIndices, capacity);
+        values = Arrays.copyOf(values, capacity);
+    }
+
+    /**
+     * Converts to compressed column format. The entries are sorted with two counting sort passes, by row and then by
+     * column, after which the duplicates are next to each other and are added up. The row indices of the result are
+     * sorted. Entries that add up to zero are kept, so that matrices assembled from the same elements have the same
+     * structure.
+     *
+     * @return The assembled matrix.
+     */
+    public MatrixSparse toMatrixSparse() {
+        // Sort by row
+        int[] count = new int[Math.max(rows, cols) + 1];
+        for (int k = 0; k < length; ++k) {
+            ++count[rowIndices[k] + 1];
+        }
+        for (int i = 0; i < rows; ++i) {
+            count[i + 1] += count[i];
+        }
+        int[] byRow = new int[length];
+        for (int k = 0; k < length; ++k) {
+            byRow[count[rowIndices[k]]++] = k;
+        }
+
+        // Stable sort by column, rows stay in increasing order within each column
+        Arrays.fill(count, 0);
+        for (int k = 0; k < length; ++k) {
+            ++count[colIndices[k] + 1];
+        }
+        for (int j = 0; j < cols; ++j) {
+            count[j + 1] += count[j];
+        }
+        int[] order = new int[length];
+        for (int t = 0; t < length; ++t) {
+            int k = byRow[t];
+            order[count[colIndices[k]]++] = k;
+        }
+
+        // Add up the duplicates
+        MatrixSparse C = new MatrixSparse(rows, cols, 0);
+        int[] cRows = new int[length];
+        double[] cValues = new double[length];
+        int nz = 0;
+        int t = 0;
+        for (int j = 0; j < cols; ++j) {
+            C.col_idx[j] = nz;
+            // After the placement count[j] is the end of column j
+            int end = count[j];
+            int last = -1;
+            for (; t < end; ++t) {
+                int k = order[t];
+                if (rowIndices[k] == last) {
+                    cValues[nz - 1] += values[k];
+                } else {
+                    last = rowIndices[k];
+                    cRows[nz] = last;
+                    cValues[nz++] = values[k];
+                }
+            }
+        }
+        C.col_idx[cols] = nz;
+        C.nz_rows = nz == length ? cRows : Arrays.copyOf(cRows, nz);
+        C.nz_values = nz == length ? cValues : Arrays.copyOf(cValues, nz);
+        C.nz_length = nz;
+        C.indicesSorted = true;
+        return C;
+    }
+
+    /**
+     * Assembles a matrix from a number of independent contributions, e.g. the elements of a finite element mesh.
+     * In parallel, the contributions are split in contiguous blocks and every block is assembled into its own triplet
+     * matrix. The blocks are then joined in order, so the result is the same as the one assembled sequentially.
+     *
+     * @param rows     The number of rows of the matrix.
+     * @param cols     The number of columns of the matrix.
+     * @param count    The number of contributions.
+     * @param element  Adds the entries of contribution {@code i} to the given triplet matrix. In parallel it is called
+     *                 from several threads at once, each with a different triplet matrix.
+     * @param parallel {@code true} to assemble in parallel.
+     * @return The assembled matrix.
+     */
+    public static MatrixSparse assemble(int rows, int cols, int count, ObjIntConsumer<MatrixSparseTriplet> element,
+                                        boolean parallel) {
+        final int blocks = parallel ? Math.max(1, Math.min(count / 64, 4 * ForkJoinPool.getCommonPoolParallelism())) : 1;
+        if (blocks == 1) {
+            MatrixSparseTriplet triplet = new MatrixSparseTriplet(rows, cols);
+            for (int i = 0; i < count; ++i) {
+                element.accept(triplet, i);
+            }
+            return triplet.toMatrixSparse();
+        }
+        MatrixSparseTriplet[] parts = new MatrixSparseTriplet[blocks];
+        IntStream.range(0, blocks).parallel().forEach(b -> {
+            MatrixSparseTriplet triplet = new MatrixSparseTriplet(rows, cols);
+            int to = (int) ((long) count * (b + 1) / blocks);
+            for (int i = (int) ((long) count * b / blocks); i < to; ++i) {
+                element.accept(triplet, i);
+            }
+            parts[b] = triplet;
+        });
+        int total = 0;
+        for (MatrixSparseTriplet part : parts) {
+            total += part.length;
+        }
+        MatrixSparseTriplet triplet = new MatrixSparseTriplet(rows, cols, total);
+        for (MatrixSparseTriplet part : parts) {
+            triplet.addAll(part);
+        }
+        return triplet.toMatrixSparse();
+    }
+}
@@ -180,9 +180,76 @@ public class MatrixSparseUtils {
         return gwork.data;
     }
 
+    /**
+     * Checks if the matrix has the given sparsity pattern, regardless of the order of the row indices within each
+     * column. Runs in O(nz_length).
+     *
+     * @param A      (Input) Matrix to check. Not modified.
+     * @param colIdx (Input) Column pointers of the pattern, of length A.cols + 1.
+     * @param rows   (Input) Row indices of the pattern.
+     * @param w      Workspace with at least A.rows elements. Is overwritten.
+     * @return {@code true} if A has exactly the entries of the pattern.
+     */
+    static boolean hasPattern(MatrixSparse A, int[] colIdx, int[] rows, int[] w) {
+        if (colIdx.length != A.cols + 1 || A.nz_length != colIdx[A.cols]) {
+            return false;
+        }
+        Arrays.fill(w, 0, A.rows, -1);
+        for (int col = 0; col < A.cols; ++col) {
+            if (A.col_idx[col + 1] != colIdx[col + 1]) {
+                return false;
+            }
+            for (int i = colIdx[col]; i < colIdx[col + 1]; ++i) {
+                w[rows[i]] = col;
+            }
+            // Unmark the matches so that a repeated row index does not stand in for a missing one
+            for (int i = A.col_idx[col]; i < A.col_idx[col + 1]; ++i) {
+                int row = A.nz_rows[i];
+                if (w[row] != col) {
+                    return false;
+                }
+                w[row] = -1;
+            }
+        }
+        return true;
+    }
+
     static void permuteInv(int[] perm, double[] input, double[] output, int N) {
         for (int k = 0; k < N; ++k) {
             output[perm[k]] = input[k];
         }
     }
+
+    /**
+     * Copies the non-zero entries of the input matrix with the row indices of every column in increasing order.
+     *
+     * @param input  (Input) Matrix to copy. Not modified.
+     * @param rows   (Output) Row indices. Must have at least input.nz_length elements.
+     * @param values (Output) Values. Must have at least input.nz_length elements.
+     */
+    static void copySortedColumns(MatrixSparse input, int[] rows, double[] values) {
+        final int nz = input.nz_length;
+        System.arraycopy(input.nz_rows, 0, rows, 0, nz);
+        System.arraycopy(input.nz_values, 0, values, 0, nz);
+        if (input.indicesSorted) {
+            return;
+        }
+        for (int col = 0; col < input.cols; ++col) {
+            int idx0 = input.col_idx[col];
+            int idx1 = input.col_idx[col + 1];
+            // Insertion sort, columns are short
+            for (int i = idx0 + 1; i < idx1; ++i) {
+                int row = rows[i];
+                double value = values[i];
+                int j = i - 1;
+                while (j >= idx0 && rows[j] > row) {
+                    rows[j + 1] = rows[j];
+                    values[j + 1] = values[j];
+                    --j;
+                }
+                rows[j + 1] = row;
+                values[j + 1] = value;
+            }
+        }
+    }
 }
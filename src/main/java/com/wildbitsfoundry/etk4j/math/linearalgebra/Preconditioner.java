@@ -0,0 +1,20 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * An approximation {@code M} of a matrix {@code A} that is cheap to invert. Iterative solvers apply {@code M^-1} to
+ * the residual every iteration to cluster the spectrum of the system and reduce the number of iterations.
+ *
+ * @see ConjugateGradientSolver#preconditioner(Preconditioner)
+ * @see GMRESSolver#preconditioner(Preconditioner)
+ * @see BiCGSTABSolver#preconditioner(Preconditioner)
+ */
+public interface Preconditioner {
+
+    /**
+     * Solves {@code M * z = r}.
+     *
+     * @param r The right hand side. It must not be modified.
+     * @param z The output vector. Its previous contents are overwritten. It must not be the same array as {@code r}.
+     */
+    void apply(double[] r, double[] z);
+}
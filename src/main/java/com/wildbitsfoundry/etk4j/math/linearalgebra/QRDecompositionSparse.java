@@ -6,6 +6,11 @@ import java.util.Arrays;
 
 import static com.wildbitsfoundry.etk4j.math.linearalgebra.ColumnCounts.adjust;
 
+/**
+ * Sparse Householder QR decomposition, {@code P * A * Q = Q_h * R}. The row permutation {@code P} only moves
+ * structurally non-zero entries to the diagonal and the column permutation {@code Q} comes from the
+ * {@link FillReducingOrdering}.
+ */
 public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
     int m, n, m2;
 
@@ -32,9 +37,29 @@ public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
     private boolean decomposed = false;
     // if true then the structure is locked and won't be computed again
     private boolean locked = false;
+    // sparsity pattern of the matrix the structure was computed for
+    private int[] analyzedColIdx;
+    private int[] analyzedRows;
+
+    // column permutation, null if the columns are in natural order
+    private final int[] q;
+    // storage for A * Q
+    private final MatrixSparse Aq = new MatrixSparse(1, 1, 0);
 
     public QRDecompositionSparse(MatrixSparse A) {
+        this(A, FillReducingOrdering.NATURAL);
+    }
+
+    /**
+     * Decomposes the matrix with its columns reordered to reduce the fill-in of {@code R}. All the orderings are
+     * computed on the pattern of {@code A^T * A}.
+     *
+     * @param A        The matrix to decompose.
+     * @param ordering The column ordering.
+     */
+    public QRDecompositionSparse(MatrixSparse A, FillReducingOrdering ordering) {
         super(A);
+        this.q = SparseOrderings.permutation(A, ordering, false);
 
         // use the same work space to reduce the overall memory foot print
         this.structure.setGwork(gwork);
@@ -42,10 +67,34 @@ public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
     }
 
 
+    /**
+     * Decomposes a new matrix. If the structure is locked, see {@link #setStructureLocked(boolean)}, and a matrix has
+     * already been decomposed, only the numerical factorization is performed: the elimination tree, row permutation,
+     * counts and the storage of {@code H} and {@code R} are reused. The fill-reducing ordering chosen at construction
+     * is always reused.
+     *
+     * @param A The matrix to decompose.
+     * @return {@code false} if the structure of the matrix requires column pivoting.
+     * @throws IllegalArgumentException if the structure is locked and the matrix does not have the sparsity pattern of
+     *                                  the analyzed one.
+     */
     public boolean decompose(MatrixSparse A) {
+        boolean reuse = locked && decomposed;
+        if (reuse && (A.rows != m || A.cols != n
+                || !MatrixSparseUtils.hasPattern(A, analyzedColIdx, analyzedRows, adjust(gwork, m)))) {
+            throw new IllegalArgumentException(
+                    "The structure is locked and the matrix has a different sparsity pattern.");
+        }
+        if (!reuse) {
+            analyzedColIdx = Arrays.copyOf(A.col_idx, A.cols + 1);
+            analyzedRows = Arrays.copyOf(A.nz_rows, A.nz_length);
+        }
+        if (q != null) {
+            MatrixSparseUtils.permute(null, A, q, Aq);
+            A = Aq;
+        }
 
-
-        if (!decomposed || !locked) {
+        if (!reuse) {
             // compute the structure of V and R
             if (!structure.process(A))
                 return false;
@@ -53,6 +102,7 @@ public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
             // Initialize data structured used in the decomposition
             initializeDecomposition(A);
         }
+        singular = false;
         // perform the decomposition
         performDecomposition(A);
 
@@ -322,6 +372,30 @@ public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
         return R;
     }
 
+    /**
+     * Locks the symbolic structure computed by the last decomposition, so that {@link #decompose(MatrixSparse)} only
+     * refactors the numerical values. Use it to factor a sequence of matrices with the same sparsity pattern.
+     *
+     * @param locked {@code true} to reuse the structure.
+     */
+    public void setStructureLocked(boolean locked) {
+        this.locked = locked;
+    }
+
+    public boolean isStructureLocked() {
+        return locked;
+    }
+
+    /**
+     * The column permutation applied to the matrix before the decomposition. Column {@code k} of {@code A * Q} is
+     * column {@code q[k]} of {@code A}.
+     *
+     * @return The column permutation or {@code null} if the columns are in their natural order.
+     */
+    public int[] getColumnPermutation() {
+        return q == null ? null : q.clone();
+    }
+
     public MatrixSparse getH() {
         return H;
     }
@@ -638,6 +712,11 @@ public class QRDecompositionSparse extends QRDecomposition<MatrixSparse> {
 
         // Solve for X
         TriangularSystemSolver.solve(R, false, B, X, null, gx, gw, gw1);
+        if (q != null) {
+            MatrixSparse Xq = new MatrixSparse(1, 1, 0);
+            MatrixSparseUtils.permute(q, X, null, Xq);
+            return Xq;
+        }
 		return X;
     }
 
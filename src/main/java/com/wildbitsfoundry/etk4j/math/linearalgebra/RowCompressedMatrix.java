@@ -0,0 +1,132 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * Row compressed copy of a square {@link MatrixSparse} for the stationary iterative solvers, which update one row at a
+ * time. The diagonal is stored apart so that a row update does not have to search for it.
+ */
+final class RowCompressedMatrix {
+
+    final int n;
+    final int[] rowIdx;
+    final int[] cols;
+    final double[] values;
+    final double[] diagonal;
+
+    RowCompressedMatrix(MatrixSparse A) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        n = A.rows;
+        rowIdx = new int[n + 1];
+        diagonal = new double[n];
+        // Histogram of the off diagonal entries of every row
+        for (int col = 0; col < n; ++col) {
+            for (int i = A.col_idx[col]; i < A.col_idx[col + 1]; ++i) {
+                int row = A.nz_rows[i];
+                if (row == col) {
+                    diagonal[col] += A.nz_values[i];
+                } else {
+                    ++rowIdx[row + 1];
+                }
+            }
+        }
+        for (int row = 0; row < n; ++row) {
+            rowIdx[row + 1] += rowIdx[row];
+            if (diagonal[row] == 0.0) {
+                throw new SingularMatrixException(String.format("Zero diagonal element at row %d.", row));
+            }
+        }
+        cols = new int[rowIdx[n]];
+        values = new double[rowIdx[n]];
+        int[] next = new int[n];
+        System.arraycopy(rowIdx, 0, next, 0, n);
+        for (int col = 0; col < n; ++col) {
+            for (int i = A.col_idx[col]; i < A.col_idx[col + 1]; ++i) {
+                int row = A.nz_rows[i];
+                if (row != col) {
+                    int k = next[row]++;
+                    cols[k] = col;
+                    values[k] = A.nz_values[i];
+                }
+            }
+        }
+    }
+
+    // b[row] - sum of the off diagonal terms of the row
+    double offDiagonalResidual(int row, double[] b, double[] x) {
+        double sum = b[row];
+        for (int k = rowIdx[row]; k < rowIdx[row + 1]; ++k) {
+            sum -= values[k] * x[cols[k]];
+        }
+        return sum;
+    }
+
+    /**
+     * Greedy coloring of the adjacency graph of {@code A + A^T}. Rows of the same color do not reference each other,
+     * so they can be updated concurrently by Gauss-Seidel and SOR. A 5-point stencil in natural order is colored red
+     * and black.
+     *
+     * @param order    (Output) The rows grouped by color. Must have length n.
+     * @param colorPtr (Output) The rows of color c are {@code order[colorPtr[c]]} to {@code order[colorPtr[c + 1] - 1]}.
+     *                 Grown as needed.
+     * @return The number of colors.
+     */
+    int color(int[] order, IGrowArray colorPtr) {
+        // Column structure gives the rows that reference each row
+        int[] colIdx = new int[n + 1];
+        for (int k = 0; k < rowIdx[n]; ++k) {
+            ++colIdx[cols[k] + 1];
+        }
+        for (int i = 0; i < n; ++i) {
+            colIdx[i + 1] += colIdx[i];
+        }
+        int[] rows = new int[rowIdx[n]];
+        int[] next = new int[n];
+        System.arraycopy(colIdx, 0, next, 0, n);
+        for (int row = 0; row < n; ++row) {
+            for (int k = rowIdx[row]; k < rowIdx[row + 1]; ++k) {
+                rows[next[cols[k]]++] = row;
+            }
+        }
+
+        int[] color = new int[n];
+        // forbidden[c] == row + 1 if color c is taken by a neighbour of row
+        int[] forbidden = new int[n + 1];
+        int numColors = 0;
+        for (int row = 0; row < n; ++row) {
+            for (int k = rowIdx[row]; k < rowIdx[row + 1]; ++k) {
+                if (cols[k] < row) {
+                    forbidden[color[cols[k]]] = row + 1;
+                }
+            }
+            for (int k = colIdx[row]; k < colIdx[row + 1]; ++k) {
+                if (rows[k] < row) {
+                    forbidden[color[rows[k]]] = row + 1;
+                }
+            }
+            int c = 0;
+            while (forbidden[c] == row + 1) {
+                ++c;
+            }
+            color[row] = c;
+            numColors = Math.max(numColors, c + 1);
+        }
+
+        colorPtr.reshape(numColors + 1);
+        int[] ptr = colorPtr.data;
+        Arrays.fill(ptr, 0, numColors + 1, 0);
+        for (int row = 0; row < n; ++row) {
+            ++ptr[color[row] + 1];
+        }
+        for (int c = 0; c < numColors; ++c) {
+            ptr[c + 1] += ptr[c];
+        }
+        System.arraycopy(ptr, 0, next, 0, numColors);
+        for (int row = 0; row < n; ++row) {
+            order[next[color[row]]++] = row;
+        }
+        return numColors;
+    }
+}
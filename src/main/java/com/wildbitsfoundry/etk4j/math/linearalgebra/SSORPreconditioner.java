@@ -0,0 +1,79 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+/**
+ * The Symmetric Successive Over-Relaxation preconditioner
+ * <pre>
+ *     M = w / (2 - w) * (D / w + L) * (D / w)^-1 * (D / w + U)
+ * </pre>
+ * where {@code D}, {@code L} and {@code U} are the diagonal, strictly lower and strictly upper parts of {@code A}.
+ * {@code M} is symmetric positive definite whenever {@code A} is and {@code 0 < w < 2}, so it can be used with the
+ * Conjugate Gradient method. Nothing is factored: the preconditioner keeps a copy of the matrix, with the rows of
+ * every column sorted, and the scaled diagonal, and each application is two triangular sweeps over that copy.
+ */
+public class SSORPreconditioner implements Preconditioner {
+
+    private final int n;
+    private final int[] colIdx;
+    private final int[] rows;
+    private final double[] values;
+    private final double[] diagonal;
+    private final double omega;
+
+    public SSORPreconditioner(MatrixSparse A) {
+        this(A, 1.0);
+    }
+
+    /**
+     * @param A     The matrix. The values are copied, later changes to {@code A} are not seen by the preconditioner.
+     * @param omega The relaxation factor. It must be in the open interval (0, 2).
+     */
+    public SSORPreconditioner(MatrixSparse A, double omega) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        if (!(omega > 0.0 && omega < 2.0)) {
+            throw new IllegalArgumentException("omega must be in the open interval (0, 2).");
+        }
+        this.n = A.cols;
+        this.omega = omega;
+        this.colIdx = A.col_idx.clone();
+        this.rows = new int[A.nz_length];
+        this.values = new double[A.nz_length];
+        MatrixSparseUtils.copySortedColumns(A, rows, values);
+        this.diagonal = new double[n];
+        for (int col = 0; col < n; ++col) {
+            for (int i = colIdx[col]; i < colIdx[col + 1]; ++i) {
+                if (rows[i] == col) {
+                    diagonal[col] += values[i];
+                }
+            }
+            if (diagonal[col] == 0.0) {
+                throw new SingularMatrixException(String.format("Zero diagonal element at row %d.", col));
+            }
+            diagonal[col] /= omega;
+        }
+    }
+
+    @Override
+    public void apply(double[] r, double[] z) {
+        System.arraycopy(r, 0, z, 0, n);
+        // (D / w + L) * y = r, column oriented forward substitution
+        for (int col = 0; col < n; ++col) {
+            double zj = z[col] /= diagonal[col];
+            for (int i = colIdx[col + 1] - 1; i >= colIdx[col] && rows[i] > col; --i) {
+                z[rows[i]] -= values[i] * zj;
+            }
+        }
+        // (D / w + U) * z = (D / w) * y, column oriented back substitution
+        final double scale = (2.0 - omega) / omega;
+        for (int col = 0; col < n; ++col) {
+            z[col] *= diagonal[col] * scale;
+        }
+        for (int col = n - 1; col >= 0; --col) {
+            double zj = z[col] /= diagonal[col];
+            for (int i = colIdx[col]; i < colIdx[col + 1] && rows[i] < col; ++i) {
+                z[rows[i]] -= values[i] * zj;
+            }
+        }
+    }
+}
@@ -0,0 +1,641 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.Arrays;
+
+/**
+ * Fill-reducing orderings computed from the structure of a {@link MatrixSparse}. All the orderings return a column
+ * permutation {@code q}, column {@code k} of the permuted matrix is column {@code q[k]} of the original one.
+ */
+final class SparseOrderings {
+
+    private SparseOrderings() {
+    }
+
+    /**
+     * Computes the column permutation selected by {@code ordering}.
+     *
+     * @param A         The matrix.
+     * @param ordering  The ordering.
+     * @param symmetric {@code true} to order the graph of {@code A + A^T}, as for LU and Cholesky, {@code false} to
+     *                  order the graph of {@code A^T * A}, as for QR.
+     * @return The column permutation or {@code null} for {@link FillReducingOrdering#NATURAL}.
+     */
+    static int[] permutation(MatrixSparse A, FillReducingOrdering ordering, boolean symmetric) {
+        switch (ordering) {
+            case NATURAL:
+                return null;
+            case AMD:
+                return symmetric ? amd(symmetricPattern(A), A.cols) : amd(ataPattern(A, false), A.cols);
+            case COLAMD:
+                return amd(ataPattern(A, true), A.cols);
+            case RCM:
+                return rcm(symmetric ? symmetricPattern(A) : ataPattern(A, false), A.cols);
+            default:
+                throw new IllegalArgumentException("Unknown ordering " + ordering);
+        }
+    }
+
+    static int[] inverse(int[] perm) {
+        int[] inv = new int[perm.length];
+        for (int k = 0; k < perm.length; ++k) {
+            inv[perm[k]] = k;
+        }
+        return inv;
+    }
+
+    /**
+     * Pattern of {@code A + A^T} without the diagonal, {pointers, indices}.
+     */
+    static int[][] symmetricPattern(MatrixSparse A) {
+        if (A.rows != A.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        final int n = A.cols;
+        int[] count = new int[n + 1];
+        for (int j = 0; j < n; ++j) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                int i = A.nz_rows[p];
+                if (i != j) {
+                    ++count[i + 1];
+                    ++count[j + 1];
+                }
+            }
+        }
+        for (int j = 0; j < n; ++j) {
+            count[j + 1] += count[j];
+        }
+        int[] indices = new int[count[n]];
+        int[] next = Arrays.copyOf(count, n);
+        for (int j = 0; j < n; ++j) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                int i = A.nz_rows[p];
+                if (i != j) {
+                    indices[next[i]++] = j;
+                    indices[next[j]++] = i;
+                }
+            }
+        }
+        // Remove the duplicates, in place
+        int[] pointers = new int[n + 1];
+        int[] mark = new int[n];
+        Arrays.fill(mark, -1);
+        int nz = 0;
+        for (int j = 0; j < n; ++j) {
+            pointers[j] = nz;
+            for (int p = count[j]; p < count[j + 1]; ++p) {
+                int i = indices[p];
+                if (mark[i] != j) {
+                    mark[i] = j;
+                    indices[nz++] = i;
+                }
+            }
+        }
+        pointers[n] = nz;
+        return new int[][] {pointers, indices};
+    }
+
+    /**
+     * Pattern of {@code A^T * A} without the diagonal, {pointers, indices}.
+     *
+     * @param dropDense {@code true} to ignore the rows with more than {@code max(16, 10 * sqrt(n))} entries.
+     */
+    static int[][] ataPattern(MatrixSparse A, boolean dropDense) {
+        final int m = A.rows;
+        final int n = A.cols;
+        // Row structure of A
+        int[] rowPtr = new int[m + 1];
+        for (int p = 0; p < A.col_idx[n]; ++p) {
+            ++rowPtr[A.nz_rows[p] + 1];
+        }
+        for (int i = 0; i < m; ++i) {
+            rowPtr[i + 1] += rowPtr[i];
+        }
+        int[] rowCols = new int[rowPtr[m]];
+        int[] next = Arrays.copyOf(rowPtr, m);
+        for (int j = 0; j < n; ++j) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                rowCols[next[A.nz_rows[p]]++] = j;
+            }
+        }
+        final int dense = dropDense ? (int) Math.max(16, 10 * Math.sqrt(n)) : Integer.MAX_VALUE;
+
+        IGrowArray indices = new IGrowArray();
+        int[] pointers = new int[n + 1];
+        int[] mark = new int[n];
+        Arrays.fill(mark, -1);
+        for (int j = 0; j < n; ++j) {
+            pointers[j] = indices.length;
+            mark[j] = j;
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                int i = A.nz_rows[p];
+                if (rowPtr[i + 1] - rowPtr[i] > dense) {
+                    continue;
+                }
+                for (int q = rowPtr[i]; q < rowPtr[i + 1]; ++q) {
+                    int k = rowCols[q];
+                    if (mark[k] != j) {
+                        mark[k] = j;
+                        indices.add(k);
+                    }
+                }
+            }
+        }
+        pointers[n] = indices.length;
+        return new int[][] {pointers, Arrays.copyOf(indices.data, indices.length)};
+    }
+
+    private static int flip(int i) {
+        return -i - 2;
+    }
+
+    // Clears w if the mark is about to overflow
+    private static int clearMarks(int mark, int lemax, int[] w, int n) {
+        if (mark < 2 || mark + lemax < 0) {
+            for (int k = 0; k < n; ++k) {
+                if (w[k] != 0) {
+                    w[k] = 1;
+                }
+            }
+            mark = 2;
+        }
+        return mark;
+    }
+
+    /**
+     * Approximate minimum degree ordering of a symmetric pattern without diagonal. The graph is eliminated on a
+     * quotient graph stored in place, with approximate external degrees, element absorption, detection of
+     * indistinguishable nodes and mass elimination. Nodes with a degree above {@code max(16, 10 * sqrt(n))} are
+     * ordered last. The elimination order is postordered on the assembly tree.
+     *
+     * @param pattern {pointers, indices} of the graph.
+     * @param n       The number of nodes.
+     * @return The permutation.
+     */
+    static int[] amd(int[][] pattern, int n) {
+        int[] Cp = Arrays.copyOf(pattern[0], n + 1);
+        int cnz = Cp[n];
+        // Elbow room for the elements created during the elimination
+        int nzmax = cnz + cnz / 5 + 2 * n;
+        int[] Ci = Arrays.copyOf(pattern[1], nzmax);
+
+        int dense = (int) Math.max(16, 10 * Math.sqrt(n));
+        dense = Math.min(n - 2, dense);
+
+        int[] len = new int[n + 1];
+        int[] nv = new int[n + 1];
+        int[] next = new int[n + 1];
+        int[] head = new int[n + 1];
+        int[] elen = new int[n + 1];
+        int[] degree = new int[n + 1];
+        int[] w = new int[n + 1];
+        int[] hhead = new int[n + 1];
+        int[] last = new int[n + 1];
+
+        for (int k = 0; k < n; ++k) {
+            len[k] = Cp[k + 1] - Cp[k];
+        }
+        len[n] = 0;
+        for (int i = 0; i <= n; ++i) {
+            head[i] = -1;
+            last[i] = -1;
+            next[i] = -1;
+            hhead[i] = -1;
+            nv[i] = 1;
+            w[i] = 1;
+            elen[i] = 0;
+            degree[i] = len[i];
+        }
+        int lemax = 0;
+        int mark = clearMarks(0, 0, w, n);
+        // n is a dead element, the root of the dense nodes
+        elen[n] = -2;
+        Cp[n] = -1;
+        w[n] = 0;
+
+        int nel = 0;
+        for (int i = 0; i < n; ++i) {
+            int d = degree[i];
+            if (d == 0) {
+                elen[i] = -2;
+                nel++;
+                Cp[i] = -1;
+                w[i] = 0;
+            } else if (d > dense) {
+                nv[i] = 0;
+                elen[i] = -1;
+                nel++;
+                Cp[i] = flip(n);
+                nv[n]++;
+            } else {
+                if (head[d] != -1) {
+                    last[head[d]] = i;
+                }
+                next[i] = head[d];
+                head[d] = i;
+            }
+        }
+
+        int mindeg = 0;
+        while (nel < n) {
+            // Select a node of minimum approximate degree
+            int k = -1;
+            while (mindeg < n && (k = head[mindeg]) == -1) {
+                mindeg++;
+            }
+            if (next[k] != -1) {
+                last[next[k]] = -1;
+            }
+            head[mindeg] = next[k];
+            int elenk = elen[k];
+            int nvk = nv[k];
+            nel += nvk;
+
+            // Garbage collection
+            if (elenk > 0 && cnz + mindeg >= nzmax) {
+                for (int j = 0; j < n; ++j) {
+                    int p = Cp[j];
+                    if (p >= 0) {
+                        Cp[j] = Ci[p];
+                        Ci[p] = flip(j);
+                    }
+                }
+                int q = 0;
+                for (int p = 0; p < cnz; ) {
+                    int j = flip(Ci[p++]);
+                    if (j >= 0) {
+                        Ci[q] = Cp[j];
+                        Cp[j] = q++;
+                        for (int k3 = 0; k3 < len[j] - 1; ++k3) {
+                            Ci[q++] = Ci[p++];
+                        }
+                    }
+                }
+                cnz = q;
+            }
+
+            // Construct the new element
+            int dk = 0;
+            nv[k] = -nvk;
+            int p = Cp[k];
+            int pk1 = elenk == 0 ? p : cnz;
+            int pk2 = pk1;
+            for (int k1 = 1; k1 <= elenk + 1; ++k1) {
+                int e;
+                int pj;
+                int ln;
+                if (k1 > elenk) {
+                    e = k;
+                    pj = p;
+                    ln = len[k] - elenk;
+                } else {
+                    e = Ci[p++];
+                    pj = Cp[e];
+                    ln = len[e];
+                }
+                for (int k2 = 1; k2 <= ln; ++k2) {
+                    int i = Ci[pj++];
+                    int nvi = nv[i];
+                    if (nvi <= 0) {
+                        continue;
+                    }
+                    dk += nvi;
+                    nv[i] = -nvi;
+                    Ci[pk2++] = i;
+                    if (next[i] != -1) {
+                        last[next[i]] = last[i];
+                    }
+                    if (last[i] != -1) {
+                        next[last[i]] = next[i];
+                    } else {
+                        head[degree[i]] = next[i];
+                    }
+                }
+                if (e != k) {
+                    Cp[e] = flip(k);
+                    w[e] = 0;
+                }
+            }
+            if (elenk != 0) {
+                cnz = pk2;
+            }
+            degree[k] = dk;
+            Cp[k] = pk1;
+            len[k] = pk2 - pk1;
+            elen[k] = -2;
+
+            // Find the set differences |Le \ Lk|
+            mark = clearMarks(mark, lemax, w, n);
+            for (int pk = pk1; pk < pk2; ++pk) {
+                int i = Ci[pk];
+                int eln = elen[i];
+                if (eln <= 0) {
+                    continue;
+                }
+                int nvi = -nv[i];
+                int wnvi = mark - nvi;
+                for (p = Cp[i]; p <= Cp[i] + eln - 1; ++p) {
+                    int e = Ci[p];
+                    if (w[e] >= mark) {
+                        w[e] -= nvi;
+                    } else if (w[e] != 0) {
+                        w[e] = degree[e] + wnvi;
+                    }
+                }
+            }
+
+            // Degree update
+            for (int pk = pk1; pk < pk2; ++pk) {
+                int i = Ci[pk];
+                int p1 = Cp[i];
+                int p2 = p1 + elen[i] - 1;
+                int pn = p1;
+                long h = 0;
+                int d = 0;
+                for (p = p1; p <= p2; ++p) {
+                    int e = Ci[p];
+                    if (w[e] != 0) {
+                        int dext = w[e] - mark;
+                        if (dext > 0) {
+                            d += dext;
+                            Ci[pn++] = e;
+                            h += e;
+                        } else {
+                            // Aggressive absorption
+                            Cp[e] = flip(k);
+                            w[e] = 0;
+                        }
+                    }
+                }
+                elen[i] = pn - p1 + 1;
+                int p3 = pn;
+                int p4 = p1 + len[i];
+                for (p = p2 + 1; p < p4; ++p) {
+                    int j = Ci[p];
+                    int nvj = nv[j];
+                    if (nvj <= 0) {
+                        continue;
+                    }
+                    d += nvj;
+                    Ci[pn++] = j;
+                    h += j;
+                }
+                if (d == 0) {
+                    // Mass elimination
+                    Cp[i] = flip(k);
+                    int nvi = -nv[i];
+                    dk -= nvi;
+                    nvk += nvi;
+                    nel += nvi;
+                    nv[i] = 0;
+                    elen[i] = -1;
+                } else {
+                    degree[i] = Math.min(degree[i], d);
+                    Ci[pn] = Ci[p3];
+                    Ci[p3] = Ci[p1];
+                    Ci[p1] = k;
+                    len[i] = pn - p1 + 1;
+                    int hash = (int) (h % n);
+                    next[i] = hhead[hash];
+                    hhead[hash] = i;
+                    last[i] = hash;
+                }
+            }
+            degree[k] = dk;
+            lemax = Math.max(lemax, dk);
+            mark = clearMarks(mark + lemax, lemax, w, n);
+
+            // Supernode detection
+            for (int pk = pk1; pk < pk2; ++pk) {
+                int i = Ci[pk];
+                if (nv[i] >= 0) {
+                    continue;
+                }
+                int hash = last[i];
+                i = hhead[hash];
+                hhead[hash] = -1;
+                for (; i != -1 && next[i] != -1; i = next[i], mark++) {
+                    int ln = len[i];
+                    int eln = elen[i];
+                    for (p = Cp[i] + 1; p <= Cp[i] + ln - 1; ++p) {
+                        w[Ci[p]] = mark;
+                    }
+                    int jlast = i;
+                    for (int j = next[i]; j != -1; ) {
+                        boolean ok = len[j] == ln && elen[j] == eln;
+                        for (p = Cp[j] + 1; ok && p <= Cp[j] + ln - 1; ++p) {
+                            if (w[Ci[p]] != mark) {
+                                ok = false;
+                            }
+                        }
+                        if (ok) {
+                            // i and j are indistinguishable, absorb j into i
+                            Cp[j] = flip(i);
+                            nv[i] += nv[j];
+                            nv[j] = 0;
+                            elen[j] = -1;
+                            j = next[j];
+                            next[jlast] = j;
+                        } else {
+                            jlast = j;
+                            j = next[j];
+                        }
+                    }
+                }
+            }
+
+            // Finalize the new element
+            p = pk1;
+            for (int pk = pk1; pk < pk2; ++pk) {
+                int i = Ci[pk];
+                int nvi = -nv[i];
+                if (nvi <= 0) {
+                    continue;
+                }
+                nv[i] = nvi;
+                int d = degree[i] + dk - nvi;
+                d = Math.min(d, n - nel - nvi);
+                if (head[d] != -1) {
+                    last[head[d]] = i;
+                }
+                next[i] = head[d];
+                last[i] = -1;
+                head[d] = i;
+                mindeg = Math.min(mindeg, d);
+                degree[i] = d;
+                Ci[p++] = i;
+            }
+            nv[k] = nvk;
+            if ((len[k] = p - pk1) == 0) {
+                Cp[k] = -1;
+                w[k] = 0;
+            }
+            if (elenk != 0) {
+                cnz = p;
+            }
+        }
+
+        // Postorder the assembly tree
+        for (int i = 0; i < n; ++i) {
+            Cp[i] = flip(Cp[i]);
+        }
+        Arrays.fill(head, -1);
+        for (int j = n; j >= 0; --j) {
+            if (nv[j] > 0) {
+                continue;
+            }
+            next[j] = head[Cp[j]];
+            head[Cp[j]] = j;
+        }
+        for (int e = n; e >= 0; --e) {
+            if (nv[e] <= 0) {
+                continue;
+            }
+            if (Cp[e] != -1) {
+                next[e] = head[Cp[e]];
+                head[Cp[e]] = e;
+            }
+        }
+        int[] order = new int[n + 1];
+        for (int k = 0, i = 0; i <= n; ++i) {
+            if (Cp[i] == -1) {
+                k = treeDepthFirstSearch(i, k, head, next, order, w);
+            }
+        }
+        return Arrays.copyOf(order, n);
+    }
+
+    // Depth first search and postorder of the tree rooted at node j
+    private static int treeDepthFirstSearch(int j, int k, int[] head, int[] next, int[] post, int[] stack) {
+        int top = 0;
+        stack[0] = j;
+        while (top >= 0) {
+            int p = stack[top];
+            int i = head[p];
+            if (i == -1) {
+                top--;
+                post[k++] = p;
+            } else {
+                head[p] = next[i];
+                stack[++top] = i;
+            }
+        }
+        return k;
+    }
+
+    /**
+     * Reverse Cuthill-McKee ordering of a symmetric pattern without diagonal. Every connected component is numbered
+     * by a breadth first search from a pseudo-peripheral node, visiting the neighbours by increasing degree, and the
+     * whole numbering is reversed.
+     *
+     * @param pattern {pointers, indices} of the graph.
+     * @param n       The number of nodes.
+     * @return The permutation.
+     */
+    static int[] rcm(int[][] pattern, int n) {
+        final int[] ptr = pattern[0];
+        final int[] adj = pattern[1];
+        int[] degree = new int[n];
+        for (int i = 0; i < n; ++i) {
+            degree[i] = ptr[i + 1] - ptr[i];
+        }
+        // Nodes sorted by degree, the starting candidates
+        int[] byDegree = new int[n];
+        int[] bucket = new int[n + 1];
+        for (int i = 0; i < n; ++i) {
+            ++bucket[degree[i] + 1];
+        }
+        for (int d = 0; d < n; ++d) {
+            bucket[d + 1] += bucket[d];
+        }
+        for (int i = 0; i < n; ++i) {
+            byDegree[bucket[degree[i]]++] = i;
+        }
+        int[] order = new int[n];
+        int[] queue = new int[n];
+        int[] depth = new int[n];
+        Arrays.fill(depth, -1);
+        boolean[] visited = new boolean[n];
+        int count = 0;
+        int candidate = 0;
+        while (count < n) {
+            // Start from the unvisited node of minimum degree
+            while (visited[byDegree[candidate]]) {
+                ++candidate;
+            }
+            int start = pseudoPeripheralNode(byDegree[candidate], ptr, adj, degree, visited, queue, depth);
+
+            // Cuthill-McKee numbering of the component
+            int head = count;
+            order[count++] = start;
+            visited[start] = true;
+            while (head < count) {
+                int node = order[head++];
+                int first = count;
+                for (int p = ptr[node]; p < ptr[node + 1]; ++p) {
+                    int j = adj[p];
+                    if (!visited[j]) {
+                        visited[j] = true;
+                        order[count++] = j;
+                    }
+                }
+                // Insertion sort of the new nodes by degree
+                for (int a = first + 1; a < count; ++a) {
+                    int node2 = order[a];
+                    int b = a - 1;
+                    while (b >= first && degree[order[b]] > degree[node2]) {
+                        order[b + 1] = order[b];
+                        --b;
+                    }
+                    order[b + 1] = node2;
+                }
+            }
+        }
+        for (int i = 0, j = n - 1; i < j; ++i, --j) {
+            int tmp = order[i];
+            order[i] = order[j];
+            order[j] = tmp;
+        }
+        return order;
+    }
+
+    /*
+     * George-Liu: repeats breadth first searches from the node of minimum degree in the last level until the
+     * eccentricity stops growing. Only the component of start is searched, visited marks the finished components.
+     */
+    private static int pseudoPeripheralNode(int start, int[] ptr, int[] adj, int[] degree, boolean[] visited,
+                                            int[] queue, int[] depth) {
+        int eccentricity = -1;
+        while (true) {
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = start;
+            depth[start] = 0;
+            while (head < tail) {
+                int node = queue[head++];
+                for (int p = ptr[node]; p < ptr[node + 1]; ++p) {
+                    int j = adj[p];
+                    if (!visited[j] && depth[j] < 0) {
+                        depth[j] = depth[node] + 1;
+                        queue[tail++] = j;
+                    }
+                }
+            }
+            int lastDepth = depth[queue[tail - 1]];
+            int candidate = queue[tail - 1];
+            for (int q = tail - 1; q >= 0 && depth[queue[q]] == lastDepth; --q) {
+                if (degree[queue[q]] < degree[candidate]) {
+                    candidate = queue[q];
+                }
+            }
+            // depth is all -1 again on return
+            for (int q = 0; q < tail; ++q) {
+                depth[queue[q]] = -1;
+            }
+            if (lastDepth <= eccentricity) {
+                return start;
+            }
+            eccentricity = lastDepth;
+            start = candidate;
+        }
+    }
+}
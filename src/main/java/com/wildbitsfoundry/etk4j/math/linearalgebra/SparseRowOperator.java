@@ -0,0 +1,80 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.stream.IntStream;
+
+/**
+ * Row compressed copy of a {@link MatrixSparse} applied as a {@link LinearOperator}. Every entry of {@code y = A * x}
+ * is the dot product of a row with {@code x}, so large products are computed in parallel over blocks of rows with
+ * about the same number of non-zero entries, without partial vectors and with the same result on any number of
+ * threads.
+ */
+final class SparseRowOperator implements LinearOperator {
+
+    private final int rows;
+    private final int cols;
+    private final int[] rowIdx;
+    private final int[] colIndices;
+    private final double[] values;
+    // Row blocks of the parallel product, a single block if it runs serially
+    private final int[] bounds;
+
+    SparseRowOperator(MatrixSparse A) {
+        rows = A.rows;
+        cols = A.cols;
+        final int nz = A.nz_length;
+        rowIdx = new int[rows + 1];
+        for (int k = 0; k < nz; ++k) {
+            ++rowIdx[A.nz_rows[k] + 1];
+        }
+        long[] work = new long[rows + 1];
+        for (int i = 0; i < rows; ++i) {
+            rowIdx[i + 1] += rowIdx[i];
+            work[i + 1] = rowIdx[i + 1];
+        }
+        colIndices = new int[nz];
+        values = new double[nz];
+        int[] next = new int[rows];
+        System.arraycopy(rowIdx, 0, next, 0, rows);
+        for (int j = 0; j < cols; ++j) {
+            for (int p = A.col_idx[j]; p < A.col_idx[j + 1]; ++p) {
+                int k = next[A.nz_rows[p]]++;
+                colIndices[k] = j;
+                values[k] = A.nz_values[p];
+            }
+        }
+        bounds = MatrixSparse.balance(work, rows, MatrixSparse.parallelBlocks(nz));
+    }
+
+    @Override
+    public int getRowCount() {
+        return rows;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return cols;
+    }
+
+    @Override
+    public void multiply(double[] x, double[] y) {
+        if (x.length != cols || y.length != rows) {
+            throw new IllegalArgumentException("Inconsistent matrix shapes.");
+        }
+        final int blocks = bounds.length - 1;
+        if (blocks == 1) {
+            multiplyRows(x, 0, rows, y);
+            return;
+        }
+        IntStream.range(0, blocks).parallel().forEach(b -> multiplyRows(x, bounds[b], bounds[b + 1], y));
+    }
+
+    private void multiplyRows(double[] x, int from, int to, double[] y) {
+        for (int i = from; i < to; ++i) {
+            double sum = 0.0;
+            for (int k = rowIdx[i]; k < rowIdx[i + 1]; ++k) {
+                sum += values[k] * x[colIndices[k]];
+            }
+            y[i] = sum;
+        }
+    }
+}
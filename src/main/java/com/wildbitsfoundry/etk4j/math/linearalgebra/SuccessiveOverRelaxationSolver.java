@@ -1,18 +1,37 @@
 package com.wildbitsfoundry.etk4j.math.linearalgebra;
 
+import java.util.stream.IntStream;
+
 /**
- * This class implements the SOR (Successive-Over-Relaxation) iterative method to solve a system of equations
+ * This class implements the SOR (Successive-Over-Relaxation) iterative method to solve a system of equations.
+ * <p>
+ * A {@link MatrixSparse} is swept row by row over its non-zero entries only, so every iteration costs O(nnz). With
+ * {@link #parallel(boolean)} the rows are reordered by a multicolor ordering, red-black for 5-point stencils, and the
+ * rows of each color are updated concurrently.
  */
 public class SuccessiveOverRelaxationSolver {
     private final double w;
     private final double[] b;
     private final MatrixDense A;
+    private final RowCompressedMatrix sparse;
+    private boolean parallel = false;
     private int iterationLimit = 100;
     private double tol = 1e-9;
     private double[] x0 = null;
 
     public SuccessiveOverRelaxationSolver(MatrixDense A, double[] b, double w) {
         this.A = A;
+        this.sparse = null;
+        this.b = b;
+        this.w = w;
+    }
+
+    public SuccessiveOverRelaxationSolver(MatrixSparse A, double[] b, double w) {
+        if (A.getRowCount() != b.length) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        this.A = null;
+        this.sparse = new RowCompressedMatrix(A);
         this.b = b;
         this.w = w;
     }
@@ -47,12 +66,27 @@ public class SuccessiveOverRelaxationSolver {
         return this;
     }
 
+    /**
+     * Sweeps the rows in multicolor order and updates the rows of each color in parallel. Only applies to a
+     * {@link MatrixSparse}. The iterates differ from the ones of the natural row order, but the convergence rate is
+     * similar.
+     * @param parallel {@code true} to run the sweeps in parallel. Defaults to {@code false}.
+     * @return {@code this}
+     */
+    public SuccessiveOverRelaxationSolver parallel(boolean parallel) {
+        this.parallel = parallel;
+        return this;
+    }
+
     /**
      * Solves A * x = b
      * @return An {@link IterativeSolverResults} with the solutions of the system A * x  = b
      */
     public IterativeSolverResults<double[]> solve() {
         double[] x = x0 == null ? new double[b.length] : x0;
+        if (sparse != null) {
+            return solveSparse(x);
+        }
         int n = b.length;
         int it = 0;
         double dxmax = Double.NaN;
@@ -86,4 +120,57 @@ public class SuccessiveOverRelaxationSolver {
         solverResults.setNumberOfIterations(it);
         return solverResults;
     }
+
+    private IterativeSolverResults<double[]> solveSparse(double[] x) {
+        final int n = sparse.n;
+        int[] order = null;
+        int[] colorPtr = null;
+        int numColors = 0;
+        if (parallel) {
+            order = new int[n];
+            IGrowArray gc = new IGrowArray();
+            numColors = sparse.color(order, gc);
+            colorPtr = gc.data;
+        }
+        int it = 0;
+        double dxmax = Double.NaN;
+        while (it++ < iterationLimit) {
+            if (parallel) {
+                dxmax = 0;
+                for (int c = 0; c < numColors; ++c) {
+                    final int[] rows = order;
+                    dxmax = Math.max(dxmax, IntStream.range(colorPtr[c], colorPtr[c + 1]).parallel()
+                            .mapToDouble(k -> updateRow(rows[k], x)).max().orElse(0.0));
+                }
+            } else {
+                dxmax = 0;
+                for (int i = 0; i < n; i++) {
+                    dxmax = Math.max(dxmax, updateRow(i, x));
+                }
+            }
+            if (dxmax < tol) {
+                IterativeSolverResults<double[]> solverResults = new IterativeSolverResults<>();
+                solverResults.setSolverStatus("Converged");
+                solverResults.setHasConverged(true);
+                solverResults.setError(dxmax);
+                solverResults.setValue(x);
+                solverResults.setNumberOfIterations(it);
+                return solverResults;
+            }
+        }
+        IterativeSolverResults<double[]> solverResults = new IterativeSolverResults<>();
+        solverResults.setSolverStatus("Maximum number of iterations exceeded");
+        solverResults.setHasConverged(false);
+        solverResults.setError(dxmax);
+        solverResults.setValue(x);
+        solverResults.setNumberOfIterations(it);
+        return solverResults;
+    }
+
+    // Updates x[i] in place and returns the absolute value of the residual of row i before the update
+    private double updateRow(int i, double[] x) {
+        double residual = sparse.offDiagonalResidual(i, b, x) - sparse.diagonal[i] * x[i];
+        x[i] += w * residual / sparse.diagonal[i];
+        return Math.abs(residual);
+    }
 }
@@ -0,0 +1,518 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static com.wildbitsfoundry.etk4j.math.linearalgebra.ColumnCounts.adjust;
+import static com.wildbitsfoundry.etk4j.math.linearalgebra.QrStructuralCounts.eliminationTree;
+import static com.wildbitsfoundry.etk4j.math.linearalgebra.QrStructuralCounts.postorder;
+
+/**
+ * Multifrontal supernodal sparse Cholesky decomposition, {@code Q^T * A * Q = L * L^T}.
+ * <p>
+ * Consecutive columns of {@code L} with the same structure below the diagonal are grouped into supernodes. Each
+ * supernode is factored as a dense frontal matrix: the entries of {@code A} and the update matrices of its children in
+ * the elimination tree are assembled into the front, the columns of the supernode are factored with dense kernels and
+ * the remaining Schur complement is passed to the parent. The work is dominated by dense operations on contiguous
+ * columns, which is much faster than {@link CholeskyDecompositionSparse} when the fronts are large, e.g. for matrices
+ * from 3D meshes. Independent subtrees of the elimination tree can be factored in parallel.
+ * <p>
+ * The symbolic analysis, ordering, elimination tree, supernodes and the storage of {@code L}, is computed once by the
+ * constructor. {@link #decompose(MatrixSparse)} refactors a matrix with the same sparsity pattern.
+ */
+public class SupernodalCholeskyDecompositionSparse extends CholeskyDecomposition<MatrixSparse> {
+
+    // Subtrees with fewer columns are factored by the calling thread
+    private static final int PARALLEL_THRESHOLD = 256;
+
+    private final int n;
+    private final boolean parallel;
+    // Sparsity pattern of the analyzed matrix
+    private final int[] analyzedColIdx;
+    private final int[] analyzedRows;
+    // q[k] is the column of A that is column k of Q^T * A * Q, qinv is its inverse
+    private final int[] q;
+    private final int[] qinv;
+    private final MatrixSparse Ap = new MatrixSparse(1, 1, 0);
+    // workspace storage
+    private final IGrowArray gw = new IGrowArray(1);
+
+    // Supernode s holds the columns superStart[s] to superStart[s + 1] - 1
+    private final int numSupernodes;
+    private final int[] superStart;
+    // Rows of supernode s are superRows[rowPtr[s]] to superRows[rowPtr[s + 1] - 1], sorted, the diagonal block first
+    private final int[] rowPtr;
+    private final int[] superRows;
+    // Column major dense block of supernode s starts at values[valuePtr[s]], with rowPtr[s + 1] - rowPtr[s] rows
+    private final long[] valuePtr;
+    private final double[] values;
+    // Children of every supernode in the supernodal elimination tree
+    private final int[] childPtr;
+    private final int[] children;
+    private final int[] roots;
+
+    private volatile boolean isSPD;
+
+    public SupernodalCholeskyDecompositionSparse(MatrixSparse matrix) {
+        this(matrix, FillReducingOrdering.AMD, false);
+    }
+
+    /**
+     * @param matrix   The symmetric matrix to decompose. Both triangles must be stored.
+     * @param ordering {@link FillReducingOrdering#AMD}, {@link FillReducingOrdering#RCM} or
+     *                 {@link FillReducingOrdering#NATURAL}.
+     * @param parallel {@code true} to factor independent subtrees of the elimination tree in parallel.
+     * @throws IllegalArgumentException if {@code L} or the dense front of one of its supernodes is too large to be
+     *                                  stored in an array.
+     */
+    public SupernodalCholeskyDecompositionSparse(MatrixSparse matrix, FillReducingOrdering ordering,
+                                                 boolean parallel) {
+        super(matrix);
+        if (matrix.rows != matrix.cols) {
+            throw new NonSquareMatrixException("Must be a square matrix");
+        }
+        if (ordering == FillReducingOrdering.COLAMD) {
+            throw new IllegalArgumentException("COLAMD is not a symmetric ordering. Use AMD instead.");
+        }
+        this.n = matrix.cols;
+        this.parallel = parallel;
+        this.analyzedColIdx = Arrays.copyOf(matrix.col_idx, n + 1);
+        this.analyzedRows = Arrays.copyOf(matrix.nz_rows, matrix.nz_length);
+
+        // Fill-reducing ordering followed by a postorder of the elimination tree, so that supernodes are contiguous
+        int[] ordered = SparseOrderings.permutation(matrix, ordering, true);
+        if (ordered == null) {
+            ordered = new int[n];
+            for (int i = 0; i < n; ++i) {
+                ordered[i] = i;
+            }
+        }
+        IGrowArray gw = new IGrowArray();
+        MatrixSparseUtils.permute(SparseOrderings.inverse(ordered), matrix, ordered, Ap);
+        int[] parent = new int[n];
+        int[] post = new int[n];
+        eliminationTree(Ap, false, parent, gw);
+        postorder(parent, n, post, gw);
+        q = new int[n];
+        for (int k = 0; k < n; ++k) {
+            q[k] = ordered[post[k]];
+        }
+        qinv = SparseOrderings.inverse(q);
+        MatrixSparseUtils.permute(qinv, matrix, q, Ap);
+        eliminationTree(Ap, false, parent, gw);
+        int[] counts = new int[n];
+        for (int k = 0; k < n; ++k) {
+            post[k] = k;
+        }
+        new ColumnCounts(false).process(Ap, parent, post, counts);
+
+        // Fundamental supernodes: j + 1 joins the supernode of j if j is its only child and their structures nest
+        int[] childCount = new int[n];
+        for (int j = 0; j < n; ++j) {
+            if (parent[j] >= 0) {
+                ++childCount[parent[j]];
+            }
+        }
+        int[] start = new int[n + 1];
+        int ns = 0;
+        for (int j = 0; j < n; ++j) {
+            if (j == 0 || !(parent[j - 1] == j && childCount[j] == 1 && counts[j] == counts[j - 1] - 1)) {
+                start[ns++] = j;
+            }
+        }
+        start[ns] = n;
+        numSupernodes = ns;
+        superStart = Arrays.copyOf(start, ns + 1);
+        int[] supernodeOf = new int[n];
+        for (int s = 0; s < ns; ++s) {
+            for (int j = superStart[s]; j < superStart[s + 1]; ++j) {
+                supernodeOf[j] = s;
+            }
+        }
+
+        // The structure of a supernode is the structure of its first column
+        rowPtr = new int[ns + 1];
+        valuePtr = new long[ns + 1];
+        long maxFront = 0;
+        for (int s = 0; s < ns; ++s) {
+            int height = counts[superStart[s]];
+            int width = superStart[s + 1] - superStart[s];
+            rowPtr[s + 1] = rowPtr[s] + height;
+            valuePtr[s + 1] = valuePtr[s] + (long) height * width;
+            maxFront = Math.max(maxFront, (long) height * height);
+        }
+        if (valuePtr[ns] > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("The factor is too large to be stored.");
+        }
+        // The dense front of a supernode is height x height
+        if (maxFront > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("A frontal matrix is too large to be stored.");
+        }
+        superRows = new int[rowPtr[ns]];
+        values = new double[(int) valuePtr[ns]];
+        int[] next = Arrays.copyOf(rowPtr, ns);
+        // Row k of L is the row subtree of k, visited in increasing k so the rows of every supernode come out sorted
+        int[] stack = new int[n];
+        int[] mark = new int[n];
+        Arrays.fill(mark, -1);
+        for (int k = 0; k < n; ++k) {
+            mark[k] = k;
+            for (int p = Ap.col_idx[k]; p < Ap.col_idx[k + 1]; ++p) {
+                int i = Ap.nz_rows[p];
+                if (i > k) {
+                    continue;
+                }
+                int len = 0;
+                for (; mark[i] != k; i = parent[i]) {
+                    stack[len++] = i;
+                    mark[i] = k;
+                }
+                while (len > 0) {
+                    int j = stack[--len];
+                    if (j == superStart[supernodeOf[j]]) {
+                        superRows[next[supernodeOf[j]]++] = k;
+                    }
+                }
+            }
+            if (k == superStart[supernodeOf[k]]) {
+                superRows[next[supernodeOf[k]]++] = k;
+            }
+        }
+        for (int s = 0; s < ns; ++s) {
+            Arrays.sort(superRows, rowPtr[s], rowPtr[s + 1]);
+        }
+
+        // Supernodal elimination tree
+        int[] superParent = new int[ns];
+        childPtr = new int[ns + 1];
+        int numRoots = 0;
+        for (int s = 0; s < ns; ++s) {
+            int last = superStart[s + 1] - 1;
+            superParent[s] = parent[last] < 0 ? -1 : supernodeOf[parent[last]];
+            if (superParent[s] < 0) {
+                ++numRoots;
+            } else {
+                ++childPtr[superParent[s] + 1];
+            }
+        }
+        for (int s = 0; s < ns; ++s) {
+            childPtr[s + 1] += childPtr[s];
+        }
+        children = new int[childPtr[ns]];
+        roots = new int[numRoots];
+        int[] nextChild = Arrays.copyOf(childPtr, ns);
+        numRoots = 0;
+        for (int s = 0; s < ns; ++s) {
+            if (superParent[s] < 0) {
+                roots[numRoots++] = s;
+            } else {
+                children[nextChild[superParent[s]]++] = s;
+            }
+        }
+
+        factor();
+    }
+
+    /**
+     * Refactors a matrix with the same sparsity pattern as the one given to the constructor. The symbolic analysis and
+     * the storage of {@code L} are reused.
+     *
+     * @param matrix The symmetric matrix to decompose.
+     * @return {@code true} if the matrix is positive definite.
+     * @throws IllegalArgumentException if the matrix does not have the sparsity pattern of the analyzed one.
+     */
+    public boolean decompose(MatrixSparse matrix) {
+        if (matrix.rows != n || matrix.cols != n
+                || !MatrixSparseUtils.hasPattern(matrix, analyzedColIdx, analyzedRows, adjust(gw, n))) {
+            throw new IllegalArgumentException("The matrix has a different sparsity pattern than the analyzed one.");
+        }
+        MatrixSparseUtils.permute(qinv, matrix, q, Ap);
+        return factor();
+    }
+
+    private boolean factor() {
+        isSPD = true;
+        if (parallel && n >= PARALLEL_THRESHOLD) {
+            ForkJoinPool.commonPool().invoke(new RecursiveTask<Void>() {
+                @Override
+                protected Void compute() {
+                    invokeAll(subtreeTasks(roots, 0, roots.length));
+                    return null;
+                }
+            });
+        } else {
+            for (int root : roots) {
+                factorSubtree(root);
+            }
+        }
+        return isSPD;
+    }
+
+    private List<RecursiveTask<double[]>> subtreeTasks(int[] nodes, int from, int to) {
+        List<RecursiveTask<double[]>> tasks = new ArrayList<>(to - from);
+        for (int c = from; c < to; ++c) {
+            final int s = nodes[c];
+            tasks.add(new RecursiveTask<double[]>() {
+                @Override
+                protected double[] compute() {
+                    return factorSubtree(s);
+                }
+            });
+        }
+        return tasks;
+    }
+
+    // Factors the subtree rooted at s and returns the update matrix of s
+    private double[] factorSubtree(int s) {
+        final int c0 = childPtr[s];
+        final int c1 = childPtr[s + 1];
+        double[][] updates = new double[c1 - c0][];
+        if (parallel && subtreeSize(s) >= PARALLEL_THRESHOLD && c1 - c0 > 1) {
+            List<RecursiveTask<double[]>> tasks = subtreeTasks(children, c0, c1);
+            RecursiveTask.invokeAll(tasks);
+            for (int c = 0; c < tasks.size(); ++c) {
+                updates[c] = tasks.get(c).join();
+            }
+        } else {
+            for (int c = c0; c < c1; ++c) {
+                updates[c - c0] = factorSubtree(children[c]);
+            }
+        }
+        return factorSupernode(s, updates);
+    }
+
+    // Number of columns in the subtree rooted at s. Subtrees are contiguous after the postorder.
+    private int subtreeSize(int s) {
+        int first = s;
+        while (childPtr[first + 1] > childPtr[first]) {
+            first = children[childPtr[first]];
+        }
+        return superStart[s + 1] - superStart[first];
+    }
+
+    private double[] factorSupernode(int s, double[][] updates) {
+        final int f = superStart[s];
+        final int w = superStart[s + 1] - f;
+        final int r0 = rowPtr[s];
+        final int h = rowPtr[s + 1] - r0;
+        final int m = h - w;
+
+        // Front, column major h x h, only the lower triangle is used
+        // h * h was checked against the array size limit by the constructor
+        double[] F = new double[h * h];
+        for (int jj = 0; jj < w; ++jj) {
+            int j = f + jj;
+            for (int p = Ap.col_idx[j]; p < Ap.col_idx[j + 1]; ++p) {
+                int i = Ap.nz_rows[p];
+                if (i >= j) {
+                    F[Arrays.binarySearch(superRows, r0 + jj, r0 + h, i) - r0 + jj * h] += Ap.nz_values[p];
+                }
+            }
+        }
+
+        // Extend-add of the update matrices of the children
+        int[] relative = new int[h];
+        for (int c = childPtr[s]; c < childPtr[s + 1]; ++c) {
+            int child = children[c];
+            double[] U = updates[c - childPtr[s]];
+            int cw = superStart[child + 1] - superStart[child];
+            int cr0 = rowPtr[child] + cw;
+            int cm = rowPtr[child + 1] - cr0;
+            for (int k = 0, t = 0; k < cm; ++k) {
+                int row = superRows[cr0 + k];
+                while (superRows[r0 + t] != row) {
+                    ++t;
+                }
+                relative[k] = t;
+            }
+            for (int jj = 0; jj < cm; ++jj) {
+                int col = relative[jj] * h;
+                int offset = jj * cm;
+                for (int ii = jj; ii < cm; ++ii) {
+                    F[relative[ii] + col] += U[ii + offset];
+                }
+            }
+            updates[c - childPtr[s]] = null;
+        }
+
+        // Dense partial Cholesky of the first w columns
+        for (int k = 0; k < w; ++k) {
+            int ck = k * h;
+            double d = F[k + ck];
+            if (!(d > 0.0)) {
+                isSPD = false;
+                d = Double.NaN;
+            }
+            d = Math.sqrt(d);
+            F[k + ck] = d;
+            for (int i = k + 1; i < h; ++i) {
+                F[i + ck] /= d;
+            }
+            for (int j = k + 1; j < w; ++j) {
+                double a = F[j + ck];
+                if (a == 0.0) {
+                    continue;
+                }
+                int cj = j * h;
+                for (int i = j; i < h; ++i) {
+                    F[i + cj] -= F[i + ck] * a;
+                }
+            }
+        }
+        System.arraycopy(F, 0, values, (int) valuePtr[s], h * w);
+        if (m == 0) {
+            return null;
+        }
+
+        // Schur complement, U = F22 - L21 * L21^T, one column of U at a time to keep it in cache
+        double[] U = new double[m * m];
+        for (int jj = 0; jj < m; ++jj) {
+            int cu = jj * m;
+            int cf = (w + jj) * h + w;
+            for (int ii = jj; ii < m; ++ii) {
+                U[ii + cu] = F[ii + cf];
+            }
+            for (int k = 0; k < w; ++k) {
+                int ck = k * h + w;
+                double a = F[jj + ck];
+                if (a == 0.0) {
+                    continue;
+                }
+                for (int ii = jj; ii < m; ++ii) {
+                    U[ii + cu] -= F[ii + ck] * a;
+                }
+            }
+        }
+        return U;
+    }
+
+    public boolean isSPD() {
+        return isSPD;
+    }
+
+    /**
+     * @return The number of supernodes.
+     */
+    public int getSupernodeCount() {
+        return numSupernodes;
+    }
+
+    /**
+     * The symmetric permutation applied to the matrix before the decomposition, the fill-reducing ordering followed
+     * by a postorder of the elimination tree. Row and column {@code k} of {@code Q^T * A * Q} are row and column
+     * {@code q[k]} of {@code A}.
+     *
+     * @return A copy of the permutation.
+     */
+    public int[] getColumnPermutation() {
+        return q.clone();
+    }
+
+    /**
+     * The Cholesky factor of the permuted matrix {@code Q^T * A * Q}.
+     *
+     * @return L in compressed column format.
+     */
+    public MatrixSparse getL() {
+        MatrixSparse L = new MatrixSparse(n, n, values.length);
+        int nz = 0;
+        for (int s = 0; s < numSupernodes; ++s) {
+            int f = superStart[s];
+            int r0 = rowPtr[s];
+            int h = rowPtr[s + 1] - r0;
+            for (int jj = 0; jj < superStart[s + 1] - f; ++jj) {
+                L.col_idx[f + jj] = nz;
+                int offset = (int) valuePtr[s] + jj * h;
+                for (int ii = jj; ii < h; ++ii) {
+                    L.nz_rows[nz] = superRows[r0 + ii];
+                    L.nz_values[nz++] = values[offset + ii];
+                }
+            }
+        }
+        L.col_idx[n] = nz;
+        L.nz_length = nz;
+        L.indicesSorted = true;
+        return L;
+    }
+
+    /**
+     * Solves {@code A * x = b}.
+     *
+     * @param b The right hand side.
+     * @param x (Output) The solution. Can be the same array as {@code b}.
+     */
+    public void solve(double[] b, double[] x) {
+        if (b.length != n || x.length != n) {
+            throw new IllegalArgumentException("Matrix dimensions and b dimensions must agree.");
+        }
+        if (!isSPD) {
+            throw new RuntimeException("Matrix is not symmetric positive definite.");
+        }
+        double[] y = new double[n];
+        for (int k = 0; k < n; ++k) {
+            y[k] = b[q[k]];
+        }
+        // L * z = y
+        for (int s = 0; s < numSupernodes; ++s) {
+            int f = superStart[s];
+            int r0 = rowPtr[s];
+            int h = rowPtr[s + 1] - r0;
+            for (int jj = 0; jj < superStart[s + 1] - f; ++jj) {
+                int offset = (int) valuePtr[s] + jj * h;
+                double yj = y[f + jj] /= values[offset + jj];
+                for (int ii = jj + 1; ii < h; ++ii) {
+                    y[superRows[r0 + ii]] -= values[offset + ii] * yj;
+                }
+            }
+        }
+        // L^T * y = z
+        for (int s = numSupernodes - 1; s >= 0; --s) {
+            int f = superStart[s];
+            int r0 = rowPtr[s];
+            int h = rowPtr[s + 1] - r0;
+            for (int jj = superStart[s + 1] - f - 1; jj >= 0; --jj) {
+                int offset = (int) valuePtr[s] + jj * h;
+                double sum = y[f + jj];
+                for (int ii = jj + 1; ii < h; ++ii) {
+                    sum -= values[offset + ii] * y[superRows[r0 + ii]];
+                }
+                y[f + jj] = sum / values[offset + jj];
+            }
+        }
+        for (int k = 0; k < n; ++k) {
+            x[q[k]] = y[k];
+        }
+    }
+
+    public MatrixSparse solve(double[] b) {
+        double[] x = new double[n];
+        solve(b, x);
+        double[][] matrix = new double[n][1];
+        for (int i = 0; i < n; i++) {
+            matrix[i][0] = x[i];
+        }
+        return MatrixSparse.from2DArray(matrix, 0);
+    }
+
+    public MatrixSparse solve(MatrixSparse B) {
+        if (B.rows != n) {
+            throw new IllegalArgumentException("Matrix row dimensions must agree.");
+        }
+        double[][] X = new double[n][B.cols];
+        double[] b = new double[n];
+        for (int j = 0; j < B.cols; ++j) {
+            Arrays.fill(b, 0.0);
+            for (int p = B.col_idx[j]; p < B.col_idx[j + 1]; ++p) {
+                b[B.nz_rows[p]] += B.nz_values[p];
+            }
+            solve(b, b);
+            for (int i = 0; i < n; ++i) {
+                X[i][j] = b[i];
+            }
+        }
+        return MatrixSparse.from2DArray(X, 0);
+    }
+}
@@ -0,0 +1,411 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import com.wildbitsfoundry.etk4j.constant.ConstantsETK;
+import com.wildbitsfoundry.etk4j.math.MathETK;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.IntStream;
+
+/**
+ * Cuppen's divide and conquer eigensolver for symmetric tridiagonal matrices.
+ * <p>
+ * The matrix is split in two halves by a rank one tear, the halves are solved recursively and their eigensystems are
+ * merged by solving the secular equation. Eigenvalues with a negligible weight, or close to another eigenvalue, are
+ * deflated and cost nothing to merge, which is what makes the method faster than QL iteration for large problems.
+ * The eigenvectors are recomputed from the secular roots (Gu and Eisenstat) so they stay orthogonal.
+ * </p>
+ * References:
+ * <pre>
+ *     Cuppen, J. J. M. A divide and conquer method for the symmetric tridiagonal eigenproblem. Numer. Math. 36 (1981).
+ *     Gu, M. and Eisenstat, S. C. A divide-and-conquer algorithm for the symmetric tridiagonal eigenproblem.
+ *     SIAM J. Matrix Anal. Appl. 16 (1995).
+ * </pre>
+ */
+final class TridiagonalDivideAndConquer {
+
+    // Problems this size or smaller are solved with QL iteration
+    static final int BASE_SIZE = 32;
+    // Halves this size or larger are solved in parallel
+    private static final int PARALLEL_THRESHOLD = 256;
+    private static final int MAX_SECULAR_ITERATIONS = 100;
+
+    private TridiagonalDivideAndConquer() {
+    }
+
+    /**
+     * Eigenvalues and eigenvectors of a symmetric tridiagonal matrix.
+     *
+     * @param d (Input/Output) The diagonal, overwritten with the eigenvalues in ascending order.
+     * @param e The sub diagonal, {@code e[i]} couples rows {@code i - 1} and {@code i}. {@code e[0]} is not used.
+     * @return The eigenvectors as the columns of an {@code n x n} row major array.
+     */
+    static double[] eigen(double[] d, double[] e) {
+        if (d.length >= PARALLEL_THRESHOLD) {
+            return ForkJoinPool.commonPool().invoke(new Task(d, e));
+        }
+        return solve(d, e);
+    }
+
+    private static final class Task extends RecursiveTask<double[]> {
+        private static final long serialVersionUID = 1L;
+
+        private final double[] d;
+        private final double[] e;
+
+        Task(double[] d, double[] e) {
+            this.d = d;
+            this.e = e;
+        }
+
+        @Override
+        protected double[] compute() {
+            return solve(d, e);
+        }
+    }
+
+    private static double[] solve(double[] d, double[] e) {
+        final int n = d.length;
+        if (n <= BASE_SIZE) {
+            double[] Q = new double[n * n];
+            for (int i = 0; i < n; ++i) {
+                Q[i * n + i] = 1.0;
+            }
+            EigenvalueDecompositionDense.tql2(n, d, e.clone(), Q);
+            return Q;
+        }
+        // T = diag(T1, T2) + rho * v * v^T with v = e_(m-1) + e_m
+        final int m = n / 2;
+        final double rho = e[m];
+        double[] d1 = Arrays.copyOfRange(d, 0, m);
+        double[] e1 = Arrays.copyOfRange(e, 0, m);
+        double[] d2 = Arrays.copyOfRange(d, m, n);
+        double[] e2 = Arrays.copyOfRange(e, m, n);
+        d1[m - 1] -= rho;
+        d2[0] -= rho;
+        e2[0] = 0.0;
+
+        double[] Q1;
+        double[] Q2;
+        if (n >= PARALLEL_THRESHOLD) {
+            Task t1 = new Task(d1, e1);
+            Task t2 = new Task(d2, e2);
+            RecursiveTask.invokeAll(t1, t2);
+            Q1 = t1.join();
+            Q2 = t2.join();
+        } else {
+            Q1 = solve(d1, e1);
+            Q2 = solve(d2, e2);
+        }
+        return merge(d, m, rho, d1, Q1, d2, Q2);
+    }
+
+    /*
+     * Eigensystem of diag(Q1, Q2) * (diag(D1, D2) + rho * z * z^T) * diag(Q1, Q2)^T where z is the last row of Q1
+     * followed by the first row of Q2.
+     */
+    private static double[] merge(double[] d, int m, double rho, double[] d1, double[] Q1, double[] d2, double[] Q2) {
+        final int n = d.length;
+        final int m2 = n - m;
+        final double[] Q = new double[n * n];
+        final double[] z = new double[n];
+        for (int i = 0; i < m; ++i) {
+            System.arraycopy(Q1, i * m, Q, i * n, m);
+            z[i] = Q1[(m - 1) * m + i];
+        }
+        for (int i = 0; i < m2; ++i) {
+            System.arraycopy(Q2, i * m2, Q, (m + i) * n + m, m2);
+            z[m + i] = Q2[i];
+        }
+        double[] dd = new double[n];
+        System.arraycopy(d1, 0, dd, 0, m);
+        System.arraycopy(d2, 0, dd, m, m2);
+
+        // Work with rho > 0 and ||z|| = 1: the eigenvalues of D + rho * z * z^T are minus those of -D - rho * z * z^T
+        final boolean flip = rho < 0.0;
+        double norm2 = 0.0;
+        for (int i = 0; i < n; ++i) {
+            norm2 += z[i] * z[i];
+        }
+        final double scale = Math.sqrt(norm2);
+        final double r = Math.abs(rho) * norm2;
+        double dmax = 0.0;
+        for (int i = 0; i < n; ++i) {
+            if (flip) {
+                dd[i] = -dd[i];
+            }
+            z[i] /= scale;
+            dmax = Math.max(dmax, Math.abs(dd[i]));
+        }
+
+        // Sort the poles, col[j] is the column of Q of the j-th smallest
+        final int[] col = IntStream.range(0, n).boxed().sorted((a, b) -> Double.compare(dd[a], dd[b]))
+                .mapToInt(Integer::intValue).toArray();
+        final double[] ds = new double[n];
+        final double[] zs = new double[n];
+        for (int j = 0; j < n; ++j) {
+            ds[j] = dd[col[j]];
+            zs[j] = z[col[j]];
+        }
+
+        // Deflation
+        final double tol = 8.0 * ConstantsETK.DOUBLE_EPS * Math.max(dmax, r);
+        int[] kept = new int[n];
+        int k = 0;
+        boolean[] deflated = new boolean[n];
+        int prev = -1;
+        for (int j = 0; j < n; ++j) {
+            if (r * Math.abs(zs[j]) <= tol) {
+                deflated[j] = true;
+                continue;
+            }
+            if (prev >= 0) {
+                double h = MathETK.hypot(zs[prev], zs[j]);
+                double c = zs[j] / h;
+                double s = zs[prev] / h;
+                if (Math.abs((ds[j] - ds[prev]) * c * s) <= tol) {
+                    // Rotate z[prev] into z[j] and deflate prev
+                    double dp = ds[prev] * c * c + ds[j] * s * s;
+                    ds[j] = ds[prev] * s * s + ds[j] * c * c;
+                    ds[prev] = dp;
+                    zs[prev] = 0.0;
+                    zs[j] = h;
+                    rotateColumns(Q, n, col[prev], col[j], c, s);
+                    deflated[prev] = true;
+                    prev = j;
+                    continue;
+                }
+                kept[k++] = prev;
+            }
+            prev = j;
+        }
+        if (prev >= 0) {
+            kept[k++] = prev;
+        }
+
+        // Secular equation 1 + r * sum(z_i^2 / (d_i - lambda)) = 0 on the kept poles
+        final double[] dk = new double[k];
+        final double[] zk = new double[k];
+        for (int i = 0; i < k; ++i) {
+            dk[i] = ds[kept[i]];
+            zk[i] = zs[kept[i]];
+        }
+        final int[] origin = new int[k];
+        final double[] tau = new double[k];
+        for (int j = 0; j < k; ++j) {
+            solveSecular(j, dk, zk, r, origin, tau);
+        }
+        // delta[i * k + j] = d_i - lambda_j, computed from the closest pole to keep its relative accuracy
+        final double[] delta = new double[k * k];
+        for (int i = 0; i < k; ++i) {
+            for (int j = 0; j < k; ++j) {
+                delta[i * k + j] = (dk[i] - dk[origin[j]]) - tau[j];
+            }
+        }
+        // Gu-Eisenstat: the z for which the computed roots are exact
+        final double[] zhat = new double[k];
+        for (int i = 0; i < k; ++i) {
+            double p = -delta[i * k + k - 1] / r;
+            for (int j = 0; j < i; ++j) {
+                p *= -delta[i * k + j] / (dk[j] - dk[i]);
+            }
+            for (int j = i + 1; j < k; ++j) {
+                p *= -delta[i * k + j - 1] / (dk[j] - dk[i]);
+            }
+            zhat[i] = Math.copySign(Math.sqrt(Math.abs(p)), zk[i]);
+        }
+        // Eigenvectors of D + r * zhat * zhat^T
+        final double[] U = new double[k * k];
+        for (int j = 0; j < k; ++j) {
+            double s = 0.0;
+            for (int i = 0; i < k; ++i) {
+                double u = zhat[i] / delta[i * k + j];
+                U[i * k + j] = u;
+                s += u * u;
+            }
+            s = Math.sqrt(s);
+            for (int i = 0; i < k; ++i) {
+                U[i * k + j] /= s;
+            }
+        }
+
+        // Final order of the eigenvalues: secular roots first, deflated poles after
+        final double[] values = new double[n];
+        final int[] source = new int[n];
+        for (int j = 0; j < k; ++j) {
+            values[j] = dk[origin[j]] + tau[j];
+            source[j] = -1;
+        }
+        int count = k;
+        for (int j = 0; j < n; ++j) {
+            if (deflated[j]) {
+                values[count] = ds[j];
+                source[count++] = col[j];
+            }
+        }
+        if (flip) {
+            for (int j = 0; j < n; ++j) {
+                values[j] = -values[j];
+            }
+        }
+        final int[] order = IntStream.range(0, n).boxed().sorted((a, b) -> Double.compare(values[a], values[b]))
+                .mapToInt(Integer::intValue).toArray();
+        final int[] position = new int[n];
+        for (int j = 0; j < n; ++j) {
+            position[order[j]] = j;
+            d[j] = values[order[j]];
+        }
+
+        // Q[:, kept] * U and the deflated columns of Q, in their final positions
+        final int[] keptCol = new int[k];
+        for (int i = 0; i < k; ++i) {
+            keptCol[i] = col[kept[i]];
+        }
+        final int kk = k;
+        final double[] result = new double[n * n];
+        IntStream rows = IntStream.range(0, n);
+        if ((long) n * k * k >= (long) PARALLEL_THRESHOLD * PARALLEL_THRESHOLD * PARALLEL_THRESHOLD) {
+            rows = rows.parallel();
+        }
+        rows.forEach(row -> {
+            final int rn = row * n;
+            double[] tmp = new double[kk];
+            for (int i = 0; i < kk; ++i) {
+                final double q = Q[rn + keptCol[i]];
+                if (q == 0.0) {
+                    continue;
+                }
+                for (int j = 0, ik = i * kk; j < kk; ++j) {
+                    tmp[j] += q * U[ik + j];
+                }
+            }
+            for (int j = 0; j < kk; ++j) {
+                result[rn + position[j]] = tmp[j];
+            }
+            for (int j = kk; j < n; ++j) {
+                result[rn + position[j]] = Q[rn + source[j]];
+            }
+        });
+        return result;
+    }
+
+    // Columns a, b of Q become c * a - s * b and s * a + c * b
+    private static void rotateColumns(double[] Q, int n, int a, int b, double c, double s) {
+        for (int i = 0; i < n; ++i) {
+            final double qa = Q[i * n + a];
+            final double qb = Q[i * n + b];
+            Q[i * n + a] = c * qa - s * qb;
+            Q[i * n + b] = s * qa + c * qb;
+        }
+    }
+
+    /*
+     * j-th root of f(lambda) = 1 / r + sum(z_i^2 / (d_i - lambda)), d ascending, r > 0. The root lies between d_j and
+     * d_(j+1), or d_j and d_j + r for the last one, and is returned as tau[j] relative to the closest pole origin[j].
+     * The iteration interpolates the two poles around the root with rational functions (Bunch, Nielsen and Sorensen)
+     * and falls back to bisection when the step leaves the bracket.
+     */
+    private static void solveSecular(int j, double[] d, double[] z, double r, int[] origin, double[] tau) {
+        final int k = d.length;
+        final double eps = ConstantsETK.DOUBLE_EPS;
+        final boolean last = j == k - 1;
+        double lo;
+        double hi;
+        int o;
+        if (last) {
+            double zz = 0.0;
+            for (int i = 0; i < k; ++i) {
+                zz += z[i] * z[i];
+            }
+            o = j;
+            lo = 0.0;
+            hi = r * zz;
+        } else {
+            final double mid = 0.5 * (d[j + 1] - d[j]);
+            double f = 1.0 / r;
+            for (int i = 0; i < k; ++i) {
+                f += z[i] * z[i] / ((d[i] - d[j]) - mid);
+            }
+            if (f >= 0.0) {
+                o = j;
+                lo = 0.0;
+                hi = mid;
+            } else {
+                o = j + 1;
+                lo = (d[j] - d[j + 1]) + mid;
+                hi = 0.0;
+            }
+        }
+        final double dOrigin = d[o];
+        final double dj = d[j] - dOrigin;
+        final double dj1 = last ? 0.0 : d[j + 1] - dOrigin;
+
+        double t = 0.5 * (lo + hi);
+        for (int iter = 0; iter < MAX_SECULAR_ITERATIONS; ++iter) {
+            double psi = 0.0;
+            double dpsi = 0.0;
+            double phi = 0.0;
+            double dphi = 0.0;
+            for (int i = 0; i < k; ++i) {
+                final double di = (d[i] - dOrigin) - t;
+                final double w = z[i] * z[i] / di;
+                if (i <= j) {
+                    psi += w;
+                    dpsi += w / di;
+                } else {
+                    phi += w;
+                    dphi += w / di;
+                }
+            }
+            final double f = 1.0 / r + psi + phi;
+            // Rounding error bound of f, all the terms of psi are negative and those of phi positive
+            if (Math.abs(f) <= eps * (8.0 * (phi - psi) + 1.0 / r + Math.abs(t) * (dpsi + dphi))) {
+                break;
+            }
+            if (f < 0.0) {
+                lo = t;
+            } else {
+                hi = t;
+            }
+
+            final double delta1 = dj - t;
+            double eta;
+            if (last) {
+                // c + q / (delta1 - eta) = 0
+                final double c = 1.0 / r + psi - dpsi * delta1;
+                final double q = dpsi * delta1 * delta1;
+                eta = c != 0.0 ? delta1 + q / c : Double.NaN;
+            } else {
+                // c + q / (delta1 - eta) + s / (delta2 - eta) = 0
+                final double delta2 = dj1 - t;
+                final double c = 1.0 / r + psi - dpsi * delta1 + phi - dphi * delta2;
+                final double q = dpsi * delta1 * delta1;
+                final double s = dphi * delta2 * delta2;
+                final double a = c;
+                final double b = -(c * (delta1 + delta2) + q + s);
+                final double cc = c * delta1 * delta2 + q * delta2 + s * delta1;
+                if (a == 0.0) {
+                    eta = -cc / b;
+                } else {
+                    final double disc = Math.sqrt(Math.max(0.0, b * b - 4.0 * a * cc));
+                    final double r1 = (-b - Math.copySign(disc, b)) / (2.0 * a);
+                    final double r2 = r1 != 0.0 ? cc / (a * r1) : Double.NaN;
+                    eta = t + r1 > lo && t + r1 < hi ? r1 : r2;
+                }
+            }
+            double next = t + eta;
+            if (!(next > lo && next < hi)) {
+                next = 0.5 * (lo + hi);
+            }
+            final boolean converged = Math.abs(next - t) <= 2.0 * eps * Math.abs(next)
+                    || hi - lo <= 2.0 * eps * Math.max(Math.abs(lo), Math.abs(hi));
+            t = next;
+            if (converged) {
+                break;
+            }
+        }
+        origin[j] = o;
+        tau[j] = t;
+    }
+}
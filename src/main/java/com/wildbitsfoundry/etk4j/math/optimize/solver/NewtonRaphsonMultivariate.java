@@ -1,11 +1,13 @@
 package com.wildbitsfoundry.etk4j.math.optimize.solver;
 
 import com.wildbitsfoundry.etk4j.math.calculus.JacobianCalculation5PointStencilStrategy;
+import com.wildbitsfoundry.etk4j.math.calculus.JacobianCalculationSparseStrategy;
 import com.wildbitsfoundry.etk4j.math.calculus.JacobianCalculationStrategy;
 import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
 import com.wildbitsfoundry.etk4j.math.linearalgebra.GaussianEliminationSolver;
 import com.wildbitsfoundry.etk4j.math.linearalgebra.LUDecompositionDense;
 import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixDense;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixSparse;
 import com.wildbitsfoundry.etk4j.math.optimize.OptimizerStatusType;
 import com.wildbitsfoundry.etk4j.util.DoubleArrays;
 
@@ -93,10 +95,17 @@ public class NewtonRaphsonMultivariate {
                 solverResults.setNumberOfIterations(iter);
                 return solverResults;
             }
-            // Compute the Jacobian matrix at current x
-            double[][] J = jacobian != null ? evaluateJacobian(jacobian, x) : jacobianCalculationStrategy.calculateJacobian(functions, x, h);
-            // Solve for the Newton step: J(x) * dx = -F(x)
-            double[] dx = GaussianEliminationSolver.solve(J, DoubleArrays.multiplyElementWise(f, -1));
+            // Compute the Jacobian matrix at current x and solve for the Newton step: J(x) * dx = -F(x)
+            double[] dx;
+            if (jacobian == null && jacobianCalculationStrategy instanceof JacobianCalculationSparseStrategy) {
+                // Keep sparse Jacobians sparse all the way through the linear solve
+                MatrixSparse J = ((JacobianCalculationSparseStrategy) jacobianCalculationStrategy)
+                        .calculateSparseJacobian(functions, x, h);
+                dx = J.LU().solve(DoubleArrays.multiplyElementWise(f, -1)).getArrayDense();
+            } else {
+                double[][] J = jacobian != null ? evaluateJacobian(jacobian, x) : jacobianCalculationStrategy.calculateJacobian(functions, x, h);
+                dx = GaussianEliminationSolver.solve(J, DoubleArrays.multiplyElementWise(f, -1));
+            }
             // Perform a line search to find an optimal step size double
             // alpha0 = initial step size
             // c1 Armijo conditions
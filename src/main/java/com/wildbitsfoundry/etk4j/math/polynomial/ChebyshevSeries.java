@@ -0,0 +1,472 @@
+package com.wildbitsfoundry.etk4j.math.polynomial;
+
+import com.wildbitsfoundry.etk4j.math.function.DifferentiableFunction;
+import com.wildbitsfoundry.etk4j.math.function.IntegrableFunction;
+import com.wildbitsfoundry.etk4j.math.function.UnivariateFunction;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.EigenvalueDecompositionDense;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixDense;
+import com.wildbitsfoundry.etk4j.signal.fft.FFT;
+
+import java.util.Arrays;
+
+/**
+ * The {@code ChebyshevSeries} class represents a function on an interval [a, b] as a truncated Chebyshev series
+ * <pre>
+ *     f(x) = c[0] * T0(t) + c[1] * T1(t) + ... + c[n] * Tn(t),  t = (2 * x - a - b) / (b - a)
+ * </pre>
+ * Note that, unlike {@link ChebyshevPolynomial}, the coefficients are stored in ascending order.
+ * <p>
+ * The series is built by sampling the function at Chebyshev points of the second kind and transforming the samples
+ * with a DCT computed by the {@link FFT}. The adaptive fit doubles the number of points until the tail of the series
+ * falls below the tolerance, reusing the samples of the previous grid, and then chops the negligible coefficients. For
+ * smooth functions this yields an approximation accurate to about machine precision that can be evaluated in O(n)
+ * with the Clenshaw recurrence, as well as differentiated, integrated and searched for roots.
+ */
+public class ChebyshevSeries implements UnivariateFunction, DifferentiableFunction, IntegrableFunction {
+
+    /**
+     * The default relative tolerance of the adaptive fit.
+     */
+    public static final double DEFAULT_TOLERANCE = 1e-14;
+    private static final int MIN_POINTS = 17;
+    private static final int MAX_POINTS = 65537;
+    // Series of this degree or less are solved directly with the colleague matrix
+    private static final int MAX_ROOT_DEGREE = 50;
+
+    private final double a;
+    private final double b;
+    private final double[] coefficients;
+    private ChebyshevSeries derivative = null;
+
+    private ChebyshevSeries(double a, double b, double[] coefficients) {
+        this.a = a;
+        this.b = b;
+        this.coefficients = coefficients;
+    }
+
+    /**
+     * Creates a series from its coefficients.
+     *
+     * @param a            The lower end of the interval.
+     * @param b            The upper end of the interval.
+     * @param coefficients The coefficients in ascending order, {@code coefficients[k]} multiplies Tk. A copy of this
+     *                     array is made internally.
+     * @return A new Chebyshev series.
+     */
+    public static ChebyshevSeries fromCoefficients(double a, double b, double[] coefficients) {
+        checkInterval(a, b);
+        if (coefficients.length == 0) {
+            throw new IllegalArgumentException("At least one coefficient is required.");
+        }
+        return new ChebyshevSeries(a, b, Arrays.copyOf(coefficients, coefficients.length));
+    }
+
+    /**
+     * Approximates a function on an interval to about machine precision.
+     *
+     * @param f The function to approximate.
+     * @param a The lower end of the interval.
+     * @param b The upper end of the interval.
+     * @return A new Chebyshev series.
+     * @see #fit(UnivariateFunction, double, double, double)
+     */
+    public static ChebyshevSeries fit(UnivariateFunction f, double a, double b) {
+        return fit(f, a, b, DEFAULT_TOLERANCE);
+    }
+
+    /**
+     * Approximates a function on an interval. The number of Chebyshev points is doubled, starting at 17, until the
+     * coefficients in the tail of the series are smaller than {@code tolerance} times the largest coefficient. Each
+     * new grid contains the previous one, so the function is evaluated at most once per point.
+     *
+     * @param f         The function to approximate.
+     * @param a         The lower end of the interval.
+     * @param b         The upper end of the interval.
+     * @param tolerance The relative tolerance.
+     * @return A new Chebyshev series.
+     * @throws IllegalStateException If the series does not converge with 65537 points. This is usually the case when
+     *                               the function is not smooth over the interval.
+     */
+    public static ChebyshevSeries fit(UnivariateFunction f, double a, double b, double tolerance) {
+        checkInterval(a, b);
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("The tolerance must be greater than zero.");
+        }
+        double[] values = sample(f, a, b, MIN_POINTS, null);
+        while (true) {
+            double[] c = computeCoefficients(values);
+            int length = chop(c, tolerance);
+            if (length > 0) {
+                return new ChebyshevSeries(a, b, Arrays.copyOf(c, length));
+            }
+            if (values.length >= MAX_POINTS) {
+                throw new IllegalStateException("The Chebyshev series did not converge. Check that the function " +
+                        "is smooth over the interval.");
+            }
+            values = sample(f, a, b, 2 * values.length - 1, values);
+        }
+    }
+
+    /**
+     * Interpolates a function at {@code n} Chebyshev points of the second kind without checking for convergence.
+     *
+     * @param f The function to approximate.
+     * @param a The lower end of the interval.
+     * @param b The upper end of the interval.
+     * @param n The number of points. The series has {@code n} coefficients.
+     * @return A new Chebyshev series.
+     */
+    public static ChebyshevSeries interpolate(UnivariateFunction f, double a, double b, int n) {
+        checkInterval(a, b);
+        if (n < 1) {
+            throw new IllegalArgumentException("At least one point is required.");
+        }
+        if (n == 1) {
+            return new ChebyshevSeries(a, b, new double[] { f.evaluateAt(0.5 * (a + b)) });
+        }
+        double[] values = new double[n];
+        double mid = 0.5 * (a + b);
+        double half = 0.5 * (b - a);
+        for (int j = 0; j < n; ++j) {
+            values[j] = f.evaluateAt(mid + half * chebyshevPoint(j, n - 1));
+        }
+        return new ChebyshevSeries(a, b, computeCoefficients(values));
+    }
+
+    private static void checkInterval(double a, double b) {
+        if (!(b > a) || Double.isInfinite(a) || Double.isInfinite(b)) {
+            throw new IllegalArgumentException("The interval must be finite and b must be greater than a.");
+        }
+    }
+
+    /*
+     * cos(j * pi / n) computed in a way that is symmetric and exact at the end points and the midpoint.
+     */
+    private static double chebyshevPoint(int j, int n) {
+        return Math.sin(Math.PI * (n - 2 * j) / (2.0 * n));
+    }
+
+    /*
+     * Samples f at the n Chebyshev points, reusing the values at the even points if the previous grid is given.
+     */
+    private static double[] sample(UnivariateFunction f, double a, double b, int n, double[] previous) {
+        double[] values = new double[n];
+        double mid = 0.5 * (a + b);
+        double half = 0.5 * (b - a);
+        for (int j = 0; j < n; ++j) {
+            if (previous != null && j % 2 == 0) {
+                values[j] = previous[j / 2];
+            } else {
+                values[j] = f.evaluateAt(mid + half * chebyshevPoint(j, n - 1));
+            }
+        }
+        return values;
+    }
+
+    /*
+     * DCT-I of the samples through an FFT of the even extension. The number of samples must be 2^k + 1 to use the
+     * FFT, otherwise the transform is computed directly.
+     */
+    private static double[] computeCoefficients(double[] values) {
+        final int n = values.length - 1;
+        double[] c = new double[n + 1];
+        if (n == 0) {
+            c[0] = values[0];
+            return c;
+        }
+        if (Integer.bitCount(n) == 1) {
+            final int m = 2 * n;
+            double[] real = new double[m];
+            double[] imag = new double[m];
+            for (int j = 0; j <= n; ++j) {
+                real[j] = values[j];
+            }
+            for (int j = 1; j < n; ++j) {
+                real[m - j] = values[j];
+            }
+            new FFT(m).direct(real, imag);
+            for (int k = 0; k <= n; ++k) {
+                c[k] = real[k] / n;
+            }
+        } else {
+            for (int k = 0; k <= n; ++k) {
+                double sum = 0.5 * (values[0] + (k % 2 == 0 ? values[n] : -values[n]));
+                for (int j = 1; j < n; ++j) {
+                    sum += values[j] * Math.cos(Math.PI * j * k / n);
+                }
+                c[k] = 2.0 * sum / n;
+            }
+        }
+        c[0] *= 0.5;
+        c[n] *= 0.5;
+        return c;
+    }
+
+    /*
+     * Returns the number of coefficients to keep if the tail of the series is below the tolerance, or 0 if the series
+     * has not converged yet.
+     */
+    private static int chop(double[] c, double tolerance) {
+        double scale = 0.0;
+        for (double v : c) {
+            scale = Math.max(scale, Math.abs(v));
+        }
+        if (scale == 0.0) {
+            return 1;
+        }
+        final double threshold = tolerance * scale;
+        final int tail = Math.max(4, c.length / 8);
+        for (int k = c.length - tail; k < c.length; ++k) {
+            if (Math.abs(c[k]) > threshold) {
+                return 0;
+            }
+        }
+        int length = c.length;
+        while (length > 1 && Math.abs(c[length - 1]) <= threshold) {
+            --length;
+        }
+        return length;
+    }
+
+    public double getLowerBound() {
+        return a;
+    }
+
+    public double getUpperBound() {
+        return b;
+    }
+
+    /**
+     * The coefficients of the series in ascending order.
+     *
+     * @return A copy of the coefficients.
+     */
+    public double[] getCoefficients() {
+        return Arrays.copyOf(coefficients, coefficients.length);
+    }
+
+    /**
+     * The degree of the series.
+     *
+     * @return The number of coefficients minus one.
+     */
+    public int degree() {
+        return coefficients.length - 1;
+    }
+
+    /**
+     * Evaluates the series with the Clenshaw recurrence. Points outside of [a, b] are evaluated by extending the
+     * series, which quickly loses accuracy away from the interval.
+     *
+     * @param x The point at which to evaluate the series.
+     * @return The value of the series at {@code x}.
+     */
+    @Override
+    public double evaluateAt(double x) {
+        return clenshaw(coefficients, (2.0 * x - a - b) / (b - a));
+    }
+
+    /**
+     * Evaluates the series at several points.
+     *
+     * @param x   The points at which to evaluate the series.
+     * @param out Output array of the same length as {@code x}.
+     */
+    public void evaluateAt(double[] x, double[] out) {
+        final double scale = 2.0 / (b - a);
+        final double shift = (a + b) / (b - a);
+        for (int i = 0; i < x.length; ++i) {
+            out[i] = clenshaw(coefficients, x[i] * scale - shift);
+        }
+    }
+
+    private static double clenshaw(double[] c, double t) {
+        final double t2 = 2.0 * t;
+        double b1 = 0.0;
+        double b2 = 0.0;
+        for (int k = c.length - 1; k >= 1; --k) {
+            double tmp = c[k] + t2 * b1 - b2;
+            b2 = b1;
+            b1 = tmp;
+        }
+        return c[0] + t * b1 - b2;
+    }
+
+    /**
+     * The derivative of the series.
+     *
+     * @return A new series of one degree less.
+     */
+    public ChebyshevSeries derivative() {
+        final int n = coefficients.length - 1;
+        if (n == 0) {
+            return new ChebyshevSeries(a, b, new double[] { 0.0 });
+        }
+        double[] d = new double[n];
+        final double scale = 2.0 / (b - a);
+        // d[k - 1] = d[k + 1] + 2 * k * c[k]
+        double dk1 = 0.0;
+        double dk2 = 0.0;
+        for (int k = n; k >= 1; --k) {
+            double dk = dk2 + 2.0 * k * coefficients[k];
+            d[k - 1] = dk * scale;
+            dk2 = dk1;
+            dk1 = dk;
+        }
+        d[0] *= 0.5;
+        return new ChebyshevSeries(a, b, d);
+    }
+
+    /**
+     * The antiderivative of the series that is zero at the lower end of the interval.
+     *
+     * @return A new series of one degree more.
+     */
+    public ChebyshevSeries integral() {
+        final int n = coefficients.length;
+        double[] c = Arrays.copyOf(coefficients, n + 2);
+        double[] result = new double[n + 1];
+        final double scale = 0.5 * (b - a);
+        result[1] = (2.0 * c[0] - c[2]) * 0.5 * scale;
+        for (int k = 2; k <= n; ++k) {
+            result[k] = (c[k - 1] - c[k + 1]) / (2.0 * k) * scale;
+        }
+        // T_k(-1) = (-1)^k
+        double atLowerBound = 0.0;
+        for (int k = 1; k <= n; ++k) {
+            atLowerBound += k % 2 == 0 ? result[k] : -result[k];
+        }
+        result[0] = -atLowerBound;
+        return new ChebyshevSeries(a, b, result);
+    }
+
+    @Override
+    public double differentiate(double x) {
+        if (derivative == null) {
+            derivative = derivative();
+        }
+        return derivative.evaluateAt(x);
+    }
+
+    @Override
+    public double integrate(double x0, double x1) {
+        ChebyshevSeries integral = integral();
+        return integral.evaluateAt(x1) - integral.evaluateAt(x0);
+    }
+
+    /**
+     * The definite integral of the series over its interval, computed directly from the coefficients.
+     *
+     * @return The integral from a to b.
+     */
+    public double integrate() {
+        double sum = 0.0;
+        for (int k = 0; k < coefficients.length; k += 2) {
+            sum += 2.0 * coefficients[k] / (1.0 - (double) k * k);
+        }
+        return 0.5 * (b - a) * sum;
+    }
+
+    /**
+     * Finds the real roots of the series in [a, b]. Series of degree 50 or less are solved with the eigenvalues of
+     * the colleague matrix. Higher degrees are split into two subintervals, each approximated by a new series, until
+     * the degree is small enough.
+     *
+     * @return The roots in increasing order.
+     */
+    public double[] calculateRoots() {
+        double[] roots = findRoots(this);
+        Arrays.sort(roots);
+        // Roots on the boundary between subintervals may be found twice
+        int unique = 0;
+        final double tol = 1e-12 * (b - a);
+        for (int i = 0; i < roots.length; ++i) {
+            if (unique == 0 || roots[i] - roots[unique - 1] > tol) {
+                roots[unique++] = roots[i];
+            }
+        }
+        return Arrays.copyOf(roots, unique);
+    }
+
+    private static double[] findRoots(ChebyshevSeries series) {
+        double[] c = series.coefficients;
+        int n = c.length - 1;
+        double scale = 0.0;
+        for (double v : c) {
+            scale = Math.max(scale, Math.abs(v));
+        }
+        // Ignore negligible leading coefficients
+        while (n > 0 && Math.abs(c[n]) <= 1e-15 * scale) {
+            --n;
+        }
+        if (n <= MAX_ROOT_DEGREE) {
+            return colleagueRoots(series, n);
+        }
+        // Split slightly off center so that a root at the midpoint is not found at the edge of both halves
+        double split = series.a + (series.b - series.a) * 0.4975;
+        double[] left = findRoots(fit(series, series.a, split));
+        double[] right = findRoots(fit(series, split, series.b));
+        double[] roots = Arrays.copyOf(left, left.length + right.length);
+        System.arraycopy(right, 0, roots, left.length, right.length);
+        return roots;
+    }
+
+    private static double[] colleagueRoots(ChebyshevSeries series, int n) {
+        double[] c = series.coefficients;
+        if (n == 0) {
+            return new double[0];
+        }
+        double[] t;
+        if (n == 1) {
+            t = new double[] { -c[0] / c[1] };
+        } else {
+            double[][] colleague = new double[n][n];
+            colleague[0][1] = 1.0;
+            for (int i = 1; i < n - 1; ++i) {
+                colleague[i][i - 1] = 0.5;
+                colleague[i][i + 1] = 0.5;
+            }
+            colleague[n - 1][n - 2] = 0.5;
+            for (int j = 0; j < n; ++j) {
+                colleague[n - 1][j] -= c[j] / (2.0 * c[n]);
+            }
+            EigenvalueDecompositionDense evd =
+                    new EigenvalueDecompositionDense(new MatrixDense(colleague), true, false);
+            double[] re = evd.getRealEigenvalues();
+            double[] im = evd.getImagEigenvalues();
+            t = new double[n];
+            int real = 0;
+            for (int i = 0; i < n; ++i) {
+                if (Math.abs(im[i]) < 1e-8) {
+                    t[real++] = re[i];
+                }
+            }
+            t = Arrays.copyOf(t, real);
+        }
+        double[] trimmed = Arrays.copyOf(c, n + 1);
+        double[] derivative = series.derivative().coefficients;
+        double[] roots = new double[t.length];
+        int count = 0;
+        final double dxdt = 0.5 * (series.b - series.a);
+        for (double ti : t) {
+            if (ti < -1.0 - 1e-8 || ti > 1.0 + 1e-8 || Double.isNaN(ti)) {
+                continue;
+            }
+            ti = Math.max(-1.0, Math.min(1.0, ti));
+            // Polish with a couple of Newton steps on the series
+            for (int iter = 0; iter < 3; ++iter) {
+                double slope = clenshaw(derivative, ti) * dxdt;
+                if (slope == 0.0) {
+                    break;
+                }
+                double step = clenshaw(trimmed, ti) / slope;
+                if (Math.abs(step) > 1e-6) {
+                    break;
+                }
+                ti = Math.max(-1.0, Math.min(1.0, ti - step));
+            }
+            roots[count++] = 0.5 * (series.a + series.b) + dxdt * ti;
+        }
+        return Arrays.copyOf(roots, count);
+    }
+}
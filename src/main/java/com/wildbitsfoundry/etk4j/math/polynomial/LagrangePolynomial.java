@@ -1,39 +1,105 @@
 package com.wildbitsfoundry.etk4j.math.polynomial;
 
 import com.wildbitsfoundry.etk4j.math.function.UnivariateFunction;
-import com.wildbitsfoundry.etk4j.util.DoubleArrays;
 
 import java.util.Arrays;
 
 import static com.wildbitsfoundry.etk4j.util.validation.DimensionCheckers.checkXYDimensions;
 
+/**
+ * The {@code LagrangePolynomial} class implements the interpolating polynomial in barycentric form
+ * <pre>
+ *     p(x) = sum(w[i] * y[i] / (x - x[i])) / sum(w[i] / (x - x[i]))
+ * </pre>
+ * The weights are computed once, in O(n<sup>2</sup>) for arbitrary nodes or O(n) for Chebyshev nodes, after which
+ * each evaluation is O(n). Adding a node updates the weights in O(n).
+ */
 public class LagrangePolynomial implements UnivariateFunction {
 
-    private final double[] x;
-    private final double[] y;
-    private final double[] weights;
+    private double[] x;
+    private double[] y;
+    private double[] weights;
+    // Scale applied to the node differences to keep the weights away from overflow and underflow
+    private final double scale;
 
     public LagrangePolynomial(double[] x, double[] y) {
         checkXYDimensions(x, y);
         this.x = Arrays.copyOf(x, x.length);
         this.y = Arrays.copyOf(y, y.length);
-        this.weights = computeWeights(x);
+        this.scale = computeScale(x);
+        this.weights = computeWeights(this.x, scale);
     }
 
-    private double[] computeWeights(double[] x) {
+    private LagrangePolynomial(double[] x, double[] y, double[] weights, double scale) {
+        this.x = x;
+        this.y = y;
+        this.weights = weights;
+        this.scale = scale;
+    }
+
+    /*
+     * 4 / (max - min) is the inverse of the logarithmic capacity of the interval spanned by the nodes, which keeps the
+     * products of the scaled differences close to one.
+     */
+    private static double computeScale(double[] x) {
+        double min = Double.POSITIVE_INFINITY;
+        double max = Double.NEGATIVE_INFINITY;
+        for (double xi : x) {
+            min = Math.min(min, xi);
+            max = Math.max(max, xi);
+        }
+        return max > min ? 4.0 / (max - min) : 1.0;
+    }
+
+    private static double[] computeWeights(double[] x, double scale) {
         int n = x.length;
-        double[] w = DoubleArrays.ones(n);
+        double[] w = new double[n];
+        Arrays.fill(w, 1.0);
 
-        for(int i = 0; i < n; i++) {
-            for(int j = 0; j < n; j++) {
-                if(i != j) {
-                    w[i] /= (x[i] - x[j]);
-                }
+        for (int i = 0; i < n; i++) {
+            for (int j = i + 1; j < n; j++) {
+                double diff = (x[i] - x[j]) * scale;
+                w[i] /= diff;
+                w[j] /= -diff;
             }
         }
         return w;
     }
 
+    /**
+     * Adds a node to the interpolating polynomial. The weights are updated in O(n).
+     *
+     * @param xNew The x coordinate of the new node. It must be different from the existing nodes.
+     * @param yNew The y coordinate of the new node.
+     */
+    public void addNode(double xNew, double yNew) {
+        final int n = x.length;
+        double wNew = 1.0;
+        for (int i = 0; i < n; i++) {
+            double diff = (x[i] - xNew) * scale;
+            if (diff == 0.0) {
+                throw new IllegalArgumentException("The nodes must be distinct.");
+            }
+            weights[i] /= diff;
+            wNew /= -diff;
+        }
+        x = Arrays.copyOf(x, n + 1);
+        y = Arrays.copyOf(y, n + 1);
+        weights = Arrays.copyOf(weights, n + 1);
+        x[n] = xNew;
+        y[n] = yNew;
+        weights[n] = wNew;
+    }
+
+    /**
+     * The barycentric weights of the nodes, up to a common factor.
+     *
+     * @return A copy of the weights.
+     */
+    public double[] getWeights() {
+        return Arrays.copyOf(weights, weights.length);
+    }
+
     @Override
     public double evaluateAt(double x) {
         double numerator = 0.0;
@@ -50,7 +116,101 @@ public class LagrangePolynomial implements UnivariateFunction {
         return numerator / denominator;
     }
 
+    /**
+     * Evaluates the polynomial at several points.
+     *
+     * @param x The points at which to evaluate the polynomial.
+     * @return The values of the polynomial at x.
+     */
+    public double[] evaluateAt(double[] x) {
+        double[] result = new double[x.length];
+        evaluateAt(x, result);
+        return result;
+    }
+
+    /**
+     * Evaluates the polynomial at several points into a caller provided array.
+     *
+     * @param x   The points at which to evaluate the polynomial.
+     * @param out Output array of the same length as {@code x}.
+     */
+    public void evaluateAt(double[] x, double[] out) {
+        for (int i = 0; i < x.length; ++i) {
+            out[i] = evaluateAt(x[i]);
+        }
+    }
+
     public static LagrangePolynomial lagrangeFit(double[] x, double[] y) {
         return new LagrangePolynomial(x, y);
     }
+
+    /**
+     * Creates the polynomial that interpolates the given values at the Chebyshev points of the second kind
+     * <pre>
+     *     x[j] = (a + b) / 2 - (b - a) / 2 * cos(j * pi / (n - 1)), j = 0, 1, ..., n - 1
+     * </pre>
+     * which are sorted in increasing order. The barycentric weights for these nodes are known in closed form, so the
+     * polynomial is built in O(n). Interpolation at these nodes is well conditioned even for high degrees.
+     *
+     * @param a The lower end of the interval.
+     * @param b The upper end of the interval.
+     * @param y The values at the Chebyshev points. At least 2 values are required.
+     * @return The interpolating polynomial.
+     */
+    public static LagrangePolynomial chebyshevFit(double a, double b, double[] y) {
+        final int n = y.length;
+        if (n < 2) {
+            throw new IllegalArgumentException("At least 2 values are required.");
+        }
+        if (!(b > a)) {
+            throw new IllegalArgumentException("b must be greater than a.");
+        }
+        double[] x = chebyshevPoints(a, b, n);
+        /*
+         * On [-1, 1] the weights 1 / prod(x[j] - x[k]) are (-1)^j * delta[j] * 2^(n - 2) / (n - 1) for decreasing
+         * nodes. The differences here are scaled by 4 / (b - a), i.e. twice those on [-1, 1], and the nodes increase,
+         * which gives the same normalization as computeWeights so that addNode can extend them.
+         */
+        final double c = ((n - 1) % 2 == 0 ? 1.0 : -1.0) / (2.0 * (n - 1));
+        double[] w = new double[n];
+        for (int j = 0; j < n; ++j) {
+            w[j] = (j % 2 == 0 ? c : -c) * (j == 0 || j == n - 1 ? 0.5 : 1.0);
+        }
+        return new LagrangePolynomial(x, Arrays.copyOf(y, n), w, computeScale(x));
+    }
+
+    /**
+     * Creates the polynomial that interpolates a function at {@code n} Chebyshev points of the second kind.
+     *
+     * @param f The function to interpolate.
+     * @param a The lower end of the interval.
+     * @param b The upper end of the interval.
+     * @param n The number of points. At least 2 are required.
+     * @return The interpolating polynomial.
+     * @see #chebyshevFit(double, double, double[])
+     */
+    public static LagrangePolynomial chebyshevFit(UnivariateFunction f, double a, double b, int n) {
+        if (n < 2) {
+            throw new IllegalArgumentException("At least 2 values are required.");
+        }
+        double[] x = chebyshevPoints(a, b, n);
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            y[i] = f.evaluateAt(x[i]);
+        }
+        return chebyshevFit(a, b, y);
+    }
+
+    private static double[] chebyshevPoints(double a, double b, int n) {
+        double[] x = new double[n];
+        double mid = 0.5 * (a + b);
+        double half = 0.5 * (b - a);
+        for (int j = 0; j < n; ++j) {
+            // sin form is symmetric and exact at the midpoint
+            x[j] = mid + half * Math.sin(Math.PI * (2 * j - (n - 1)) / (2.0 * (n - 1)));
+        }
+        x[0] = a;
+        x[n - 1] = b;
+        return x;
+    }
 }
@@ -16,6 +16,7 @@ import com.wildbitsfoundry.etk4j.util.DoubleArrays;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.IntStream;
 
 import static com.wildbitsfoundry.etk4j.util.validation.DimensionCheckers.checkXYDimensions;
 
@@ -357,7 +358,7 @@ public class Polynomial implements UnivariateFunction, ComplexUnivariateFunction
                     // Use generalized eigenvalue decomposition to find the roots
                     roots = new Complex[N];
                     MatrixDense c = MatrixDense.Factory.companion(coefficients, N);
-                    EigenvalueDecompositionDense evd = c.eig();
+                    EigenvalueDecompositionDense evd = new EigenvalueDecompositionDense(c, true, false);
                     double[] realEig = evd.getRealEigenvalues();
                     double[] imagEig = evd.getImagEigenvalues();
                     roots = ComplexArrays.zip(realEig, imagEig);
@@ -590,13 +591,94 @@ public class Polynomial implements UnivariateFunction, ComplexUnivariateFunction
      * @return The values of the polynomial at x.
      */
     public static double[] polyVal(double[] coefficients, double[] x) {
-        final int length = x.length;
-        double[] result = new double[length];
-        for (int i = 0; i < length; ++i) {
-            result[i] = polyVal(coefficients, x[i]);
+        double[] result = new double[x.length];
+        polyVal(coefficients, x, result);
+        return result;
+    }
 
+    /**
+     * Evaluate a {@link Polynomial} from its coefficients at several points. The points are processed four at a time
+     * with independent Horner recurrences, which hides the latency of the multiply-add chain without changing the
+     * order of the operations, so the results are identical to {@link #polyVal(double[], double)}.
+     *
+     * @param coefficients The coefficients of the polynomial to evaluate.
+     * @param x            The array of argument at which to evaluate the polynomial.
+     * @param out          Output array of the same length as {@code x}.
+     */
+    public static void polyVal(double[] coefficients, double[] x, double[] out) {
+        polyVal(coefficients, x, out, 0, x.length);
+    }
+
+    /**
+     * Evaluate a {@link Polynomial} from its coefficients at several points, optionally splitting the points between
+     * threads. Worth it for high degree polynomials or large numbers of points.
+     *
+     * @param coefficients The coefficients of the polynomial to evaluate.
+     * @param x            The array of argument at which to evaluate the polynomial.
+     * @param out          Output array of the same length as {@code x}.
+     * @param parallel     If {@code true} the points are evaluated in parallel.
+     */
+    public static void polyVal(double[] coefficients, double[] x, double[] out, boolean parallel) {
+        if (!parallel) {
+            polyVal(coefficients, x, out);
+            return;
         }
-        return result;
+        final int blockSize = 1024;
+        final int blocks = (x.length + blockSize - 1) / blockSize;
+        IntStream.range(0, blocks).parallel().forEach(b ->
+                polyVal(coefficients, x, out, b * blockSize, Math.min(x.length, (b + 1) * blockSize)));
+    }
+
+    private static void polyVal(double[] coefficients, double[] x, double[] out, int from, int to) {
+        if (out.length < to) {
+            throw new IllegalArgumentException("The output array must be as long as the input array.");
+        }
+        final int n = coefficients.length;
+        int i = from;
+        for (; i + 3 < to; i += 4) {
+            final double x0 = x[i];
+            final double x1 = x[i + 1];
+            final double x2 = x[i + 2];
+            final double x3 = x[i + 3];
+            double r0 = 0.0;
+            double r1 = 0.0;
+            double r2 = 0.0;
+            double r3 = 0.0;
+            for (int j = 0; j < n; ++j) {
+                final double c = coefficients[j];
+                r0 = r0 * x0 + c;
+                r1 = r1 * x1 + c;
+                r2 = r2 * x2 + c;
+                r3 = r3 * x3 + c;
+            }
+            out[i] = r0;
+            out[i + 1] = r1;
+            out[i + 2] = r2;
+            out[i + 3] = r3;
+        }
+        for (; i < to; ++i) {
+            out[i] = DoubleArrays.horner(coefficients, x[i]);
+        }
+    }
+
+    /**
+     * Evaluate the polynomial at several points.
+     *
+     * @param x The array of argument at which to evaluate the polynomial.
+     * @return The values of the polynomial at x.
+     */
+    public double[] evaluateAt(double[] x) {
+        return polyVal(coefficients, x);
+    }
+
+    /**
+     * Evaluate the polynomial at several points into a caller provided array.
+     *
+     * @param x   The array of argument at which to evaluate the polynomial.
+     * @param out Output array of the same length as {@code x}.
+     */
+    public void evaluateAt(double[] x, double[] out) {
+        polyVal(coefficients, x, out);
     }
 
     /**
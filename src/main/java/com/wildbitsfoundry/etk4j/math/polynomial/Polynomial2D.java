@@ -1,6 +1,8 @@
 package com.wildbitsfoundry.etk4j.math.polynomial;
 
 import java.util.Arrays;
+import java.util.stream.IntStream;
+
 import com.wildbitsfoundry.etk4j.math.function.BivariateFunction;
 import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixDense;
 import com.wildbitsfoundry.etk4j.util.Grids;
@@ -156,6 +158,76 @@ public class Polynomial2D implements BivariateFunction {
 		return result;
 	}
 
+	/**
+	 * Evaluates the polynomial over the grid defined by {@code x} and {@code y}.
+	 * 
+	 * @param x
+	 *            The x coordinates of the grid.
+	 * @param y
+	 *            The y coordinates of the grid.
+	 * @param out
+	 *            Output array. {@code out[i][j]} holds P(x[j], y[i]), the same
+	 *            layout used by {@link #polyFit2D(double[], double[], double[][], int, int)}.
+	 */
+	public void evaluateOnGrid(double[] x, double[] y, double[][] out) {
+		evaluateOnGrid(x, y, out, false);
+	}
+
+	/**
+	 * Evaluates the polynomial over the grid defined by {@code x} and {@code y}.
+	 * The polynomials in x multiplying each power of y are evaluated once per
+	 * column, so each grid point only costs a Horner evaluation in y.
+	 * 
+	 * @param x
+	 *            The x coordinates of the grid.
+	 * @param y
+	 *            The y coordinates of the grid.
+	 * @param out
+	 *            Output array. {@code out[i][j]} holds P(x[j], y[i]).
+	 * @param parallel
+	 *            If {@code true} the rows of the grid are evaluated in parallel.
+	 */
+	public void evaluateOnGrid(double[] x, double[] y, double[][] out, boolean parallel) {
+		if (out.length != y.length) {
+			throw new IllegalArgumentException("The output must have as many rows as y values.");
+		}
+		for (double[] row : out) {
+			if (row.length != x.length) {
+				throw new IllegalArgumentException("The output must have as many columns as x values.");
+			}
+		}
+		final int n = _n;
+		final int m = _m;
+		final int cols = x.length;
+		// g[i * cols + j] is the coefficient of y^(m - i) evaluated at x[j]
+		final double[] g = new double[(m + 1) * cols];
+		for (int i = 0; i <= m; ++i) {
+			int mj = (n + 1) * i;
+			for (int j = 0; j < cols; ++j) {
+				double gj = _coefs[mj];
+				for (int k = 0; k < n; ++k) {
+					gj = gj * x[j] + _coefs[mj + k + 1];
+				}
+				g[i * cols + j] = gj;
+			}
+		}
+
+		IntStream rows = IntStream.range(0, y.length);
+		if (parallel) {
+			rows = rows.parallel();
+		}
+		rows.forEach(r -> {
+			final double yr = y[r];
+			final double[] row = out[r];
+			System.arraycopy(g, 0, row, 0, cols);
+			for (int i = 1; i <= m; ++i) {
+				for (int j = 0; j < cols; ++j) {
+					row[j] = row[j] * yr + g[i * cols + j];
+				}
+			}
+		});
+	}
+
 	public double evaluateAt(double x, double y) {
 		double result = _coefs[0];
 		final int n = _n;
@@ -0,0 +1,67 @@
+package com.wildbitsfoundry.etk4j.math.calculus;
+
+import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
+import com.wildbitsfoundry.etk4j.math.linearalgebra.MatrixSparse;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class JacobianCalculationSparseStrategyTest {
+
+    // Broyden tridiagonal function
+    private static MultivariateFunction[] broydenTridiagonal(int n) {
+        MultivariateFunction[] functions = new MultivariateFunction[n];
+        for (int i = 0; i < n; i++) {
+            final int k = i;
+            functions[i] = x -> (3 - 2 * x[k]) * x[k] - (k > 0 ? x[k - 1] : 0) - 2 * (k < n - 1 ? x[k + 1] : 0) + 1;
+        }
+        return functions;
+    }
+
+    @Test
+    public void testBandedGrouping() {
+        JacobianCalculationSparseStrategy strategy = new JacobianCalculationSparseStrategy(
+                JacobianCalculationSparseStrategy.bandedPattern(10, 1, 1));
+        assertEquals(3, strategy.getNumberOfGroups());
+        assertArrayEquals(new int[]{0, 1, 2, 0, 1, 2, 0, 1, 2, 0}, strategy.getColumnGroups());
+
+        strategy = new JacobianCalculationSparseStrategy(JacobianCalculationSparseStrategy.bandedPattern(10, 2, 1));
+        assertEquals(4, strategy.getNumberOfGroups());
+    }
+
+    @Test
+    public void testTridiagonalJacobian() {
+        final int n = 10;
+        MultivariateFunction[] functions = broydenTridiagonal(n);
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = -1 + 0.1 * i;
+        }
+        double[] x0 = x.clone();
+
+        JacobianCalculationSparseStrategy strategy = new JacobianCalculationSparseStrategy(
+                JacobianCalculationSparseStrategy.bandedPattern(n, 1, 1));
+        MatrixSparse jacobian = strategy.calculateSparseJacobian(functions, x, 1e-4);
+        assertEquals(3 * n - 2, jacobian.getNonZeroLength());
+        assertArrayEquals(x0, x, 0);
+
+        double[][] expected = new double[n][n];
+        for (int i = 0; i < n; i++) {
+            expected[i][i] = 3 - 4 * x[i];
+            if (i > 0) {
+                expected[i][i - 1] = -1;
+            }
+            if (i < n - 1) {
+                expected[i][i + 1] = -2;
+            }
+        }
+        double[][] actual = strategy.calculateJacobian(functions, x, 1e-4);
+        for (int i = 0; i < n; i++) {
+            assertArrayEquals(expected[i], actual[i], 1e-10);
+            for (int j = 0; j < n; j++) {
+                assertEquals(expected[i][j], jacobian.get(i, j), 1e-10);
+            }
+        }
+    }
+}
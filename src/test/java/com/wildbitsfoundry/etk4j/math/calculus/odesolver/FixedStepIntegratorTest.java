@@ -0,0 +1,69 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class FixedStepIntegratorTest {
+
+    // Harmonic oscillator q'' = -q written as y = [q, v]
+    private static final OdeSystemOfEquations OSCILLATOR = new OdeSystemOfEquations() {
+        @Override
+        public double[] evaluateAt(double t, double[] y) {
+            return new double[]{y[1], -y[0]};
+        }
+
+        @Override
+        public void evaluateAt(double t, double[] y, double[] dydt) {
+            dydt[0] = y[1];
+            dydt[1] = -y[0];
+        }
+    };
+
+    @Test
+    public void testFixedStepRungeKutta4() {
+        FixedStepIntegrator integrator = new FixedStepRungeKutta4((t, y) -> -y, 0.0, 1.0, 0.01);
+        integrator.step(100);
+        assertEquals(1.0, integrator.getT(), 1e-12);
+        assertEquals(Math.exp(-1), integrator.getY()[0], 1e-10);
+
+        integrator.reset(0.0, new double[]{2.0});
+        integrator.step(100);
+        assertEquals(2 * Math.exp(-1), integrator.getY()[0], 1e-10);
+    }
+
+    @Test
+    public void testFixedStepRungeKutta45() {
+        FixedStepIntegrator integrator = new FixedStepRungeKutta45(OSCILLATOR, 0.0, new double[]{1, 0}, 0.05);
+        integrator.step(200);
+        double[] y = new double[2];
+        integrator.getY(y);
+        assertArrayEquals(new double[]{Math.cos(10), -Math.sin(10)}, y, 1e-9);
+    }
+
+    @Test
+    public void testVelocityVerlet() {
+        FixedStepIntegrator integrator = new VelocityVerlet(OSCILLATOR, 0.0, new double[]{1, 0}, 0.01);
+        integrator.step(100);
+        double[] y = integrator.getY();
+        assertArrayEquals(new double[]{Math.cos(1), -Math.sin(1)}, y, 1e-4);
+
+        // Symplectic methods keep the energy bounded over long integrations
+        integrator.step(100000);
+        y = integrator.getY();
+        assertEquals(0.5, 0.5 * (y[0] * y[0] + y[1] * y[1]), 1e-4);
+    }
+
+    @Test
+    public void testLeapfrog() {
+        FixedStepIntegrator integrator = new Leapfrog(OSCILLATOR, 0.0, new double[]{1, 0}, 0.01);
+        integrator.step(100);
+        double[] y = integrator.getY();
+        assertArrayEquals(new double[]{Math.cos(1), -Math.sin(1)}, y, 1e-4);
+
+        integrator.step(100000);
+        y = integrator.getY();
+        assertEquals(0.5, 0.5 * (y[0] * y[0] + y[1] * y[1]), 1e-4);
+    }
+}
@@ -0,0 +1,66 @@
+package com.wildbitsfoundry.etk4j.math.calculus.odesolver;
+
+import com.wildbitsfoundry.etk4j.util.DoubleArrays;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class OdeSolutionTest {
+
+    private static final OdeSystemOfEquations SYSTEM = (t, y) -> new double[]{y[0] - y[1], y[0] + y[1]};
+
+    @Test
+    public void testMatchesStepDenseOutputs() {
+        RungeKutta solver = new RungeKutta45(SYSTEM, 0.0, new double[]{1, 0}, 5.0);
+        OdeSolution solution = new OdeSolution(2);
+        List<DenseOutput> denseOutputs = new ArrayList<>();
+        while (solver.status == OdeSolverStatus.RUNNING) {
+            solver.step();
+            DenseOutput denseOutput = solver.getDenseOutput();
+            denseOutputs.add(denseOutput);
+            solution.addDenseOutput(denseOutput);
+        }
+        assertEquals(denseOutputs.size(), solution.getNumberOfSteps());
+
+        double[] times = solution.getTimes();
+        assertEquals(0.0, times[0], 0);
+        assertEquals(5.0, times[times.length - 1], 0);
+
+        double[] t = DoubleArrays.linSpace(0, 5, 1001);
+        double[][] y = solution.evaluateAt(t);
+        for (int j = 0; j < t.length; j++) {
+            int k = 0;
+            while (k < denseOutputs.size() - 1 && t[j] > times[k + 1]) {
+                k++;
+            }
+            double[][] expected = denseOutputs.get(k).evaluateAt(new double[]{t[j]});
+            assertEquals(expected[0][0], y[0][j], 1e-12);
+            assertEquals(expected[1][0], y[1][j], 1e-12);
+            assertArrayEquals(new double[]{y[0][j], y[1][j]}, solution.evaluateAt(t[j]), 1e-12);
+        }
+    }
+
+    @Test
+    public void testFromSolverUnsortedQueries() {
+        OdeSolution solution = OdeSolution.fromSolver(new RungeKutta45((t, y) -> -y, 0.0, 1.0, 10.0));
+        double[] t = {7.5, 0.25, 10.0, 3.0, 0.0, 9.99};
+        double[][] y = solution.evaluateAt(t);
+        for (int j = 0; j < t.length; j++) {
+            assertEquals(Math.exp(-t[j]), y[0][j], 1e-3);
+        }
+    }
+
+    @Test
+    public void testBackwardIntegration() {
+        OdeSolution solution = OdeSolution.fromSolver(new RungeKutta45((t, y) -> -y, 0.0, 1.0, -2.0));
+        double[] t = DoubleArrays.linSpace(0, -2, 21);
+        double[][] y = solution.evaluateAt(t);
+        for (int j = 0; j < t.length; j++) {
+            assertEquals(Math.exp(-t[j]), y[0][j], 1e-2);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class AppendableSplineTest {
+
+    private static double[] sampleX(int n) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = i * 0.5 + 0.1 * Math.sin(i);
+        }
+        return x;
+    }
+
+    private static double[] sampleY(double[] x) {
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; ++i) {
+            y[i] = Math.sin(x[i]) + (i % 7 == 0 ? 0.5 : 0.0);
+        }
+        return y;
+    }
+
+    @Test
+    public void testMatchesAkimaSpline() {
+        double[] x = sampleX(60);
+        double[] y = sampleY(x);
+        AppendableSpline as = new AppendableSpline();
+        for (int n = 0; n < x.length; ++n) {
+            as.append(x[n], y[n]);
+            if (n >= 4 && n % 9 == 0) {
+                double[] xn = Arrays.copyOf(x, n + 1);
+                double[] yn = Arrays.copyOf(y, n + 1);
+                CubicSpline cs = CubicSpline.newAkimaSpline(xn, yn);
+                for (double xi = x[0]; xi <= x[n]; xi += 0.13) {
+                    assertEquals(cs.evaluateAt(xi), as.evaluateAt(xi), 1e-12);
+                    assertEquals(cs.differentiate(xi), as.differentiate(xi), 1e-12);
+                }
+            }
+        }
+        assertEquals(60, as.size());
+        assertArrayEquals(x, as.getBreaks(), 0.0);
+    }
+
+    @Test
+    public void testBoundedMemory() {
+        double[] x = sampleX(200);
+        double[] y = sampleY(x);
+        CubicSpline cs = CubicSpline.newAkimaSpline(x, y);
+        AppendableSpline as = new AppendableSpline(20);
+        as.append(x, y);
+        assertEquals(20, as.size());
+        assertArrayEquals(Arrays.copyOfRange(x, 180, 200), as.getBreaks(), 0.0);
+        for (double xi = x[180]; xi <= x[199]; xi += 0.07) {
+            assertEquals(cs.evaluateAt(xi), as.evaluateAt(xi), 1e-12);
+        }
+    }
+
+    @Test
+    public void testFewPoints() {
+        AppendableSpline as = new AppendableSpline(5);
+        as.append(0.0, 1.0);
+        as.append(1.0, 3.0);
+        assertEquals(2.0, as.evaluateAt(0.5), 1e-12);
+        as.append(2.0, 7.0);
+        // Parabola through the three points: x^2 + x + 1
+        assertEquals(0.25 + 0.5 + 1, as.evaluateAt(0.5), 1e-12);
+        assertEquals(2 * 1.5 + 1, as.differentiate(1.5), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNonIncreasing() {
+        AppendableSpline as = new AppendableSpline();
+        as.append(1.0, 1.0);
+        as.append(1.0, 2.0);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testDroppedRange() {
+        double[] x = sampleX(30);
+        AppendableSpline as = new AppendableSpline(10);
+        as.append(x, sampleY(x));
+        as.evaluateAt(x[5]);
+    }
+}
@@ -0,0 +1,113 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.math.curvefitting.CurveFitting;
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class BSplineTest {
+
+    @Test
+    public void testBasis() {
+        double[] knots = {0, 0, 0, 0, 1, 2, 2, 3, 3, 3, 3};
+        double[] basis = new double[4];
+        for (double x = 0; x <= 3; x += 0.125) {
+            int first = BSpline.evaluateBasis(knots, 3, x, basis);
+            double sum = 0.0;
+            for (double b : basis) {
+                sum += b;
+            }
+            assertEquals(1.0, sum, 1e-14);
+            assertEquals(true, first >= 0 && first + 3 < knots.length - 4);
+        }
+        // Uniform cubic B-spline at the middle knot
+        double[] uniform = {0, 1, 2, 3, 4, 5, 6, 7, 8};
+        int first = BSpline.evaluateBasis(uniform, 3, 4.0, basis);
+        assertEquals(1, first);
+        assertArrayEquals(new double[] { 1.0 / 6.0, 2.0 / 3.0, 1.0 / 6.0, 0.0 }, basis, 1e-14);
+    }
+
+    @Test
+    public void testLeastSquaresReproducesCubic() {
+        double[] x = new double[200];
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = -1 + 3.0 * i / (x.length - 1);
+            y[i] = x[i] * x[i] * x[i] - 2 * x[i] + 1;
+        }
+        BSpline bs = BSpline.newLeastSquaresSpline(x, y, new double[] { -0.2, 0.5, 0.7, 1.4 }, 3);
+        assertEquals(8, bs.getCoefficients().length);
+        for (double xi = -1; xi <= 2; xi += 0.1) {
+            assertEquals(xi * xi * xi - 2 * xi + 1, bs.evaluateAt(xi), 1e-10);
+            assertEquals(3 * xi * xi - 2, bs.differentiate(xi), 1e-9);
+        }
+
+        double[] out = new double[x.length];
+        bs.evaluateAt(x, out);
+        assertArrayEquals(y, out, 1e-10);
+    }
+
+    @Test
+    public void testLeastSquaresNoisyData() {
+        Random random = new Random(3);
+        int n = 20000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; ++i) {
+            x[i] = random.nextDouble() * 2 * Math.PI;
+            y[i] = Math.sin(x[i]) + 0.05 * random.nextGaussian();
+        }
+        double[] knots = new double[9];
+        for (int i = 0; i < knots.length; ++i) {
+            knots[i] = 2 * Math.PI * (i + 1) / (knots.length + 1);
+        }
+        BSpline bs = BSpline.newLeastSquaresSpline(x, y, knots, 3);
+        for (double xi = 0.1; xi < 6.2; xi += 0.2) {
+            assertEquals(Math.sin(xi), bs.evaluateAt(xi), 1e-2);
+        }
+    }
+
+    @Test
+    public void testSmoothingSpline() {
+        double[] x = { 0.0, 0.5, 1.1, 1.6, 2.0, 2.7, 3.1, 3.5 };
+        double[] y = { 0.1, 0.9, 0.7, 1.5, 1.2, 2.2, 1.9, 2.6 };
+
+        // Small lambda approaches the natural interpolating spline
+        BSpline interpolating = BSpline.newSmoothingSpline(x, y, 1e-10);
+        CubicSpline natural = CubicSpline.newNaturalSpline(x, y);
+        for (int i = 0; i <= 70; ++i) {
+            double xi = i * 0.05;
+            assertEquals(natural.evaluateAt(xi), interpolating.evaluateAt(xi), 1e-7);
+        }
+
+        // Large lambda approaches the least squares line
+        double[] line = CurveFitting.linear(x, y);
+        BSpline straight = BSpline.newSmoothingSpline(x, y, 1e6);
+        for (double xi = 0; xi <= 3.5; xi += 0.25) {
+            assertEquals(line[0] * xi + line[1], straight.evaluateAt(xi), 1e-6);
+        }
+
+        // Residual decreases as lambda decreases
+        double previous = Double.POSITIVE_INFINITY;
+        for (double lambda : new double[] { 10, 1, 0.1, 0.01 }) {
+            BSpline bs = BSpline.newSmoothingSpline(x, y, lambda);
+            double residual = 0.0;
+            for (int i = 0; i < x.length; ++i) {
+                double r = y[i] - bs.evaluateAt(x[i]);
+                residual += r * r;
+            }
+            assertEquals(true, residual < previous);
+            previous = residual;
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNotEnoughData() {
+        double[] x = { 0, 0.1, 0.2, 0.3, 0.4, 3.0 };
+        double[] y = { 1, 2, 3, 4, 5, 6 };
+        BSpline.newLeastSquaresSpline(x, y, new double[] { 1.0, 2.0 }, 3);
+    }
+}
@@ -2,6 +2,8 @@ package com.wildbitsfoundry.etk4j.math.interpolation;
 
 import static org.junit.Assert.assertEquals;
 
+import java.util.Arrays;
+
 import org.junit.BeforeClass;
 import org.junit.Rule;
 import org.junit.Test;
@@ -54,4 +56,92 @@ public class BicubicSplineTest {
 		yi = sp.evaluateAt(xiyi[6][0], xiyi[6][1]);
 		assertEquals(3164.0625, yi, 1e-12);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testBicubicInterpolationMatchesRowWindowEvaluation() {
+		double[] xs = { 0, 0.5, 1.25, 2, 3, 3.5, 4.25 };
+		double[] ys = { -1, 0, 0.75, 1.5, 2.5, 2.75, 3.5, 4 };
+		double[][] zs = new double[ys.length][xs.length];
+		Spline[] rows = new Spline[ys.length];
+		for (int i = 0; i < ys.length; ++i) {
+			for (int j = 0; j < xs.length; ++j) {
+				zs[i][j] = Math.sin(xs[j]) * Math.cos(ys[i]) + xs[j] * ys[i];
+			}
+			rows[i] = CubicSpline.newCubicSpline(xs, zs[i]);
+		}
+		Spline2D sp = BiCubicSpline.newBicubicSpline(xs, ys, zs);
+		// The evaluation of Spline2D builds the cubic through the 4 rows around y on every call
+		Spline2D reference = new Spline2D(ys, rows, 4) {};
+
+		for (int i = 0; i < ys.length; ++i) {
+			for (int j = 0; j < xs.length; ++j) {
+				assertEquals(zs[i][j], sp.evaluateAt(xs[j], ys[i]), 1e-12);
+			}
+		}
+		for (double xi = 0; xi <= 4.25; xi += 0.3) {
+			for (double yi = -0.95; yi < 4; yi += 0.2) {
+				assertEquals(reference.evaluateAt(xi, yi), sp.evaluateAt(xi, yi), 1e-12);
+			}
+		}
+	}
+
+	@Test
+	public void testBicubicInterpolationLastRows() {
+		// With 6 rows the window of the last cells would run past the grid, so the last 4 rows are used
+		double[] ys = { 1, 2, 3, 4, 5, 6.5 };
+		double[][] zs = new double[ys.length][];
+		for (int i = 0; i < ys.length; ++i) {
+			zs[i] = z[i];
+		}
+		Spline2D sp = BiCubicSpline.newBicubicSpline(x, ys, zs);
+		double[] last = Arrays.copyOfRange(ys, 2, 6);
+		double[] column = new double[4];
+		for (double xi = 1; xi <= 8; xi += 0.7) {
+			for (int i = 0; i < 4; ++i) {
+				column[i] = CubicSpline.newCubicSpline(x, zs[i + 2]).evaluateAt(xi);
+			}
+			for (double yi = 5.1; yi < 6.5; yi += 0.3) {
+				assertEquals(Interpolation.spline(last, column, yi), sp.evaluateAt(xi, yi), 1e-10);
+			}
+		}
+	}
+
+	@Test
+	public void testBicubicInterpolationOutOfRange() {
+		Spline2D sp = BiCubicSpline.newBicubicSpline(x, y, z);
+		exception.expect(ArrayIndexOutOfBoundsException.class);
+		sp.evaluateAt(4.5, 8.5);
+	}
+
+	@Test
+	public void testBicubicGridEvaluation() {
+		// Both the row splines and the cubics along y reproduce x^2 * y^2 exactly
+		Spline2D sp = BiCubicSpline.newBicubicSpline(x, y, z);
+		double[] xi = { 1, 1.25, 2.5, 3.75, 5, 7.9, 8 };
+		double[] yi = { 1, 1.5, 4.2, 6, 8 };
+		double[][] grid = new double[yi.length][xi.length];
+		sp.evaluateOnGrid(xi, yi, grid, true);
+		for (int i = 0; i < yi.length; ++i) {
+			for (int j = 0; j < xi.length; ++j) {
+				assertEquals(xi[j] * xi[j] * yi[i] * yi[i], grid[i][j], 1e-9);
+			}
+		}
+	}
+
+	@Test
+	public void testBicubicScatteredEvaluation() {
+		// A path that moves forward through the cells, then jumps back
+		Spline2D sp = BiCubicSpline.newBicubicSpline(x, y, z);
+		double[] xi = { 1.1, 1.6, 2.2, 2.9, 3.3, 7.5, 7.9, 1.2, 8 };
+		double[] yi = { 8, 7.4, 6.1, 6.0, 5.2, 1.5, 1.1, 4.4, 8 };
+		double[] out = new double[xi.length];
+		sp.evaluateAt(xi, yi, out);
+		for (int i = 0; i < xi.length; ++i) {
+			assertEquals(sp.evaluateAt(xi[i], yi[i]), out[i], 1e-12);
+			assertEquals(xi[i] * xi[i] * yi[i] * yi[i], out[i], 1e-9);
+		}
+
+		exception.expect(ArrayIndexOutOfBoundsException.class);
+		sp.evaluateAt(new double[] { 2, 8.5 }, new double[] { 2, 2 });
+	}
+}
@@ -5,6 +5,7 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class BilinearSplineTest {
@@ -54,4 +55,41 @@ public class BilinearSplineTest {
 		yi = sp.evaluateAt(xiyi[6][0], xiyi[6][1]);
 		assertEquals(3192.2500, yi, 1e-12);
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testBilinearGridEvaluation() {
+		// z = x^2 * y^2 on integer breaks, so the bilinear spline is the product of the linear interpolants of t^2
+		Spline2D sp = BiLinearSpline.newBilinearSpline(x, y, z);
+		double[] xi = { 1, 1.25, 2.5, 3.75, 5, 7.9, 8 };
+		double[] yi = { 1, 1.5, 4.2, 6, 8 };
+		double[][] grid = new double[yi.length][xi.length];
+		sp.evaluateOnGrid(xi, yi, grid);
+		for (int i = 0; i < yi.length; ++i) {
+			for (int j = 0; j < xi.length; ++j) {
+				assertEquals(linearSquare(xi[j]) * linearSquare(yi[i]), grid[i][j], 1e-10);
+			}
+		}
+	}
+
+	@Test
+	public void testBilinearScatteredEvaluation() {
+		Spline2D sp = BiLinearSpline.newBilinearSpline(x, y, z);
+		double[] xi = { 8, 7.5, 7.25, 6.1, 3.3, 1, 5.5 };
+		double[] yi = { 1, 1.5, 2.75, 3.1, 3.2, 8, 4.5 };
+		double[] out = new double[xi.length];
+		sp.evaluateAt(xi, yi, out);
+		for (int i = 0; i < xi.length; ++i) {
+			assertEquals(sp.evaluateAt(xi[i], yi[i]), out[i], 1e-10);
+			assertEquals(linearSquare(xi[i]) * linearSquare(yi[i]), out[i], 1e-10);
+		}
+
+		exception.expect(IllegalArgumentException.class);
+		sp.evaluateAt(xi, yi, new double[xi.length - 1]);
+	}
+
+	// Linear interpolant of t^2 between consecutive integers
+	private static double linearSquare(double t) {
+		double lower = Math.min(Math.floor(t), 7);
+		return t * t + (t - lower) * (lower + 1 - t);
+	}
+}
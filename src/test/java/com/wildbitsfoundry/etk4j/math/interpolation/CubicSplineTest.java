@@ -291,4 +291,29 @@ public class CubicSplineTest {
         CubicSpline cs = CubicSpline.newCubicSpline(x, y);
         assertEquals(3, cs.getNumberOfSegments());
     }
+
+    @Test
+    public void testBulkEvaluation() {
+        double[] x = DoubleArrays.linSpace(0, 10, 11);
+        double[] y = Arrays.stream(x).map(Math::sin).toArray();
+        CubicSpline cs = CubicSpline.newNotAKnotSpline(x, y);
+        cs.setExtrapolationMethod(ExtrapolationMethod.NATURAL);
+
+        double[] xi = DoubleArrays.concatenate(DoubleArrays.linSpace(-1, 11, 241), new double[]{7.3, 0.2, 9.9, -0.0});
+        double[] yi = new double[xi.length];
+        cs.evaluateAt(xi, yi);
+        for (int i = 0; i < xi.length; ++i) {
+            assertEquals(cs.evaluateAt(xi[i]), yi[i], 0.0);
+        }
+
+        double[] inRange = DoubleArrays.concatenate(DoubleArrays.linSpace(0, 10, 201), new double[]{7.3, 0.2, 9.9});
+        double[] dyi = new double[inRange.length];
+        double[] iyi = new double[inRange.length];
+        cs.differentiate(inRange, dyi);
+        cs.integrate(inRange, iyi);
+        for (int i = 0; i < inRange.length; ++i) {
+            assertEquals(cs.differentiate(inRange[i]), dyi[i], 0.0);
+            assertEquals(cs.integrate(inRange[i]), iyi[i], 0.0);
+        }
+    }
 }
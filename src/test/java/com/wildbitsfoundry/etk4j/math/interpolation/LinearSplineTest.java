@@ -7,6 +7,8 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class LinearSplineTest {
@@ -117,4 +119,45 @@ public class LinearSplineTest {
 		exception.expect(IndexOutOfBoundsException.class);
 		lspline.evaluateAt(right);
 	}
+
+	@Test
+	public void testFindSegmentIndex() {
+		double[] uniform = DoubleArrays.linSpace(-2.0, 3.0, 101);
+		double[] nonUniform = new double[101];
+		double[] clustered = new double[101];
+		for (int i = 0; i < 101; ++i) {
+			nonUniform[i] = -2.0 + 5.0 * Math.pow(i / 100.0, 2);
+			clustered[i] = i < 90 ? 1e-3 * i : 1.0 + (i - 90);
+		}
+		for (double[] breaks : new double[][] { uniform, nonUniform, clustered }) {
+			LinearSpline ls = LinearSpline.newLinearSpline(breaks, new double[breaks.length]);
+			double x0 = breaks[0];
+			double xn = breaks[breaks.length - 1];
+			double[] queries = DoubleArrays.concatenate(breaks, DoubleArrays.linSpace(x0, xn, 997));
+			for (double q : queries) {
+				int index = Arrays.binarySearch(breaks, q);
+				int expected = index < 0 ? -(index + 2) : Math.min(index, breaks.length - 2);
+				assertEquals(expected, ls.findSegmentIndex(q));
+			}
+			assertEquals(-1, ls.findSegmentIndex(x0 - 1.0));
+			assertEquals(breaks.length - 1, ls.findSegmentIndex(xn + 1.0));
+		}
+	}
+
+	@Test
+	public void testBulkEvaluation() {
+		LinearSpline ls = LinearSpline.newLinearSpline(x, y);
+		double[] xi = { 0.9, 1.0, 1.15, 1.3, 1.8, 2.0, 2.1, 1.2 };
+		double[] yi = new double[xi.length];
+		double[] dyi = new double[xi.length];
+		double[] iyi = new double[xi.length];
+		ls.evaluateAt(xi, yi);
+		ls.differentiate(xi, dyi);
+		ls.integrate(xi, iyi);
+		for (int i = 0; i < xi.length; ++i) {
+			assertEquals(ls.evaluateAt(xi[i]), yi[i], 0.0);
+			assertEquals(ls.differentiate(xi[i]), dyi[i], 0.0);
+			assertEquals(ls.integrate(xi[i]), iyi[i], 0.0);
+		}
+	}
 }
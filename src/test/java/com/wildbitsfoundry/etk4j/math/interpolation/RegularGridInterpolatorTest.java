@@ -0,0 +1,155 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import com.wildbitsfoundry.etk4j.math.extrapolation.ExtrapolationMethod;
+import org.junit.BeforeClass;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class RegularGridInterpolatorTest {
+	static double[][] grid;
+	static double[] linearValues;
+	static double[] quadraticValues;
+	static double[][] points;
+
+	@Rule
+	public final ExpectedException exception = ExpectedException.none();
+
+	@BeforeClass
+	public static void setArrays() {
+		grid = new double[][] { { 0, 1, 2.5, 3, 4 }, { -1, 0, 1 }, { 0, 0.5, 1, 2, 3, 5 } };
+		linearValues = new double[5 * 3 * 6];
+		quadraticValues = new double[5 * 3 * 6];
+		for (int i = 0, k = 0; i < 5; ++i) {
+			for (int j = 0; j < 3; ++j) {
+				for (int l = 0; l < 6; ++l, ++k) {
+					linearValues[k] = linear(grid[0][i], grid[1][j], grid[2][l]);
+					quadraticValues[k] = quadratic(grid[0][i], grid[1][j], grid[2][l]);
+				}
+			}
+		}
+		points = new double[][] { { 0.3, -0.7, 0.2 }, { 2.7, 0.4, 4.1 }, { 4, 1, 5 }, { 1, 0, 0.5 },
+				{ 3.5, -0.2, 1.6 } };
+	}
+
+	private static double linear(double x, double y, double z) {
+		return 2 * x - 3 * y + 0.5 * z + 1;
+	}
+
+	private static double quadratic(double x, double y, double z) {
+		return (x * x - x + 1) * (2 * y * y + y) * (z * z + 3);
+	}
+
+	@Test
+	public void testMultilinear() {
+		RegularGridInterpolator rgi = RegularGridInterpolator.newLinearInterpolator(grid, linearValues);
+		for (double[] p : points) {
+			assertEquals(linear(p[0], p[1], p[2]), rgi.evaluateAt(p), 1e-12);
+		}
+
+		// Bilinear interpolation of x * y is exact
+		double[][] grid2 = { { 1, 2, 4 }, { 0, 3 } };
+		RegularGridInterpolator xy = RegularGridInterpolator.newLinearInterpolator(grid2,
+				new double[] { 0, 3, 0, 6, 0, 12 });
+		assertEquals(1.5 * 2.0, xy.evaluateAt(1.5, 2.0), 1e-12);
+		assertEquals(3.0 * 0.5, xy.evaluateAt(3.0, 0.5), 1e-12);
+	}
+
+	@Test
+	public void testCubic() {
+		RegularGridInterpolator rgi = RegularGridInterpolator.newCubicInterpolator(grid, quadraticValues);
+		for (double[] p : points) {
+			assertEquals(quadratic(p[0], p[1], p[2]), rgi.evaluateAt(p), 1e-10);
+		}
+
+		// Smooth function on a uniform grid
+		int n = 21;
+		double[][] g = { new double[n], new double[n] };
+		double[] v = new double[n * n];
+		for (int i = 0; i < n; ++i) {
+			g[0][i] = i * 0.1;
+			g[1][i] = i * 0.1;
+		}
+		for (int i = 0; i < n; ++i) {
+			for (int j = 0; j < n; ++j) {
+				v[i * n + j] = Math.sin(g[0][i]) * Math.cos(g[1][j]);
+			}
+		}
+		RegularGridInterpolator sc = RegularGridInterpolator.newCubicInterpolator(g, v);
+		assertEquals(Math.sin(0.73) * Math.cos(1.37), sc.evaluateAt(0.73, 1.37), 1e-4);
+		assertEquals(Math.sin(1.91) * Math.cos(0.05), sc.evaluateAt(1.91, 0.05), 1e-4);
+	}
+
+	@Test
+	public void testCubicSmallAxes() {
+		// Axes with 2 and 3 nodes
+		double[][] g = { { 0, 1 }, { 0, 1, 3 } };
+		double[] v = new double[6];
+		for (int i = 0; i < 2; ++i) {
+			for (int j = 0; j < 3; ++j) {
+				v[i * 3 + j] = (2 * g[0][i] + 1) * (g[1][j] * g[1][j] - 1);
+			}
+		}
+		RegularGridInterpolator rgi = RegularGridInterpolator.newCubicInterpolator(g, v);
+		assertEquals((2 * 0.25 + 1) * (2.5 * 2.5 - 1), rgi.evaluateAt(0.25, 2.5), 1e-12);
+		assertEquals((2 * 0.8 + 1) * (0.4 * 0.4 - 1), rgi.evaluateAt(0.8, 0.4), 1e-12);
+	}
+
+	@Test
+	public void testBatchEvaluation() {
+		RegularGridInterpolator rgi = RegularGridInterpolator.newCubicInterpolator(grid, quadraticValues);
+		double[] expected = new double[points.length];
+		double[] flat = new double[points.length * 3];
+		for (int i = 0; i < points.length; ++i) {
+			expected[i] = rgi.evaluateAt(points[i]);
+			System.arraycopy(points[i], 0, flat, i * 3, 3);
+		}
+		assertArrayEquals(expected, rgi.evaluateAt(points), 0.0);
+
+		double[] out = new double[points.length];
+		rgi.evaluateAt(flat, out);
+		assertArrayEquals(expected, out, 0.0);
+	}
+
+	@Test
+	public void testExtrapolation() {
+		RegularGridInterpolator rgi = RegularGridInterpolator.newLinearInterpolator(grid, linearValues);
+
+		rgi.setExtrapolationMethod(ExtrapolationMethod.LINEAR);
+		assertEquals(linear(-1, 2, 6), rgi.evaluateAt(-1, 2, 6), 1e-12);
+
+		rgi.setExtrapolationMethod(ExtrapolationMethod.NATURAL);
+		assertEquals(linear(5, -2, 1), rgi.evaluateAt(5, -2, 1), 1e-12);
+
+		rgi.setExtrapolationMethod(ExtrapolationMethod.CLAMP_TO_END_POINT);
+		assertEquals(linear(0, 1, 2), rgi.evaluateAt(-1, 2, 2), 1e-12);
+
+		rgi.setExtrapolationMethod(ExtrapolationMethod.CLAMP_TO_ZERO);
+		assertEquals(0.0, rgi.evaluateAt(1, 1, 6), 0.0);
+
+		rgi.setExtrapolationMethod(ExtrapolationMethod.CLAMP_TO_NAN);
+		assertEquals(Double.NaN, rgi.evaluateAt(1, 1.5, 1), 0.0);
+
+		RegularGridInterpolator cubic = RegularGridInterpolator.newCubicInterpolator(grid, quadraticValues);
+		cubic.setExtrapolationMethod(ExtrapolationMethod.NATURAL);
+		assertEquals(quadratic(4.5, 1.2, -0.5), cubic.evaluateAt(4.5, 1.2, -0.5), 1e-10);
+
+		// Linear extrapolation continues along the slope at the boundary
+		cubic.setExtrapolationMethod(ExtrapolationMethod.LINEAR);
+		double slope = (2 * 4 - 1) * (2 * 0.25 + 0.5) * (0.25 + 3);
+		assertEquals(quadratic(4, 0.5, 0.5) + 0.5 * slope, cubic.evaluateAt(4.5, 0.5, 0.5), 1e-10);
+
+		cubic.setExtrapolationMethod(ExtrapolationMethod.THROW);
+		exception.expect(ArrayIndexOutOfBoundsException.class);
+		cubic.evaluateAt(0.5, 0.5, 5.5);
+	}
+
+	@Test
+	public void testInvalidValues() {
+		exception.expect(IllegalArgumentException.class);
+		RegularGridInterpolator.newLinearInterpolator(grid, new double[10]);
+	}
+}
@@ -0,0 +1,138 @@
+package com.wildbitsfoundry.etk4j.math.interpolation;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class ScatteredInterpolatorTest {
+	static double[][] points;
+	static double[][] queries;
+
+	@BeforeClass
+	public static void setArrays() {
+		Random random = new Random(7);
+		points = new double[400][2];
+		for (double[] p : points) {
+			p[0] = random.nextDouble() * 4 - 2;
+			p[1] = random.nextDouble() * 4 - 2;
+		}
+		queries = new double[50][2];
+		for (double[] q : queries) {
+			q[0] = random.nextDouble() * 2 - 1;
+			q[1] = random.nextDouble() * 2 - 1;
+		}
+	}
+
+	private static int bruteForceNearest(double[] q) {
+		int best = -1;
+		double bestDistance = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < points.length; ++i) {
+			double dx = points[i][0] - q[0];
+			double dy = points[i][1] - q[1];
+			double d = dx * dx + dy * dy;
+			if (d < bestDistance) {
+				bestDistance = d;
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	@Test
+	public void testKDTreeQueries() {
+		KDTree tree = new KDTree(points);
+		assertEquals(400, tree.size());
+		assertEquals(2, tree.getDimensions());
+		assertArrayEquals(points[17], tree.getPoint(17), 0.0);
+
+		int[] indices = new int[5];
+		double[] distances = new double[5];
+		for (double[] q : queries) {
+			assertEquals(bruteForceNearest(q), tree.findNearest(q));
+
+			assertEquals(5, tree.findNearest(q, 5, indices, distances));
+			double[] expected = new double[points.length];
+			for (int i = 0; i < points.length; ++i) {
+				expected[i] = Math.hypot(points[i][0] - q[0], points[i][1] - q[1]);
+			}
+			double[] sorted = expected.clone();
+			Arrays.sort(sorted);
+			assertArrayEquals(Arrays.copyOf(sorted, 5), distances, 1e-12);
+			for (int i = 0; i < 5; ++i) {
+				assertEquals(distances[i], expected[indices[i]], 1e-12);
+			}
+
+			int[] within = tree.findWithinRadius(q, 0.3);
+			int count = 0;
+			for (double d : expected) {
+				if (d <= 0.3) {
+					++count;
+				}
+			}
+			assertEquals(count, within.length);
+			for (int i : within) {
+				assertEquals(true, expected[i] <= 0.3);
+			}
+		}
+	}
+
+	@Test
+	public void testNearest() {
+		double[] values = new double[points.length];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = i;
+		}
+		ScatteredInterpolator si = ScatteredInterpolator.newNearestInterpolator(points, values);
+		for (double[] q : queries) {
+			assertEquals(bruteForceNearest(q), si.evaluateAt(q), 0.0);
+		}
+	}
+
+	@Test
+	public void testLinear() {
+		double[] values = new double[points.length];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = 3 * points[i][0] - 2 * points[i][1] + 0.5;
+		}
+		ScatteredInterpolator si = ScatteredInterpolator.newLinearInterpolator(points, values);
+		double[] expected = new double[queries.length];
+		for (int i = 0; i < queries.length; ++i) {
+			expected[i] = 3 * queries[i][0] - 2 * queries[i][1] + 0.5;
+		}
+		assertArrayEquals(expected, si.evaluateAt(queries), 1e-10);
+
+		// Interpolates the data
+		double[] smooth = new double[points.length];
+		for (int i = 0; i < smooth.length; ++i) {
+			smooth[i] = Math.sin(points[i][0]) * Math.cos(points[i][1]);
+		}
+		ScatteredInterpolator ss = ScatteredInterpolator.newLinearInterpolator(si.getTree(), smooth, 8);
+		assertEquals(smooth[42], ss.evaluateAt(points[42]), 0.0);
+		assertEquals(Math.sin(0.3) * Math.cos(-0.4), ss.evaluateAt(0.3, -0.4), 2e-2);
+	}
+
+	@Test
+	public void testRadialBasis() {
+		double[] values = new double[points.length];
+		for (int i = 0; i < values.length; ++i) {
+			values[i] = Math.sin(points[i][0]) * Math.cos(points[i][1]);
+		}
+		ScatteredInterpolator si = ScatteredInterpolator.newRadialBasisInterpolator(points, values, 1.2);
+		for (int i = 0; i < points.length; i += 37) {
+			assertEquals(values[i], si.evaluateAt(points[i]), 1e-8);
+		}
+		for (double[] q : queries) {
+			assertEquals(Math.sin(q[0]) * Math.cos(q[1]), si.evaluateAt(q), 2e-2);
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testInvalidValues() {
+		ScatteredInterpolator.newNearestInterpolator(points, new double[3]);
+	}
+}
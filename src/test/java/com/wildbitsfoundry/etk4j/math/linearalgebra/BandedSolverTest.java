@@ -0,0 +1,35 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+
+public class BandedSolverTest {
+
+    @Test
+    public void testSolveCholeskyBanded() {
+        double[][] A = {{4, -1, 1, 0, 0},
+                {-1, 5, -1, 1, 0},
+                {1, -1, 6, -1, 1},
+                {0, 1, -1, 5, -1},
+                {0, 0, 1, -1, 4}};
+        double[] b = {1, 2, 3, 4, 5};
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        final int w = 2;
+        double[] band = new double[A.length * (w + 1)];
+        for (int i = 0; i < A.length; ++i) {
+            for (int j = i; j <= Math.min(A.length - 1, i + w); ++j) {
+                band[i * (w + 1) + j - i] = A[i][j];
+            }
+        }
+        BandedSolver.solveCholeskyBandedSystem(band, w, b);
+        assertArrayEquals(expected, b, 1e-12);
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testNotPositiveDefinite() {
+        double[] band = {1, 2, 1, 0};
+        BandedSolver.solveCholeskyBandedSystem(band, 1, new double[] {1, 1});
+    }
+}
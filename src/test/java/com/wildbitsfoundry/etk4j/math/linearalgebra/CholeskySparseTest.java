@@ -3,9 +3,98 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 public class CholeskySparseTest {
 
+    // Tridiagonal SPD matrix with a coupling between the first and last nodes
+    private static double[][] matrix(int n, double shift) {
+        double[][] A = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            A[i][i] = 2.0 + shift + 0.1 * i;
+            if (i > 0) {
+                A[i][i - 1] = -1.0;
+                A[i - 1][i] = -1.0;
+            }
+        }
+        A[0][n - 1] = A[n - 1][0] = -0.5;
+        return A;
+    }
 
+    @Test
+    public void testRefactorWithLockedStructure() {
+        final int n = 30;
+        double[] b = new double[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = i % 3 - 1;
+        }
+        for (FillReducingOrdering ordering : new FillReducingOrdering[] {FillReducingOrdering.NATURAL,
+                FillReducingOrdering.AMD}) {
+            CholeskyDecompositionSparse chol = new CholeskyDecompositionSparse(
+                    MatrixSparse.from2DArray(matrix(n, 0.0)), ordering);
+            chol.setStructureLocked(true);
+            int[] parent = chol.getEliminationTree();
+            double[] storage = chol.getL().nz_values;
+
+            for (double shift : new double[] {0.5, 1.0, 3.0}) {
+                double[][] A = matrix(n, shift);
+                assertTrue(chol.decompose(MatrixSparse.from2DArray(A)));
+                // The symbolic analysis and the storage of L are reused
+                assertArrayEquals(parent, chol.getEliminationTree());
+                assertSame(storage, chol.getL().nz_values);
+                assertArrayEquals(new MatrixDense(A).solve(b).getArray(), chol.solve(b).getArrayDense(), 1e-12);
+            }
+        }
+    }
+
+    @Test
+    public void testSymbolicAnalysis() {
+        // Arrow pointing down-right, the elimination tree is a chain into the last node
+        double[][] A = {
+                {4, 0, 0, 1},
+                {0, 4, 0, 1},
+                {0, 0, 4, 1},
+                {1, 1, 1, 4}};
+        CholeskyDecompositionSparse chol = new CholeskyDecompositionSparse(MatrixSparse.from2DArray(A));
+        assertArrayEquals(new int[] {3, 3, 3, -1}, chol.getEliminationTree());
+        assertArrayEquals(new int[] {2, 2, 2, 1}, chol.getColumnCounts());
+        assertArrayEquals(new int[] {0, 1, 2, 3}, chol.getPostorder());
+    }
+
+    @Test
+    public void testNotPositiveDefinite() {
+        CholeskyDecompositionSparse chol = new CholeskyDecompositionSparse(
+                MatrixSparse.from2DArray(new double[][] {{1, 2}, {2, 1}}));
+        assertFalse(chol.isSPD());
+        assertTrue(chol.decompose(MatrixSparse.from2DArray(new double[][] {{5, 2}, {2, 1}})));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLockedStructureRejectsDifferentPattern() {
+        CholeskyDecompositionSparse chol = new CholeskyDecompositionSparse(MatrixSparse.from2DArray(matrix(5, 0.0)));
+        chol.setStructureLocked(true);
+        double[][] A = matrix(5, 0.0);
+        A[1][3] = A[3][1] = 0.1;
+        chol.decompose(MatrixSparse.from2DArray(A));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testLockedStructureRejectsMovedEntries() {
+        double[][] A = {
+                {4, 1, 0, 0},
+                {1, 4, 0, 0},
+                {0, 0, 4, 1},
+                {0, 0, 1, 4}};
+        CholeskyDecompositionSparse chol = new CholeskyDecompositionSparse(MatrixSparse.from2DArray(A));
+        chol.setStructureLocked(true);
+        // Same dimensions and number of non-zero entries, different pattern
+        double[][] B = {
+                {4, 0, 1, 0},
+                {0, 4, 0, 0},
+                {1, 0, 4, 1},
+                {0, 0, 1, 4}};
+        chol.decompose(MatrixSparse.from2DArray(B));
+    }
 }
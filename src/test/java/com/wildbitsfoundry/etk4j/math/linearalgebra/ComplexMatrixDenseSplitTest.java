@@ -0,0 +1,123 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import com.wildbitsfoundry.etk4j.math.complex.Complex;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ComplexMatrixDenseSplitTest {
+
+    private static ComplexMatrixDenseSplit random(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        ComplexMatrixDenseSplit A = new ComplexMatrixDenseSplit(rows, cols);
+        for (int i = 0; i < rows * cols; ++i) {
+            A.getRealArray()[i] = random.nextDouble() - 0.5;
+            A.getImaginaryArray()[i] = random.nextDouble() - 0.5;
+        }
+        return A;
+    }
+
+    private static void assertMatrixEquals(ComplexMatrix expected, ComplexMatrix actual, double delta) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getColumnCount(), actual.getColumnCount());
+        for (int i = 0; i < expected.getRowCount(); ++i) {
+            for (int j = 0; j < expected.getColumnCount(); ++j) {
+                Complex e = expected.get(i, j);
+                Complex a = actual.get(i, j);
+                assertEquals(e.real(), a.real(), delta);
+                assertEquals(e.imag(), a.imag(), delta);
+            }
+        }
+    }
+
+    @Test
+    public void testGetSet() {
+        ComplexMatrixDenseSplit A = new ComplexMatrixDenseSplit(2, 3);
+        A.set(1, 2, new Complex(3, -4));
+        assertEquals(3.0, A.get(1, 2).real(), 0.0);
+        assertEquals(-4.0, A.get(1, 2).imag(), 0.0);
+        assertEquals(3.0, A.getRealArray()[5], 0.0);
+
+        ComplexMatrixDense D = A.toComplexMatrixDense();
+        assertMatrixEquals(D, new ComplexMatrixDenseSplit(D), 0.0);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testGetOutOfBounds() {
+        new ComplexMatrixDenseSplit(2, 2).get(2, 0);
+    }
+
+    @Test
+    public void testMultiply() {
+        ComplexMatrixDenseSplit A = random(7, 5, 1);
+        ComplexMatrixDenseSplit B = random(5, 4, 2);
+        ComplexMatrixDense expected = A.toComplexMatrixDense().multiply(B.toComplexMatrixDense());
+        assertMatrixEquals(expected, A.multiply(B), 1e-12);
+
+        MatrixDense R = new MatrixDense(new double[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10}, 5, 2);
+        assertMatrixEquals(A.multiply(ComplexMatrixDenseSplit.fromRealMatrix(R)), A.multiply(R), 1e-12);
+    }
+
+    @Test
+    public void testLU() {
+        ComplexMatrixDenseSplit A = random(12, 12, 3);
+        ComplexLUDecompositionSplit lu = A.LU();
+        assertFalse(lu.isSingular());
+
+        // L * U = A(pivot, :)
+        ComplexMatrixDenseSplit LU = lu.getL().multiply(lu.getU());
+        int[] pivot = lu.getPivot();
+        for (int i = 0; i < 12; ++i) {
+            for (int j = 0; j < 12; ++j) {
+                assertEquals(A.get(pivot[i], j).real(), LU.get(i, j).real(), 1e-12);
+                assertEquals(A.get(pivot[i], j).imag(), LU.get(i, j).imag(), 1e-12);
+            }
+        }
+
+        Complex det = lu.det();
+        Complex expected = new ComplexLUDecompositionDense(A.toComplexMatrixDense()).det();
+        assertEquals(expected.real(), det.real(), 1e-12);
+        assertEquals(expected.imag(), det.imag(), 1e-12);
+
+        ComplexMatrixDenseSplit B = random(12, 3, 4);
+        ComplexMatrixDenseSplit X = A.solve(B);
+        assertMatrixEquals(B, A.multiply(X), 1e-10);
+        assertMatrixEquals(ComplexMatrixDenseSplit.identity(12), A.multiply(A.inv()), 1e-10);
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testLUSingular() {
+        ComplexMatrixDenseSplit A = new ComplexMatrixDenseSplit(2, 2);
+        A.set(0, 0, new Complex(1, 1));
+        A.set(0, 1, new Complex(2, 2));
+        A.set(1, 0, new Complex(2, 2));
+        A.set(1, 1, new Complex(4, 4));
+        A.LU().solve(new double[]{1, 2});
+    }
+
+    @Test
+    public void testQR() {
+        ComplexMatrixDenseSplit A = random(9, 5, 5);
+        ComplexQRDecompositionSplit qr = A.QR();
+        assertTrue(qr.isFullRank());
+
+        ComplexMatrixDenseSplit Q = qr.getQ();
+        ComplexMatrixDenseSplit R = qr.getR();
+        // The rows of R below the diagonal block are zero
+        ComplexMatrixDenseSplit R1 = new ComplexMatrixDenseSplit(Arrays.copyOf(R.getRealArray(), 25),
+                Arrays.copyOf(R.getImaginaryArray(), 25), 5, 5);
+        assertMatrixEquals(A, Q.multiply(R1), 1e-12);
+        assertMatrixEquals(ComplexMatrixDenseSplit.identity(5), Q.conjugateTranspose().multiply(Q), 1e-12);
+
+        // The least squares residual is orthogonal to the columns of A
+        ComplexMatrixDenseSplit B = random(9, 2, 6);
+        ComplexMatrixDenseSplit X = A.solve(B);
+        ComplexMatrixDenseSplit residual = A.multiply(X).subtract(B);
+        assertMatrixEquals(new ComplexMatrixDenseSplit(5, 2), A.conjugateTranspose().multiply(residual), 1e-12);
+    }
+}
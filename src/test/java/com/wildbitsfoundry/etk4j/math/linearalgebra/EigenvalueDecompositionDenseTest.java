@@ -0,0 +1,125 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EigenvalueDecompositionDenseTest {
+
+    private static MatrixDense randomSymmetric(int n, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[n * n];
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j <= i; ++j) {
+                double v = random.nextGaussian();
+                data[i * n + j] = v;
+                data[j * n + i] = v;
+            }
+        }
+        return new MatrixDense(data, n, n);
+    }
+
+    private static void assertEigenpairs(MatrixDense A, EigenvalueDecompositionDense eig, double tol) {
+        MatrixDense V = eig.getV();
+        MatrixDense residual = A.multiply(V).subtract(V.multiply(eig.getD()));
+        assertEquals(0.0, residual.normFrob() / A.normFrob(), tol);
+        int k = V.getColumnCount();
+        MatrixDense orthogonality = V.transpose().multiply(V).subtract(MatrixDense.Factory.identity(k, k));
+        assertEquals(0.0, orthogonality.normFrob(), tol * k);
+    }
+
+    @Test
+    public void testEigenvaluesOnlySymmetric() {
+        MatrixDense A = randomSymmetric(40, 1);
+        EigenvalueDecompositionDense full = new EigenvalueDecompositionDense(A, true, true);
+        EigenvalueDecompositionDense values = new EigenvalueDecompositionDense(A, true, false);
+        assertArrayEquals(full.getRealEigenvalues(), values.getRealEigenvalues(), 1e-12);
+        assertArrayEquals(new double[40], values.getImagEigenvalues(), 0.0);
+    }
+
+    @Test
+    public void testEigenvaluesOnlyNonsymmetric() {
+        Random random = new Random(2);
+        double[] data = new double[30 * 30];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = random.nextDouble() - 0.5;
+        }
+        MatrixDense A = new MatrixDense(data, 30, 30);
+        EigenvalueDecompositionDense full = new EigenvalueDecompositionDense(A, true, true);
+        EigenvalueDecompositionDense values = new EigenvalueDecompositionDense(A, true, false);
+        assertArrayEquals(full.getRealEigenvalues(), values.getRealEigenvalues(), 1e-12);
+        assertArrayEquals(full.getImagEigenvalues(), values.getImagEigenvalues(), 1e-12);
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testEigenvaluesOnlyHasNoVectors() {
+        new EigenvalueDecompositionDense(randomSymmetric(5, 3), true, false).getV();
+    }
+
+    @Test
+    public void testDivideAndConquer() {
+        int n = 3 * EigenvalueDecompositionDense.DIVIDE_AND_CONQUER_THRESHOLD;
+        MatrixDense A = randomSymmetric(n, 4);
+        EigenvalueDecompositionDense eig = A.eig();
+        assertEigenpairs(A, eig, 1e-13);
+        double[] values = new EigenvalueDecompositionDense(A, true, false).getRealEigenvalues();
+        assertArrayEquals(values, eig.getRealEigenvalues(), 1e-11);
+
+        // Repeated eigenvalues are deflated
+        double[] data = new double[n * n];
+        for (int i = 0; i < n; ++i) {
+            data[i * n + i] = i % 3;
+            if (i + 1 < n) {
+                data[i * n + i + 1] = i % 5 == 0 ? 0.0 : 1e-3;
+                data[(i + 1) * n + i] = data[i * n + i + 1];
+            }
+        }
+        A = new MatrixDense(data, n, n);
+        assertEigenpairs(A, A.eig(), 1e-13);
+    }
+
+    @Test
+    public void testSymmetricEigenpairs() {
+        MatrixDense A = randomSymmetric(60, 5);
+        double[] all = new EigenvalueDecompositionDense(A, true, false).getRealEigenvalues();
+
+        EigenvalueDecompositionDense largest = EigenvalueDecompositionDense.symmetricEigenpairs(A, 4, true);
+        assertEquals(60, largest.getV().getRowCount());
+        assertEquals(4, largest.getV().getColumnCount());
+        assertEigenpairs(A, largest, 1e-13);
+        for (int j = 0; j < 4; ++j) {
+            assertEquals(all[56 + j], largest.getRealEigenvalues()[j], 1e-12);
+        }
+
+        EigenvalueDecompositionDense smallest = EigenvalueDecompositionDense.symmetricEigenpairs(A, 3, false);
+        assertEigenpairs(A, smallest, 1e-13);
+        for (int j = 0; j < 3; ++j) {
+            assertEquals(all[j], smallest.getRealEigenvalues()[j], 1e-12);
+        }
+    }
+
+    @Test
+    public void testSymmetricEigenpairsRepeated() {
+        MatrixDense A = MatrixDense.Factory.identity(20, 20).multiply(2.0);
+        EigenvalueDecompositionDense eig = EigenvalueDecompositionDense.symmetricEigenpairs(A, 5, true);
+        assertEigenpairs(A, eig, 1e-13);
+        for (double v : eig.getRealEigenvalues()) {
+            assertEquals(2.0, v, 1e-14);
+        }
+        assertTrue(eig.getD().isSquare());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSymmetricEigenpairsNonsymmetric() {
+        EigenvalueDecompositionDense.symmetricEigenpairs(new MatrixDense(new double[][]{{1, 2}, {3, 4}}), 1, true);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testSymmetricEigenpairsTooMany() {
+        EigenvalueDecompositionDense.symmetricEigenpairs(randomSymmetric(4, 6), 5, true);
+    }
+}
@@ -0,0 +1,229 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class FillReducingOrderingTest {
+
+    // Arrow matrix, dense first row and column plus the diagonal. Eliminating node 0 first fills the whole matrix.
+    private static double[][] arrow(int n) {
+        double[][] A = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            A[i][i] = n;
+            A[0][i] = 1;
+            A[i][0] = 1;
+        }
+        A[0][0] = 2 * n;
+        return A;
+    }
+
+    // Random sparse diagonally dominant matrix, symmetric if requested
+    private static double[][] randomSparse(int n, int perRow, boolean symmetric, long seed) {
+        Random random = new Random(seed);
+        double[][] A = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int k = 0; k < perRow; ++k) {
+                int j = random.nextInt(n);
+                double v = random.nextDouble() - 0.5;
+                A[i][j] = v;
+                if (symmetric) {
+                    A[j][i] = v;
+                }
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            double sum = 0;
+            for (int j = 0; j < n; ++j) {
+                sum += Math.abs(A[i][j]) + Math.abs(A[j][i]);
+            }
+            A[i][i] = sum + 1;
+        }
+        return A;
+    }
+
+    private static double[] rhs(int n) {
+        double[] b = new double[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = Math.cos(i);
+        }
+        return b;
+    }
+
+    private static void assertPermutation(int[] q, int n) {
+        assertEquals(n, q.length);
+        boolean[] seen = new boolean[n];
+        for (int k : q) {
+            assertTrue(!seen[k]);
+            seen[k] = true;
+        }
+    }
+
+    @Test
+    public void testPermutations() {
+        MatrixSparse A = MatrixSparse.from2DArray(randomSparse(120, 3, false, 1));
+        for (FillReducingOrdering ordering : FillReducingOrdering.values()) {
+            int[] q = SparseOrderings.permutation(A, ordering, true);
+            if (ordering == FillReducingOrdering.NATURAL) {
+                assertNull(q);
+            } else {
+                assertPermutation(q, A.cols);
+            }
+        }
+        // Empty columns, disconnected components and a 1 x 1 matrix
+        MatrixSparse D = MatrixSparse.from2DArray(new double[][] {{1, 0, 0}, {0, 0, 0}, {0, 0, 3}});
+        assertPermutation(SparseOrderings.permutation(D, FillReducingOrdering.AMD, true), 3);
+        assertPermutation(SparseOrderings.permutation(D, FillReducingOrdering.RCM, true), 3);
+        assertPermutation(SparseOrderings.permutation(MatrixSparse.from2DArray(new double[][] {{2}}),
+                FillReducingOrdering.AMD, true), 1);
+    }
+
+    @Test
+    public void testAMDReducesFill() {
+        final int n = 60;
+        double[][] A = arrow(n);
+        double[] b = rhs(n);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+
+        CholeskyDecompositionSparse natural = sparse.Chol();
+        assertEquals(n * (n + 1) / 2, natural.getL().getNonZeroLength());
+        CholeskyDecompositionSparse amd = sparse.Chol(FillReducingOrdering.AMD);
+        assertTrue(amd.getL().getNonZeroLength() < 2 * n);
+        assertArrayEquals(expected, amd.solve(b).getArrayDense(), 1e-12);
+
+        LUDecompositionSparse lu = sparse.LU(FillReducingOrdering.AMD);
+        assertTrue(lu.getL().getNonZeroLength() + lu.getU().getNonZeroLength() < 4 * n);
+        assertArrayEquals(expected, lu.solve(b).getArrayDense(), 1e-12);
+    }
+
+    @Test
+    public void testLUOrderings() {
+        final int n = 150;
+        double[][] A = randomSparse(n, 3, false, 7);
+        double[] b = rhs(n);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        int naturalFill = fill(sparse.LU());
+        for (FillReducingOrdering ordering : FillReducingOrdering.values()) {
+            LUDecompositionSparse lu = sparse.LU(ordering);
+            assertArrayEquals(expected, lu.solve(b).getArrayDense(), 1e-10);
+            if (ordering == FillReducingOrdering.AMD || ordering == FillReducingOrdering.COLAMD) {
+                assertTrue(fill(lu) < naturalFill);
+            }
+        }
+
+        // Several right hand sides
+        double[][] B = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            B[i][0] = b[i];
+            B[i][1] = 1.0;
+        }
+        MatrixSparse X = sparse.LU(FillReducingOrdering.COLAMD).solve(MatrixSparse.from2DArray(B));
+        MatrixDense Xd = new MatrixDense(A).solve(new MatrixDense(B));
+        assertArrayEquals(Xd.getArray(), X.toDense().getArray(), 1e-10);
+    }
+
+    private static int fill(LUDecompositionSparse lu) {
+        return lu.getL().getNonZeroLength() + lu.getU().getNonZeroLength();
+    }
+
+    @Test
+    public void testCholeskyOrderings() {
+        final int n = 150;
+        double[][] A = randomSparse(n, 2, true, 11);
+        double[] b = rhs(n);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        int naturalFill = sparse.Chol().getL().getNonZeroLength();
+        for (FillReducingOrdering ordering : new FillReducingOrdering[] {FillReducingOrdering.NATURAL,
+                FillReducingOrdering.AMD, FillReducingOrdering.RCM}) {
+            CholeskyDecompositionSparse chol = sparse.Chol(ordering);
+            assertArrayEquals(expected, chol.solve(b).getArrayDense(), 1e-10);
+        }
+        assertTrue(sparse.Chol(FillReducingOrdering.AMD).getL().getNonZeroLength() < naturalFill);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testCholeskyColamd() {
+        MatrixSparse.from2DArray(arrow(5)).Chol(FillReducingOrdering.COLAMD);
+    }
+
+    @Test
+    public void testQROrderings() {
+        // Least squares with a tall matrix, compared against the normal equations
+        final int m = 200;
+        final int n = 60;
+        Random random = new Random(5);
+        double[][] A = new double[m][n];
+        for (int i = 0; i < m; ++i) {
+            A[i][i % n] = 1 + random.nextDouble();
+            for (int k = 0; k < 2; ++k) {
+                A[i][random.nextInt(n)] = random.nextDouble() - 0.5;
+            }
+        }
+        double[] b = rhs(m);
+        MatrixDense Ad = new MatrixDense(A);
+        MatrixDense At = Ad.transpose();
+        double[] expected = At.multiply(Ad).solve(At.multiply(new MatrixDense(b, m)).getArray()).getArray();
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        for (FillReducingOrdering ordering : FillReducingOrdering.values()) {
+            QRDecompositionSparse qr = sparse.QR(ordering);
+            assertArrayEquals(expected, qr.solve(b).getArrayDense(), 1e-9);
+        }
+        assertTrue(sparse.QR(FillReducingOrdering.COLAMD).getR().getNonZeroLength()
+                < sparse.QR().getR().getNonZeroLength());
+    }
+
+    @Test
+    public void testRCMReducesBandwidth() {
+        // 2D grid Laplacian with randomly numbered nodes
+        final int m = 12;
+        final int n = m * m;
+        int[] shuffle = new int[n];
+        for (int i = 0; i < n; ++i) {
+            shuffle[i] = i;
+        }
+        Random random = new Random(3);
+        for (int i = n - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            int tmp = shuffle[i];
+            shuffle[i] = shuffle[j];
+            shuffle[j] = tmp;
+        }
+        double[][] A = new double[n][n];
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < m; ++j) {
+                int k = shuffle[i * m + j];
+                A[k][k] = 4;
+                if (i > 0) A[k][shuffle[(i - 1) * m + j]] = -1;
+                if (i < m - 1) A[k][shuffle[(i + 1) * m + j]] = -1;
+                if (j > 0) A[k][shuffle[i * m + j - 1]] = -1;
+                if (j < m - 1) A[k][shuffle[i * m + j + 1]] = -1;
+            }
+        }
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        int[] q = SparseOrderings.permutation(sparse, FillReducingOrdering.RCM, true);
+        assertPermutation(q, n);
+        int[] qinv = SparseOrderings.inverse(q);
+        int bandwidth = 0;
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                if (A[i][j] != 0) {
+                    bandwidth = Math.max(bandwidth, Math.abs(qinv[i] - qinv[j]));
+                }
+            }
+        }
+        // The natural grid numbering has bandwidth m
+        assertTrue(bandwidth <= m + 1);
+
+        double[] b = rhs(n);
+        assertArrayEquals(new MatrixDense(A).solve(b).getArray(),
+                sparse.Chol(FillReducingOrdering.RCM).solve(b).getArrayDense(), 1e-12);
+    }
+}
@@ -3,6 +3,8 @@ package com.wildbitsfoundry.etk4j.math.linearalgebra;
 import org.junit.Test;
 
 import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 public class GaussSeidelSolverTest {
 
@@ -23,4 +25,57 @@ public class GaussSeidelSolverTest {
                 .solve().getValue();
         assertArrayEquals(new double[] {25.000000018889274, 35.71428570361077, 42.857142835082136, 35.7142856993259, 24.999999998928782}, x, 1e-12);
     }
+
+    @Test
+    public void testSolveSparse() {
+        double[][] A = {{4, -1, 0, 1, 0},
+                {-1, 4, -1, 0, 1},
+                {0, -1, 4, -1, 0},
+                {1, 0, -1, 4, -1},
+                {0, 1, 0, -1, 4}};
+
+        double[] b = {100, 100, 100, 100, 100};
+
+        double[] x = new GaussSeidelSolver(MatrixSparse.from2DArray(A), b)
+                .iterationLimit(20)
+                .tolerance(0.000001)
+                .solve().getValue();
+        assertArrayEquals(new double[] {25.000000018889274, 35.71428570361077, 42.857142835082136, 35.7142856993259, 24.999999998928782}, x, 1e-10);
+    }
+
+    @Test
+    public void testParallelRedBlackSweeps() {
+        // 5-point Laplacian on an m x m grid
+        final int m = 30;
+        final int n = m * m;
+        double[][] A = new double[n][n];
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < m; ++j) {
+                int k = i * m + j;
+                A[k][k] = 4.0;
+                if (i > 0) A[k][k - m] = -1.0;
+                if (i < m - 1) A[k][k + m] = -1.0;
+                if (j > 0) A[k][k - 1] = -1.0;
+                if (j < m - 1) A[k][k + 1] = -1.0;
+            }
+        }
+        double[] b = new double[n];
+        java.util.Arrays.fill(b, 1.0);
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        int[] order = new int[n];
+        IGrowArray colorPtr = new IGrowArray();
+        assertEquals(2, new RowCompressedMatrix(sparse).color(order, colorPtr));
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            IterativeSolverResults<double[]> results = new SuccessiveOverRelaxationSolver(sparse, b, 1.8)
+                    .iterationLimit(1000)
+                    .tolerance(1e-12)
+                    .parallel(parallel)
+                    .solve();
+            assertTrue(results.hasConverged());
+            assertArrayEquals(expected, results.getValue(), 1e-9);
+        }
+    }
 }
@@ -23,4 +23,25 @@ public class JacobiMethodSolverTest {
                 .solve().getValue();
         assertArrayEquals(new double[] {25.0, 35.71428544819355, 42.85714253783226, 35.71428544819355, 25.0}, x, 1e-12);
     }
+
+    @Test
+    public void testSolveSparse() {
+        double[][] A = {{4, -1, 0, 1, 0},
+                {-1, 4, -1, 0, 1},
+                {0, -1, 4, -1, 0},
+                {1, 0, -1, 4, -1},
+                {0, 1, 0, -1, 4}};
+
+        double[] b = {100, 100, 100, 100, 100};
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            double[] x = new JacobiMethodSolver(MatrixSparse.from2DArray(A), b)
+                    .iterationLimit(20)
+                    .tolerance(0.000001)
+                    .parallel(parallel)
+                    .solve().getValue();
+            assertArrayEquals(new double[] {25.0, 35.71428544819355, 42.85714253783226, 35.71428544819355, 25.0}, x,
+                    1e-10);
+        }
+    }
 }
@@ -0,0 +1,170 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class KrylovSolverTest {
+
+    // 5-point finite difference Laplacian on an m x m grid, optionally with a convection term to make it nonsymmetric
+    private static double[][] laplacian(int m, double convection) {
+        int n = m * m;
+        double[][] A = new double[n][n];
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < m; ++j) {
+                int k = i * m + j;
+                A[k][k] = 4.0;
+                if (i > 0) A[k][k - m] = -1.0;
+                if (i < m - 1) A[k][k + m] = -1.0;
+                if (j > 0) A[k][k - 1] = -1.0 - convection;
+                if (j < m - 1) A[k][k + 1] = -1.0 + convection;
+            }
+        }
+        return A;
+    }
+
+    private static double[] rhs(int n) {
+        double[] b = new double[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = Math.sin(0.1 * i) + 1.0;
+        }
+        return b;
+    }
+
+    @Test
+    public void testConjugateGradient() {
+        double[][] A = laplacian(15, 0.0);
+        double[] b = rhs(A.length);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        IterativeSolverResults<double[]> results = new ConjugateGradientSolver(MatrixSparse.from2DArray(A), b)
+                .tolerance(1e-12)
+                .solve();
+        assertTrue(results.hasConverged());
+        assertEquals("Converged", results.getSolverStatus());
+        assertTrue(results.getError() <= 1e-12);
+        // CG converges in at most n steps in exact arithmetic, much fewer for this spectrum
+        assertTrue(results.getNumberOfIterations() < A.length);
+        assertArrayEquals(expected, results.getValue(), 1e-9);
+    }
+
+    @Test
+    public void testConjugateGradientNotPositiveDefinite() {
+        double[][] A = {{1, 0}, {0, -1}};
+        IterativeSolverResults<double[]> results = new ConjugateGradientSolver(MatrixSparse.from2DArray(A),
+                new double[] {1, 1}).solve();
+        assertFalse(results.hasConverged());
+        assertEquals("Matrix is not positive definite", results.getSolverStatus());
+    }
+
+    @Test
+    public void testGMRES() {
+        double[][] A = laplacian(12, 0.4);
+        double[] b = rhs(A.length);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        IterativeSolverResults<double[]> results = new GMRESSolver(MatrixSparse.from2DArray(A), b)
+                .restart(20)
+                .tolerance(1e-11)
+                .solve();
+        assertTrue(results.hasConverged());
+        assertTrue(results.getError() <= 1e-11);
+        assertArrayEquals(expected, results.getValue(), 1e-8);
+
+        // Without restarts GMRES terminates in at most n iterations
+        double[][] small = {{2, 1, 0}, {-1, 3, 1}, {0, 2, 5}};
+        results = new GMRESSolver(MatrixSparse.from2DArray(small), new double[] {1, 2, 3}).tolerance(1e-14).solve();
+        assertTrue(results.hasConverged());
+        assertTrue(results.getNumberOfIterations() <= 3);
+        assertArrayEquals(new MatrixDense(small).solve(new double[] {1, 2, 3}).getArray(), results.getValue(), 1e-12);
+    }
+
+    @Test
+    public void testBiCGSTAB() {
+        double[][] A = laplacian(12, 0.4);
+        double[] b = rhs(A.length);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        IterativeSolverResults<double[]> results = new BiCGSTABSolver(MatrixSparse.from2DArray(A), b)
+                .tolerance(1e-11)
+                .solve();
+        assertTrue(results.hasConverged());
+        assertTrue(results.getError() <= 1e-11);
+        assertArrayEquals(expected, results.getValue(), 1e-8);
+    }
+
+    @Test
+    public void testMatrixFreeOperator() {
+        // Tridiagonal [-1 2 -1] never assembled
+        final int n = 200;
+        LinearOperator op = new LinearOperator() {
+            @Override
+            public int getRowCount() {
+                return n;
+            }
+
+            @Override
+            public int getColumnCount() {
+                return n;
+            }
+
+            @Override
+            public void multiply(double[] x, double[] y) {
+                for (int i = 0; i < n; ++i) {
+                    double v = 2 * x[i];
+                    if (i > 0) v -= x[i - 1];
+                    if (i < n - 1) v -= x[i + 1];
+                    y[i] = v;
+                }
+            }
+        };
+        // Exact solution x[i] = i + 1 gives b = 0 except at the last entry
+        double[] b = new double[n];
+        b[n - 1] = n + 1;
+        double[] expected = new double[n];
+        for (int i = 0; i < n; ++i) {
+            expected[i] = i + 1;
+        }
+        assertArrayEquals(expected, new ConjugateGradientSolver(op, b).tolerance(1e-13).solve().getValue(), 1e-8);
+        assertArrayEquals(expected, new GMRESSolver(op, b).restart(n).tolerance(1e-13).solve().getValue(), 1e-8);
+        assertArrayEquals(expected, new BiCGSTABSolver(op, b).iterationLimit(2000).tolerance(1e-13).solve().getValue(),
+                1e-6);
+    }
+
+    @Test
+    public void testInitialGuessAndLimit() {
+        double[][] A = laplacian(10, 0.0);
+        double[] b = rhs(A.length);
+        double[] x0 = new double[A.length];
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        IterativeSolverResults<double[]> results = new ConjugateGradientSolver(sparse, b)
+                .initialGuess(x0)
+                .iterationLimit(2)
+                .solve();
+        assertFalse(results.hasConverged());
+        assertEquals("Maximum number of iterations exceeded", results.getSolverStatus());
+        assertEquals(2, results.getNumberOfIterations());
+        // The initial guess is not modified
+        assertArrayEquals(new double[A.length], x0, 0.0);
+
+        double[] exact = new MatrixDense(A).solve(b).getArray();
+        results = new GMRESSolver(sparse, b).initialGuess(exact).solve();
+        assertTrue(results.hasConverged());
+        assertEquals(0, results.getNumberOfIterations());
+    }
+
+    @Test
+    public void testLinearOperatorFromMatrix() {
+        double[][] A = {{1, 2, 0}, {0, 3, 4}};
+        double[] x = {1, -1, 2};
+        double[] y = new double[2];
+        LinearOperator.fromMatrix(MatrixSparse.from2DArray(A)).multiply(x, y);
+        assertArrayEquals(new double[] {-1, 5}, y, 0.0);
+        y = new double[2];
+        LinearOperator.fromMatrix(new MatrixDense(A)).multiply(x, y);
+        assertArrayEquals(new double[] {-1, 5}, y, 0.0);
+    }
+}
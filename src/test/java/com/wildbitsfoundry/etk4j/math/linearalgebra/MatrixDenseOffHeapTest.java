@@ -0,0 +1,161 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MatrixDenseOffHeapTest {
+
+    private static MatrixDense random(int rows, int cols, long seed) {
+        Random random = new Random(seed);
+        double[] data = new double[rows * cols];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = random.nextDouble() - 0.5;
+        }
+        return new MatrixDense(data, rows, cols);
+    }
+
+    private static MatrixDense randomSPD(int n, long seed) {
+        MatrixDense A = random(n, n, seed);
+        MatrixDense S = A.multiply(A.transpose());
+        for (int i = 0; i < n; ++i) {
+            S.set(i, i, S.get(i, i) + n);
+        }
+        return S;
+    }
+
+    // Tiny segments, so that rows are split across segments
+    private static MatrixDenseOffHeap offHeap(MatrixDense A, int shift) {
+        MatrixDenseOffHeap B = new MatrixDenseOffHeap(A.getRowCount(), A.getColumnCount(), shift);
+        for (int i = 0; i < A.getRowCount(); ++i) {
+            B.setRow(i, 0, A.getArray(), i * A.getColumnCount(), A.getColumnCount());
+        }
+        return B;
+    }
+
+    @Test
+    public void testStorage() {
+        MatrixDense A = random(13, 7, 1);
+        MatrixDenseOffHeap B = offHeap(A, 4);
+        assertEquals(91, B.getElementCount());
+        assertArrayEquals(A.getArray(), B.toDense().getArray(), 0.0);
+        assertEquals(A.get(5, 3), B.get(5, 3), 0.0);
+        B.set(12, 6, 42.0);
+        assertEquals(42.0, B.copy().get(12, 6), 0.0);
+        assertArrayEquals(A.getArray(), new MatrixDenseOffHeap(A).toDense().getArray(), 0.0);
+
+        double[] row = new double[5];
+        B.getRow(2, 1, row, 0, 5);
+        assertArrayEquals(new double[] {A.get(2, 1), A.get(2, 2), A.get(2, 3), A.get(2, 4), A.get(2, 5)}, row, 0.0);
+    }
+
+    @Test(expected = ArrayIndexOutOfBoundsException.class)
+    public void testOutOfBounds() {
+        new MatrixDenseOffHeap(2, 2).get(2, 0);
+    }
+
+    @Test
+    public void testMultiply() {
+        for (int[] size : new int[][] {{9, 11, 5}, {200, 150, 120}}) {
+            MatrixDense A = random(size[0], size[1], 2);
+            MatrixDense B = random(size[1], size[2], 3);
+            MatrixDenseOffHeap C = offHeap(A, 6).multiply(offHeap(B, 5));
+            assertArrayEquals(A.multiply(B).getArray(), C.toDense().getArray(), 1e-12);
+
+            double[] x = new double[size[1]];
+            for (int i = 0; i < x.length; ++i) {
+                x[i] = Math.sin(i);
+            }
+            assertArrayEquals(A.multiply(new MatrixDense(x, x.length)).getArray(), offHeap(A, 6).multiply(x),
+                    1e-12);
+        }
+    }
+
+    @Test
+    public void testLU() {
+        final int n = 150;
+        MatrixDense A = random(n, n, 4);
+        LUDecompositionOffHeap lu = offHeap(A, 7).LU();
+        assertFalse(lu.isSingular());
+        assertEquals(A.det(), lu.det(), Math.abs(A.det()) * 1e-10);
+
+        int[] pivot = lu.getPivot();
+        MatrixDense LU = lu.getL().multiply(lu.getU()).toDense();
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                assertEquals(A.get(pivot[i], j), LU.get(i, j), 1e-12);
+            }
+        }
+
+        MatrixDense B = random(n, 3, 5);
+        assertArrayEquals(A.solve(B).getArray(), lu.solve(offHeap(B, 7)).toDense().getArray(), 1e-10);
+        double[] b = new double[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = Math.cos(i);
+        }
+        assertArrayEquals(A.solve(b).getArray(), lu.solve(b).toDense().getArray(), 1e-10);
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testLUSingular() {
+        MatrixDense A = new MatrixDense(new double[][] {{1, 2}, {2, 4}});
+        new MatrixDenseOffHeap(A).LU().solve(new double[] {1, 1});
+    }
+
+    @Test
+    public void testCholesky() {
+        final int n = 150;
+        MatrixDense A = randomSPD(n, 6);
+        CholeskyDecompositionOffHeap chol = offHeap(A, 7).Chol();
+        assertTrue(chol.isSPD());
+        MatrixDenseOffHeap L = chol.getL();
+        MatrixDense LLt = L.toDense().multiply(L.toDense().transpose());
+        assertArrayEquals(A.getArray(), LLt.getArray(), 1e-10);
+
+        MatrixDense B = random(n, 4, 7);
+        assertArrayEquals(A.solve(B).getArray(), chol.solve(offHeap(B, 5)).toDense().getArray(), 1e-12);
+
+        MatrixDense N = new MatrixDense(new double[][] {{1, 2}, {2, 1}});
+        assertFalse(new MatrixDenseOffHeap(N).Chol().isSPD());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testCholeskyNotSPD() {
+        MatrixDense N = new MatrixDense(new double[][] {{1, 2}, {2, 1}});
+        new MatrixDenseOffHeap(N).Chol().solve(new double[] {1, 1});
+    }
+
+    @Test
+    public void testMapped() throws IOException {
+        Path path = Files.createTempFile("etk4j", ".bin");
+        path.toFile().deleteOnExit();
+        MatrixDenseOffHeap A = MatrixIO.createMappedDense(path, 30, 20);
+        A.set(3, 4, 1.5);
+        A.set(29, 19, -2.0);
+
+        // Changes are written through to the file
+        MatrixDense heap = MatrixIO.readBinaryDense(path);
+        assertEquals(1.5, heap.get(3, 4), 0.0);
+        assertEquals(-2.0, heap.get(29, 19), 0.0);
+
+        MatrixDenseOffHeap R = MatrixIO.mapBinaryDense(path, FileChannel.MapMode.READ_ONLY);
+        assertArrayEquals(heap.getArray(), R.toDense().getArray(), 0.0);
+
+        MatrixDenseOffHeap P = MatrixIO.mapBinaryDense(path, FileChannel.MapMode.PRIVATE);
+        P.set(0, 0, 7.0);
+        assertEquals(0.0, MatrixIO.readBinaryDense(path).get(0, 0), 0.0);
+
+        MatrixDense D = random(40, 25, 8);
+        MatrixIO.writeBinary(offHeap(D, 5), path);
+        assertArrayEquals(D.getArray(), MatrixIO.readBinaryDense(path).getArray(), 0.0);
+    }
+}
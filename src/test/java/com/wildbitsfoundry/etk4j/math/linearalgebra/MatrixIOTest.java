@@ -0,0 +1,141 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+public class MatrixIOTest {
+
+    private static Path tempFile(String suffix) throws IOException {
+        Path path = Files.createTempFile("etk4j", suffix);
+        path.toFile().deleteOnExit();
+        return path;
+    }
+
+    private static MatrixSparse randomSparse(int rows, int cols, int nz, long seed) {
+        Random random = new Random(seed);
+        MatrixSparseTriplet triplet = new MatrixSparseTriplet(rows, cols);
+        for (int k = 0; k < nz; ++k) {
+            triplet.add(random.nextInt(rows), random.nextInt(cols), random.nextDouble() - 0.5);
+        }
+        return triplet.toMatrixSparse();
+    }
+
+    private static void assertSparseEquals(MatrixSparse expected, MatrixSparse actual) {
+        assertEquals(expected.getRowCount(), actual.getRowCount());
+        assertEquals(expected.getColumnCount(), actual.getColumnCount());
+        assertArrayEquals(expected.toDense().getArray(), actual.toDense().getArray(), 0.0);
+    }
+
+    @Test
+    public void testBinarySparse() throws IOException {
+        Path path = tempFile(".bin");
+        for (MatrixSparse A : new MatrixSparse[] {randomSparse(50, 37, 300, 1), randomSparse(20, 20, 51, 2),
+                new MatrixSparse(4, 3, 0)}) {
+            MatrixIO.writeBinary(A, path);
+            MatrixSparse B = MatrixIO.readBinarySparse(path);
+            assertEquals(A.getNonZeroLength(), B.getNonZeroLength());
+            assertArrayEquals(A.col_idx, B.col_idx);
+            assertArrayEquals(Arrays.copyOf(A.nz_rows, A.nz_length), B.nz_rows);
+            assertArrayEquals(Arrays.copyOf(A.nz_values, A.nz_length), B.nz_values, 0.0);
+            assertEquals(A.getNonZeroLength() == 0 || A.isIndicesSorted(), B.isIndicesSorted());
+        }
+    }
+
+    @Test
+    public void testBinaryDense() throws IOException {
+        Path path = tempFile(".bin");
+        double[] data = new double[300 * 200];
+        for (int i = 0; i < data.length; ++i) {
+            data[i] = Math.sin(i);
+        }
+        MatrixDense A = new MatrixDense(data, 300, 200);
+        MatrixIO.writeBinary(A, path);
+        MatrixDense B = MatrixIO.readBinaryDense(path);
+        assertEquals(300, B.getRowCount());
+        assertEquals(200, B.getColumnCount());
+        assertArrayEquals(data, B.getArray(), 0.0);
+        assertEquals(32 + 8L * data.length, Files.size(path));
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryWrongType() throws IOException {
+        Path path = tempFile(".bin");
+        MatrixIO.writeBinary(new MatrixDense(2, 2), path);
+        MatrixIO.readBinarySparse(path);
+    }
+
+    @Test(expected = IOException.class)
+    public void testBinaryNotAMatrix() throws IOException {
+        Path path = tempFile(".bin");
+        Files.write(path, new byte[64]);
+        MatrixIO.readBinaryDense(path);
+    }
+
+    @Test
+    public void testMatrixMarketRoundTrip() throws IOException {
+        Path path = tempFile(".mtx");
+        MatrixSparse A = randomSparse(30, 45, 200, 3);
+        MatrixIO.writeMatrixMarket(A, path);
+        assertSparseEquals(A, MatrixIO.readMatrixMarket(path));
+
+        MatrixDense D = new MatrixDense(new double[][] {{1, 0, 3}, {4, 5.5, 0}});
+        MatrixIO.writeMatrixMarket(D, path);
+        assertArrayEquals(D.getArray(), MatrixIO.readMatrixMarket(path).toDense().getArray(), 0.0);
+    }
+
+    @Test
+    public void testMatrixMarketSymmetric() throws IOException {
+        Path path = tempFile(".mtx");
+        Files.write(path, Arrays.asList(
+                "%%MatrixMarket matrix coordinate real symmetric",
+                "% comment",
+                "3 3 4",
+                "1 1 2.0",
+                "2 1 -1.0",
+                "3 2 -1.5",
+                "3 3 4"), StandardCharsets.US_ASCII);
+        double[] expected = {
+                2, -1, 0,
+                -1, 0, -1.5,
+                0, -1.5, 4
+        };
+        assertArrayEquals(expected, MatrixIO.readMatrixMarket(path).toDense().getArray(), 0.0);
+
+        Files.write(path, Arrays.asList(
+                "%%MatrixMarket matrix array real skew-symmetric",
+                "3 3",
+                "1", "2", "3"), StandardCharsets.US_ASCII);
+        expected = new double[] {
+                0, -1, -2,
+                1, 0, -3,
+                2, 3, 0
+        };
+        assertArrayEquals(expected, MatrixIO.readMatrixMarket(path).toDense().getArray(), 0.0);
+
+        Files.write(path, Arrays.asList(
+                "%%MatrixMarket matrix coordinate pattern general",
+                "2 2 2",
+                "1 2",
+                "2 1"), StandardCharsets.US_ASCII);
+        assertArrayEquals(new double[] {0, 1, 1, 0}, MatrixIO.readMatrixMarket(path).toDense().getArray(), 0.0);
+    }
+
+    @Test(expected = IOException.class)
+    public void testMatrixMarketMissingEntries() throws IOException {
+        Path path = tempFile(".mtx");
+        Files.write(path, Arrays.asList(
+                "%%MatrixMarket matrix coordinate real general",
+                "2 2 3",
+                "1 1 1.0"), StandardCharsets.US_ASCII);
+        MatrixIO.readMatrixMarket(path);
+    }
+}
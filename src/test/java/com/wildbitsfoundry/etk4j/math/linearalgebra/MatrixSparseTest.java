@@ -159,6 +159,86 @@ public class MatrixSparseTest {
         assertArrayEquals(expected, C.getArray(), 1e-12);
     }
 
+    @Test
+    public void testMultiplyVector() {
+        double[][] matrixA = {
+                {1, 0, 7},
+                {0, 5, 0},
+                {3, 0, 10},
+                {0, 2, 0}
+        };
+        MatrixSparse A = MatrixSparse.from2DArray(matrixA, ConstantsETK.DOUBLE_EPS);
+        double[] x = {1, -2, 3};
+        assertArrayEquals(new double[] {22, -10, 33, -4}, A.multiply(x), 1e-12);
+
+        double[] y = {1, 1, 1, 1};
+        double[] z = new double[3];
+        A.transposeMultiply(y, z);
+        assertArrayEquals(new double[] {4, 7, 17}, z, 1e-12);
+
+        MatrixDense B = new MatrixDense(new double[][] {{1, 2}, {0, 1}, {-1, 0}});
+        assertArrayEquals(new MatrixDense(matrixA).multiply(B).getArray(), A.multiply(B).getArray(), 1e-12);
+        MatrixDense D = new MatrixDense(new double[][] {{1, 2}, {0, 1}, {-1, 0}, {3, 3}});
+        assertArrayEquals(new MatrixDense(matrixA).transpose().multiply(D).getArray(),
+                A.transposeMultiply(D).getArray(), 1e-12);
+
+        MatrixDense empty = A.multiply(new MatrixDense(new double[0], 3, 0));
+        assertEquals(4, empty.getRowCount());
+        assertEquals(0, empty.getColumnCount());
+    }
+
+    // Products large enough to run in parallel
+    @Test
+    public void testMultiplyParallel() {
+        java.util.Random random = new java.util.Random(13);
+        double[][] a = new double[900][700];
+        for (int j = 0; j < 700; ++j) {
+            for (int k = 0; k < 60; ++k) {
+                a[random.nextInt(900)][j] = random.nextDouble() - 0.5;
+            }
+        }
+        double[][] b = new double[700][300];
+        for (int j = 0; j < 300; ++j) {
+            for (int k = 0; k < 8; ++k) {
+                b[random.nextInt(700)][j] = random.nextDouble() - 0.5;
+            }
+        }
+        MatrixSparse A = MatrixSparse.from2DArray(a);
+        MatrixSparse B = MatrixSparse.from2DArray(b);
+        MatrixDense Ad = new MatrixDense(a);
+        MatrixDense Bd = new MatrixDense(b);
+        assertArrayEquals(Ad.multiply(Bd).getArray(), A.multiply(B).toDense().getArray(), 1e-12);
+        assertArrayEquals(Ad.multiply(Bd).getArray(), A.multiply(Bd).getArray(), 1e-12);
+
+        double[] x = new double[700];
+        double[] xt = new double[900];
+        for (int i = 0; i < 900; ++i) {
+            xt[i] = Math.cos(i);
+            if (i < 700) {
+                x[i] = Math.sin(i);
+            }
+        }
+        assertArrayEquals(Ad.multiply(new MatrixDense(x, 700)).getArray(), A.multiply(x), 1e-12);
+        double[] ax = new double[900];
+        LinearOperator.fromMatrix(A).multiply(x, ax);
+        assertArrayEquals(A.multiply(x), ax, 1e-12);
+        double[] y = new double[700];
+        A.transposeMultiply(xt, y);
+        assertArrayEquals(Ad.transpose().multiply(new MatrixDense(xt, 900)).getArray(), y, 1e-12);
+        MatrixDense C = new MatrixDense(new double[900 * 4], 900, 4);
+        for (int i = 0; i < 900; ++i) {
+            for (int j = 0; j < 4; ++j) {
+                C.set(i, j, Math.sin(i * j));
+            }
+        }
+        assertArrayEquals(Ad.transpose().multiply(C).getArray(), A.transposeMultiply(C).getArray(), 1e-12);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testMultiplyInconsistentShapes() {
+        MatrixSparse.from2DArray(new double[][] {{1, 2}}).multiply(new double[] {1, 2, 3});
+    }
+
     @Test
     public void testGetArrayDense() {
         MatrixSparse identity = MatrixSparse.Factory.identity(4);
@@ -454,4 +534,46 @@ public class MatrixSparseTest {
         double[] expected = {110.8752235125764, -31.42490731167088, 209.5953908930501, -260.8458452894825};
         assertArrayEquals(expected, X.getNonZeroValues(), 1e-12);
     }
+
+    @Test
+    public void testQRDecompositionRefactorWithLockedStructure() {
+        double[][] matrix = {
+                {1, 4, 0},
+                {2, 0, 8},
+                {0, 6, 10},
+                {1, 0, 1},
+        };
+        double[] b = {1, 2, 0, 3};
+        QRDecompositionSparse sparseQR = new QRDecompositionSparse(MatrixSparse.from2DArray(matrix),
+                FillReducingOrdering.COLAMD);
+        sparseQR.setStructureLocked(true);
+        MatrixSparse R = sparseQR.getR();
+        for (double scale : new double[] {2, -0.5, 3}) {
+            double[][] scaled = new double[4][3];
+            for (int i = 0; i < 4; ++i) {
+                for (int j = 0; j < 3; ++j) {
+                    scaled[i][j] = matrix[i][j] * (1 + scale * (i + j));
+                }
+            }
+            assertTrue(sparseQR.decompose(MatrixSparse.from2DArray(scaled)));
+            assertSame(R, sparseQR.getR());
+            double[] expected = new QRDecompositionSparse(MatrixSparse.from2DArray(scaled)).solve(b).getArrayDense();
+            assertArrayEquals(expected, sparseQR.solve(b).getArrayDense(), 1e-12);
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testQRDecompositionLockedStructureRejectsMovedEntries() {
+        QRDecompositionSparse sparseQR = new QRDecompositionSparse(MatrixSparse.from2DArray(new double[][] {
+                {1, 4, 0},
+                {2, 0, 8},
+                {0, 6, 10},
+                {1, 0, 1}}));
+        sparseQR.setStructureLocked(true);
+        sparseQR.decompose(MatrixSparse.from2DArray(new double[][] {
+                {1, 4, 0},
+                {0, 2, 8},
+                {6, 0, 10},
+                {1, 0, 1}}));
+    }
 }
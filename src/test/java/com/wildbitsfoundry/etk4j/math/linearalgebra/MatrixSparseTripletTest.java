@@ -0,0 +1,86 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MatrixSparseTripletTest {
+
+    @Test
+    public void testToMatrixSparse() {
+        MatrixSparseTriplet triplet = new MatrixSparseTriplet(3, 4, 2);
+        triplet.add(2, 3, 1.0);
+        triplet.add(0, 0, 2.0);
+        triplet.add(2, 3, 4.0);
+        triplet.add(1, 0, -1.0);
+        triplet.add(0, 2, 3.0);
+        triplet.add(0, 0, 0.5);
+        triplet.add(1, 1, 1.0);
+        triplet.add(1, 1, -1.0);
+        assertEquals(8, triplet.size());
+
+        MatrixSparse A = triplet.toMatrixSparse();
+        double[] expected = {
+                2.5, 0, 3, 0,
+                -1, 0, 0, 0,
+                0, 0, 0, 5
+        };
+        assertArrayEquals(expected, A.toDense().getArray(), 0.0);
+        // Entries that cancel out are kept
+        assertEquals(5, A.getNonZeroLength());
+        assertTrue(A.isIndicesSorted());
+        assertArrayEquals(new int[] {0, 1, 1, 0, 2}, Arrays.copyOf(A.nz_rows, A.nz_length));
+
+        triplet.clear();
+        assertEquals(0, triplet.toMatrixSparse().getNonZeroLength());
+    }
+
+    // 1D bar elements on a chain of nodes, every interior node gets contributions from two elements
+    @Test
+    public void testAssemble() {
+        final int elements = 5000;
+        final int n = elements + 1;
+        double[][] ke = {{1, -1}, {-1, 1}};
+        MatrixSparse serial = MatrixSparseTriplet.assemble(n, n, elements,
+                (triplet, e) -> triplet.add(new int[] {e, e + 1}, new int[] {e, e + 1}, ke), false);
+        MatrixSparse parallel = MatrixSparseTriplet.assemble(n, n, elements,
+                (triplet, e) -> triplet.add(new int[] {e, e + 1}, new int[] {e, e + 1}, ke), true);
+        assertEquals(3 * n - 2, serial.getNonZeroLength());
+        assertArrayEquals(serial.col_idx, parallel.col_idx);
+        assertArrayEquals(Arrays.copyOf(serial.nz_rows, serial.nz_length),
+                Arrays.copyOf(parallel.nz_rows, parallel.nz_length));
+        assertArrayEquals(Arrays.copyOf(serial.nz_values, serial.nz_length),
+                Arrays.copyOf(parallel.nz_values, parallel.nz_length), 0.0);
+        assertEquals(1.0, serial.get(0, 0), 0.0);
+        assertEquals(2.0, serial.get(7, 7), 0.0);
+        assertEquals(-1.0, serial.get(8, 7), 0.0);
+        assertEquals(1.0, serial.get(elements, elements), 0.0);
+    }
+
+    @Test
+    public void testMatchesSet() {
+        Random random = new Random(29);
+        MatrixSparseTriplet triplet = new MatrixSparseTriplet(40, 30);
+        double[][] expected = new double[40][30];
+        for (int k = 0; k < 600; ++k) {
+            int i = random.nextInt(40);
+            int j = random.nextInt(30);
+            double v = random.nextDouble();
+            triplet.add(i, j, v);
+            expected[i][j] += v;
+        }
+        MatrixSparseTriplet copy = new MatrixSparseTriplet(40, 30);
+        copy.addAll(triplet);
+        assertArrayEquals(new MatrixDense(expected).getArray(), copy.toMatrixSparse().toDense().getArray(), 1e-14);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOutOfBounds() {
+        new MatrixSparseTriplet(2, 2).add(2, 0, 1.0);
+    }
+}
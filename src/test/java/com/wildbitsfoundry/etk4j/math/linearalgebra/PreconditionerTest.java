@@ -0,0 +1,143 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PreconditionerTest {
+
+    // 5-point finite difference Laplacian on an m x m grid with a convection term
+    private static double[][] convectionDiffusion(int m, double convection) {
+        int n = m * m;
+        double[][] A = new double[n][n];
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < m; ++j) {
+                int k = i * m + j;
+                A[k][k] = 4.0;
+                if (i > 0) A[k][k - m] = -1.0;
+                if (i < m - 1) A[k][k + m] = -1.0;
+                if (j > 0) A[k][k - 1] = -1.0 - convection;
+                if (j < m - 1) A[k][k + 1] = -1.0 + convection;
+            }
+        }
+        return A;
+    }
+
+    private static double[] ones(int n) {
+        double[] b = new double[n];
+        java.util.Arrays.fill(b, 1.0);
+        return b;
+    }
+
+    // Tridiagonal matrix assembled in reverse order so the row indices are not sorted
+    private static MatrixSparse tridiagonal(int n, double lower, double diagonal, double upper) {
+        MatrixSparse A = new MatrixSparse(n, n);
+        for (int i = n - 1; i >= 0; --i) {
+            if (i < n - 1) A.set(i + 1, i, lower);
+            A.set(i, i, diagonal + i);
+            if (i > 0) A.set(i - 1, i, upper);
+        }
+        return A;
+    }
+
+    @Test
+    public void testExactForTridiagonal() {
+        // Neither factorization produces fill-in on a tridiagonal matrix, so they are exact
+        final int n = 8;
+        double[] r = {1, -2, 3, 0.5, 2, -1, 4, 0};
+        double[] z = new double[n];
+
+        MatrixSparse A = tridiagonal(n, -1.5, 4.0, -0.5);
+        double[] expected = A.toDense().solve(r).getArray();
+        new IncompleteLUPreconditioner(A).apply(r, z);
+        assertArrayEquals(expected, z, 1e-12);
+
+        MatrixSparse S = tridiagonal(n, -1.0, 3.0, -1.0);
+        expected = S.toDense().solve(r).getArray();
+        new IncompleteCholeskyPreconditioner(S).apply(r, z);
+        assertArrayEquals(expected, z, 1e-12);
+    }
+
+    @Test
+    public void testJacobiAndSSOR() {
+        double[][] A = {{4, -1, 0}, {-1, 5, -2}, {0, -2, 6}};
+        double[] r = {1, 2, 3};
+        double[] z = new double[3];
+        new JacobiPreconditioner(MatrixSparse.from2DArray(A)).apply(r, z);
+        assertArrayEquals(new double[] {0.25, 0.4, 0.5}, z, 1e-15);
+
+        // With omega = 1, M = (D + L) * D^-1 * (D + U)
+        double[][] M = {{4, -1, 0}, {-1, 5 + 0.25, -2}, {0, -2, 6 + 0.8}};
+        new SSORPreconditioner(MatrixSparse.from2DArray(A)).apply(r, z);
+        assertArrayEquals(new MatrixDense(M).solve(r).getArray(), z, 1e-14);
+    }
+
+    @Test
+    public void testPreconditionedConjugateGradient() {
+        double[][] A = convectionDiffusion(20, 0.0);
+        // Badly scaled rows and columns to give the Jacobi preconditioner something to do
+        for (int i = 0; i < A.length; ++i) {
+            double si = 1.0 + (i % 7);
+            for (int j = 0; j < A.length; ++j) {
+                A[i][j] *= si * (1.0 + (j % 7));
+            }
+        }
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        double[] b = ones(A.length);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+
+        IterativeSolverResults<double[]> plain = new ConjugateGradientSolver(sparse, b).tolerance(1e-10).solve();
+        assertTrue(plain.hasConverged());
+        for (Preconditioner M : new Preconditioner[] {new JacobiPreconditioner(sparse),
+                new SSORPreconditioner(sparse, 1.2), new IncompleteCholeskyPreconditioner(sparse)}) {
+            IterativeSolverResults<double[]> results = new ConjugateGradientSolver(sparse, b)
+                    .tolerance(1e-10)
+                    .preconditioner(M)
+                    .solve();
+            assertTrue(results.hasConverged());
+            assertTrue(results.getNumberOfIterations() < plain.getNumberOfIterations());
+            assertArrayEquals(expected, results.getValue(), 1e-8 * maxAbs(expected));
+        }
+    }
+
+    @Test
+    public void testPreconditionedNonsymmetricSolvers() {
+        double[][] A = convectionDiffusion(20, 0.6);
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        double[] b = ones(A.length);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+        Preconditioner ilu = new IncompleteLUPreconditioner(sparse);
+
+        IterativeSolverResults<double[]> plain = new GMRESSolver(sparse, b).tolerance(1e-10).solve();
+        IterativeSolverResults<double[]> results = new GMRESSolver(sparse, b).tolerance(1e-10).preconditioner(ilu)
+                .solve();
+        assertTrue(results.hasConverged());
+        assertTrue(results.getNumberOfIterations() < plain.getNumberOfIterations());
+        assertArrayEquals(expected, results.getValue(), 1e-8);
+
+        plain = new BiCGSTABSolver(sparse, b).tolerance(1e-10).solve();
+        results = new BiCGSTABSolver(sparse, b).tolerance(1e-10).preconditioner(ilu).solve();
+        assertTrue(results.hasConverged());
+        assertTrue(results.getNumberOfIterations() < plain.getNumberOfIterations());
+        assertArrayEquals(expected, results.getValue(), 1e-8);
+    }
+
+    @Test(expected = SingularMatrixException.class)
+    public void testMissingDiagonal() {
+        new IncompleteLUPreconditioner(MatrixSparse.from2DArray(new double[][] {{0, 1}, {1, 0}}));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIncompleteCholeskyBreakdown() {
+        new IncompleteCholeskyPreconditioner(MatrixSparse.from2DArray(new double[][] {{1, 2}, {2, 1}}));
+    }
+
+    private static double maxAbs(double[] a) {
+        double max = 0.0;
+        for (double v : a) {
+            max = Math.max(max, Math.abs(v));
+        }
+        return max;
+    }
+}
@@ -0,0 +1,154 @@
+package com.wildbitsfoundry.etk4j.math.linearalgebra;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class SupernodalCholeskyDecompositionSparseTest {
+
+    // 7-point Laplacian on an m x m x m grid, the structure of a 3D finite element stiffness matrix
+    private static double[][] laplacian3D(int m) {
+        final int n = m * m * m;
+        double[][] A = new double[n][n];
+        for (int i = 0; i < m; ++i) {
+            for (int j = 0; j < m; ++j) {
+                for (int k = 0; k < m; ++k) {
+                    int row = (i * m + j) * m + k;
+                    A[row][row] = 6.5;
+                    if (i > 0) A[row][row - m * m] = A[row - m * m][row] = -1;
+                    if (j > 0) A[row][row - m] = A[row - m][row] = -1;
+                    if (k > 0) A[row][row - 1] = A[row - 1][row] = -1;
+                }
+            }
+        }
+        return A;
+    }
+
+    private static double[][] randomSPD(int n, int perRow, long seed) {
+        Random random = new Random(seed);
+        double[][] A = new double[n][n];
+        for (int i = 0; i < n; ++i) {
+            for (int k = 0; k < perRow; ++k) {
+                int j = random.nextInt(n);
+                A[i][j] = A[j][i] = random.nextDouble() - 0.5;
+            }
+        }
+        for (int i = 0; i < n; ++i) {
+            double sum = 0;
+            for (int j = 0; j < n; ++j) {
+                sum += Math.abs(A[i][j]);
+            }
+            A[i][i] = sum + 1;
+        }
+        return A;
+    }
+
+    private static double[] rhs(int n) {
+        double[] b = new double[n];
+        for (int i = 0; i < n; ++i) {
+            b[i] = Math.sin(i + 1);
+        }
+        return b;
+    }
+
+    @Test
+    public void testLaplacian3D() {
+        double[][] A = laplacian3D(8);
+        final int n = A.length;
+        double[] b = rhs(n);
+        double[] expected = new MatrixDense(A).solve(b).getArray();
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        for (FillReducingOrdering ordering : new FillReducingOrdering[] {FillReducingOrdering.NATURAL,
+                FillReducingOrdering.AMD, FillReducingOrdering.RCM}) {
+            for (boolean parallel : new boolean[] {false, true}) {
+                SupernodalCholeskyDecompositionSparse chol =
+                        new SupernodalCholeskyDecompositionSparse(sparse, ordering, parallel);
+                assertTrue(chol.isSPD());
+                assertTrue(chol.getSupernodeCount() < n);
+                assertArrayEquals(expected, chol.solve(b).getArrayDense(), 1e-12);
+            }
+        }
+
+        // Same fill as the column at a time factorization with the same ordering
+        SupernodalCholeskyDecompositionSparse chol = new SupernodalCholeskyDecompositionSparse(sparse);
+        assertEquals(new CholeskyDecompositionSparse(sparse, FillReducingOrdering.AMD).getL().getNonZeroLength(),
+                chol.getL().getNonZeroLength());
+    }
+
+    @Test
+    public void testFactor() {
+        double[][] A = randomSPD(60, 3, 17);
+        final int n = A.length;
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        SupernodalCholeskyDecompositionSparse chol = new SupernodalCholeskyDecompositionSparse(sparse);
+        int[] q = chol.getColumnPermutation();
+        MatrixDense L = chol.getL().toDense();
+        MatrixDense LLt = L.multiply(L.transpose());
+        for (int i = 0; i < n; ++i) {
+            for (int j = 0; j < n; ++j) {
+                assertEquals(A[q[i]][q[j]], LLt.get(i, j), 1e-12);
+            }
+        }
+
+        double[] b = rhs(n);
+        double[][] B = new double[n][2];
+        for (int i = 0; i < n; ++i) {
+            B[i][0] = b[i];
+            B[i][1] = 1.0;
+        }
+        MatrixSparse X = chol.solve(MatrixSparse.from2DArray(B));
+        assertArrayEquals(new MatrixDense(A).solve(new MatrixDense(B)).getArray(), X.toDense().getArray(), 1e-12);
+    }
+
+    @Test
+    public void testRefactor() {
+        double[][] A = laplacian3D(6);
+        final int n = A.length;
+        double[] b = rhs(n);
+        MatrixSparse sparse = MatrixSparse.from2DArray(A);
+        SupernodalCholeskyDecompositionSparse chol =
+                new SupernodalCholeskyDecompositionSparse(sparse, FillReducingOrdering.AMD, true);
+
+        // Same pattern, different values
+        for (int i = 0; i < n; ++i) {
+            A[i][i] += i % 5;
+            sparse.set(i, i, A[i][i]);
+        }
+        assertTrue(chol.decompose(sparse));
+        assertArrayEquals(new MatrixDense(A).solve(b).getArray(), chol.solve(b).getArrayDense(), 1e-12);
+
+        // Indefinite
+        sparse.set(3, 3, -10);
+        assertFalse(chol.decompose(sparse));
+        assertFalse(chol.isSPD());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void testNotSPD() {
+        double[][] A = {{1, 2}, {2, 1}};
+        new SupernodalCholeskyDecompositionSparse(MatrixSparse.from2DArray(A)).solve(new double[] {1, 1});
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRefactorDifferentPattern() {
+        SupernodalCholeskyDecompositionSparse chol =
+                new SupernodalCholeskyDecompositionSparse(MatrixSparse.from2DArray(randomSPD(20, 2, 1)));
+        chol.decompose(MatrixSparse.from2DArray(randomSPD(20, 3, 2)));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRefactorMovedEntries() {
+        double[][] A = laplacian3D(3);
+        SupernodalCholeskyDecompositionSparse chol =
+                new SupernodalCholeskyDecompositionSparse(MatrixSparse.from2DArray(A));
+        // Same number of non-zero entries, one off-diagonal pair moved
+        A[0][1] = A[1][0] = 0;
+        A[0][2] = A[2][0] = -1;
+        chol.decompose(MatrixSparse.from2DArray(A));
+    }
+}
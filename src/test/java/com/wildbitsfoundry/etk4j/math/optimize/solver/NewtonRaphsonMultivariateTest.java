@@ -1,9 +1,12 @@
 package com.wildbitsfoundry.etk4j.math.optimize.solver;
 
+import com.wildbitsfoundry.etk4j.math.calculus.JacobianCalculationSparseStrategy;
 import com.wildbitsfoundry.etk4j.math.function.MultivariateFunction;
 import com.wildbitsfoundry.etk4j.math.optimize.OptimizerStatusType;
 import org.junit.Test;
 
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class NewtonRaphsonMultivariateTest {
@@ -140,4 +143,32 @@ public class NewtonRaphsonMultivariateTest {
         assertEquals(4.498299174920495E-8, nr.getError(), 1e-12);
         assertTrue(nr.hasConverged());
     }
+
+    @Test
+    public void testNewtonRaphsonMethodSparseJacobian() {
+        // Broyden tridiagonal function
+        final int n = 50;
+        MultivariateFunction[] functions = new MultivariateFunction[n];
+        for (int i = 0; i < n; i++) {
+            final int k = i;
+            functions[i] = x -> (3 - 2 * x[k]) * x[k] - (k > 0 ? x[k - 1] : 0) - 2 * (k < n - 1 ? x[k + 1] : 0) + 1;
+        }
+        //Initial guess
+        double[] x0 = new double[n];
+        Arrays.fill(x0, -1);
+
+        JacobianCalculationSparseStrategy strategy = new JacobianCalculationSparseStrategy(
+                JacobianCalculationSparseStrategy.bandedPattern(n, 1, 1));
+        SolverResults<double[]> nr = new NewtonRaphsonMultivariate(functions, x0)
+                .setJacobianCalculationStrategy(strategy)
+                .tolerance(1e-10)
+                .solve();
+        assertEquals("Converged", nr.getSolverStatus());
+        assertTrue(nr.hasConverged());
+        assertTrue(nr.getError() <= 1e-10);
+        double[] x = nr.getValue();
+        for (MultivariateFunction function : functions) {
+            assertEquals(0.0, function.evaluateAt(x), 1e-10);
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.wildbitsfoundry.etk4j.math.polynomial;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class ChebyshevSeriesTest {
+
+    @Test
+    public void testAdaptiveFit() {
+        int[] evaluations = new int[1];
+        ChebyshevSeries cs = ChebyshevSeries.fit(x -> {
+            ++evaluations[0];
+            return Math.exp(x) * Math.sin(3 * x);
+        }, 0, 2);
+        assertTrue(cs.degree() < 40);
+        // Each point of the final grid is evaluated only once
+        assertTrue(evaluations[0] <= 65);
+        double[] x = new double[101];
+        double[] out = new double[x.length];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = 0.02 * i;
+            assertEquals(Math.exp(x[i]) * Math.sin(3 * x[i]), cs.evaluateAt(x[i]), 1e-13);
+        }
+        cs.evaluateAt(x, out);
+        for (int i = 0; i < x.length; ++i) {
+            assertEquals(cs.evaluateAt(x[i]), out[i], 1e-15);
+        }
+    }
+
+    @Test
+    public void testPolynomialIsExact() {
+        ChebyshevSeries cs = ChebyshevSeries.fit(x -> 4 * x * x * x - 3 * x, -1, 1);
+        // T3(x)
+        assertArrayEquals(new double[] { 0, 0, 0, 1 }, cs.getCoefficients(), 1e-15);
+
+        ChebyshevSeries interpolant = ChebyshevSeries.interpolate(x -> x * x, -1, 1, 5);
+        assertArrayEquals(new double[] { 0.5, 0, 0.5, 0, 0 }, interpolant.getCoefficients(), 1e-15);
+    }
+
+    @Test
+    public void testDerivativeAndIntegral() {
+        ChebyshevSeries cs = ChebyshevSeries.fit(Math::sin, -2, 3);
+        ChebyshevSeries d = cs.derivative();
+        ChebyshevSeries integral = cs.integral();
+        for (double x = -2; x <= 3; x += 0.1) {
+            assertEquals(Math.cos(x), d.evaluateAt(x), 1e-12);
+            assertEquals(Math.cos(x), cs.differentiate(x), 1e-12);
+            assertEquals(Math.cos(-2) - Math.cos(x), integral.evaluateAt(x), 1e-13);
+        }
+        assertEquals(Math.cos(-2) - Math.cos(3), cs.integrate(), 1e-13);
+        assertEquals(Math.cos(0.5) - Math.cos(1.5), cs.integrate(0.5, 1.5), 1e-13);
+    }
+
+    @Test
+    public void testRoots() {
+        ChebyshevSeries cs = ChebyshevSeries.fit(x -> Math.sin(x) - 0.5, 0, 10);
+        double[] roots = cs.calculateRoots();
+        double[] expected = { Math.PI / 6, 5 * Math.PI / 6, 13 * Math.PI / 6, 17 * Math.PI / 6 };
+        assertArrayEquals(expected, roots, 1e-12);
+
+        // High degree series are split before computing the roots
+        ChebyshevSeries damped = ChebyshevSeries.fit(x -> Math.cos(x) * Math.exp(-0.01 * x), 0, 200);
+        assertTrue(damped.degree() > 50);
+        roots = damped.calculateRoots();
+        assertEquals(64, roots.length);
+        for (int k = 0; k < roots.length; ++k) {
+            assertEquals(Math.PI / 2 + k * Math.PI, roots[k], 1e-10);
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNotSmooth() {
+        ChebyshevSeries.fit(x -> Math.signum(x - 0.3), -1, 1);
+    }
+}
@@ -2,6 +2,7 @@ package com.wildbitsfoundry.etk4j.math.polynomial;
 
 import org.junit.Test;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 public class LagrangePolynomialTest {
@@ -33,4 +34,50 @@ public class LagrangePolynomialTest {
         assertEquals(12.875000000000002, lagrangePolynomial.evaluateAt(3.5), 1e-12);
         assertEquals(15, lagrangePolynomial.evaluateAt(4), 1e-12);
     }
+
+    @Test
+    public void testAddNode() {
+        double[] x = {1, 2, 3, 4};
+        double[] y = {1, 10, 12, 15};
+        LagrangePolynomial lagrangePolynomial = new LagrangePolynomial(new double[] {1, 2, 3}, new double[] {1, 10, 12});
+        lagrangePolynomial.addNode(4, 15);
+        LagrangePolynomial expected = new LagrangePolynomial(x, y);
+        double[] xi = {1.5, 2.5, 3.5, 5.0};
+        assertArrayEquals(expected.evaluateAt(xi), lagrangePolynomial.evaluateAt(xi), 1e-12);
+        assertEquals(15, lagrangePolynomial.evaluateAt(4), 0.0);
+    }
+
+    @Test
+    public void testChebyshevFit() {
+        // Runge's function is well approximated at Chebyshev points
+        LagrangePolynomial runge = LagrangePolynomial.chebyshevFit(t -> 1.0 / (1.0 + 25.0 * t * t), -1, 1, 201);
+        for (double t = -1; t <= 1; t += 0.01) {
+            assertEquals(1.0 / (1.0 + 25.0 * t * t), runge.evaluateAt(t), 1e-13);
+        }
+
+        // Closed form weights agree with the general ones
+        double[] y = {0.5, -1.0, 2.0, 0.25, 3.0};
+        LagrangePolynomial cheb = LagrangePolynomial.chebyshevFit(2, 5, y);
+        double[] nodes = new double[y.length];
+        for (int j = 0; j < nodes.length; ++j) {
+            nodes[j] = 3.5 - 1.5 * Math.cos(j * Math.PI / (nodes.length - 1));
+        }
+        LagrangePolynomial general = new LagrangePolynomial(nodes, y);
+        double[] xi = {2.1, 2.9, 3.3, 4.4, 4.95};
+        assertArrayEquals(general.evaluateAt(xi), cheb.evaluateAt(xi), 1e-12);
+        assertArrayEquals(general.getWeights(), cheb.getWeights(), 1e-12);
+    }
+
+    @Test
+    public void testChebyshevFitAddNode() {
+        LagrangePolynomial cubic = LagrangePolynomial.chebyshevFit(t -> t * t * t, 0, 2, 4);
+        assertEquals(2.197, cubic.evaluateAt(1.3), 1e-12);
+        cubic.addNode(0.7, 0.343);
+        assertEquals(2.197, cubic.evaluateAt(1.3), 1e-12);
+
+        LagrangePolynomial even = LagrangePolynomial.chebyshevFit(t -> t * t, -1, 3, 5);
+        even.addNode(0.4, 0.16);
+        even.addNode(2.2, 4.84);
+        assertEquals(1.69, even.evaluateAt(1.3), 1e-12);
+    }
 }
@@ -131,4 +131,19 @@ public class Polynomial2DTest {
 		
 		
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void testPolynomial2DGridEvaluation() {
+		// The fit of degree 2 in x and y is exactly x^2 * y^2
+		Polynomial2D poly = polyFit2D(x, y, z, 2, 2);
+		double[] xi = { -3, 0, 1.25, 4.5, 10 };
+		double[] yi = { -1, 0.5, 6, 12 };
+		double[][] grid = new double[yi.length][xi.length];
+		poly.evaluateOnGrid(xi, yi, grid, true);
+		for (int i = 0; i < yi.length; ++i) {
+			for (int j = 0; j < xi.length; ++j) {
+				assertEquals(xi[j] * xi[j] * yi[i] * yi[i], grid[i][j], 1e-8);
+			}
+		}
+	}
+}
@@ -431,4 +431,28 @@ public class PolynomialTest {
         roots = poly.calculateRoots();
 		assertEquals(new Complex(-14.666666666666668, 19.999999999999996), polyValFromRoots(roots, new Complex(2, 2)));
     }
+
+    @Test
+    public void testBulkEvaluation() {
+        double[] coefficients = new double[40];
+        for (int i = 0; i < coefficients.length; ++i) {
+            coefficients[i] = Math.cos(i) / (i + 1);
+        }
+        double[] x = new double[5003];
+        for (int i = 0; i < x.length; ++i) {
+            x[i] = -1.1 + 2.2 * i / (x.length - 1);
+        }
+        double[] expected = new double[x.length];
+        for (int i = 0; i < x.length; ++i) {
+            expected[i] = Polynomial.polyVal(coefficients, x[i]);
+        }
+        assertArrayEquals(expected, Polynomial.polyVal(coefficients, x), 0.0);
+
+        double[] out = new double[x.length];
+        Polynomial.polyVal(coefficients, x, out, true);
+        assertArrayEquals(expected, out, 0.0);
+
+        Polynomial poly = new Polynomial(coefficients);
+        assertArrayEquals(expected, poly.evaluateAt(x), 0.0);
+    }
 }